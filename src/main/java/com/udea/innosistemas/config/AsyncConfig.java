@@ -1,9 +1,17 @@
 package com.udea.innosistemas.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Configuración para habilitar procesamiento asíncrono y tareas programadas
  * Permite que los eventos de notificaciones se procesen en hilos separados
@@ -16,6 +24,27 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 @EnableAsync
 @EnableScheduling
 public class AsyncConfig {
-    // La configuración por defecto de Spring es suficiente para este caso
-    // Si se necesita personalizar el executor de tareas, se puede hacer aquí
+
+    public static final String AUTH_IO_EXECUTOR = "authIoExecutor";
+
+    /**
+     * Pool para la parte de E/S del login (firma, Redis) que sigue a la verificación de la contraseña,
+     * de modo que los hilos del pool de hashing solo calculan BCrypt. No es un TaskExecutor, así que
+     * no cambia el executor que usa {@code @Async}. Con la cola llena la tarea corre en el hilo que la envía.
+     */
+    @Bean(name = AUTH_IO_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService authIoExecutor(
+            @Value("${innosistemas.auth.token-issuance.pool-size:4}") int poolSize,
+            @Value("${innosistemas.auth.token-issuance.queue-capacity:256}") int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        int threads = Math.max(1, poolSize);
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "auth-io-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
 }
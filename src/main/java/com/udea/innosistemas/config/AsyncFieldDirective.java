@@ -0,0 +1,228 @@
+package com.udea.innosistemas.config;
+
+import graphql.GraphQLContext;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.idl.SchemaDirectiveWiring;
+import graphql.schema.idl.SchemaDirectiveWiringEnvironment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementación de la directiva @async para GraphQL.
+ * Los campos marcados se resuelven en un pool dedicado y devuelven un {@link CompletableFuture}, de modo
+ * que graphql-java resuelve en paralelo los campos hermanos independientes (por ejemplo, las consultas
+ * raíz de un dashboard) y la latencia de la operación es la del campo más lento en lugar de la suma.
+ *
+ * El contexto de seguridad de la petición se propaga a los hilos del pool (lo usan @auth y
+ * {@code @PreAuthorize}). Cada operación tiene un tope de campos en paralelo para no acaparar el pool de
+ * conexiones de la base de datos; los campos que exceden el tope esperan en una cola de la operación,
+ * sin bloquear hilos. Si la cola del pool está llena, el campo se resuelve en el hilo que lo pidió,
+ * como si no tuviera la directiva.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Component
+public class AsyncFieldDirective implements SchemaDirectiveWiring {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncFieldDirective.class);
+    private static final String METRIC_PREFIX = "innosistemas.graphql.async";
+    private static final String LIMITER_KEY = OperationLimiter.class.getName();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${innosistemas.graphql.async.enabled:true}")
+    private boolean enabled;
+
+    @Value("${innosistemas.graphql.async.pool-size:4}")
+    private int poolSize;
+
+    @Value("${innosistemas.graphql.async.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${innosistemas.graphql.async.max-concurrency-per-operation:3}")
+    private int maxConcurrencyPerOperation;
+
+    private ThreadPoolExecutor executor;
+    private Timer queueWaitTimer;
+    private Counter inlineCounter;
+
+    @PostConstruct
+    public void init() {
+        int threads = Math.max(1, poolSize);
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                threadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        queueWaitTimer = Timer.builder(METRIC_PREFIX + ".queue.wait")
+                .description("Tiempo entre la petición de un campo @async y el inicio de su resolución")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        inlineCounter = Counter.builder(METRIC_PREFIX + ".inline")
+                .description("Campos @async resueltos en el hilo de la petición por cola llena")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Campos @async resolviéndose en el pool")
+                .register(meterRegistry);
+
+        logger.info("GraphQL async field pool initialized: threads={}, queueCapacity={}, perOperation={}",
+                threads, queueCapacity, maxConcurrencyPerOperation);
+    }
+
+    @Override
+    public GraphQLFieldDefinition onField(SchemaDirectiveWiringEnvironment<GraphQLFieldDefinition> environment) {
+        GraphQLFieldDefinition field = environment.getElement();
+        FieldCoordinates coordinates = FieldCoordinates.coordinates(
+                environment.getFieldsContainer().getName(),
+                field.getName()
+        );
+        DataFetcher<?> originalDataFetcher = environment.getCodeRegistry().getDataFetcher(coordinates, field);
+
+        DataFetcher<?> asyncDataFetcher = dataFetchingEnvironment -> enabled
+                ? fetchAsync(originalDataFetcher, dataFetchingEnvironment)
+                : originalDataFetcher.get(dataFetchingEnvironment);
+
+        environment.getCodeRegistry().dataFetcher(coordinates, asyncDataFetcher);
+        return field;
+    }
+
+    private CompletableFuture<Object> fetchAsync(DataFetcher<?> dataFetcher, DataFetchingEnvironment environment) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        OperationLimiter limiter = limiter(environment);
+        long requestedAt = System.nanoTime();
+
+        Runnable fetch = () -> {
+            queueWaitTimer.record(System.nanoTime() - requestedAt, TimeUnit.NANOSECONDS);
+            try {
+                Object value = dataFetcher.get(environment);
+                if (value instanceof CompletionStage<?> stage) {
+                    stage.whenComplete((resolved, error) -> {
+                        if (error != null) {
+                            result.completeExceptionally(error);
+                        } else {
+                            result.complete(resolved);
+                        }
+                    });
+                } else {
+                    result.complete(value);
+                }
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                limiter.release();
+            }
+        };
+        limiter.submit(new DelegatingSecurityContextRunnable(fetch, SecurityContextHolder.getContext()));
+        return result;
+    }
+
+    // Un limitador por operación, compartido por todos sus campos @async
+    private OperationLimiter limiter(DataFetchingEnvironment environment) {
+        GraphQLContext context = environment.getGraphQlContext();
+        if (context == null) {
+            return new OperationLimiter(maxConcurrencyPerOperation);
+        }
+        synchronized (context) {
+            OperationLimiter limiter = context.get(LIMITER_KEY);
+            if (limiter == null) {
+                limiter = new OperationLimiter(maxConcurrencyPerOperation);
+                context.put(LIMITER_KEY, limiter);
+            }
+            return limiter;
+        }
+    }
+
+    private void dispatch(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            inlineCounter.increment();
+            logger.debug("GraphQL async pool saturated - resolving field inline");
+            task.run();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "graphql-async-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Tope de campos en vuelo de una operación. Los campos que no caben esperan en una cola y se
+     * despachan cuando termina otro, sin bloquear el hilo que los pidió.
+     */
+    private final class OperationLimiter {
+
+        private final int maxConcurrency;
+        private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private OperationLimiter(int maxConcurrency) {
+            this.maxConcurrency = Math.max(1, maxConcurrency);
+        }
+
+        private void submit(Runnable task) {
+            pending.add(task);
+            drain();
+        }
+
+        private void release() {
+            inFlight.decrementAndGet();
+            drain();
+        }
+
+        private void drain() {
+            while (!pending.isEmpty()) {
+                int current = inFlight.get();
+                if (current >= maxConcurrency) {
+                    return;
+                }
+                if (!inFlight.compareAndSet(current, current + 1)) {
+                    continue;
+                }
+                Runnable task = pending.poll();
+                if (task == null) {
+                    inFlight.decrementAndGet();
+                } else {
+                    dispatch(task);
+                }
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.udea.innosistemas.config;
 
 import com.udea.innosistemas.security.directive.AuthDirective;
 import com.udea.innosistemas.security.directive.RequiresCourseDirective;
+import com.udea.innosistemas.security.directive.RequiresPermissionDirective;
 import com.udea.innosistemas.security.directive.RequiresTeamDirective;
 import graphql.schema.idl.RuntimeWiring;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,8 +12,8 @@ import org.springframework.graphql.execution.RuntimeWiringConfigurer;
 
 /**
  * Configuración para registrar las directivas personalizadas de GraphQL.
- * Registra las directivas @auth, @requiresTeam y @requiresCourse para
- * validación de permisos a nivel de campo.
+ * Registra las directivas @auth, @requiresTeam, @requiresCourse y @requiresPermission
+ * para validación de permisos a nivel de campo, y @async para resolver campos en paralelo.
  *
  * Autor: Fábrica-Escuela de Software UdeA
  * Versión: 1.0.0
@@ -29,6 +30,12 @@ public class GraphQLDirectivesConfig {
     @Autowired
     private RequiresCourseDirective requiresCourseDirective;
 
+    @Autowired
+    private RequiresPermissionDirective requiresPermissionDirective;
+
+    @Autowired
+    private AsyncFieldDirective asyncFieldDirective;
+
     /**
      * Configura el RuntimeWiring de GraphQL para registrar las directivas personalizadas.
      *
@@ -39,6 +46,9 @@ public class GraphQLDirectivesConfig {
         return wiringBuilder -> wiringBuilder
                 .directive("auth", authDirective)
                 .directive("requiresTeam", requiresTeamDirective)
-                .directive("requiresCourse", requiresCourseDirective);
+                .directive("requiresCourse", requiresCourseDirective)
+                .directive("requiresPermission", requiresPermissionDirective)
+                // Después de las de seguridad en el esquema: las comprobaciones corren ya en el pool
+                .directive("async", asyncFieldDirective);
     }
 }
@@ -0,0 +1,127 @@
+package com.udea.innosistemas.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udea.innosistemas.repository.UserRepository;
+import com.udea.innosistemas.security.GraphQLOperationClassifier;
+import com.udea.innosistemas.service.NotificationService;
+import com.udea.innosistemas.service.PersistedQueryService;
+import com.udea.innosistemas.service.RateLimitingService;
+import com.udea.innosistemas.service.TeamService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.function.RequestPredicates;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+/**
+ * Configuración de Automatic Persisted Queries y de la caché de documentos GraphQL.
+ * Registra {@link PersistedQueryService} como proveedor de documentos preparseados de graphql-java
+ * y sirve el endpoint GraphQL con {@link PersistedQueryHttpHandler}, por delante de la ruta por defecto,
+ * para aceptar peticiones POST que solo envían el hash, lotes de operaciones y peticiones GET. Las peticiones POST que aceptan
+ * {@code multipart/mixed} las atiende primero {@link IncrementalDeliveryHttpHandler} (entrega con {@code @stream}).
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Configuration
+public class GraphQLPersistedQueryConfig {
+
+    @Value("${spring.graphql.path:/graphql}")
+    private String graphQlPath;
+
+    @Autowired
+    private PersistedQueryService persistedQueryService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private TeamService teamService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RateLimitingService rateLimitingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${innosistemas.graphql.batch.enabled:true}")
+    private boolean batchEnabled;
+
+    @Value("${innosistemas.graphql.batch.max-operations:10}")
+    private int batchMaxOperations;
+
+    @Value("${innosistemas.graphql.incremental.enabled:true}")
+    private boolean incrementalEnabled;
+
+    @Value("${innosistemas.graphql.incremental.batch-size:100}")
+    private int incrementalBatchSize;
+
+    @Value("${innosistemas.graphql.incremental.max-initial-count:100}")
+    private int incrementalMaxInitialCount;
+
+    /**
+     * Usa la caché de documentos parseados y validados en lugar de parsear cada petición.
+     *
+     * @return Customizer del GraphQlSource
+     */
+    @Bean
+    public GraphQlSourceBuilderCustomizer persistedQuerySourceCustomizer() {
+        return builder -> builder.configureGraphQl(graphQl ->
+                graphQl.preparsedDocumentProvider(persistedQueryService.documentProvider()));
+    }
+
+    /**
+     * Rutas del endpoint GraphQL con APQ y entrega incremental; se evalúan antes que la ruta por defecto de
+     * Spring GraphQL.
+     * GET solo se atiende si trae consulta o extensiones; en otro caso sigue respondiendo la ruta por defecto.
+     *
+     * @return RouterFunction del endpoint GraphQL
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public RouterFunction<ServerResponse> persistedQueryRouterFunction(WebGraphQlHandler webGraphQlHandler,
+                                                                       GraphQLOperationClassifier operationClassifier,
+                                                                       ObjectMapper objectMapper) {
+        DistributionSummary batchSizes = DistributionSummary.builder("innosistemas.graphql.batch.size")
+                .description("Operaciones por petición HTTP en los lotes GraphQL")
+                .register(meterRegistry);
+        PersistedQueryHttpHandler handler = new PersistedQueryHttpHandler(
+                webGraphQlHandler, persistedQueryService, operationClassifier, objectMapper,
+                rateLimitingService, batchEnabled ? batchMaxOperations : 0, batchSizes);
+        RouterFunctions.Builder routes = RouterFunctions.route();
+        if (incrementalEnabled) {
+            IncrementalDeliveryHttpHandler incrementalHandler = new IncrementalDeliveryHttpHandler(handler,
+                    webGraphQlHandler, operationClassifier, notificationService, teamService, userRepository,
+                    objectMapper, entityManagerFactory, incrementalBatchSize, incrementalMaxInitialCount);
+            routes.POST(graphQlPath, RequestPredicates.contentType(MediaType.APPLICATION_JSON)
+                            .and(IncrementalDeliveryHttpHandler.acceptsMultipart()),
+                    incrementalHandler::handlePost);
+        }
+        return routes
+                .POST(graphQlPath, RequestPredicates.contentType(MediaType.APPLICATION_JSON)
+                                .and(RequestPredicates.accept(PersistedQueryHttpHandler.SUPPORTED_MEDIA_TYPES
+                                        .toArray(MediaType[]::new))),
+                        handler::handlePost)
+                .GET(graphQlPath, RequestPredicates.param("query", value -> true)
+                                .or(RequestPredicates.param("extensions", value -> true)),
+                        handler::handleGet)
+                .build();
+    }
+}
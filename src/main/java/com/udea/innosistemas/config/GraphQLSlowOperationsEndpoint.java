@@ -0,0 +1,31 @@
+package com.udea.innosistemas.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Endpoint de Actuator ({@code /actuator/graphqlslow}) con las operaciones GraphQL lentas recientes.
+ * Solo accesible para administradores (ver {@link SecurityConfig}); las variables ya vienen redactadas.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Component
+@Endpoint(id = "graphqlslow")
+public class GraphQLSlowOperationsEndpoint {
+
+    @Autowired
+    private GraphQLTimingInstrumentation timingInstrumentation;
+
+    /**
+     * @return Operaciones lentas recientes, de la más lenta a la más rápida
+     */
+    @ReadOperation
+    public List<GraphQLTimingInstrumentation.SlowOperation> slowOperations() {
+        return timingInstrumentation.slowOperations();
+    }
+}
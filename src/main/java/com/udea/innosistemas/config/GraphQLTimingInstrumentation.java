@@ -0,0 +1,292 @@
+package com.udea.innosistemas.config;
+
+import graphql.ExecutionResult;
+import graphql.execution.ExecutionStepInfo;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.language.OperationDefinition;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instrumentación de tiempos de GraphQL por operación y por resolver.
+ *
+ * En una fracción muestreada de las operaciones ({@code sample-rate}) se registran histogramas de latencia
+ * de la operación, etiquetado por nombre de operación, y de cada data fetcher no trivial, etiquetado solo por
+ * coordenadas del campo ({@code Tipo.campo}) para no multiplicar las series por operación. Los nombres de
+ * operación los elige el cliente, así que las etiquetas distintas se acotan: pasado el máximo, los valores
+ * nuevos se agrupan como {@code other}. Los timers se registran una vez por combinación de etiquetas y se
+ * reutilizan desde un mapa local.
+ *
+ * Todas las operaciones (muestreadas o no) se cronometran para el registro de operaciones lentas: las que
+ * superan el umbral entran en un buffer circular, con sus variables redactadas y, si la operación fue
+ * muestreada, los resolvers más lentos. El buffer se consulta con {@link GraphQLSlowOperationsEndpoint}.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Component
+public class GraphQLTimingInstrumentation extends SimplePerformantInstrumentation {
+
+    private static final Logger logger = LoggerFactory.getLogger(GraphQLTimingInstrumentation.class);
+
+    static final String OTHER = "other";
+    private static final String ANONYMOUS = "anonymous";
+    private static final String REDACTED = "***";
+    private static final int SLOWEST_FIELDS = 5;
+
+    @Value("${innosistemas.graphql.timing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${innosistemas.graphql.timing.sample-rate:0.1}")
+    private double sampleRate;
+
+    @Value("${innosistemas.graphql.timing.slow-threshold-ms:500}")
+    private long slowThresholdMs;
+
+    @Value("${innosistemas.graphql.timing.slow-log-size:50}")
+    private int slowLogSize;
+
+    @Value("${innosistemas.graphql.timing.max-operation-tags:100}")
+    private int maxOperationTags;
+
+    @Value("${innosistemas.graphql.timing.max-field-tags:500}")
+    private int maxFieldTags;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Set<String> operationTags = ConcurrentHashMap.newKeySet();
+    private final Set<String> fieldTags = ConcurrentHashMap.newKeySet();
+    private final Map<OperationTimerKey, Timer> operationTimers = new ConcurrentHashMap<>();
+    private final Map<ResolverTimerKey, Timer> resolverTimers = new ConcurrentHashMap<>();
+
+    private SlowOperation[] slowLog;
+    private long slowLogNext;
+
+    /**
+     * Tiempo acumulado de un resolver dentro de una operación
+     */
+    public record FieldTiming(String field, long calls, double totalMs) {
+    }
+
+    /**
+     * Operación que superó el umbral de lentitud
+     */
+    public record SlowOperation(Instant timestamp, String operationName, String operationType, double durationMs,
+                                int errors, Map<String, Object> variables, List<FieldTiming> slowestFields) {
+    }
+
+    // Combinaciones de etiquetas de cada timer, acotadas por maxOperationTags y maxFieldTags
+    private record OperationTimerKey(String operation, String type, boolean success) {
+    }
+
+    private record ResolverTimerKey(String field, boolean success) {
+    }
+
+    // Estado por operación: inicio, si está muestreada y los tiempos acumulados por resolver
+    private static final class TimingState implements InstrumentationState {
+
+        private final boolean sampled;
+        private final Map<String, long[]> fieldNanos;
+        private volatile String operationName = ANONYMOUS;
+        private volatile String operationType = "unknown";
+
+        private TimingState(boolean sampled) {
+            this.sampled = sampled;
+            this.fieldNanos = sampled ? new ConcurrentHashMap<>() : Map.of();
+        }
+
+        private void recordField(String field, long nanos) {
+            fieldNanos.compute(field, (key, totals) -> {
+                long[] updated = totals != null ? totals : new long[2];
+                updated[0]++;
+                updated[1] += nanos;
+                return updated;
+            });
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        slowLog = new SlowOperation[Math.max(1, slowLogSize)];
+    }
+
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        if (!enabled) {
+            return null;
+        }
+        return new TimingState(sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters,
+                                                                  InstrumentationState state) {
+        if (!(state instanceof TimingState timing)) {
+            return super.beginExecution(parameters, state);
+        }
+        long start = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((result, throwable) -> {
+            long nanos = System.nanoTime() - start;
+            String operationName = timing.operationName;
+            int errors = result != null ? result.getErrors().size() : 1;
+
+            if (timing.sampled) {
+                operationTimer(new OperationTimerKey(bounded(operationTags, maxOperationTags, operationName),
+                        timing.operationType, errors == 0)).record(nanos, TimeUnit.NANOSECONDS);
+            }
+            if (nanos >= TimeUnit.MILLISECONDS.toNanos(slowThresholdMs)) {
+                logger.warn("Slow GraphQL operation {} ({}): {} ms", operationName, timing.operationType,
+                        TimeUnit.NANOSECONDS.toMillis(nanos));
+                recordSlow(new SlowOperation(Instant.now(), operationName, timing.operationType, nanos / 1e6, errors,
+                        redact(parameters.getVariables()), slowestFields(timing)));
+            }
+        });
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        if (state instanceof TimingState timing) {
+            OperationDefinition operation = parameters.getExecutionContext().getOperationDefinition();
+            if (operation.getName() != null) {
+                timing.operationName = operation.getName();
+            }
+            timing.operationType = operation.getOperation().name().toLowerCase(Locale.ROOT);
+        }
+        return super.beginExecuteOperation(parameters, state);
+    }
+
+    @Override
+    public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters,
+                                                          InstrumentationState state) {
+        // Los fetchers triviales (propiedades de un objeto ya cargado) no aportan información
+        if (!(state instanceof TimingState timing) || !timing.sampled || parameters.isTrivialDataFetcher()) {
+            return super.beginFieldFetch(parameters, state);
+        }
+        ExecutionStepInfo stepInfo = parameters.getExecutionStepInfo();
+        String field = stepInfo.getObjectType().getName() + "." + stepInfo.getFieldDefinition().getName();
+        long start = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((result, throwable) -> {
+            long nanos = System.nanoTime() - start;
+            timing.recordField(field, nanos);
+            resolverTimer(new ResolverTimerKey(bounded(fieldTags, maxFieldTags, field), throwable == null))
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        });
+    }
+
+    private Timer operationTimer(OperationTimerKey key) {
+        Timer timer = operationTimers.get(key);
+        if (timer != null) {
+            return timer;
+        }
+        return operationTimers.computeIfAbsent(key, k -> Timer.builder("innosistemas.graphql.operation.duration")
+                .description("Latencia de las operaciones GraphQL muestreadas")
+                .tag("operation", k.operation())
+                .tag("type", k.type())
+                .tag("outcome", outcome(k.success()))
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry));
+    }
+
+    private Timer resolverTimer(ResolverTimerKey key) {
+        Timer timer = resolverTimers.get(key);
+        if (timer != null) {
+            return timer;
+        }
+        return resolverTimers.computeIfAbsent(key, k -> Timer.builder("innosistemas.graphql.resolver.duration")
+                .description("Latencia de los resolvers GraphQL en operaciones muestreadas")
+                .tag("field", k.field())
+                .tag("outcome", outcome(k.success()))
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry));
+    }
+
+    private static String outcome(boolean success) {
+        return success ? "success" : "error";
+    }
+
+    /**
+     * @return Operaciones lentas recientes, de la más lenta a la más rápida
+     */
+    public List<SlowOperation> slowOperations() {
+        List<SlowOperation> operations = new ArrayList<>(slowLog.length);
+        synchronized (this) {
+            for (SlowOperation operation : slowLog) {
+                if (operation != null) {
+                    operations.add(operation);
+                }
+            }
+        }
+        operations.sort(Comparator.comparingDouble(SlowOperation::durationMs).reversed());
+        return operations;
+    }
+
+    private synchronized void recordSlow(SlowOperation operation) {
+        slowLog[(int) (slowLogNext++ % slowLog.length)] = operation;
+    }
+
+    // Valor como etiqueta mientras haya cupo de valores distintos; después, "other"
+    static String bounded(Set<String> seen, int max, String value) {
+        if (seen.contains(value)) {
+            return value;
+        }
+        if (seen.size() < max && seen.add(value)) {
+            return value;
+        }
+        return OTHER;
+    }
+
+    private static List<FieldTiming> slowestFields(TimingState timing) {
+        List<FieldTiming> fields = new ArrayList<>(timing.fieldNanos.size());
+        timing.fieldNanos.forEach((field, totals) -> fields.add(new FieldTiming(field, totals[0], totals[1] / 1e6)));
+        fields.sort(Comparator.comparingDouble(FieldTiming::totalMs).reversed());
+        return fields.size() > SLOWEST_FIELDS ? List.copyOf(fields.subList(0, SLOWEST_FIELDS)) : List.copyOf(fields);
+    }
+
+    // Conserva la forma de las variables (nombres y anidamiento) pero no sus valores
+    @SuppressWarnings("unchecked")
+    static <T> T redact(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> redacted = new LinkedHashMap<>();
+            map.forEach((key, nested) -> redacted.put(String.valueOf(key), redact(nested)));
+            return (T) redacted;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> redacted = new ArrayList<>(list.size());
+            list.forEach(nested -> redacted.add(redact(nested)));
+            return (T) redacted;
+        }
+        return (T) (value == null ? null : REDACTED);
+    }
+}
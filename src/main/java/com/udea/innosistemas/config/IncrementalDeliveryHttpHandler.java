@@ -0,0 +1,389 @@
+package com.udea.innosistemas.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udea.innosistemas.dto.NotificationDTO;
+import com.udea.innosistemas.entity.User;
+import com.udea.innosistemas.repository.UserRepository;
+import com.udea.innosistemas.resolver.BaseResolver;
+import com.udea.innosistemas.security.GraphQLOperationClassifier;
+import com.udea.innosistemas.service.NotificationService;
+import com.udea.innosistemas.service.TeamService;
+import graphql.language.Argument;
+import graphql.language.Directive;
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.IntValue;
+import graphql.language.OperationDefinition;
+import graphql.language.StringValue;
+import graphql.language.Value;
+import graphql.language.VariableReference;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.ServletException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.function.RequestPredicate;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Handler HTTP de entrega incremental ({@code @stream}) de las listas grandes del endpoint GraphQL.
+ *
+ * Cuando el cliente acepta {@code multipart/mixed} y la consulta tiene un único campo raíz de
+ * {@link #STREAMABLE_FIELDS} marcado con {@code @stream}, los elementos se leen por páginas (keyset) de
+ * {@code batch-size} elementos y se envían a medida que se leen: la primera parte trae {@code initialCount}
+ * elementos (acotado por {@code max-initial-count}) y las siguientes {@code batch-size} elementos como
+ * {@code incremental}, en el formato multipart de graphql-over-http. Cada lote se ejecuta con el
+ * {@link WebGraphQlHandler} normal (autenticación, directivas, límites, instrumentación) y el resolver toma
+ * los elementos del GraphQLContext ({@link BaseResolver#STREAMED_BATCH}). Cualquier otra petición se atiende
+ * como JSON normal.
+ *
+ * Antes de leer ningún elemento se ejecuta la consulta con un lote vacío para comprobar la autorización. Cada
+ * página se lee en su propia transacción corta y el EntityManager de la petición (open-in-view) se desvincula
+ * mientras dura la respuesta, de modo que nunca se escribe en el socket con una conexión retenida.
+ *
+ * graphql-java 21 no implementa {@code @defer}/{@code @stream}; por eso solo se admite {@code @stream} en
+ * listas raíz, que es donde están las listas grandes (bandeja de notificaciones y equipos de un curso).
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+class IncrementalDeliveryHttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalDeliveryHttpHandler.class);
+
+    static final MediaType MULTIPART_MIXED =
+            MediaType.parseMediaType("multipart/mixed; boundary=\"-\"; deferSpec=20220824");
+    static final String NOTIFICATIONS = "getMyNotifications";
+    static final String TEAMS_BY_COURSE = "getTeamsByCourse";
+    static final Set<String> STREAMABLE_FIELDS = Set.of(NOTIFICATIONS, TEAMS_BY_COURSE);
+
+    private static final byte[] PART_START =
+            "\r\n---\r\nContent-Type: application/json; charset=utf-8\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] END = "\r\n-----\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final PersistedQueryHttpHandler persistedQueryHandler;
+    private final WebGraphQlHandler graphQlHandler;
+    private final GraphQLOperationClassifier operationClassifier;
+    private final NotificationService notificationService;
+    private final TeamService teamService;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManagerFactory entityManagerFactory;
+    private final int batchSize;
+    private final int maxInitialCount;
+
+    /**
+     * Campo raíz con {@code @stream} de una petición
+     */
+    record StreamedField(String name, String responseKey, int initialCount, String label, Long courseId) {
+    }
+
+    IncrementalDeliveryHttpHandler(PersistedQueryHttpHandler persistedQueryHandler, WebGraphQlHandler graphQlHandler,
+                                   GraphQLOperationClassifier operationClassifier,
+                                   NotificationService notificationService, TeamService teamService,
+                                   UserRepository userRepository, ObjectMapper objectMapper,
+                                   EntityManagerFactory entityManagerFactory, int batchSize, int maxInitialCount) {
+        this.persistedQueryHandler = persistedQueryHandler;
+        this.graphQlHandler = graphQlHandler;
+        this.operationClassifier = operationClassifier;
+        this.notificationService = notificationService;
+        this.teamService = teamService;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.entityManagerFactory = entityManagerFactory;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxInitialCount = Math.max(0, maxInitialCount);
+    }
+
+    /**
+     * Peticiones que aceptan multipart/mixed de forma explícita (un comodín no cuenta)
+     */
+    static RequestPredicate acceptsMultipart() {
+        return request -> request.headers().accept().stream()
+                .anyMatch(type -> "multipart".equals(type.getType()) && "mixed".equals(type.getSubtype()));
+    }
+
+    ServerResponse handlePost(ServerRequest request) throws ServletException {
+        Object payload = persistedQueryHandler.readBody(request);
+        if (!(payload instanceof Map<?, ?>)) {
+            // Un lote de operaciones no admite entrega incremental
+            return persistedQueryHandler.handlePayload(request, payload);
+        }
+        Map<String, Object> body = PersistedQueryHttpHandler.operation(payload);
+        persistedQueryHandler.resolvePersistedQuery(body);
+
+        StreamedField field = streamedField(body);
+        Long userId = field != null && NOTIFICATIONS.equals(field.name()) ? currentUserId() : null;
+        if (field == null || (NOTIFICATIONS.equals(field.name()) && userId == null)) {
+            // Sin @stream aplicable (o sin usuario): respuesta JSON normal, que también informa los errores
+            return persistedQueryHandler.execute(request, body);
+        }
+
+        return ServerResponse.ok().contentType(MULTIPART_MIXED).build((servletRequest, servletResponse) -> {
+            // Con open-in-view, el EntityManager de la petición retendría su conexión hasta el final de la respuesta
+            Object requestEntityManager = TransactionSynchronizationManager.unbindResourceIfPossible(entityManagerFactory);
+            try {
+                Delivery delivery = new Delivery(request, body, field, servletResponse.getOutputStream());
+                delivery.run(last -> NOTIFICATIONS.equals(field.name())
+                        ? List.copyOf(notificationService.paginaNotificacionesPorUsuario(userId,
+                                (NotificationDTO) last, batchSize))
+                        : List.copyOf(teamService.paginaIdsPorCurso(field.courseId(), (Long) last, batchSize)));
+            } finally {
+                if (requestEntityManager != null) {
+                    TransactionSynchronizationManager.bindResource(entityManagerFactory, requestEntityManager);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Detecta el campo con {@code @stream}: una consulta con un único campo raíz que admite entrega incremental
+     *
+     * @return Campo a entregar por lotes, o null si la petición se atiende de forma normal
+     */
+    StreamedField streamedField(Map<String, Object> body) {
+        if (!(body.get("query") instanceof String query)) {
+            return null;
+        }
+        String operationName = body.get("operationName") instanceof String name ? name : null;
+        // Filtro barato con la caché del clasificador antes de recorrer el documento
+        GraphQLOperationClassifier.OperationInfo info = operationClassifier.classify(query, operationName);
+        if (info.kind() != GraphQLOperationClassifier.Kind.QUERY || info.rootFields().size() != 1
+                || !STREAMABLE_FIELDS.contains(info.rootFields().iterator().next())) {
+            return null;
+        }
+
+        Document document;
+        try {
+            document = Parser.parse(query);
+        } catch (InvalidSyntaxException e) {
+            return null;
+        }
+        OperationDefinition operation = document.getDefinitionsOfType(OperationDefinition.class).stream()
+                .filter(candidate -> operationName == null || operationName.equals(candidate.getName()))
+                .findFirst()
+                .orElse(null);
+        if (operation == null || operation.getSelectionSet().getSelections().size() != 1
+                || !(operation.getSelectionSet().getSelections().get(0) instanceof Field field)
+                || !field.hasDirective("stream")) {
+            return null;
+        }
+
+        Map<String, Object> variables = body.get("variables") instanceof Map<?, ?> map
+                ? castVariables(map) : Map.of();
+        Directive stream = field.getDirectives("stream").get(0);
+        Object initialCount = argument(stream.getArgument("initialCount"), variables);
+        Object label = argument(stream.getArgument("label"), variables);
+
+        Long courseId = null;
+        if (TEAMS_BY_COURSE.equals(field.getName())) {
+            try {
+                courseId = Long.valueOf(String.valueOf(argument(field.getArguments().stream()
+                        .filter(argument -> "courseId".equals(argument.getName()))
+                        .findFirst().orElse(null), variables)));
+            } catch (NumberFormatException e) {
+                // La ejecución normal reporta el argumento inválido
+                return null;
+            }
+        }
+
+        String responseKey = field.getAlias() != null ? field.getAlias() : field.getName();
+        return new StreamedField(field.getName(), responseKey,
+                initialCount instanceof Number number ? Math.max(0, Math.min(maxInitialCount, number.intValue())) : 0,
+                label instanceof String text ? text : null, courseId);
+    }
+
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof User user) {
+            return user.getId();
+        }
+        return userRepository.findByEmail(authentication.getName()).map(User::getId).orElse(null);
+    }
+
+    private static Object argument(Argument argument, Map<String, Object> variables) {
+        if (argument == null) {
+            return null;
+        }
+        Value<?> value = argument.getValue();
+        if (value instanceof VariableReference reference) {
+            return variables.get(reference.getName());
+        }
+        if (value instanceof IntValue intValue) {
+            return intValue.getValue();
+        }
+        if (value instanceof StringValue stringValue) {
+            return stringValue.getValue();
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> castVariables(Map<?, ?> variables) {
+        return (Map<String, Object>) variables;
+    }
+
+    /**
+     * Una respuesta multipart: acumula los elementos leídos página a página y envía una parte por lote
+     */
+    private final class Delivery {
+
+        private final ServerRequest request;
+        private final Map<String, Object> body;
+        private final StreamedField field;
+        private final OutputStream output;
+        private List<Object> pending = new ArrayList<>();
+        private boolean initialSent;
+        private int delivered;
+
+        private Delivery(ServerRequest request, Map<String, Object> body, StreamedField field, OutputStream output) {
+            this.request = request;
+            this.body = body;
+            this.field = field;
+            this.output = output;
+        }
+
+        /**
+         * @param nextPage Recibe el último elemento de la página anterior (null al inicio) y devuelve la siguiente
+         */
+        private void run(Function<Object, List<?>> nextPage) throws IOException {
+            try {
+                // Autorización con un lote vacío: si falla no se lee ningún elemento
+                Map<String, Object> authorized = execute(List.of());
+                if (authorized.containsKey("errors") || field.initialCount() == 0) {
+                    sendInitial(authorized);
+                }
+                Object last = null;
+                List<?> page;
+                do {
+                    page = nextPage.apply(last);
+                    for (Object item : page) {
+                        accept(item);
+                    }
+                    last = page.isEmpty() ? null : page.get(page.size() - 1);
+                } while (page.size() >= batchSize);
+
+                if (!initialSent) {
+                    sendInitial(execute(takePending()));
+                } else if (!pending.isEmpty()) {
+                    sendIncremental();
+                }
+                writePart(Map.of("hasNext", false));
+            } catch (DeliveryStopped e) {
+                logger.debug("Incremental delivery of {} stopped after {} items", field.name(), delivered);
+            } catch (UncheckedIOException e) {
+                // El cliente cerró la conexión: no se leen más páginas
+                logger.debug("Client disconnected during incremental delivery of {}: {}", field.name(),
+                        e.getMessage());
+                return;
+            }
+            output.write(END);
+            output.flush();
+        }
+
+        private void accept(Object item) {
+            pending.add(item);
+            if (!initialSent) {
+                if (pending.size() >= field.initialCount()) {
+                    sendInitial(execute(takePending()));
+                }
+            } else if (pending.size() >= batchSize) {
+                sendIncremental();
+            }
+        }
+
+        private void sendInitial(Map<String, Object> executed) {
+            Map<String, Object> result = new LinkedHashMap<>(executed);
+            boolean failed = result.containsKey("errors");
+            result.put("hasNext", !failed);
+            writePart(result);
+            initialSent = true;
+            if (failed) {
+                throw new DeliveryStopped();
+            }
+        }
+
+        private void sendIncremental() {
+            int start = delivered;
+            Map<String, Object> result = execute(takePending());
+            Map<String, Object> incremental = new LinkedHashMap<>();
+            if (result.get("data") instanceof Map<?, ?> data && data.get(field.responseKey()) != null) {
+                incremental.put("items", data.get(field.responseKey()));
+            }
+            incremental.put("path", List.of(field.responseKey(), start));
+            if (field.label() != null) {
+                incremental.put("label", field.label());
+            }
+            boolean failed = result.containsKey("errors");
+            if (failed) {
+                incremental.put("errors", result.get("errors"));
+            }
+            writePart(Map.of("incremental", List.of(incremental), "hasNext", !failed));
+            if (failed) {
+                throw new DeliveryStopped();
+            }
+        }
+
+        // Toma el lote pendiente y lo da por entregado
+        private List<Object> takePending() {
+            List<Object> batch = pending;
+            pending = new ArrayList<>();
+            delivered += batch.size();
+            return batch;
+        }
+
+        // Ejecuta la consulta con los elementos del lote
+        private Map<String, Object> execute(List<Object> batch) {
+            WebGraphQlRequest graphQlRequest = persistedQueryHandler.graphQlRequest(request, body);
+            graphQlRequest.configureExecutionInput((input, builder) ->
+                    builder.graphQLContext(Map.of(BaseResolver.STREAMED_BATCH, batch)).build());
+            WebGraphQlResponse response = graphQlHandler.handleRequest(graphQlRequest).block();
+            if (response == null) {
+                throw new IllegalStateException("GraphQL handler returned no response");
+            }
+            return response.toMap();
+        }
+
+        private void writePart(Map<String, Object> payload) {
+            try {
+                output.write(PART_START);
+                output.write(objectMapper.writeValueAsBytes(payload));
+                output.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // Corta la lectura de páginas después de enviar una parte con errores
+    private static final class DeliveryStopped extends RuntimeException {
+
+        private DeliveryStopped() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.udea.innosistemas.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.util.ClassUtils;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.util.Pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Factory de conexiones Jedis instrumentada con Micrometer.
+ *
+ * Registra un histograma de latencia por comando ({@code innosistemas.redis.command.duration},
+ * tags command y outcome), el estado de los pools de conexiones (activas, ociosas y threads en espera)
+ * y un contador de agotamiento del pool ({@code innosistemas.redis.pool.exhausted}). Los comandos
+ * encolados en un pipeline o transacción no se miden uno a uno: se mide el envío completo
+ * (PIPELINE o EXEC), que es cuando realmente ocurre el round-trip.
+ *
+ * La conexión se envuelve en un proxy ligero: las interfaces de cada clase de conexión, el nombre de
+ * comando de cada método y los timers se calculan una sola vez, y las vistas de comandos
+ * ({@code keyCommands()}, {@code zSetCommands()}, ...) se envuelven una vez por conexión.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+public class InstrumentedJedisConnectionFactory extends JedisConnectionFactory {
+
+    private static final String COMMAND_TIMER = "innosistemas.redis.command.duration";
+
+    // Métodos de control de la conexión (no son comandos) o bloqueantes por diseño (suscripciones)
+    private static final Set<String> UNTIMED_METHODS = Set.of(
+            "close", "isClosed", "isPipelined", "isQueueing", "isSubscribed", "getSubscription",
+            "getNativeConnection", "openPipeline", "multi", "subscribe", "pSubscribe",
+            "getSentinelConnection", "equals", "hashCode", "toString");
+
+    private final MeterRegistry meterRegistry;
+    private final List<GenericObjectPool<?>> pools = new CopyOnWriteArrayList<>();
+    private final Map<String, Timer> successTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> errorTimers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Class<?>[]> proxyInterfaces = new ConcurrentHashMap<>();
+    private final Map<Method, CommandMethod> commandMethods = new ConcurrentHashMap<>();
+    private volatile JedisCluster cluster;
+    private Counter exhaustedCounter;
+
+    public InstrumentedJedisConnectionFactory(RedisStandaloneConfiguration configuration,
+                                              JedisClientConfiguration clientConfiguration,
+                                              MeterRegistry meterRegistry) {
+        super(configuration, clientConfiguration);
+        this.meterRegistry = meterRegistry;
+        registerPoolMeters();
+    }
+
+    public InstrumentedJedisConnectionFactory(RedisSentinelConfiguration configuration,
+                                              JedisClientConfiguration clientConfiguration,
+                                              MeterRegistry meterRegistry) {
+        super(configuration, clientConfiguration);
+        this.meterRegistry = meterRegistry;
+        registerPoolMeters();
+    }
+
+    public InstrumentedJedisConnectionFactory(RedisClusterConfiguration configuration,
+                                              JedisClientConfiguration clientConfiguration,
+                                              MeterRegistry meterRegistry) {
+        super(configuration, clientConfiguration);
+        this.meterRegistry = meterRegistry;
+        registerPoolMeters();
+    }
+
+    @Override
+    public RedisConnection getConnection() {
+        if (isRedisClusterAware()) {
+            // La implementación base delega en getClusterConnection(), que ya devuelve la conexión instrumentada
+            return super.getConnection();
+        }
+        return instrument(super.getConnection());
+    }
+
+    @Override
+    public RedisClusterConnection getClusterConnection() {
+        return instrument(super.getClusterConnection());
+    }
+
+    @Override
+    protected Jedis fetchJedisConnector() {
+        try {
+            return super.fetchJedisConnector();
+        } catch (RuntimeException e) {
+            countIfExhausted(e);
+            throw e;
+        }
+    }
+
+    @Override
+    protected Pool<Jedis> createRedisPool() {
+        Pool<Jedis> pool = super.createRedisPool();
+        pools.add(pool);
+        return pool;
+    }
+
+    @Override
+    protected Pool<Jedis> createRedisSentinelPool(RedisSentinelConfiguration config) {
+        Pool<Jedis> pool = super.createRedisSentinelPool(config);
+        pools.add(pool);
+        return pool;
+    }
+
+    @Override
+    protected JedisCluster createCluster(RedisClusterConfiguration clusterConfig,
+                                         GenericObjectPoolConfig<Connection> poolConfig) {
+        JedisCluster created = super.createCluster(clusterConfig, poolConfig);
+        this.cluster = created;
+        return created;
+    }
+
+    private void registerPoolMeters() {
+        exhaustedCounter = Counter.builder("innosistemas.redis.pool.exhausted")
+                .description("Conexiones solicitadas al pool que no se obtuvieron dentro de max-wait")
+                .register(meterRegistry);
+        Gauge.builder("innosistemas.redis.pool.connections", this, factory -> factory.sumPools(GenericObjectPool::getNumActive))
+                .tag("state", "active")
+                .register(meterRegistry);
+        Gauge.builder("innosistemas.redis.pool.connections", this, factory -> factory.sumPools(GenericObjectPool::getNumIdle))
+                .tag("state", "idle")
+                .register(meterRegistry);
+        Gauge.builder("innosistemas.redis.pool.waiters", this, factory -> factory.sumPools(GenericObjectPool::getNumWaiters))
+                .description("Threads esperando una conexión libre")
+                .register(meterRegistry);
+    }
+
+    private double sumPools(ToIntFunction<GenericObjectPool<?>> metric) {
+        List<GenericObjectPool<?>> all = new ArrayList<>(pools);
+        JedisCluster current = cluster;
+        if (current != null) {
+            all.addAll(current.getClusterNodes().values());
+        }
+        long total = 0;
+        for (GenericObjectPool<?> pool : all) {
+            total += metric.applyAsInt(pool);
+        }
+        return total;
+    }
+
+    // Jedis señala el agotamiento con NoSuchElementException ("Timeout waiting for idle object")
+    private void countIfExhausted(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof NoSuchElementException) {
+                exhaustedCounter.increment();
+                return;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    <T extends RedisConnection> T instrument(T connection) {
+        return (T) proxy(connection, connection);
+    }
+
+    private Object proxy(Object target, RedisConnection connection) {
+        ClassLoader classLoader = getClass().getClassLoader();
+        Class<?>[] interfaces = proxyInterfaces.computeIfAbsent(target.getClass(),
+                type -> ClassUtils.getAllInterfacesForClass(type, classLoader));
+        return Proxy.newProxyInstance(classLoader, interfaces, new CommandTimingHandler(target, connection));
+    }
+
+    // Tipo de método y nombre de comando, calculados una vez por método
+    private record CommandMethod(Kind kind, String command) {
+
+        enum Kind { TIMED, FLUSH, RAW, UNTIMED, VIEW, EQUALS, HASH_CODE }
+    }
+
+    private CommandMethod commandMethod(Method method) {
+        CommandMethod cached = commandMethods.get(method);
+        return cached != null ? cached : commandMethods.computeIfAbsent(method, InstrumentedJedisConnectionFactory::classify);
+    }
+
+    private static CommandMethod classify(Method method) {
+        String name = method.getName();
+        int parameters = method.getParameterCount();
+        if ("equals".equals(name) && parameters == 1) {
+            return new CommandMethod(CommandMethod.Kind.EQUALS, null);
+        }
+        if ("hashCode".equals(name) && parameters == 0) {
+            return new CommandMethod(CommandMethod.Kind.HASH_CODE, null);
+        }
+        if (name.endsWith("Commands") && parameters == 0 && method.getReturnType().isInterface()) {
+            return new CommandMethod(CommandMethod.Kind.VIEW, null);
+        }
+        if ("closePipeline".equals(name)) {
+            return new CommandMethod(CommandMethod.Kind.FLUSH, "PIPELINE");
+        }
+        if ("exec".equals(name)) {
+            return new CommandMethod(CommandMethod.Kind.FLUSH, "EXEC");
+        }
+        if (UNTIMED_METHODS.contains(name)) {
+            return new CommandMethod(CommandMethod.Kind.UNTIMED, null);
+        }
+        if ("execute".equals(name) && parameters > 0 && method.getParameterTypes()[0] == String.class) {
+            return new CommandMethod(CommandMethod.Kind.RAW, null);
+        }
+        return new CommandMethod(CommandMethod.Kind.TIMED, name.toUpperCase(Locale.ROOT));
+    }
+
+    private Timer commandTimer(String command, boolean success) {
+        Map<String, Timer> timers = success ? successTimers : errorTimers;
+        Timer timer = timers.get(command);
+        return timer != null ? timer
+                : timers.computeIfAbsent(command, key -> registerCommandTimer(key, success ? "success" : "error"));
+    }
+
+    private Timer registerCommandTimer(String command, String outcome) {
+        return Timer.builder(COMMAND_TIMER)
+                .tag("command", command)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(50_000))
+                .maximumExpectedValue(Duration.ofSeconds(5))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Mide cada comando invocado sobre la conexión o sobre sus vistas de comandos
+     * ({@code keyCommands()}, {@code zSetCommands()}, ...), que se envuelven una vez por conexión
+     */
+    private final class CommandTimingHandler implements InvocationHandler {
+
+        private final Object target;
+        private final RedisConnection connection;
+        private Map<Method, Object> views;
+
+        CommandTimingHandler(Object target, RedisConnection connection) {
+            this.target = target;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            CommandMethod commandMethod = commandMethod(method);
+            String command = commandMethod.command();
+            switch (commandMethod.kind()) {
+                case EQUALS:
+                    return proxy == args[0];
+                case HASH_CODE:
+                    return System.identityHashCode(proxy);
+                case VIEW:
+                    return view(method);
+                case UNTIMED:
+                    return call(method, args);
+                case FLUSH:
+                    break;
+                default:
+                    // Los comandos encolados se miden al enviar el pipeline o la transacción
+                    if (connection.isPipelined() || connection.isQueueing()) {
+                        return call(method, args);
+                    }
+                    if (commandMethod.kind() == CommandMethod.Kind.RAW) {
+                        command = args[0] instanceof String raw ? raw.toUpperCase(Locale.ROOT) : "EXECUTE";
+                    }
+            }
+
+            long start = System.nanoTime();
+            boolean success = true;
+            try {
+                return call(method, args);
+            } catch (RuntimeException e) {
+                success = false;
+                countIfExhausted(e);
+                throw e;
+            } finally {
+                commandTimer(command, success).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private synchronized Object view(Method method) throws Throwable {
+            if (views == null) {
+                views = new HashMap<>();
+            } else if (views.containsKey(method)) {
+                return views.get(method);
+            }
+            Object commands = call(method, null);
+            Object view = commands == null ? null : proxy(commands, connection);
+            views.put(method, view);
+            return view;
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.udea.innosistemas.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udea.innosistemas.security.GraphQLOperationClassifier;
+import com.udea.innosistemas.security.RateLimitFilter;
+import com.udea.innosistemas.service.PersistedQueryService;
+import com.udea.innosistemas.service.RateLimitingService;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import io.micrometer.core.instrument.DistributionSummary;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderRegistry;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AlternativeJdkIdGenerator;
+import org.springframework.util.IdGenerator;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebInputException;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Handler HTTP del endpoint GraphQL con soporte de Automatic Persisted Queries (APQ).
+ *
+ * Equivale al handler de Spring GraphQL, pero admite peticiones que solo envían el hash de la consulta
+ * en {@code extensions.persistedQuery}: si el hash está registrado se ejecuta el texto registrado y, si no,
+ * graphql-java responde {@code PersistedQueryNotFound} para que el cliente reenvíe la consulta completa
+ * y la registre. También admite GET con la consulta o el hash en la URL, solo para consultas (no mutaciones).
+ *
+ * Un POST cuyo cuerpo es un arreglo de operaciones se atiende como un lote: los filtros (cabeceras, JWT,
+ * rate limiting) se evalúan una sola vez para toda la petición, las operaciones se ejecutan en orden con
+ * un registro de DataLoaders compartido y la respuesta es el arreglo de resultados. Un lote vacío o con
+ * más de {@code max-operations} operaciones se rechaza antes de ejecutar nada.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+class PersistedQueryHttpHandler {
+
+    static final List<MediaType> SUPPORTED_MEDIA_TYPES =
+            List.of(MediaType.APPLICATION_GRAPHQL_RESPONSE, MediaType.APPLICATION_JSON);
+
+    private static final ParameterizedTypeReference<Object> BODY_TYPE = new ParameterizedTypeReference<>() {
+    };
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT_TYPE = new TypeReference<>() {
+    };
+
+    private final WebGraphQlHandler graphQlHandler;
+    private final PersistedQueryService persistedQueryService;
+    private final GraphQLOperationClassifier operationClassifier;
+    private final ObjectMapper objectMapper;
+    private final RateLimitingService rateLimitingService;
+    private final int maxBatchOperations;
+    private final DistributionSummary batchSizes;
+    private final IdGenerator idGenerator = new AlternativeJdkIdGenerator();
+
+    PersistedQueryHttpHandler(WebGraphQlHandler graphQlHandler, PersistedQueryService persistedQueryService,
+                              GraphQLOperationClassifier operationClassifier, ObjectMapper objectMapper,
+                              RateLimitingService rateLimitingService, int maxBatchOperations,
+                              DistributionSummary batchSizes) {
+        this.graphQlHandler = graphQlHandler;
+        this.persistedQueryService = persistedQueryService;
+        this.operationClassifier = operationClassifier;
+        this.objectMapper = objectMapper;
+        this.rateLimitingService = rateLimitingService;
+        this.maxBatchOperations = maxBatchOperations;
+        this.batchSizes = batchSizes;
+    }
+
+    ServerResponse handlePost(ServerRequest request) throws ServletException {
+        return handlePayload(request, readBody(request));
+    }
+
+    // Un objeto es una operación; un arreglo, un lote de operaciones
+    ServerResponse handlePayload(ServerRequest request, Object payload) {
+        if (payload instanceof List<?> operations) {
+            return executeBatch(request, operations);
+        }
+        Map<String, Object> body = operation(payload);
+        resolvePersistedQuery(body);
+        return execute(request, body);
+    }
+
+    ServerResponse handleGet(ServerRequest request) {
+        Map<String, Object> body = new HashMap<>();
+        request.param("query").ifPresent(query -> body.put("query", query));
+        request.param("operationName").ifPresent(operationName -> body.put("operationName", operationName));
+        request.param("variables").ifPresent(variables -> body.put("variables", readJsonParam("variables", variables)));
+        request.param("extensions").ifPresent(extensions -> body.put("extensions", readJsonParam("extensions", extensions)));
+        resolvePersistedQuery(body);
+
+        // GET solo admite consultas: una mutación no debe poder dispararse desde un enlace o una caché
+        if (body.get("query") instanceof String document
+                && !PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(document)) {
+            Object operationName = body.get("operationName");
+            GraphQLOperationClassifier.Kind kind = operationClassifier.classify(document,
+                    operationName instanceof String name ? name : null).kind();
+            if (kind == GraphQLOperationClassifier.Kind.MUTATION || kind == GraphQLOperationClassifier.Kind.SUBSCRIPTION) {
+                return ServerResponse.status(HttpStatus.METHOD_NOT_ALLOWED).allow(HttpMethod.POST).build();
+            }
+        }
+        return execute(request, body);
+    }
+
+    Object readBody(ServerRequest request) throws ServletException {
+        try {
+            return request.body(BODY_TYPE);
+        } catch (IOException ex) {
+            throw new ServerWebInputException("I/O error while reading request body", null, ex);
+        }
+    }
+
+    // Sustituye el hash por el texto registrado, o por el marcador de graphql-java si nadie lo registró
+    void resolvePersistedQuery(Map<String, Object> body) {
+        if (body.get("query") instanceof String query && !query.isEmpty()) {
+            return;
+        }
+        if (!(body.get("extensions") instanceof Map<?, ?> extensions)
+                || !(extensions.get("persistedQuery") instanceof Map<?, ?> persistedQuery)
+                || !(persistedQuery.get("sha256Hash") instanceof String hash)) {
+            return;
+        }
+        String registered = persistedQueryService.resolveQuery(hash);
+        body.put("query", registered != null ? registered : PersistedQuerySupport.PERSISTED_QUERY_MARKER);
+    }
+
+    private ServerResponse executeBatch(ServerRequest request, List<?> operations) {
+        if (maxBatchOperations <= 0) {
+            throw new ServerWebInputException("Batched operations are not enabled");
+        }
+        if (operations.isEmpty() || operations.size() > maxBatchOperations) {
+            throw new ServerWebInputException("A batch must contain between 1 and " + maxBatchOperations
+                    + " operations, got " + operations.size());
+        }
+        List<Map<String, Object>> bodies = new ArrayList<>(operations.size());
+        for (Object operation : operations) {
+            Map<String, Object> body = operation(operation);
+            resolvePersistedQuery(body);
+            bodies.add(body);
+        }
+
+        // RateLimitFilter ya consumió un token por la petición HTTP; el resto del lote se cobra de una vez
+        Object rateLimitKey = request.attributes().get(RateLimitFilter.RATE_LIMIT_KEY_ATTRIBUTE);
+        if (rateLimitKey != null && bodies.size() > 1
+                && !rateLimitingService.allowRequest(rateLimitKey.toString(), bodies.size() - 1)) {
+            return ServerResponse.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("error", "Too Many Requests",
+                            "message", "Rate limit exceeded. Please try again later."));
+        }
+        batchSizes.record(bodies.size());
+
+        // En orden (una mutación puede preparar la consulta siguiente) y en el hilo de la petición, con su
+        // contexto de seguridad; los DataLoaders (y su caché) se comparten entre las operaciones del lote
+        DataLoaderRegistry dataLoaders = new SharedDataLoaderRegistry();
+        List<Map<String, Object>> results = new ArrayList<>(bodies.size());
+        HttpHeaders responseHeaders = new HttpHeaders();
+        for (Map<String, Object> body : bodies) {
+            WebGraphQlRequest graphQlRequest = graphQlRequest(request, body);
+            graphQlRequest.configureExecutionInput((input, builder) -> builder.dataLoaderRegistry(dataLoaders).build());
+            WebGraphQlResponse response = graphQlHandler.handleRequest(graphQlRequest).block();
+            if (response == null) {
+                throw new IllegalStateException("GraphQL handler returned no response");
+            }
+            responseHeaders.putAll(response.getResponseHeaders());
+            results.add(response.toMap());
+        }
+        return ServerResponse.ok()
+                .headers(headers -> headers.putAll(responseHeaders))
+                .contentType(selectResponseMediaType(request))
+                .body(results);
+    }
+
+    ServerResponse execute(ServerRequest request, Map<String, Object> body) {
+        Mono<ServerResponse> responseMono = graphQlHandler.handleRequest(graphQlRequest(request, body))
+                .map(response -> ServerResponse.ok()
+                        .headers(headers -> headers.putAll(response.getResponseHeaders()))
+                        .contentType(selectResponseMediaType(request))
+                        .body(response.toMap()));
+        return ServerResponse.async(responseMono);
+    }
+
+    WebGraphQlRequest graphQlRequest(ServerRequest request, Map<String, Object> body) {
+        return new WebGraphQlRequest(
+                request.uri(), request.headers().asHttpHeaders(), cookies(request), request.attributes(), body,
+                idGenerator.generateId().toString(), LocaleContextHolder.getLocale());
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> operation(Object payload) {
+        if (payload instanceof Map<?, ?> map) {
+            return (Map<String, Object>) map;
+        }
+        throw new ServerWebInputException("Each GraphQL request must be a JSON object");
+    }
+
+    private Map<String, Object> readJsonParam(String name, String value) {
+        try {
+            return objectMapper.readValue(value, JSON_OBJECT_TYPE);
+        } catch (JsonProcessingException ex) {
+            throw new ServerWebInputException("Invalid value for '" + name + "'", null, ex);
+        }
+    }
+
+    private static MultiValueMap<String, HttpCookie> cookies(ServerRequest request) {
+        MultiValueMap<String, Cookie> source = request.cookies();
+        MultiValueMap<String, HttpCookie> target = new LinkedMultiValueMap<>(source.size());
+        source.values().forEach(cookies -> cookies.forEach(cookie ->
+                target.add(cookie.getName(), new HttpCookie(cookie.getName(), cookie.getValue()))));
+        return target;
+    }
+
+    /**
+     * Registro compartido por las operaciones de un lote: Spring GraphQL vuelve a registrar los DataLoaders
+     * en cada ejecución, así que se conserva el primero de cada clave (y lo que ya tenga en caché)
+     */
+    private static final class SharedDataLoaderRegistry extends DataLoaderRegistry {
+
+        @Override
+        public DataLoaderRegistry register(String key, DataLoader<?, ?> dataLoader) {
+            dataLoaders.putIfAbsent(key, dataLoader);
+            return this;
+        }
+    }
+
+    private static MediaType selectResponseMediaType(ServerRequest request) {
+        for (MediaType accepted : request.headers().accept()) {
+            if (SUPPORTED_MEDIA_TYPES.contains(accepted)) {
+                return accepted;
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+}
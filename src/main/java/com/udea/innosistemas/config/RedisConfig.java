@@ -1,21 +1,32 @@
 package com.udea.innosistemas.config;
 
-import org.springframework.beans.factory.annotation.Value;
+import com.udea.innosistemas.config.properties.RedisClientProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
-import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import redis.clients.jedis.JedisPoolConfig;
+
 import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
 
 /**
  * Configuración de Redis para gestión de caché, blacklist de tokens y sesiones.
  * Configura conexión a Redis y RedisTemplate para operaciones de datos.
- * Soporta configuración por perfiles (dev, test, prod).
+ * Soporta configuración por perfiles (dev, test, prod) y topologías standalone, Sentinel y Cluster.
  *
  * Autor: Fábrica-Escuela de Software UdeA
  * Versión: 1.0.0
@@ -23,45 +34,65 @@ import java.time.Duration;
 @Configuration
 public class RedisConfig {
 
-    @Value("${spring.redis.host:localhost}")
-    private String redisHost;
-
-    @Value("${spring.redis.port:6379}")
-    private int redisPort;
-
-    @Value("${spring.redis.password:}")
-    private String redisPassword;
+    private static final Logger logger = LoggerFactory.getLogger(RedisConfig.class);
 
-    @Value("${spring.redis.timeout:2000ms}")
-    private String redisTimeout;
+    @Autowired
+    private RedisClientProperties redisProperties;
 
     /**
-     * Configura la conexión a Redis usando Jedis
+     * Configura la conexión a Redis usando Jedis con pool de conexiones.
+     * La topología (standalone, Sentinel o Cluster) se toma de {@code spring.redis.*}; las conexiones
+     * se instrumentan con métricas de latencia por comando y de uso del pool.
      *
+     * @param meterRegistry Registro de métricas
      * @return RedisConnectionFactory configurado
      */
     @Bean
-    public RedisConnectionFactory redisConnectionFactory() {
-        RedisStandaloneConfiguration redisConfig = new RedisStandaloneConfiguration();
-        redisConfig.setHostName(redisHost);
-        redisConfig.setPort(redisPort);
-
-        // Configurar password si está presente
-        if (redisPassword != null && !redisPassword.isEmpty()) {
-            redisConfig.setPassword(redisPassword);
+    public RedisConnectionFactory redisConnectionFactory(MeterRegistry meterRegistry) {
+        RedisClientProperties.Pool pool = redisProperties.getJedis().getPool();
+        JedisPoolConfig poolConfig = new JedisPoolConfig();
+        poolConfig.setMaxTotal(pool.getMaxActive());
+        poolConfig.setMaxIdle(pool.getMaxIdle());
+        poolConfig.setMinIdle(pool.getMinIdle());
+        poolConfig.setBlockWhenExhausted(true);
+        poolConfig.setMaxWait(pool.getMaxWait());
+        poolConfig.setTimeBetweenEvictionRuns(pool.getTimeBetweenEvictionRuns());
+        // Los tests levantan varios contextos en la misma JVM; los MBeans del pool colisionarían
+        poolConfig.setJmxEnabled(false);
+
+        Duration timeout = redisProperties.getTimeout();
+        JedisClientConfiguration clientConfiguration = JedisClientConfiguration.builder()
+                .connectTimeout(timeout)
+                .readTimeout(timeout)
+                .usePooling()
+                .poolConfig(poolConfig)
+                .build();
+
+        List<String> clusterNodes = nodes(redisProperties.getCluster().getNodes());
+        if (!clusterNodes.isEmpty()) {
+            RedisClusterConfiguration clusterConfig = new RedisClusterConfiguration(clusterNodes);
+            clusterConfig.setMaxRedirects(redisProperties.getCluster().getMaxRedirects());
+            clusterConfig.setPassword(RedisPassword.of(redisProperties.getPassword()));
+            logger.info("Redis cluster mode: nodes={}", clusterNodes);
+            return new InstrumentedJedisConnectionFactory(clusterConfig, clientConfiguration, meterRegistry);
         }
 
-        // Configurar timeout de conexión
-        Duration timeout = parseDuration(redisTimeout);
-        JedisClientConfiguration.JedisClientConfigurationBuilder jedisClientConfiguration =
-                JedisClientConfiguration.builder();
-        jedisClientConfiguration.connectTimeout(timeout);
-        jedisClientConfiguration.readTimeout(timeout);
-
-        JedisConnectionFactory jedisConnectionFactory = new JedisConnectionFactory(
-                redisConfig, jedisClientConfiguration.build());
+        RedisClientProperties.Sentinel sentinel = redisProperties.getSentinel();
+        if (sentinel.getMaster() != null && !sentinel.getMaster().isBlank()) {
+            RedisSentinelConfiguration sentinelConfig =
+                    new RedisSentinelConfiguration(sentinel.getMaster(), new HashSet<>(nodes(sentinel.getNodes())));
+            sentinelConfig.setDatabase(redisProperties.getDatabase());
+            sentinelConfig.setPassword(RedisPassword.of(redisProperties.getPassword()));
+            sentinelConfig.setSentinelPassword(RedisPassword.of(sentinel.getPassword()));
+            logger.info("Redis sentinel mode: master={}, sentinels={}", sentinel.getMaster(), sentinel.getNodes());
+            return new InstrumentedJedisConnectionFactory(sentinelConfig, clientConfiguration, meterRegistry);
+        }
 
-        return jedisConnectionFactory;
+        RedisStandaloneConfiguration standaloneConfig =
+                new RedisStandaloneConfiguration(redisProperties.getHost(), redisProperties.getPort());
+        standaloneConfig.setDatabase(redisProperties.getDatabase());
+        standaloneConfig.setPassword(RedisPassword.of(redisProperties.getPassword()));
+        return new InstrumentedJedisConnectionFactory(standaloneConfig, clientConfiguration, meterRegistry);
     }
 
     /**
@@ -88,29 +119,24 @@ public class RedisConfig {
     }
 
     /**
-     * Parsea una duración en formato Spring (ej: "2000ms", "2s")
+     * Contenedor de listeners de pub/sub de Redis (revocación de tokens entre instancias).
+     * Se crea sin listeners para que el arranque no dependa de Redis; los servicios se suscriben después.
      *
-     * @param duration String de duración
-     * @return Duration parseada
+     * @param connectionFactory Factory de conexión a Redis
+     * @return Contenedor de listeners
      */
-    private Duration parseDuration(String duration) {
-        try {
-            if (duration.endsWith("ms")) {
-                long millis = Long.parseLong(duration.substring(0, duration.length() - 2));
-                return Duration.ofMillis(millis);
-            } else if (duration.endsWith("s")) {
-                long seconds = Long.parseLong(duration.substring(0, duration.length() - 1));
-                return Duration.ofSeconds(seconds);
-            } else if (duration.endsWith("m")) {
-                long minutes = Long.parseLong(duration.substring(0, duration.length() - 1));
-                return Duration.ofMinutes(minutes);
-            } else {
-                // Por defecto, interpretar como milisegundos
-                return Duration.ofMillis(Long.parseLong(duration));
-            }
-        } catch (Exception e) {
-            // Valor por defecto en caso de error
-            return Duration.ofMillis(2000);
-        }
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    // Descarta entradas vacías (por ejemplo, una variable de entorno sin definir)
+    private static List<String> nodes(List<String> configured) {
+        return configured.stream()
+                .filter(node -> node != null && !node.isBlank())
+                .map(String::trim)
+                .toList();
     }
 }
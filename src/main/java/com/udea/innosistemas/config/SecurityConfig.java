@@ -13,7 +13,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -51,14 +50,21 @@ public class SecurityConfig {
     @Autowired
     private SecurityHeadersFilter securityHeadersFilter;
 
+    @Autowired
+    private PasswordHashingPolicy passwordHashingPolicy;
+
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
         return new JwtAuthenticationFilter();
     }
 
+    /**
+     * Encoder delegante con el costo de BCrypt calibrado al arrancar; los hashes con costo
+     * desactualizado se rehacen en el siguiente login exitoso
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return passwordHashingPolicy.createPasswordEncoder();
     }
 
     @Bean
@@ -95,11 +101,14 @@ public class SecurityConfig {
                         .requestMatchers("/graphiql", "/graphiql/**", "/api/v1/graphiql", "/api/v1/graphiql/**").permitAll()
                         .requestMatchers("/actuator/health", "/api/v1/actuator/health").permitAll()
                         .requestMatchers("/actuator/info", "/api/v1/actuator/info").permitAll()
+                        // Claves públicas de verificación JWT (JWKS)
+                        .requestMatchers("/.well-known/jwks.json", "/api/v1/.well-known/jwks.json").permitAll()
                         .requestMatchers("/h2-console/**", "/api/v1/h2-console/**").permitAll()
 
                         // Endpoints administrativos - Solo ADMIN
                         .requestMatchers("/actuator/prometheus", "/api/v1/actuator/prometheus").hasRole("ADMIN")
                         .requestMatchers("/actuator/metrics", "/api/v1/actuator/metrics").hasRole("ADMIN")
+                        .requestMatchers("/actuator/graphqlslow", "/api/v1/actuator/graphqlslow").hasRole("ADMIN")
                         .requestMatchers("/api/v1/admin/**").hasRole("ADMIN")
 
                         // Endpoints de estudiantes - STUDENT o ADMIN
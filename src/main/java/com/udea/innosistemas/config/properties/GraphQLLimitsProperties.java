@@ -0,0 +1,141 @@
+package com.udea.innosistemas.config.properties;
+
+import com.udea.innosistemas.entity.UserRole;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Límites de forma y costo de las operaciones GraphQL (prefijo {@code innosistemas.graphql.limits}).
+ * Cada rol tiene un presupuesto de profundidad y de costo; las peticiones sin autenticar usan el
+ * presupuesto anónimo. El costo de un campo es 1 (o el configurado en {@code field-costs}) multiplicado
+ * por el tamaño esperado de las listas que lo contienen.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@ConfigurationProperties(prefix = "innosistemas.graphql.limits")
+public class GraphQLLimitsProperties {
+
+    /**
+     * Activa la admisión por profundidad y costo
+     */
+    private boolean enabled = true;
+
+    /**
+     * Tamaño esperado de un campo lista sin argumento {@code first}
+     */
+    private int defaultListSize = 10;
+
+    /**
+     * Tope del argumento {@code first} al estimar el tamaño de una lista
+     */
+    private int maxListSize = 100;
+
+    /**
+     * Costo propio de campos concretos, con clave {@code Tipo.campo} (por defecto 1)
+     */
+    private Map<String, Integer> fieldCosts = new HashMap<>();
+
+    /**
+     * Presupuesto de las operaciones sin autenticar
+     */
+    private Budget anonymous = new Budget(5, 100);
+
+    /**
+     * Presupuesto por rol; un rol sin entrada usa el presupuesto anónimo
+     */
+    private Map<UserRole, Budget> roles = new EnumMap<>(UserRole.class);
+
+    /**
+     * @return Presupuesto del rol, o el anónimo si el rol es null o no está configurado
+     */
+    public Budget budgetFor(UserRole role) {
+        Budget budget = role != null ? roles.get(role) : null;
+        return budget != null ? budget : anonymous;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getDefaultListSize() {
+        return defaultListSize;
+    }
+
+    public void setDefaultListSize(int defaultListSize) {
+        this.defaultListSize = defaultListSize;
+    }
+
+    public int getMaxListSize() {
+        return maxListSize;
+    }
+
+    public void setMaxListSize(int maxListSize) {
+        this.maxListSize = maxListSize;
+    }
+
+    public Map<String, Integer> getFieldCosts() {
+        return fieldCosts;
+    }
+
+    public void setFieldCosts(Map<String, Integer> fieldCosts) {
+        this.fieldCosts = fieldCosts;
+    }
+
+    public Budget getAnonymous() {
+        return anonymous;
+    }
+
+    public void setAnonymous(Budget anonymous) {
+        this.anonymous = anonymous;
+    }
+
+    public Map<UserRole, Budget> getRoles() {
+        return roles;
+    }
+
+    public void setRoles(Map<UserRole, Budget> roles) {
+        this.roles = roles;
+    }
+
+    /**
+     * Profundidad y costo máximos de una operación
+     */
+    public static class Budget {
+
+        private int maxDepth;
+
+        private int maxCost;
+
+        public Budget() {
+        }
+
+        public Budget(int maxDepth, int maxCost) {
+            this.maxDepth = maxDepth;
+            this.maxCost = maxCost;
+        }
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+
+        public void setMaxDepth(int maxDepth) {
+            this.maxDepth = maxDepth;
+        }
+
+        public int getMaxCost() {
+            return maxCost;
+        }
+
+        public void setMaxCost(int maxCost) {
+            this.maxCost = maxCost;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.udea.innosistemas.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Propiedades de firma y verificación de tokens JWT (prefijo {@code innosistemas.auth.jwt}).
+ * Define el algoritmo de firma, la clave activa y el anillo de claves anteriores que
+ * se siguen aceptando para verificar tokens durante una rotación.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@ConfigurationProperties(prefix = "innosistemas.auth.jwt")
+public class JwtProperties {
+
+    /**
+     * Secreto HMAC actual (HS256). Si la verificación HMAC está habilitada, se usa también para verificar
+     * tokens emitidos sin kid.
+     */
+    private String secret;
+
+    /**
+     * Algoritmo de firma de nuevos tokens: HS256, ES256 o EdDSA (Ed25519)
+     */
+    private String algorithm = "HS256";
+
+    /**
+     * kid de la clave asimétrica con la que se firman los nuevos tokens
+     */
+    private String activeKid;
+
+    /**
+     * Secretos HMAC anteriores aceptados solo para verificación
+     */
+    private List<String> previousSecrets = new ArrayList<>();
+
+    /**
+     * Anillo de claves asimétricas (actual y anteriores)
+     */
+    private List<SigningKey> keys = new ArrayList<>();
+
+    /**
+     * Permite firmar ES256/EdDSA con un par efímero cuando la clave activa no tiene clave privada.
+     * Solo para desarrollo: los tokens dejan de ser válidos al reiniciar y no se comparten entre instancias.
+     */
+    private boolean allowEphemeralKeys = false;
+
+    /**
+     * Acepta tokens firmados con secretos HMAC (y tokens sin kid) aunque el algoritmo activo sea asimétrico.
+     * Sin valor: habilitada solo con HS256. Con ES256/EdDSA conviene habilitarla únicamente durante la
+     * migración desde HS256, mientras sigan vigentes tokens emitidos con el secreto.
+     */
+    private Boolean hmacVerification;
+
+    public String getSecret() {
+        return secret;
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public String getActiveKid() {
+        return activeKid;
+    }
+
+    public void setActiveKid(String activeKid) {
+        this.activeKid = activeKid;
+    }
+
+    public List<String> getPreviousSecrets() {
+        return previousSecrets;
+    }
+
+    public void setPreviousSecrets(List<String> previousSecrets) {
+        this.previousSecrets = previousSecrets;
+    }
+
+    public List<SigningKey> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(List<SigningKey> keys) {
+        this.keys = keys;
+    }
+
+    public boolean isAllowEphemeralKeys() {
+        return allowEphemeralKeys;
+    }
+
+    public void setAllowEphemeralKeys(boolean allowEphemeralKeys) {
+        this.allowEphemeralKeys = allowEphemeralKeys;
+    }
+
+    public Boolean getHmacVerification() {
+        return hmacVerification;
+    }
+
+    public void setHmacVerification(Boolean hmacVerification) {
+        this.hmacVerification = hmacVerification;
+    }
+
+    /**
+     * Par de claves en formato PEM. La clave privada solo es necesaria para la clave activa;
+     * las claves anteriores pueden declarar únicamente la pública.
+     */
+    public static class SigningKey {
+
+        private String kid;
+
+        /**
+         * Clave privada PKCS#8 en PEM
+         */
+        private Resource privateKey;
+
+        /**
+         * Clave pública X.509 (SubjectPublicKeyInfo) en PEM
+         */
+        private Resource publicKey;
+
+        public String getKid() {
+            return kid;
+        }
+
+        public void setKid(String kid) {
+            this.kid = kid;
+        }
+
+        public Resource getPrivateKey() {
+            return privateKey;
+        }
+
+        public void setPrivateKey(Resource privateKey) {
+            this.privateKey = privateKey;
+        }
+
+        public Resource getPublicKey() {
+            return publicKey;
+        }
+
+        public void setPublicKey(Resource publicKey) {
+            this.publicKey = publicKey;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.udea.innosistemas.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Propiedades del cliente Redis (prefijo {@code spring.redis}).
+ * Define la topología (standalone, Sentinel o Cluster), los timeouts y el pool de conexiones Jedis.
+ * La topología se elige según lo configurado: si hay nodos de cluster se usa Cluster; si hay un
+ * master de Sentinel se usa Sentinel; en otro caso, un único servidor standalone.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@ConfigurationProperties(prefix = "spring.redis")
+public class RedisClientProperties {
+
+    private String host = "localhost";
+
+    private int port = 6379;
+
+    private String password;
+
+    private int database = 0;
+
+    /**
+     * Timeout de conexión y de lectura de cada comando
+     */
+    private Duration timeout = Duration.ofMillis(2000);
+
+    private final Jedis jedis = new Jedis();
+
+    private final Sentinel sentinel = new Sentinel();
+
+    private final Cluster cluster = new Cluster();
+
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public int getDatabase() {
+        return database;
+    }
+
+    public void setDatabase(int database) {
+        this.database = database;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public Jedis getJedis() {
+        return jedis;
+    }
+
+    public Sentinel getSentinel() {
+        return sentinel;
+    }
+
+    public Cluster getCluster() {
+        return cluster;
+    }
+
+    public static class Jedis {
+
+        private final Pool pool = new Pool();
+
+        public Pool getPool() {
+            return pool;
+        }
+    }
+
+    /**
+     * Pool de conexiones compartido por todos los servicios
+     */
+    public static class Pool {
+
+        private int maxActive = 8;
+
+        private int maxIdle = 8;
+
+        private int minIdle = 0;
+
+        /**
+         * Espera máxima por una conexión libre. Se mantiene corta para que el agotamiento del pool
+         * falle rápido (y se cuente en métricas) en lugar de consumir el timeout de la petición.
+         */
+        private Duration maxWait = Duration.ofMillis(200);
+
+        /**
+         * Intervalo del evictor de conexiones ociosas
+         */
+        private Duration timeBetweenEvictionRuns = Duration.ofSeconds(30);
+
+        public int getMaxActive() {
+            return maxActive;
+        }
+
+        public void setMaxActive(int maxActive) {
+            this.maxActive = maxActive;
+        }
+
+        public int getMaxIdle() {
+            return maxIdle;
+        }
+
+        public void setMaxIdle(int maxIdle) {
+            this.maxIdle = maxIdle;
+        }
+
+        public int getMinIdle() {
+            return minIdle;
+        }
+
+        public void setMinIdle(int minIdle) {
+            this.minIdle = minIdle;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        public Duration getTimeBetweenEvictionRuns() {
+            return timeBetweenEvictionRuns;
+        }
+
+        public void setTimeBetweenEvictionRuns(Duration timeBetweenEvictionRuns) {
+            this.timeBetweenEvictionRuns = timeBetweenEvictionRuns;
+        }
+    }
+
+    public static class Sentinel {
+
+        /**
+         * Nombre del master monitoreado por Sentinel
+         */
+        private String master;
+
+        /**
+         * Nodos Sentinel en formato host:puerto
+         */
+        private List<String> nodes = new ArrayList<>();
+
+        private String password;
+
+        public String getMaster() {
+            return master;
+        }
+
+        public void setMaster(String master) {
+            this.master = master;
+        }
+
+        public List<String> getNodes() {
+            return nodes;
+        }
+
+        public void setNodes(List<String> nodes) {
+            this.nodes = nodes;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+
+    public static class Cluster {
+
+        /**
+         * Nodos semilla del cluster en formato host:puerto
+         */
+        private List<String> nodes = new ArrayList<>();
+
+        private int maxRedirects = 5;
+
+        public List<String> getNodes() {
+            return nodes;
+        }
+
+        public void setNodes(List<String> nodes) {
+            this.nodes = nodes;
+        }
+
+        public int getMaxRedirects() {
+            return maxRedirects;
+        }
+
+        public void setMaxRedirects(int maxRedirects) {
+            this.maxRedirects = maxRedirects;
+        }
+    }
+}
@@ -5,146 +5,104 @@ import com.udea.innosistemas.entity.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * DTO para transferir información de equipos
  *
+ * Inmutable, con la lista de miembros no modificable: las lecturas compartidas
+ * ({@code SingleFlightService}) entregan la misma instancia a varios solicitantes.
+ *
  * Autor: Fábrica-Escuela de Software UdeA
  * Versión: 1.0.0
  */
-public class TeamDTO {
-
-    private Long id;
-    private String nombre;
-    private String descripcion;
-    private LocalDateTime fechaCreacion;
-    private LocalDateTime fechaLimite;
-    private Long courseId;
-    private boolean activo;
-    private Integer maxMiembros;
-    private List<TeamMember> miembros;
-    private boolean isVencido;
-    private boolean puedeAgregarMiembros;
-
-    public TeamDTO() {
+public final class TeamDTO {
+
+    private final Long id;
+    private final String nombre;
+    private final String descripcion;
+    private final LocalDateTime fechaCreacion;
+    private final LocalDateTime fechaLimite;
+    private final Long courseId;
+    private final boolean activo;
+    private final Integer maxMiembros;
+    private final List<TeamMember> miembros;
+    private final boolean isVencido;
+    private final boolean puedeAgregarMiembros;
+
+    public TeamDTO(Long id, String nombre, String descripcion, LocalDateTime fechaCreacion,
+                   LocalDateTime fechaLimite, Long courseId, boolean activo, Integer maxMiembros,
+                   List<TeamMember> miembros, boolean vencido, boolean puedeAgregarMiembros) {
+        this.id = id;
+        this.nombre = nombre;
+        this.descripcion = descripcion;
+        this.fechaCreacion = fechaCreacion;
+        this.fechaLimite = fechaLimite;
+        this.courseId = courseId;
+        this.activo = activo;
+        this.maxMiembros = maxMiembros;
+        this.miembros = miembros != null ? List.copyOf(miembros) : null;
+        this.isVencido = vencido;
+        this.puedeAgregarMiembros = puedeAgregarMiembros;
     }
 
     public TeamDTO(Team team) {
-        this.id = team.getId();
-        this.nombre = team.getNombre();
-        this.descripcion = team.getDescripcion();
-        this.fechaCreacion = team.getFechaCreacion();
-        this.fechaLimite = team.getFechaLimite();
-        this.courseId = team.getCourseId();
-        this.activo = team.isActivo();
-        this.maxMiembros = team.getMaxMiembros();
-        this.isVencido = team.isVencido();
-        this.puedeAgregarMiembros = team.puedeAgregarMiembros();
-
-        // Convertir miembros a DTOs si están disponibles
-        if (team.getMiembros() != null) {
-            this.miembros = team.getMiembros().stream()
-                    .map(TeamMember::new)
-                    .collect(Collectors.toList());
-        }
+        this(team, null);
     }
 
     public TeamDTO(Team team, List<User> miembros) {
-        this(team);
-        if (miembros != null) {
-            this.miembros = miembros.stream()
-                    .map(TeamMember::new)
-                    .collect(Collectors.toList());
-        }
+        this(team.getId(), team.getNombre(), team.getDescripcion(), team.getFechaCreacion(),
+                team.getFechaLimite(), team.getCourseId(), team.isActivo(), team.getMaxMiembros(),
+                toMembers(miembros != null ? miembros : team.getMiembros()),
+                team.isVencido(), team.puedeAgregarMiembros());
     }
 
-    // Getters y Setters
-    public Long getId() {
-        return id;
+    // Convertir miembros a DTOs si están disponibles
+    private static List<TeamMember> toMembers(List<User> miembros) {
+        return miembros != null ? miembros.stream().map(TeamMember::new).toList() : null;
     }
 
-    public void setId(Long id) {
-        this.id = id;
+    // Getters
+    public Long getId() {
+        return id;
     }
 
     public String getNombre() {
         return nombre;
     }
 
-    public void setNombre(String nombre) {
-        this.nombre = nombre;
-    }
-
     public String getDescripcion() {
         return descripcion;
     }
 
-    public void setDescripcion(String descripcion) {
-        this.descripcion = descripcion;
-    }
-
     public LocalDateTime getFechaCreacion() {
         return fechaCreacion;
     }
 
-    public void setFechaCreacion(LocalDateTime fechaCreacion) {
-        this.fechaCreacion = fechaCreacion;
-    }
-
     public LocalDateTime getFechaLimite() {
         return fechaLimite;
     }
 
-    public void setFechaLimite(LocalDateTime fechaLimite) {
-        this.fechaLimite = fechaLimite;
-    }
-
     public Long getCourseId() {
         return courseId;
     }
 
-    public void setCourseId(Long courseId) {
-        this.courseId = courseId;
-    }
-
     public boolean isActivo() {
         return activo;
     }
 
-    public void setActivo(boolean activo) {
-        this.activo = activo;
-    }
-
     public Integer getMaxMiembros() {
         return maxMiembros;
     }
 
-    public void setMaxMiembros(Integer maxMiembros) {
-        this.maxMiembros = maxMiembros;
-    }
-
     public List<TeamMember> getMiembros() {
         return miembros;
     }
 
-    public void setMiembros(List<TeamMember> miembros) {
-        this.miembros = miembros;
-    }
-
     public boolean isVencido() {
         return isVencido;
     }
 
-    public void setVencido(boolean vencido) {
-        isVencido = vencido;
-    }
-
     public boolean isPuedeAgregarMiembros() {
         return puedeAgregarMiembros;
     }
-
-    public void setPuedeAgregarMiembros(boolean puedeAgregarMiembros) {
-        this.puedeAgregarMiembros = puedeAgregarMiembros;
-    }
 }
@@ -6,96 +6,70 @@ import com.udea.innosistemas.entity.UserRole;
 /**
  * DTO con información de un miembro de un equipo.
  *
+ * Inmutable: las lecturas compartidas ({@code SingleFlightService}) entregan la misma instancia a varios
+ * solicitantes.
+ *
  * Autor: Fábrica-Escuela de Software UdeA
  * Versión: 1.0.0
  */
-public class TeamMember {
-
-    private Long id;
-    private String email;
-    private String firstName;
-    private String lastName;
-    private String fullName;
-    private UserRole role;
-    private Long teamId;
-    private Long courseId;
-
-    public TeamMember() {
+public final class TeamMember {
+
+    private final Long id;
+    private final String email;
+    private final String firstName;
+    private final String lastName;
+    private final String fullName;
+    private final UserRole role;
+    private final Long teamId;
+    private final Long courseId;
+
+    public TeamMember(Long id, String email, String firstName, String lastName, String fullName,
+                      UserRole role, Long teamId, Long courseId) {
+        this.id = id;
+        this.email = email;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.fullName = fullName;
+        this.role = role;
+        this.teamId = teamId;
+        this.courseId = courseId;
     }
 
     public TeamMember(User user) {
-        this.id = user.getId();
-        this.email = user.getEmail();
-        this.firstName = user.getFirstName();
-        this.lastName = user.getLastName();
-        this.fullName = user.getFullName();
-        this.role = user.getRole();
-        this.teamId = user.getTeamId();
-        this.courseId = user.getCourseId();
+        this(user.getId(), user.getEmail(), user.getFirstName(), user.getLastName(), user.getFullName(),
+                user.getRole(), user.getTeamId(), user.getCourseId());
     }
 
-    // Getters y Setters
+    // Getters
     public Long getId() {
         return id;
     }
 
-    public void setId(Long id) {
-        this.id = id;
-    }
-
     public String getEmail() {
         return email;
     }
 
-    public void setEmail(String email) {
-        this.email = email;
-    }
-
     public String getFirstName() {
         return firstName;
     }
 
-    public void setFirstName(String firstName) {
-        this.firstName = firstName;
-    }
-
     public String getLastName() {
         return lastName;
     }
 
-    public void setLastName(String lastName) {
-        this.lastName = lastName;
-    }
-
     public String getFullName() {
         return fullName;
     }
 
-    public void setFullName(String fullName) {
-        this.fullName = fullName;
-    }
-
     public UserRole getRole() {
         return role;
     }
 
-    public void setRole(UserRole role) {
-        this.role = role;
-    }
-
     public Long getTeamId() {
         return teamId;
     }
 
-    public void setTeamId(Long teamId) {
-        this.teamId = teamId;
-    }
-
     public Long getCourseId() {
         return courseId;
     }
-
-    public void setCourseId(Long courseId) {
-        this.courseId = courseId;
-    }
 }
@@ -1,5 +1,6 @@
 package com.udea.innosistemas.exception;
 
+import graphql.ErrorClassification;
 import graphql.GraphQLError;
 import graphql.GraphqlErrorBuilder;
 import graphql.schema.DataFetchingEnvironment;
@@ -14,6 +15,8 @@ import org.springframework.validation.BindException;
 
 import jakarta.validation.ConstraintViolationException;
 
+import java.util.Map;
+
 //Clase para manejar excepciones específicas en las operaciones GraphQL.
 //Proporciona respuestas de error detalladas y adecuadas según el tipo de excepción.
 // Mejora la experiencia del cliente al proporcionar mensajes de error claros y específicos.
@@ -29,6 +32,16 @@ public class GraphQLExceptionHandler extends DataFetcherExceptionResolverAdapter
     protected GraphQLError resolveToSingleError(Throwable ex, DataFetchingEnvironment env) {
         logger.error("GraphQL error occurred: {}", ex.getMessage(), ex);
 
+        if (ex instanceof LoginThrottledException throttled) {
+            return GraphqlErrorBuilder.newError()
+                    .errorType(ErrorClassification.errorClassification("TOO_MANY_REQUESTS"))
+                    .message(ex.getMessage())
+                    .extensions(Map.of("status", 429, "retryAfterSeconds", throttled.getRetryAfterSeconds()))
+                    .path(env.getExecutionStepInfo().getPath())
+                    .location(env.getField().getSourceLocation())
+                    .build();
+        }
+
         if (ex instanceof AuthenticationException) {
             return GraphqlErrorBuilder.newError()
                     .errorType(ErrorType.UNAUTHORIZED)
@@ -38,6 +51,16 @@ public class GraphQLExceptionHandler extends DataFetcherExceptionResolverAdapter
                     .build();
         }
 
+        if (ex instanceof ServiceUnavailableException) {
+            return GraphqlErrorBuilder.newError()
+                    .errorType(ErrorClassification.errorClassification("SERVICE_UNAVAILABLE"))
+                    .message(ex.getMessage())
+                    .extensions(Map.of("status", 503))
+                    .path(env.getExecutionStepInfo().getPath())
+                    .location(env.getField().getSourceLocation())
+                    .build();
+        }
+
         if (ex instanceof UsernameNotFoundException) {
             return GraphqlErrorBuilder.newError()
                     .errorType(ErrorType.NOT_FOUND)
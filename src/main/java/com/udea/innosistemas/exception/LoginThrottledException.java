@@ -0,0 +1,22 @@
+package com.udea.innosistemas.exception;
+
+/**
+ * Excepción lanzada cuando un intento de login se rechaza por exceso de intentos fallidos,
+ * antes de verificar la contraseña. Se reporta como TOO_MANY_REQUESTS (equivalente a HTTP 429).
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+public class LoginThrottledException extends AuthenticationException {
+
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
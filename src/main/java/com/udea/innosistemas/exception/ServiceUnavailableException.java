@@ -0,0 +1,19 @@
+package com.udea.innosistemas.exception;
+
+/**
+ * Excepción para rechazar rápidamente una operación cuando el servicio está saturado.
+ * Se reporta al cliente como error SERVICE_UNAVAILABLE (equivalente a HTTP 503) para que reintente más tarde.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,8 +1,10 @@
 package com.udea.innosistemas.repository;
 
 import com.udea.innosistemas.entity.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -23,6 +25,21 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
      */
     List<Notification> findByUserId(Long userId);
 
+    /**
+     * Primera página de las notificaciones de un usuario (más recientes primero)
+     */
+    @Query("SELECT n FROM Notification n WHERE n.userId = :userId ORDER BY n.fechaCreacion DESC, n.id DESC")
+    List<Notification> findPageByUserId(@Param("userId") Long userId, Pageable page);
+
+    /**
+     * Página siguiente por keyset: las notificaciones posteriores a (fechaCreacion, id) en el mismo orden
+     */
+    @Query("SELECT n FROM Notification n WHERE n.userId = :userId AND (n.fechaCreacion < :fechaCreacion "
+            + "OR (n.fechaCreacion = :fechaCreacion AND n.id < :id)) ORDER BY n.fechaCreacion DESC, n.id DESC")
+    List<Notification> findPageByUserIdAfter(@Param("userId") Long userId,
+                                             @Param("fechaCreacion") LocalDateTime fechaCreacion,
+                                             @Param("id") Long id, Pageable page);
+
     /**
      * Busca notificaciones no leídas de un usuario
      */
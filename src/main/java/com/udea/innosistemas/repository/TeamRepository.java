@@ -1,8 +1,10 @@
 package com.udea.innosistemas.repository;
 
 import com.udea.innosistemas.entity.Team;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -23,6 +25,12 @@ public interface TeamRepository extends JpaRepository<Team, Long> {
      */
     List<Team> findByCourseId(Long courseId);
 
+    /**
+     * Página de IDs de los equipos de un curso por keyset: los mayores que {@code afterId}, en orden
+     */
+    @Query("SELECT t.id FROM Team t WHERE t.courseId = :courseId AND t.id > :afterId ORDER BY t.id")
+    List<Long> findIdPageByCourseId(@Param("courseId") Long courseId, @Param("afterId") Long afterId, Pageable page);
+
     /**
      * Busca equipos activos
      */
@@ -2,7 +2,11 @@ package com.udea.innosistemas.repository;
 
 import com.udea.innosistemas.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -17,4 +21,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByTeamId(Long teamId);
 
     List<User> findByCourseId(Long courseId);
+
+    /**
+     * Reemplaza el hash de la contraseña sin cargar ni fusionar la entidad completa
+     * (usado al rehacer hashes con costo desactualizado durante el login)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password, u.updatedAt = CURRENT_TIMESTAMP WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
\ No newline at end of file
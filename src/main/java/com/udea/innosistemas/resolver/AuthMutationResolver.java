@@ -5,6 +5,7 @@ import com.udea.innosistemas.dto.LoginRequest;
 import com.udea.innosistemas.dto.LogoutResponse;
 import com.udea.innosistemas.dto.RegisterUserInput;
 import com.udea.innosistemas.dto.UserInfo;
+import com.udea.innosistemas.security.ClientIpResolver;
 import com.udea.innosistemas.security.JwtTokenProvider;
 import com.udea.innosistemas.service.AuthenticationService;
 import com.udea.innosistemas.service.UserRegistrationService;
@@ -22,6 +23,8 @@ import org.springframework.stereotype.Controller;
 import org.springframework.util.StringUtils;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Resolver GraphQL para manejar mutaciones de autenticación.
  * Proporciona endpoints para login, logout, refresh token y gestión de sesiones.
@@ -43,6 +46,9 @@ public class AuthMutationResolver {
     @Autowired
     private JwtTokenProvider tokenProvider;
 
+    @Autowired
+    private ClientIpResolver clientIpResolver;
+
     @Autowired(required = false)
     private HttpServletRequest request;
 
@@ -51,15 +57,16 @@ public class AuthMutationResolver {
      *
      * @param email Email del usuario
      * @param password Contraseña del usuario
-     * @return AuthResponse con tokens y información del usuario
+     * @return AuthResponse con tokens y información del usuario (asíncrono: la contraseña se verifica en el pool de hashing)
      */
     @MutationMapping
     @PreAuthorize("permitAll()")
-    public AuthResponse login(
+    public CompletableFuture<AuthResponse> login(
             @Argument @Valid @Email @NotBlank String email,
             @Argument @Valid @NotBlank String password) {
         LoginRequest loginRequest = new LoginRequest(email, password);
-        return authenticationService.login(loginRequest);
+        String clientIp = request != null ? clientIpResolver.resolve(request) : null;
+        return authenticationService.login(loginRequest, clientIp);
     }
 
     /**
@@ -4,10 +4,17 @@ import com.udea.innosistemas.entity.User;
 import com.udea.innosistemas.entity.UserRole;
 import com.udea.innosistemas.exception.AuthenticationException;
 import com.udea.innosistemas.repository.UserRepository;
+import com.udea.innosistemas.security.Permission;
+import com.udea.innosistemas.security.PermissionRegistry;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import graphql.schema.SelectedField;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.util.Set;
+import java.util.stream.Collectors;
+
 /**
  * Clase base abstracta para todos los resolvers GraphQL
  * Proporciona funcionalidad común para:
@@ -21,9 +28,17 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
  */
 public abstract class BaseResolver {
 
+    /**
+     * Clave del GraphQLContext con el lote de elementos de una entrega incremental (@stream)
+     */
+    public static final String STREAMED_BATCH = "innosistemas.streamedBatch";
+
     @Autowired
     protected UserRepository userRepository;
 
+    @Autowired
+    protected PermissionRegistry permissionRegistry;
+
     /**
      * Obtiene el usuario actualmente autenticado desde el contexto de seguridad
      *
@@ -58,17 +73,26 @@ public abstract class BaseResolver {
      * @return true si el usuario tiene el rol
      */
     protected boolean hasRole(UserRole role) {
-        return getCurrentUser().getRole() == role;
+        return permissionRegistry.roleOf(SecurityContextHolder.getContext().getAuthentication()) == role;
+    }
+
+    /**
+     * Verifica si el rol del usuario actual tiene un permiso (sin consultar la base de datos)
+     *
+     * @param permission Permiso a verificar
+     * @return true si el usuario tiene el permiso
+     */
+    protected boolean hasPermission(Permission permission) {
+        return permissionRegistry.hasPermission(SecurityContextHolder.getContext().getAuthentication(), permission);
     }
 
     /**
-     * Verifica si el usuario actual es profesor o admin
+     * Verifica si el usuario actual es personal docente (profesor, admin o TA)
      *
-     * @return true si es profesor o admin
+     * @return true si es profesor, admin o TA
      */
     protected boolean isProfessorOrAdmin() {
-        UserRole role = getCurrentUser().getRole();
-        return role == UserRole.PROFESSOR || role == UserRole.ADMIN || role == UserRole.TA;
+        return hasPermission(Permission.TEAM_SUPERVISE);
     }
 
     /**
@@ -80,12 +104,12 @@ public abstract class BaseResolver {
      * @throws AuthenticationException si no tiene permiso
      */
     protected void validateTeamAccess(Long teamId) {
-        User currentUser = getCurrentUser();
+        if (hasPermission(Permission.TEAM_SUPERVISE)) {
+            return;
+        }
 
-        if (currentUser.getRole() == UserRole.STUDENT) {
-            if (!teamId.equals(currentUser.getTeamId())) {
-                throw new AuthenticationException("No tienes permiso para acceder a este equipo");
-            }
+        if (!teamId.equals(getCurrentUser().getTeamId())) {
+            throw new AuthenticationException("No tienes permiso para acceder a este equipo");
         }
     }
 
@@ -115,6 +139,19 @@ public abstract class BaseResolver {
         }
     }
 
+    /**
+     * Obtiene los nombres de los campos que seleccionó el cliente, para leer solo las columnas necesarias
+     *
+     * @param selectionSet Selección del campo que se está resolviendo
+     * @param glob Patrón de campos: "*" para los inmediatos, "miembros/*" para los de un campo anidado
+     * @return Nombres de los campos seleccionados
+     */
+    protected static Set<String> selectedFields(DataFetchingFieldSelectionSet selectionSet, String glob) {
+        return selectionSet.getFields(glob).stream()
+                .map(SelectedField::getName)
+                .collect(Collectors.toSet());
+    }
+
     /**
      * Extrae un valor Long de un Map, con manejo seguro de nulos
      *
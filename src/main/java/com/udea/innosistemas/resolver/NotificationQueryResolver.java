@@ -4,6 +4,7 @@ import com.udea.innosistemas.dto.NotificationDTO;
 import com.udea.innosistemas.service.NotificationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.ContextValue;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
@@ -27,12 +28,18 @@ public class NotificationQueryResolver extends BaseResolver {
 
     /**
      * Obtiene todas las notificaciones del usuario autenticado
+     * En entrega incremental (@stream) cada ejecución resuelve solo el lote que le pasa el handler HTTP
      *
+     * @param streamedBatch Lote de la entrega incremental (null en una ejecución normal)
      * @return Lista de NotificationDTO
      */
     @QueryMapping
     @PreAuthorize("isAuthenticated()")
-    public List<NotificationDTO> getMyNotifications() {
+    public List<NotificationDTO> getMyNotifications(
+            @ContextValue(name = STREAMED_BATCH, required = false) List<NotificationDTO> streamedBatch) {
+        if (streamedBatch != null) {
+            return streamedBatch;
+        }
         Long userId = getCurrentUserId();
         return notificationService.obtenerNotificacionesPorUsuario(userId);
     }
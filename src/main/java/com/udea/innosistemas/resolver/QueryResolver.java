@@ -4,6 +4,7 @@ import com.udea.innosistemas.dto.TeamMember;
 import com.udea.innosistemas.dto.UserInfo;
 import com.udea.innosistemas.dto.UserPermissions;
 import com.udea.innosistemas.service.UserQueryService;
+import graphql.schema.DataFetchingFieldSelectionSet;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
@@ -60,11 +61,12 @@ public class QueryResolver {
      * Los profesores y admins pueden ver cualquier equipo.
      *
      * @param teamId ID del equipo
+     * @param selectionSet Campos seleccionados (solo se leen sus columnas)
      * @return Lista de TeamMember
      */
     @QueryMapping
     @PreAuthorize("isAuthenticated()")
-    public List<TeamMember> getTeamMembers(@Argument Long teamId) {
-        return userQueryService.getTeamMembers(teamId);
+    public List<TeamMember> getTeamMembers(@Argument Long teamId, DataFetchingFieldSelectionSet selectionSet) {
+        return userQueryService.getTeamMembers(teamId, BaseResolver.selectedFields(selectionSet, "*"));
     }
 }
\ No newline at end of file
@@ -2,20 +2,21 @@ package com.udea.innosistemas.resolver;
 
 import com.udea.innosistemas.dto.TeamDTO;
 import com.udea.innosistemas.dto.TeamMember;
-import com.udea.innosistemas.entity.Team;
 import com.udea.innosistemas.entity.User;
-import com.udea.innosistemas.entity.UserRole;
-import com.udea.innosistemas.service.TeamService;
+import com.udea.innosistemas.service.TeamProjectionService;
+import graphql.schema.DataFetchingFieldSelectionSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.ContextValue;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.graphql.data.method.annotation.SchemaMapping;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -33,7 +34,7 @@ public class TeamQueryResolver extends BaseResolver {
     private static final Logger logger = LoggerFactory.getLogger(TeamQueryResolver.class);
 
     @Autowired
-    private TeamService teamService;
+    private TeamProjectionService teamProjectionService;
 
     /**
      * Obtiene un equipo por su ID
@@ -42,55 +43,57 @@ public class TeamQueryResolver extends BaseResolver {
      * Usa BaseResolver para validar permisos
      *
      * @param id ID del equipo
+     * @param selectionSet Campos seleccionados (solo se leen sus columnas)
      * @return TeamDTO
      */
     @QueryMapping
     @PreAuthorize("isAuthenticated()")
-    public TeamDTO getTeamById(@Argument Long id) {
+    public TeamDTO getTeamById(@Argument Long id, DataFetchingFieldSelectionSet selectionSet) {
         logger.info("Obteniendo equipo por ID: {}", id);
 
         // Validar acceso al equipo usando BaseResolver
         validateTeamAccess(id);
 
-        Team team = teamService.obtenerTeamPorId(id)
-                .orElseThrow(() -> new IllegalArgumentException("Equipo no encontrado"));
-
-        // Obtener miembros del equipo
-        List<User> miembros = userRepository.findByTeamId(id);
-
-        return new TeamDTO(team, miembros);
+        // Solo las columnas del equipo y de sus miembros que pidió el cliente
+        TeamDTO team = teamProjectionService.teamById(id, teamFields(selectionSet), memberFields(selectionSet));
+        if (team == null) {
+            throw new IllegalArgumentException("Equipo no encontrado");
+        }
+        return team;
     }
 
     /**
      * Obtiene todos los equipos de un curso
      * Solo accesible para profesores y admins
+     * En entrega incremental (@stream) cada ejecución resuelve solo el lote de IDs que le pasa el handler HTTP
      *
      * @param courseId ID del curso
+     * @param selectionSet Campos seleccionados (solo se leen sus columnas)
+     * @param streamedIds Lote de IDs de la entrega incremental (null en una ejecución normal)
      * @return Lista de TeamDTO
      */
     @QueryMapping
     @PreAuthorize("hasAnyRole('PROFESSOR', 'ADMIN', 'TA')")
-    public List<TeamDTO> getTeamsByCourse(@Argument Long courseId) {
+    public List<TeamDTO> getTeamsByCourse(@Argument Long courseId, DataFetchingFieldSelectionSet selectionSet,
+                                          @ContextValue(name = STREAMED_BATCH, required = false) List<Long> streamedIds) {
+        if (streamedIds != null) {
+            return teamProjectionService.teamsByIds(streamedIds, teamFields(selectionSet), memberFields(selectionSet));
+        }
         logger.info("Obteniendo equipos del curso: {}", courseId);
 
-        List<Team> teams = teamService.obtenerTeamsPorCurso(courseId);
-
-        return teams.stream()
-                .map(team -> {
-                    List<User> miembros = userRepository.findByTeamId(team.getId());
-                    return new TeamDTO(team, miembros);
-                })
-                .collect(Collectors.toList());
+        // Los miembros de todos los equipos se leen en una sola consulta proyectada
+        return teamProjectionService.teamsByCourse(courseId, teamFields(selectionSet), memberFields(selectionSet));
     }
 
     /**
      * Obtiene el equipo del usuario autenticado
      *
+     * @param selectionSet Campos seleccionados (solo se leen sus columnas)
      * @return TeamDTO o null si el usuario no tiene equipo
      */
     @QueryMapping
     @PreAuthorize("isAuthenticated()")
-    public TeamDTO getMyTeam() {
+    public TeamDTO getMyTeam(DataFetchingFieldSelectionSet selectionSet) {
         logger.info("Obteniendo equipo del usuario autenticado");
 
         User currentUser = getCurrentUser();
@@ -100,15 +103,8 @@ public class TeamQueryResolver extends BaseResolver {
             return null;
         }
 
-        Team team = teamService.obtenerTeamPorId(currentUser.getTeamId())
-                .orElse(null);
-
-        if (team == null) {
-            return null;
-        }
-
-        List<User> miembros = userRepository.findByTeamId(team.getId());
-        return new TeamDTO(team, miembros);
+        return teamProjectionService.teamById(currentUser.getTeamId(),
+                teamFields(selectionSet), memberFields(selectionSet));
     }
 
     /**
@@ -116,22 +112,18 @@ public class TeamQueryResolver extends BaseResolver {
      * Solo accesible para profesores y admins
      *
      * @param days Número de días antes de la fecha límite (default: 3)
+     * @param selectionSet Campos seleccionados (solo se leen sus columnas)
      * @return Lista de TeamDTO
      */
     @QueryMapping
     @PreAuthorize("hasAnyRole('PROFESSOR', 'ADMIN', 'TA')")
-    public List<TeamDTO> getTeamsNearDeadline(@Argument(name = "days") Integer days) {
+    public List<TeamDTO> getTeamsNearDeadline(@Argument(name = "days") Integer days,
+                                              DataFetchingFieldSelectionSet selectionSet) {
         int diasLimite = (days != null) ? days : 3;
         logger.info("Obteniendo equipos próximos a vencer en {} días", diasLimite);
 
-        List<Team> teams = teamService.obtenerTeamsProximosAVencer(diasLimite);
-
-        return teams.stream()
-                .map(team -> {
-                    List<User> miembros = userRepository.findByTeamId(team.getId());
-                    return new TeamDTO(team, miembros);
-                })
-                .collect(Collectors.toList());
+        return teamProjectionService.teamsNearDeadline(diasLimite,
+                teamFields(selectionSet), memberFields(selectionSet));
     }
 
     /**
@@ -150,4 +142,11 @@ public class TeamQueryResolver extends BaseResolver {
                 .collect(Collectors.toList());
     }
 
+    private Set<String> teamFields(DataFetchingFieldSelectionSet selectionSet) {
+        return selectedFields(selectionSet, "*");
+    }
+
+    private Set<String> memberFields(DataFetchingFieldSelectionSet selectionSet) {
+        return selectedFields(selectionSet, "miembros/*");
+    }
 }
@@ -0,0 +1,18 @@
+package com.udea.innosistemas.security;
+
+import com.udea.innosistemas.entity.User;
+import com.udea.innosistemas.entity.UserRole;
+
+/**
+ * Datos del usuario autenticado que necesitan las verificaciones de autorización (rol, equipo y curso),
+ * materializados una sola vez por petición GraphQL.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+public record AuthorizedPrincipal(Long userId, String email, UserRole role, Long teamId, Long courseId) {
+
+    public static AuthorizedPrincipal from(User user) {
+        return new AuthorizedPrincipal(user.getId(), user.getEmail(), user.getRole(), user.getTeamId(), user.getCourseId());
+    }
+}
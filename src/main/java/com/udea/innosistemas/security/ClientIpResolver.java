@@ -0,0 +1,99 @@
+package com.udea.innosistemas.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Obtiene la IP del cliente de una petición HTTP. Compartido por el rate limiting y la guardia de intentos de login.
+ *
+ * Los headers X-Forwarded-For y X-Real-IP solo se tienen en cuenta si la conexión llega desde un proxy
+ * de confianza ({@code innosistemas.security.trusted-proxies}, IPs o rangos CIDR). En ese caso se toma la
+ * entrada de X-Forwarded-For más a la derecha que no sea un proxy de confianza: las de la izquierda las
+ * escribe el propio cliente y no sirven para limitar intentos. Sin proxies configurados se usa la IP de la conexión.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Component
+public class ClientIpResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClientIpResolver.class);
+
+    @Value("${innosistemas.security.trusted-proxies:}")
+    private List<String> trustedProxies;
+
+    private List<IpAddressMatcher> trustedMatchers = List.of();
+
+    @PostConstruct
+    public void init() {
+        List<IpAddressMatcher> matchers = new ArrayList<>();
+        for (String proxy : trustedProxies) {
+            if (proxy != null && !proxy.isBlank()) {
+                matchers.add(new IpAddressMatcher(proxy.trim()));
+            }
+        }
+        this.trustedMatchers = List.copyOf(matchers);
+        logger.info("Client IP resolver initialized with {} trusted proxies", trustedMatchers.size());
+    }
+
+    /**
+     * Obtiene la IP del cliente considerando solo los proxies de confianza
+     *
+     * @param request HttpServletRequest
+     * @return IP del cliente
+     */
+    public String resolve(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (!isTrustedProxy(remoteAddr)) {
+            return remoteAddr;
+        }
+
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
+            // Recorrer de derecha a izquierda saltando los proxies propios
+            String[] hops = xForwardedFor.split(",");
+            for (int i = hops.length - 1; i >= 0; i--) {
+                String hop = hops[i].trim();
+                if (!hop.isEmpty() && !isTrustedProxy(hop)) {
+                    return hop;
+                }
+            }
+            return remoteAddr;
+        }
+
+        String xRealIp = request.getHeader("X-Real-IP");
+        if (xRealIp != null && !xRealIp.isEmpty()) {
+            return xRealIp.trim();
+        }
+
+        return remoteAddr;
+    }
+
+    private boolean isTrustedProxy(String address) {
+        // Solo literales IP: un nombre en el header no debe provocar una resolución DNS
+        if (address == null || trustedMatchers.isEmpty() || !isIpLiteral(address)) {
+            return false;
+        }
+        for (IpAddressMatcher matcher : trustedMatchers) {
+            if (matcher.matches(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isIpLiteral(String address) {
+        if (address.indexOf(':') >= 0) {
+            return address.chars().allMatch(c -> c == ':' || c == '.' || Character.digit(c, 16) >= 0);
+        }
+        return !address.isEmpty() && address.chars().allMatch(c -> c == '.' || (c >= '0' && c <= '9'));
+    }
+}
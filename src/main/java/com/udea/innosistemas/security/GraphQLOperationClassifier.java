@@ -0,0 +1,250 @@
+package com.udea.innosistemas.security;
+
+import com.udea.innosistemas.service.PersistedQueryService;
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.FragmentDefinition;
+import graphql.language.FragmentSpread;
+import graphql.language.InlineFragment;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Clasifica operaciones GraphQL a partir del documento parseado, no del texto.
+ *
+ * Cada documento se parsea una sola vez y su clasificación (tipo de operación y campos raíz de cada
+ * operación) se guarda en una caché LRU acotada indexada por el SHA-256 del documento
+ * (el mismo de {@link PersistedQueryService#sha256}), de modo que la caché no retiene el texto de las
+ * consultas. Solo se guardan documentos válidos y, si quien llama no está autenticado, solo los que tienen
+ * únicamente operaciones públicas (mutaciones de autenticación o introspección): un cliente anónimo, que
+ * será rechazado, no puede desplazar de la caché los documentos de los usuarios enviando consultas distintas.
+ * El interceptor de seguridad, el rate limiting de autenticación y las métricas de operaciones consumen
+ * la misma clasificación.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Component
+public class GraphQLOperationClassifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(GraphQLOperationClassifier.class);
+
+    /**
+     * Mutaciones que se permiten sin autenticación
+     */
+    static final Set<String> PUBLIC_AUTH_MUTATIONS = Set.of("login", "refreshToken", "registerUser");
+
+    /**
+     * Tipo de operación; INVALID si el documento no parsea o la operación no existe
+     */
+    public enum Kind {
+        QUERY, MUTATION, SUBSCRIPTION, INVALID
+    }
+
+    /**
+     * Clasificación de una operación
+     *
+     * @param kind Tipo de operación
+     * @param rootFields Nombres reales (no alias) de los campos raíz, con los fragmentos raíz expandidos
+     */
+    public record OperationInfo(Kind kind, Set<String> rootFields) {
+
+        static final OperationInfo INVALID = new OperationInfo(Kind.INVALID, Set.of());
+
+        /**
+         * @return true si todos los campos raíz son de introspección (__schema, __type, __typename)
+         */
+        public boolean isIntrospection() {
+            if (kind != Kind.QUERY || rootFields.isEmpty()) {
+                return false;
+            }
+            for (String field : rootFields) {
+                if (!field.startsWith("__")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return true si es una mutación que solo invoca login, refreshToken o registerUser
+         */
+        public boolean isPublicAuthMutation() {
+            return kind == Kind.MUTATION && !rootFields.isEmpty() && PUBLIC_AUTH_MUTATIONS.containsAll(rootFields);
+        }
+    }
+
+    // Operaciones de un documento por nombre; la clave null es la operación anónima o única
+    private record ParsedDocument(Map<String, OperationInfo> operations) {
+
+        static final ParsedDocument INVALID = new ParsedDocument(Map.of());
+
+        boolean isPublic() {
+            for (OperationInfo operation : operations.values()) {
+                if (!operation.isPublicAuthMutation() && !operation.isIntrospection()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        OperationInfo operation(String operationName) {
+            if (operationName == null || operationName.isEmpty()) {
+                // Sin nombre solo es válido si el documento tiene una única operación
+                return operations.size() == 1 ? operations.values().iterator().next() : OperationInfo.INVALID;
+            }
+            return operations.getOrDefault(operationName, OperationInfo.INVALID);
+        }
+    }
+
+    @Value("${innosistemas.graphql.operation-cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Map<String, ParsedDocument> cache;
+    private Counter hitCounter;
+    private Counter missCounter;
+
+    @PostConstruct
+    public void init() {
+        int capacity = Math.max(1, maxEntries);
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ParsedDocument> eldest) {
+                return size() > capacity;
+            }
+        };
+
+        hitCounter = Counter.builder("innosistemas.graphql.operation.cache")
+                .description("Clasificaciones de operaciones GraphQL resueltas desde la caché")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        missCounter = Counter.builder("innosistemas.graphql.operation.cache")
+                .description("Clasificaciones de operaciones GraphQL resueltas desde la caché")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("innosistemas.graphql.operation.cache.size", this, GraphQLOperationClassifier::size)
+                .description("Documentos GraphQL en la caché de clasificación")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Clasifica la operación indicada de un documento
+     *
+     * @param document Documento GraphQL
+     * @param operationName Nombre de la operación (null si el documento tiene una sola)
+     * @return Clasificación de la operación, o {@link OperationInfo#INVALID}
+     */
+    public OperationInfo classify(String document, String operationName) {
+        if (document == null || document.isEmpty()) {
+            return OperationInfo.INVALID;
+        }
+
+        String hash = PersistedQueryService.sha256(document);
+        ParsedDocument parsed;
+        synchronized (cache) {
+            parsed = cache.get(hash);
+        }
+        if (parsed != null) {
+            hitCounter.increment();
+        } else {
+            missCounter.increment();
+            // Parsear fuera del lock; si dos hilos parsean el mismo documento, ambos llegan al mismo resultado
+            parsed = parse(document);
+            if (parsed != ParsedDocument.INVALID && (parsed.isPublic() || isAuthenticated())) {
+                synchronized (cache) {
+                    cache.put(hash, parsed);
+                }
+            }
+        }
+        return parsed.operation(operationName);
+    }
+
+    int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private static boolean isAuthenticated() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated()
+                && !"anonymousUser".equals(authentication.getName());
+    }
+
+    private static ParsedDocument parse(String source) {
+        Document document;
+        try {
+            document = Parser.parse(source);
+        } catch (InvalidSyntaxException e) {
+            logger.debug("Unparseable GraphQL document: {}", e.getMessage());
+            return ParsedDocument.INVALID;
+        }
+
+        Map<String, FragmentDefinition> fragments = new HashMap<>();
+        for (FragmentDefinition fragment : document.getDefinitionsOfType(FragmentDefinition.class)) {
+            fragments.put(fragment.getName(), fragment);
+        }
+
+        Map<String, OperationInfo> operations = new HashMap<>();
+        for (OperationDefinition operation : document.getDefinitionsOfType(OperationDefinition.class)) {
+            Set<String> rootFields = new LinkedHashSet<>();
+            collectRootFields(operation.getSelectionSet(), fragments, rootFields, new HashSet<>());
+            operations.put(operation.getName(), new OperationInfo(kindOf(operation.getOperation()),
+                    Collections.unmodifiableSet(rootFields)));
+        }
+        return new ParsedDocument(operations);
+    }
+
+    private static Kind kindOf(OperationDefinition.Operation operation) {
+        return switch (operation) {
+            case QUERY -> Kind.QUERY;
+            case MUTATION -> Kind.MUTATION;
+            case SUBSCRIPTION -> Kind.SUBSCRIPTION;
+        };
+    }
+
+    private static void collectRootFields(SelectionSet selectionSet, Map<String, FragmentDefinition> fragments,
+                                          Set<String> rootFields, Set<String> expanded) {
+        if (selectionSet == null) {
+            return;
+        }
+        for (Selection<?> selection : selectionSet.getSelections()) {
+            if (selection instanceof Field field) {
+                rootFields.add(field.getName());
+            } else if (selection instanceof InlineFragment inline) {
+                collectRootFields(inline.getSelectionSet(), fragments, rootFields, expanded);
+            } else if (selection instanceof FragmentSpread spread) {
+                FragmentDefinition fragment = fragments.get(spread.getName());
+                // Un fragmento cíclico o inexistente lo rechaza la validación; aquí basta con no recorrerlo dos veces
+                if (fragment != null && expanded.add(spread.getName())) {
+                    collectRootFields(fragment.getSelectionSet(), fragments, rootFields, expanded);
+                }
+            }
+        }
+    }
+}
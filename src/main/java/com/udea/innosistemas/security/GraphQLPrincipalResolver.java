@@ -0,0 +1,55 @@
+package com.udea.innosistemas.security;
+
+import com.udea.innosistemas.entity.User;
+import com.udea.innosistemas.repository.UserRepository;
+import graphql.GraphQLContext;
+import graphql.schema.DataFetchingEnvironment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resuelve el {@link AuthorizedPrincipal} de la petición GraphQL en curso.
+ *
+ * El principal se materializa la primera vez que un campo lo necesita y se guarda en el
+ * {@link GraphQLContext} de la operación, de modo que todos los campos hermanos y los elementos
+ * de una lista se autorizan con el mismo principal. Si el filtro JWT ya cargó el usuario
+ * (principal {@link User}) no se consulta la base de datos; en otro caso se consulta una sola vez por operación.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Component
+public class GraphQLPrincipalResolver {
+
+    private static final String CONTEXT_KEY = AuthorizedPrincipal.class.getName();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * @param environment Entorno del campo que se está resolviendo
+     * @param authentication Autenticación actual (ya validada)
+     * @return Principal de la operación
+     * @throws AccessDeniedException si el usuario no existe
+     */
+    public AuthorizedPrincipal resolve(DataFetchingEnvironment environment, Authentication authentication) {
+        GraphQLContext context = environment.getGraphQlContext();
+        AuthorizedPrincipal cached = context != null ? context.get(CONTEXT_KEY) : null;
+        if (cached != null && cached.email().equals(authentication.getName())) {
+            return cached;
+        }
+
+        AuthorizedPrincipal principal = authentication.getPrincipal() instanceof User user
+                ? AuthorizedPrincipal.from(user)
+                : userRepository.findByEmail(authentication.getName())
+                .map(AuthorizedPrincipal::from)
+                .orElseThrow(() -> new AccessDeniedException("Usuario no encontrado"));
+        if (context != null) {
+            // Dos campos concurrentes pueden materializarlo a la vez: ambos obtienen el mismo resultado
+            context.put(CONTEXT_KEY, principal);
+        }
+        return principal;
+    }
+}
@@ -1,27 +1,46 @@
 package com.udea.innosistemas.security;
 
-import com.udea.innosistemas.entity.UserRole;
+import com.udea.innosistemas.security.GraphQLOperationClassifier.OperationInfo;
+import com.udea.innosistemas.service.RateLimitingService;
+import graphql.ErrorClassification;
+import graphql.ExecutionResult;
 import graphql.GraphQLError;
 import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
 import graphql.schema.DataFetchingEnvironment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
 import org.springframework.graphql.server.WebGraphQlInterceptor;
 import org.springframework.graphql.server.WebGraphQlRequest;
 import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.graphql.support.DefaultExecutionGraphQlResponse;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
 /**
  * Interceptor GraphQL para validación de permisos a nivel de operación.
  * Se ejecuta antes de cada operación GraphQL y valida que el usuario
  * tenga los permisos necesarios basados en su rol.
  *
+ * La operación se clasifica con {@link GraphQLOperationClassifier} (documento parseado y cacheado),
+ * no buscando subcadenas en el texto: un campo o un comentario llamado "login" ya no vuelve pública
+ * una operación. La misma clasificación aplica el límite estricto a las mutaciones de autenticación
+ * y alimenta el conteo de operaciones por tipo. El costo de cada operación lo mide y lo publica
+ * {@link QueryCostInstrumentation}, que conoce el esquema y los argumentos de las listas.
+ *
  * Autor: Fábrica-Escuela de Software UdeA
  * Versión: 1.0.0
  */
@@ -33,24 +52,46 @@ public class GraphQLSecurityInterceptor implements WebGraphQlInterceptor {
     @Value("${spring.graphql.schema.introspection.enabled:false}")
     private boolean introspectionEnabled;
 
+    @Autowired
+    private GraphQLOperationClassifier operationClassifier;
+
+    @Autowired
+    private RateLimitingService rateLimitingService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<GraphQLOperationClassifier.Kind, Counter> operationCounters =
+            new EnumMap<>(GraphQLOperationClassifier.Kind.class);
+
+    @PostConstruct
+    public void init() {
+        for (GraphQLOperationClassifier.Kind kind : GraphQLOperationClassifier.Kind.values()) {
+            operationCounters.put(kind, Counter.builder("innosistemas.graphql.operations")
+                    .description("Operaciones GraphQL recibidas por tipo")
+                    .tag("type", kind.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
     @Override
     public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-        // Obtener el nombre de la operación
-        String operationName = request.getOperationName();
-        String document = request.getDocument();
+        // Clasificar la operación a partir del documento parseado (cacheado por documento)
+        OperationInfo operation = operationClassifier.classify(request.getDocument(), request.getOperationName());
+        operationCounters.get(operation.kind()).increment();
 
-        logger.debug("=== GraphQL Security Interceptor ===");
-        logger.debug("Operation: {}", operationName);
-        logger.debug("Document: {}", document);
-        logger.debug("Authentication present: {}", authentication != null);
+        logger.debug("GraphQL operation {} ({}) root fields {}", request.getOperationName(),
+                operation.kind(), operation.rootFields());
 
-        if (authentication != null) {
-            logger.debug("Authentication principal: {}", authentication.getPrincipal());
-            logger.debug("Authentication name: {}", authentication.getName());
-            logger.debug("Is authenticated: {}", authentication.isAuthenticated());
-            logger.debug("Authorities: {}", authentication.getAuthorities());
+        // Las mutaciones de autenticación usan el límite estricto, con la clave que calculó RateLimitFilter
+        if (operation.isPublicAuthMutation()) {
+            Object rateLimitKey = request.getAttributes().get(RateLimitFilter.RATE_LIMIT_KEY_ATTRIBUTE);
+            if (rateLimitKey != null && !rateLimitingService.allowAuthRequest(rateLimitKey.toString())) {
+                logger.warn("Auth rate limit exceeded for key: {} on operation {}", rateLimitKey, operation.rootFields());
+                return Mono.just(tooManyRequests(request));
+            }
         }
 
         // Si hay autenticación válida, permitir la operación
@@ -60,35 +101,38 @@ public class GraphQLSecurityInterceptor implements WebGraphQlInterceptor {
             return chain.next(request);
         }
 
-        // Si no hay autenticación, solo permitir operaciones públicas
-        logger.debug("⚠️  No authentication found - checking if operation is public");
-
-        if (document != null) {
-            String docLowerCase = document.toLowerCase();
+        // Sin autenticación solo se permiten login, register y refresh token
+        if (operation.isPublicAuthMutation()) {
+            logger.debug("✅ Public mutation allowed: {}", operation.rootFields());
+            return chain.next(request);
+        }
 
-            // Permitir login, register y refresh token sin autenticación
-            if (docLowerCase.contains("mutation") &&
-                (docLowerCase.contains("login") ||
-                 docLowerCase.contains("refreshtoken") ||
-                 docLowerCase.contains("registeruser"))) {
-                logger.debug("✅ Public mutation allowed: login/register/refresh");
-                return chain.next(request);
-            }
+        // Hash persistido que nadie registró: graphql-java responde PersistedQueryNotFound sin ejecutar nada,
+        // y el cliente reenvía la consulta completa (que se clasifica normalmente)
+        if (PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(request.getDocument())) {
+            return chain.next(request);
+        }
 
-            // Permitir introspección SOLO si está habilitada (perfil dev)
-            if (introspectionEnabled &&
-                (docLowerCase.contains("introspectionquery") ||
-                 docLowerCase.contains("__schema") ||
-                 docLowerCase.contains("__type"))) {
-                logger.debug("✅ Introspection query allowed in development mode");
-                return chain.next(request);
-            }
+        // Permitir introspección SOLO si está habilitada (perfil dev)
+        if (introspectionEnabled && operation.isIntrospection()) {
+            logger.debug("✅ Introspection query allowed in development mode");
+            return chain.next(request);
         }
 
-        logger.warn("❌ Unauthenticated GraphQL request blocked: {}", operationName);
+        logger.warn("❌ Unauthenticated GraphQL request blocked: {}", request.getOperationName());
         return Mono.error(new AccessDeniedException("Autenticación requerida para esta operación"));
     }
 
+    private static WebGraphQlResponse tooManyRequests(WebGraphQlRequest request) {
+        GraphQLError error = GraphqlErrorBuilder.newError()
+                .message("Demasiados intentos de autenticación. Intente más tarde.")
+                .errorType(ErrorClassification.errorClassification("TOO_MANY_REQUESTS"))
+                .extensions(Map.of("status", 429))
+                .build();
+        ExecutionResult result = ExecutionResult.newExecutionResult().addError(error).build();
+        return new WebGraphQlResponse(new DefaultExecutionGraphQlResponse(request.toExecutionInput(), result));
+    }
+
     /**
      * Resolver de excepciones para GraphQL que convierte excepciones de Spring Security
      * en errores GraphQL apropiados.
@@ -0,0 +1,38 @@
+package com.udea.innosistemas.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publica las claves públicas de verificación de tokens JWT en formato JWKS (RFC 7517),
+ * para que un gateway u otro servicio pueda verificar tokens localmente sin compartir secretos.
+ * Con firma HMAC (HS256) el conjunto está vacío: los secretos simétricos nunca se publican.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@RestController
+public class JwksController {
+
+    @Autowired
+    private JwtKeyRing keyRing;
+
+    /**
+     * Conjunto de claves públicas del anillo (clave activa y anteriores)
+     *
+     * @return Documento JWKS
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, List<Map<String, ?>>>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(Map.of("keys", keyRing.getPublicJwks()));
+    }
+}
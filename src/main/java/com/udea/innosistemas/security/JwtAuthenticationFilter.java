@@ -2,6 +2,7 @@ package com.udea.innosistemas.security;
 
 import com.udea.innosistemas.service.TokenBlacklistService;
 import com.udea.innosistemas.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -51,16 +52,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             if (StringUtils.hasText(jwt)) {
                 logger.debug("JWT token (first 50 chars): {}...", jwt.substring(0, Math.min(50, jwt.length())));
 
-                // Verificar que el token no esté en la blacklist
-                if (tokenBlacklistService.isTokenBlacklisted(jwt)) {
-                    logger.warn("Attempted to use blacklisted token");
-                    filterChain.doFilter(request, response);
-                    return;
-                }
-
-                // Validar el token
-                if (tokenProvider.validateToken(jwt)) {
-                    String username = tokenProvider.getUsernameFromJWT(jwt);
+                // Validar el token antes de consultar la blacklist (evita búsquedas para tokens inválidos).
+                // La firma se verifica una sola vez: los claims validados se usan para el jti y el usuario
+                Claims claims = tokenProvider.getValidClaims(jwt);
+                if (claims != null) {
+                    // Verificar que el token no esté en la blacklist ni pertenezca a una familia revocada
+                    String familyId = claims.get("fid", String.class);
+                    boolean revoked = (claims.getId() != null
+                            ? tokenBlacklistService.isTokenIdRevoked(claims.getId())
+                            : tokenBlacklistService.isLegacyTokenBlacklisted(jwt))
+                            || (familyId != null && tokenBlacklistService.isFamilyRevoked(familyId));
+                    if (revoked) {
+                        logger.warn("Attempted to use blacklisted token");
+                        filterChain.doFilter(request, response);
+                        return;
+                    }
+
+                    String username = claims.getSubject();
                     logger.debug("Token is valid for user: {}", username);
 
                     UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
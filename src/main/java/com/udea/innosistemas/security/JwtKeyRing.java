@@ -0,0 +1,248 @@
+package com.udea.innosistemas.security;
+
+import com.udea.innosistemas.config.properties.JwtProperties;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Anillo de claves para firmar y verificar tokens JWT.
+ * Firma con una única clave activa (HS256, ES256 o EdDSA) identificada por {@code kid} en el header,
+ * y verifica con un mapa inmutable kid → clave construido una sola vez al arrancar, de modo que
+ * ninguna verificación vuelve a derivar o decodificar claves.
+ *
+ * Las claves públicas se exponen como JWKS para que otros componentes (por ejemplo, un gateway)
+ * verifiquen tokens sin conocer ningún secreto. Los secretos HMAC nunca se publican.
+ * Los secretos HMAC (y los tokens emitidos antes de incluir kid, que se verifican con el secreto actual)
+ * solo se aceptan si la verificación HMAC está habilitada: siempre con HS256 y, con ES256/EdDSA, solo si
+ * {@code hmac-verification} se habilita explícitamente durante la migración. Con la verificación HMAC
+ * habilitada el arranque falla si el secreto es el valor de ejemplo de la configuración.
+ *
+ * Con ES256/EdDSA el arranque falla si la clave activa no tiene clave privada, salvo que
+ * {@code allow-ephemeral-keys} esté habilitado (perfil dev), en cuyo caso se genera un par efímero.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Component
+public class JwtKeyRing extends LocatorAdapter<Key> {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyRing.class);
+    // Prefijo del secreto de ejemplo de application.yml
+    private static final String PLACEHOLDER_SECRET = "CHANGE_THIS_SECRET_KEY";
+
+    private final String signingKid;
+    private final Key signingKey;
+    private final SecureDigestAlgorithm<Key, ?> signingAlgorithm;
+    private final Key legacyKey;
+    private final Map<String, Key> verificationKeys;
+    private final List<Map<String, ?>> publicJwks;
+
+    public JwtKeyRing(JwtProperties properties) {
+        Map<String, Key> keys = new HashMap<>();
+        List<Map<String, ?>> jwks = new ArrayList<>();
+        String algorithm = properties.getAlgorithm() == null ? "HS256" : properties.getAlgorithm().toUpperCase();
+        boolean hmacVerification = properties.getHmacVerification() != null
+                ? properties.getHmacVerification()
+                : "HS256".equals(algorithm);
+
+        // Secretos HMAC: actual y anteriores (solo verificación, nunca se publican)
+        SecretKey currentSecret = null;
+        if (hmacVerification) {
+            if (properties.getSecret() != null && properties.getSecret().startsWith(PLACEHOLDER_SECRET)) {
+                throw new IllegalStateException("innosistemas.auth.jwt.secret still has the example value;"
+                        + " set JWT_SECRET or disable innosistemas.auth.jwt.hmac-verification");
+            }
+            if (properties.getSecret() != null && !properties.getSecret().isEmpty()) {
+                currentSecret = Keys.hmacShaKeyFor(properties.getSecret().getBytes(StandardCharsets.UTF_8));
+                keys.put(hmacKid(properties.getSecret()), currentSecret);
+            }
+            for (String previous : properties.getPreviousSecrets()) {
+                if (previous != null && !previous.isEmpty()) {
+                    keys.put(hmacKid(previous), Keys.hmacShaKeyFor(previous.getBytes(StandardCharsets.UTF_8)));
+                }
+            }
+        }
+
+        // Claves asimétricas configuradas
+        Map<String, PrivateKey> privateKeys = new HashMap<>();
+        for (JwtProperties.SigningKey configured : properties.getKeys()) {
+            PublicKey publicKey = readPublicKey(configured.getPublicKey());
+            keys.put(configured.getKid(), publicKey);
+            jwks.add(Jwks.builder().key(publicKey).id(configured.getKid()).build());
+            if (configured.getPrivateKey() != null) {
+                privateKeys.put(configured.getKid(), readPrivateKey(configured.getPrivateKey()));
+            }
+        }
+
+        switch (algorithm) {
+            case "HS256" -> {
+                if (currentSecret == null) {
+                    throw new IllegalStateException(hmacVerification
+                            ? "innosistemas.auth.jwt.secret is required for HS256"
+                            : "innosistemas.auth.jwt.hmac-verification cannot be disabled for HS256");
+                }
+                this.signingKid = hmacKid(properties.getSecret());
+                this.signingKey = currentSecret;
+                this.signingAlgorithm = cast(Jwts.SIG.HS256);
+            }
+            case "ES256", "EDDSA" -> {
+                this.signingAlgorithm = "ES256".equals(algorithm) ? cast(Jwts.SIG.ES256) : cast(Jwts.SIG.EdDSA);
+                String kid = properties.getActiveKid();
+                if (kid != null && privateKeys.containsKey(kid)) {
+                    this.signingKid = kid;
+                    this.signingKey = privateKeys.get(kid);
+                } else if (!properties.isAllowEphemeralKeys()) {
+                    throw new IllegalStateException("No private key configured for active kid '" + kid
+                            + "' (" + algorithm + "); configure innosistemas.auth.jwt.keys or enable"
+                            + " innosistemas.auth.jwt.allow-ephemeral-keys for development");
+                } else {
+                    // Sin claves configuradas: par efímero, válido solo para una instancia y hasta reiniciar
+                    KeyPair pair = "ES256".equals(algorithm)
+                            ? Jwts.SIG.ES256.keyPair().build()
+                            : Jwks.CRV.Ed25519.keyPair().build();
+                    this.signingKid = "ephemeral-" + UUID.randomUUID();
+                    this.signingKey = pair.getPrivate();
+                    keys.put(signingKid, pair.getPublic());
+                    jwks.add(Jwks.builder().key(pair.getPublic()).id(signingKid).build());
+                    logger.warn("No private key configured for active kid '{}' - using ephemeral {} key {}",
+                            kid, algorithm, signingKid);
+                }
+            }
+            default -> throw new IllegalStateException("Unsupported JWT algorithm: " + properties.getAlgorithm());
+        }
+
+        this.legacyKey = currentSecret;
+        this.verificationKeys = Map.copyOf(keys);
+        this.publicJwks = List.copyOf(jwks);
+        logger.info("JWT key ring initialized: algorithm={}, signing kid={}, verification keys={}, hmac verification={}",
+                algorithm, signingKid, verificationKeys.keySet(), hmacVerification);
+    }
+
+    /**
+     * @return kid de la clave con la que se firman los nuevos tokens
+     */
+    public String getSigningKid() {
+        return signingKid;
+    }
+
+    /**
+     * @return Clave con la que se firman los nuevos tokens
+     */
+    public Key getSigningKey() {
+        return signingKey;
+    }
+
+    /**
+     * @return Algoritmo con el que se firman los nuevos tokens
+     */
+    public SecureDigestAlgorithm<Key, ?> getSigningAlgorithm() {
+        return signingAlgorithm;
+    }
+
+    /**
+     * @return Claves públicas del anillo en formato JWK (inmutable)
+     */
+    public List<Map<String, ?>> getPublicJwks() {
+        return publicJwks;
+    }
+
+    /**
+     * Resuelve la clave de verificación a partir del kid del header. Sin verificación HMAC, los tokens sin kid
+     * no tienen clave y se rechazan.
+     */
+    @Override
+    protected Key locate(JwsHeader header) {
+        String kid = header.getKeyId();
+        if (kid == null) {
+            if (legacyKey == null) {
+                logger.debug("JWT without kid rejected: HMAC verification disabled");
+            }
+            return legacyKey;
+        }
+        Key key = verificationKeys.get(kid);
+        if (key == null) {
+            logger.debug("Unknown JWT kid: {}", kid);
+        }
+        return key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SecureDigestAlgorithm<Key, ?> cast(SecureDigestAlgorithm<?, ?> algorithm) {
+        return (SecureDigestAlgorithm<Key, ?>) algorithm;
+    }
+
+    /**
+     * kid estable derivado del secreto (prefijo del SHA-256), sin revelar el secreto
+     */
+    private static String hmacKid(String secret) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            return "hs-" + HexFormat.of().formatHex(digest, 0, 8);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static PublicKey readPublicKey(Resource resource) {
+        X509EncodedKeySpec spec = new X509EncodedKeySpec(readPem(resource));
+        for (String algorithm : new String[]{"EC", "Ed25519"}) {
+            try {
+                return KeyFactory.getInstance(algorithm).generatePublic(spec);
+            } catch (GeneralSecurityException ignored) {
+                // Probar con el siguiente algoritmo
+            }
+        }
+        throw new IllegalStateException("Unsupported public key: " + resource);
+    }
+
+    private static PrivateKey readPrivateKey(Resource resource) {
+        PKCS8EncodedKeySpec spec = new PKCS8EncodedKeySpec(readPem(resource));
+        for (String algorithm : new String[]{"EC", "Ed25519"}) {
+            try {
+                return KeyFactory.getInstance(algorithm).generatePrivate(spec);
+            } catch (GeneralSecurityException ignored) {
+                // Probar con el siguiente algoritmo
+            }
+        }
+        throw new IllegalStateException("Unsupported private key: " + resource);
+    }
+
+    private static byte[] readPem(Resource resource) {
+        try (InputStream in = resource.getInputStream()) {
+            String pem = new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+            String base64 = pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+            return Base64.getDecoder().decode(base64);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read key " + resource, e);
+        }
+    }
+}
@@ -2,20 +2,20 @@ package com.udea.innosistemas.security;
 
 import com.udea.innosistemas.entity.User;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 //clase para generar y validar tokens JWT utilizados en la autenticación y autorización de usuarios.
@@ -29,8 +29,8 @@ public class JwtTokenProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
 
-    @Value("${innosistemas.auth.jwt.secret}")
-    private String jwtSecret;
+    @Autowired
+    private JwtKeyRing keyRing;
 
     @Value("${innosistemas.auth.jwt.expiration}")
     private long jwtExpirationInMs;
@@ -38,9 +38,20 @@ public class JwtTokenProvider {
     @Value("${innosistemas.auth.jwt.refresh-expiration}")
     private long refreshExpirationInMs;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Parser inmutable y thread-safe: se construye una vez y resuelve la clave de verificación por kid
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        parser = Jwts.parser()
+                .keyLocator(keyRing)
+                .build();
+    }
+
+    private JwtBuilder signedBuilder() {
+        return Jwts.builder()
+                .header().keyId(keyRing.getSigningKid()).and()
+                .id(UUID.randomUUID().toString());
     }
 
     public String generateToken(Authentication authentication) {
@@ -52,6 +63,16 @@ public class JwtTokenProvider {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs * 1000);
 
+        return signedBuilder()
+                .subject(user.getUsername())
+                .claims(buildUserClaims(user))
+                .issuedAt(now)
+                .expiration(expiryDate)
+                .signWith(keyRing.getSigningKey(), keyRing.getSigningAlgorithm())
+                .compact();
+    }
+
+    private Map<String, Object> buildUserClaims(User user) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", user.getId());
         claims.put("email", user.getEmail());
@@ -78,49 +99,109 @@ public class JwtTokenProvider {
                 .collect(Collectors.joining(","));
         claims.put("authorities", authorities);
 
-        return Jwts.builder()
+        return claims;
+    }
+
+    /**
+     * Access token y refresh token emitidos juntos al iniciar sesión
+     */
+    public record TokenPair(String accessToken, String refreshToken) {
+    }
+
+    /**
+     * Emite el access token y el refresh token de una nueva sesión construyendo los claims del usuario una sola vez
+     *
+     * @param user Usuario autenticado
+     * @param familyId ID de la familia del refresh token (ID de la sesión)
+     * @param refreshTokenId jti del refresh token
+     * @param familyExpiresAt Expiración absoluta de la familia
+     * @return Par de tokens firmados
+     */
+    public TokenPair generateTokenPair(User user, String familyId, String refreshTokenId, Date familyExpiresAt) {
+        Date now = new Date();
+        Map<String, Object> claims = buildUserClaims(user);
+
+        String accessToken = signedBuilder()
                 .subject(user.getUsername())
                 .claims(claims)
+                .claim("fid", familyId)
                 .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .expiration(new Date(now.getTime() + jwtExpirationInMs * 1000))
+                .signWith(keyRing.getSigningKey(), keyRing.getSigningAlgorithm())
                 .compact();
+
+        String refreshToken = signedBuilder()
+                .id(refreshTokenId)
+                .subject(user.getUsername())
+                .claim("userId", claims.get("userId"))
+                .claim("type", "refresh")
+                .claim("fid", familyId)
+                .issuedAt(now)
+                .expiration(familyExpiresAt)
+                .signWith(keyRing.getSigningKey(), keyRing.getSigningAlgorithm())
+                .compact();
+
+        return new TokenPair(accessToken, refreshToken);
     }
 
     public String generateTokenFromUser(User user) {
         return generateTokenWithClaims(user);
     }
 
+    /**
+     * Emite un access token ligado a la familia de refresh tokens (sesión) que lo originó, para que
+     * revocar la familia invalide también sus access tokens
+     *
+     * @param user Usuario autenticado
+     * @param familyId ID de la familia del refresh token (ID de la sesión)
+     * @return Access token firmado con el claim {@code fid}
+     */
+    public String generateTokenFromUser(User user, String familyId) {
+        Date now = new Date();
+
+        return signedBuilder()
+                .subject(user.getUsername())
+                .claims(buildUserClaims(user))
+                .claim("fid", familyId)
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + jwtExpirationInMs * 1000))
+                .signWith(keyRing.getSigningKey(), keyRing.getSigningAlgorithm())
+                .compact();
+    }
+
     // Deprecated: Usar generateTokenFromUser en su lugar
     @Deprecated
     public String generateTokenFromUsername(String username) {
         Date expiryDate = new Date(System.currentTimeMillis() + jwtExpirationInMs * 1000);
 
-        return Jwts.builder()
+        return signedBuilder()
                 .subject(username)
                 .issuedAt(new Date())
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(keyRing.getSigningKey(), keyRing.getSigningAlgorithm())
                 .compact();
     }
 
     public String getUsernameFromJWT(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        Claims claims = getClaims(token);
 
         return claims.getSubject();
     }
 
     public boolean validateToken(String authToken) {
+        return getValidClaims(authToken) != null;
+    }
+
+    /**
+     * Valida el token (firma y expiración) y retorna sus claims, para que quien los necesite no vuelva a
+     * verificar la firma
+     *
+     * @param authToken Token a validar
+     * @return Claims del token, o null si no es válido
+     */
+    public Claims getValidClaims(String authToken) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(authToken);
-            return true;
+            return parser.parseSignedClaims(authToken).getPayload();
         } catch (MalformedJwtException ex) {
             logger.error("Invalid JWT token: {}", ex.getMessage());
         } catch (ExpiredJwtException ex) {
@@ -132,15 +213,11 @@ public class JwtTokenProvider {
         } catch (Exception ex) {
             logger.error("JWT token validation error: {}", ex.getMessage());
         }
-        return false;
+        return null;
     }
 
     public Date getExpirationDateFromJWT(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        Claims claims = getClaims(token);
 
         return claims.getExpiration();
     }
@@ -163,36 +240,57 @@ public class JwtTokenProvider {
         claims.put("userId", user.getId());
         claims.put("type", "refresh");
 
-        return Jwts.builder()
+        return signedBuilder()
                 .subject(user.getUsername())
                 .claims(claims)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(keyRing.getSigningKey(), keyRing.getSigningAlgorithm())
                 .compact();
     }
 
+    // Refresh token perteneciente a una familia (fid = id de la sesión); la expiración es la absoluta de la familia
+    public String generateRefreshTokenFromUser(User user, String familyId, String tokenId, Date expiresAt) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("userId", user.getId());
+        claims.put("type", "refresh");
+        claims.put("fid", familyId);
+
+        return signedBuilder()
+                .id(tokenId)
+                .subject(user.getUsername())
+                .claims(claims)
+                .issuedAt(new Date())
+                .expiration(expiresAt)
+                .signWith(keyRing.getSigningKey(), keyRing.getSigningAlgorithm())
+                .compact();
+    }
+
+    public long getExpirationMillis() {
+        return jwtExpirationInMs * 1000;
+    }
+
+    public long getRefreshExpirationMillis() {
+        return refreshExpirationInMs * 1000;
+    }
+
     // Deprecated: Usar generateRefreshTokenFromUser en su lugar
     @Deprecated
     public String generateRefreshTokenFromUsername(String username) {
         Date expiryDate = new Date(System.currentTimeMillis() + refreshExpirationInMs * 1000);
 
-        return Jwts.builder()
+        return signedBuilder()
                 .subject(username)
                 .claim("type", "refresh")
                 .issuedAt(new Date())
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(keyRing.getSigningKey(), keyRing.getSigningAlgorithm())
                 .compact();
     }
 
     public boolean isRefreshToken(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            Claims claims = getClaims(token);
 
             return "refresh".equals(claims.get("type", String.class));
         } catch (Exception e) {
@@ -203,11 +301,7 @@ public class JwtTokenProvider {
 
     public String getTokenId(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            Claims claims = getClaims(token);
 
             return claims.getId();
         } catch (Exception e) {
@@ -292,11 +386,12 @@ public class JwtTokenProvider {
         }
     }
 
+    // Verifica la firma una sola vez y retorna todos los claims; lanza JwtException si el token no es válido
+    public Claims parseClaims(String token) {
+        return getClaims(token);
+    }
+
     private Claims getClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 }
\ No newline at end of file
@@ -0,0 +1,324 @@
+package com.udea.innosistemas.security;
+
+import com.udea.innosistemas.exception.LoginThrottledException;
+import com.udea.innosistemas.service.RedisCircuitBreaker;
+import com.udea.innosistemas.store.KeyValueStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Guardia de intentos de login que se consulta antes de cualquier verificación de contraseña.
+ * Cuenta los fallos por email y por IP y, superado un número de intentos libres, bloquea la clave
+ * durante un tiempo que crece exponencialmente hasta un máximo (bloqueo temporal). Mientras la clave
+ * está bloqueada el intento se rechaza sin consultar la base de datos ni calcular BCrypt.
+ *
+ * El estado de cada clave ocupa un único long: fallos en los 16 bits altos y, en los 48 bajos, el fin del
+ * bloqueo o el instante del último fallo (epoch ms); los fallos se olvidan pasado {@code reset-after-ms}.
+ *
+ * Si el {@link KeyValueStore} es compartido (Redis), el estado de cada clave vive en él: cada fallo se
+ * registra con compare-and-set sobre el valor leído, de modo que los fallos concurrentes de varias
+ * instancias se suman sin perderse, y la verificación lee el estado compartido (así ve los bloqueos y los
+ * logins exitosos de las demás instancias). El mapa local guarda la última copia conocida: las llamadas al
+ * almacén pasan por el {@link RedisCircuitBreaker} y, con el circuito abierto, se usa solo esa copia.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Component
+public class LoginAttemptGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginAttemptGuard.class);
+    private static final String MIRROR_PREFIX = "login:guard:";
+    private static final long UNTIL_MASK = (1L << 48) - 1;
+    private static final int MAX_FAILURES = 0xFFFF;
+    // Reintentos del compare-and-set antes de registrar el fallo solo en memoria
+    private static final int MAX_MIRROR_ATTEMPTS = 8;
+
+    @Autowired(required = false)
+    private KeyValueStore keyValueStore;
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${innosistemas.auth.login-guard.enabled:true}")
+    private boolean enabled;
+
+    @Value("${innosistemas.auth.login-guard.email-free-attempts:3}")
+    private int emailFreeAttempts;
+
+    @Value("${innosistemas.auth.login-guard.ip-free-attempts:20}")
+    private int ipFreeAttempts;
+
+    @Value("${innosistemas.auth.login-guard.base-delay-ms:1000}")
+    private long baseDelayMillis;
+
+    @Value("${innosistemas.auth.login-guard.max-delay-ms:900000}")
+    private long maxDelayMillis;
+
+    @Value("${innosistemas.auth.login-guard.reset-after-ms:900000}")
+    private long resetAfterMillis;
+
+    private final ConcurrentHashMap<String, Long> attempts = new ConcurrentHashMap<>();
+
+    private Counter emailRejectedCounter;
+    private Counter ipRejectedCounter;
+    private Counter emailThrottledCounter;
+    private Counter ipThrottledCounter;
+
+    @PostConstruct
+    public void init() {
+        emailRejectedCounter = counter("rejected", "email");
+        ipRejectedCounter = counter("rejected", "ip");
+        emailThrottledCounter = counter("throttled", "email");
+        ipThrottledCounter = counter("throttled", "ip");
+        Gauge.builder("innosistemas.auth.login.guard.tracked", attempts, ConcurrentHashMap::size)
+                .description("Claves (email o IP) con intentos fallidos recientes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Verifica que el email y la IP no estén bloqueados (con el estado compartido si lo hay)
+     *
+     * @param email Email del intento
+     * @param clientIp IP del cliente (puede ser null)
+     * @throws LoginThrottledException si alguna de las claves está bloqueada
+     */
+    public void check(String email, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        String emailKey = emailKey(email);
+        String ipKey = ipKey(clientIp);
+        if (mirrorEnabled()) {
+            readMirror(emailKey, ipKey);
+        }
+        long emailBlock = remainingBlock(emailKey, now);
+        long ipBlock = remainingBlock(ipKey, now);
+        if (emailBlock <= 0 && ipBlock <= 0) {
+            return;
+        }
+
+        (emailBlock > 0 ? emailRejectedCounter : ipRejectedCounter).increment();
+        long retryAfter = Math.max(emailBlock, ipBlock);
+        long seconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(retryAfter + 999));
+        throw new LoginThrottledException(
+                "Demasiados intentos fallidos. Intente de nuevo en " + seconds + " segundos", seconds);
+    }
+
+    /**
+     * Registra un intento fallido para el email y la IP, imponiendo un bloqueo si se superan los intentos libres
+     */
+    public void recordFailure(String email, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (registerFailure(emailKey(email), emailFreeAttempts, now)) {
+            emailThrottledCounter.increment();
+        }
+        if (clientIp != null && registerFailure(ipKey(clientIp), ipFreeAttempts, now)) {
+            ipThrottledCounter.increment();
+        }
+    }
+
+    /**
+     * Limpia los fallos del email tras un login exitoso. Los de la IP se conservan para que
+     * una cuenta válida no sirva para reiniciar el contador de un atacante.
+     */
+    public void recordSuccess(String email) {
+        if (!enabled) {
+            return;
+        }
+
+        String key = emailKey(email);
+        attempts.remove(key);
+        if (mirrorEnabled()) {
+            circuitBreaker.execute(() -> keyValueStore.delete(MIRROR_PREFIX + key), () -> false);
+        }
+    }
+
+    /**
+     * Descarta las claves cuyo bloqueo y ventana de reinicio ya pasaron, para acotar la memoria
+     */
+    @Scheduled(fixedDelayString = "${innosistemas.auth.login-guard.cleanup-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        attempts.entrySet().removeIf(entry -> isExpired(entry.getValue(), now));
+    }
+
+    private boolean registerFailure(String key, int freeAttempts, long now) {
+        long[] delay = new long[1];
+        long updated = mirrorEnabled()
+                ? circuitBreaker.execute(() -> registerShared(key, freeAttempts, now, delay),
+                        () -> registerLocal(key, freeAttempts, now, delay))
+                : registerLocal(key, freeAttempts, now, delay);
+
+        if (delay[0] > 0) {
+            logger.warn("Login attempts throttled for {} key ({} failures) during {} ms",
+                    scope(key), failures(updated), delay[0]);
+            return true;
+        }
+        return false;
+    }
+
+    private long registerLocal(String key, int freeAttempts, long now, long[] delay) {
+        return attempts.compute(key, (k, current) ->
+                nextFailure(current == null ? 0 : current, freeAttempts, now, delay));
+    }
+
+    /**
+     * Suma el fallo al estado compartido con compare-and-set sobre el valor leído; si otra instancia lo
+     * cambió entre la lectura y la escritura, se vuelve a leer. El estado local también cuenta por si el
+     * compartido se perdió (reinicio de Redis o fallos registrados con el circuito abierto).
+     */
+    private long registerShared(String key, int freeAttempts, long now, long[] delay) {
+        String mirrorKey = MIRROR_PREFIX + key;
+        for (int attempt = 0; attempt < MAX_MIRROR_ATTEMPTS; attempt++) {
+            String stored = keyValueStore.get(mirrorKey);
+            long base = latest(attempts.getOrDefault(key, 0L), parse(stored), now);
+            long updated = nextFailure(base, freeAttempts, now, delay);
+            String value = String.valueOf(updated);
+            long ttl = Math.max(until(updated), now) - now + resetAfterMillis;
+            boolean written = stored == null
+                    ? keyValueStore.setIfAbsent(mirrorKey, value, ttl)
+                    : keyValueStore.compareAndSet(mirrorKey, stored, value, ttl);
+            if (written) {
+                attempts.merge(key, updated, (current, candidate) -> latest(current, candidate, now));
+                return updated;
+            }
+        }
+        logger.warn("Login guard state for {} key kept changing, failure recorded locally", scope(key));
+        return registerLocal(key, freeAttempts, now, delay);
+    }
+
+    // Estado con el fallo actual sumado; impone el bloqueo si se superan los intentos libres
+    private long nextFailure(long state, int freeAttempts, long now, long[] delay) {
+        long base = live(state, now);
+        int failures = Math.min(MAX_FAILURES, failures(base) + 1);
+        long until = Math.max(until(base), now);
+        delay[0] = 0;
+        if (failures > freeAttempts) {
+            int exponent = Math.min(failures - freeAttempts - 1, 30);
+            delay[0] = Math.min(maxDelayMillis, baseDelayMillis << exponent);
+            until = now + delay[0];
+        }
+        return pack(failures, until);
+    }
+
+    // Reemplaza la copia local de las claves del intento por el estado compartido (si no se pudo leer, la conserva)
+    private void readMirror(String emailKey, String ipKey) {
+        List<String> mirrorKeys = new ArrayList<>(2);
+        if (emailKey != null) {
+            mirrorKeys.add(MIRROR_PREFIX + emailKey);
+        }
+        if (ipKey != null) {
+            mirrorKeys.add(MIRROR_PREFIX + ipKey);
+        }
+        if (mirrorKeys.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> mirrored = circuitBreaker.execute(() -> keyValueStore.getAll(mirrorKeys), () -> null);
+        if (mirrored == null) {
+            return;
+        }
+        for (String mirrorKey : mirrorKeys) {
+            String key = mirrorKey.substring(MIRROR_PREFIX.length());
+            long state = parse(mirrored.get(mirrorKey));
+            if (state != 0) {
+                attempts.put(key, state);
+            } else {
+                attempts.remove(key);
+            }
+        }
+    }
+
+    private long remainingBlock(String key, long now) {
+        if (key == null) {
+            return 0;
+        }
+        Long state = attempts.get(key);
+        return state == null ? 0 : until(state) - now;
+    }
+
+    private boolean isExpired(long state, long now) {
+        return until(state) + resetAfterMillis < now;
+    }
+
+    // El estado, o 0 si sus fallos ya se olvidaron
+    private long live(long state, long now) {
+        return isExpired(state, now) ? 0 : state;
+    }
+
+    // El más avanzado de dos estados vigentes: más fallos o, con los mismos, el bloqueo más largo
+    private long latest(long first, long second, long now) {
+        return Math.max(live(first, now), live(second, now));
+    }
+
+    // Un almacén local no aporta nada: el estado ya está en memoria
+    private boolean mirrorEnabled() {
+        return keyValueStore != null && keyValueStore.isShared();
+    }
+
+    private static long parse(String value) {
+        try {
+            return value != null ? Long.parseLong(value) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // Tipo de clave (email o ip) para los logs, sin el email ni la IP
+    private static String scope(String key) {
+        return key.substring(0, key.indexOf(':'));
+    }
+
+    private static String emailKey(String email) {
+        return email == null ? null : "email:" + email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String ipKey(String clientIp) {
+        return clientIp == null ? null : "ip:" + clientIp;
+    }
+
+    private static long pack(int failures, long until) {
+        return ((long) failures << 48) | (until & UNTIL_MASK);
+    }
+
+    private static int failures(long state) {
+        return (int) (state >>> 48);
+    }
+
+    // Fin del bloqueo si la clave está bloqueada; si no, instante del último fallo (siempre en el pasado)
+    private static long until(long state) {
+        return state & UNTIL_MASK;
+    }
+
+    private Counter counter(String outcome, String scope) {
+        return Counter.builder("innosistemas.auth.login.guard")
+                .tag("outcome", outcome)
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+}
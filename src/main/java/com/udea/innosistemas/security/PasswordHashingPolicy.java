@@ -0,0 +1,134 @@
+package com.udea.innosistemas.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Política de hashing de contraseñas calibrada contra la CPU en la que corre la instancia.
+ * Al arrancar mide el tiempo de BCrypt y elige el mayor costo cuyo hash cabe en el presupuesto
+ * configurado (sin bajar del mínimo), en lugar de depender del costo por defecto.
+ *
+ * El encoder resultante es un {@link DelegatingPasswordEncoder}: los hashes se guardan con prefijo
+ * de algoritmo ({@code {bcrypt}}) y {@code upgradeEncoding} detecta los que tienen un costo menor,
+ * otro algoritmo o ningún prefijo (hashes anteriores), para rehacerlos en el siguiente login exitoso.
+ * Las cargas masivas pueden usar {@code {bcrypt-import}}, un costo bajo que se actualiza igual al primer login.
+ *
+ * El costo elegido y el tiempo medido se exportan como gauges.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Component
+public class PasswordHashingPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingPolicy.class);
+    public static final String ENCODING_ID = "bcrypt";
+    public static final String IMPORT_ENCODING_ID = "bcrypt-import";
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+    private static final int CALIBRATION_RUNS = 3;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${innosistemas.auth.password-hashing.target-millis:100}")
+    private long targetMillis;
+
+    @Value("${innosistemas.auth.password-hashing.min-strength:10}")
+    private int minStrength;
+
+    @Value("${innosistemas.auth.password-hashing.max-strength:14}")
+    private int maxStrength;
+
+    @Value("${innosistemas.auth.password-hashing.import-strength:6}")
+    private int importStrength;
+
+    private int strength;
+    private double measuredMillis;
+    private BCryptPasswordEncoder importEncoder;
+
+    @PostConstruct
+    public void calibrate() {
+        // Mediana de varias mediciones al costo mínimo; cada punto de costo duplica el tiempo
+        double baseMillis = medianMillis(new BCryptPasswordEncoder(minStrength));
+        int chosen = minStrength;
+        while (chosen < maxStrength && baseMillis * (1L << (chosen + 1 - minStrength)) <= targetMillis) {
+            chosen++;
+        }
+
+        strength = chosen;
+        measuredMillis = chosen == minStrength ? baseMillis : medianMillis(new BCryptPasswordEncoder(chosen));
+        importEncoder = new BCryptPasswordEncoder(Math.min(importStrength, strength));
+
+        Gauge.builder("innosistemas.auth.password.hash.cost", this, PasswordHashingPolicy::getStrength)
+                .description("Costo de BCrypt elegido en la calibración")
+                .register(meterRegistry);
+        Gauge.builder("innosistemas.auth.password.hash.time", this, PasswordHashingPolicy::getMeasuredMillis)
+                .description("Tiempo medido de un hash con el costo elegido")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+
+        if (measuredMillis > targetMillis) {
+            logger.warn("BCrypt at minimum strength {} takes {} ms, above the {} ms budget",
+                    strength, String.format("%.1f", measuredMillis), targetMillis);
+        }
+        logger.info("Password hashing calibrated: bcrypt strength={}, hash time={} ms, budget={} ms",
+                strength, String.format("%.1f", measuredMillis), targetMillis);
+    }
+
+    /**
+     * Crea el encoder de la aplicación con el costo calibrado
+     *
+     * @return Encoder delegante; los hashes sin prefijo se verifican como BCrypt
+     */
+    public PasswordEncoder createPasswordEncoder() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(ENCODING_ID, Map.of(
+                ENCODING_ID, bcrypt,
+                IMPORT_ENCODING_ID, importEncoder));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    /**
+     * Codifica una contraseña para carga masiva con el costo reducido de importación.
+     * El hash se reemplaza por uno con el costo calibrado en el primer login del usuario.
+     *
+     * @param rawPassword Contraseña en texto plano
+     * @return Hash con prefijo {@code {bcrypt-import}}
+     */
+    public String encodeForImport(String rawPassword) {
+        return "{" + IMPORT_ENCODING_ID + "}" + importEncoder.encode(rawPassword);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public double getMeasuredMillis() {
+        return measuredMillis;
+    }
+
+    private static double medianMillis(BCryptPasswordEncoder encoder) {
+        String hash = encoder.encode(CALIBRATION_PASSWORD);
+        double[] samples = new double[CALIBRATION_RUNS];
+        for (int i = 0; i < CALIBRATION_RUNS; i++) {
+            long start = System.nanoTime();
+            encoder.matches(CALIBRATION_PASSWORD, hash);
+            samples[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(samples);
+        return samples[CALIBRATION_RUNS / 2];
+    }
+}
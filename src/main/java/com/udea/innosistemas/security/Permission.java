@@ -0,0 +1,98 @@
+package com.udea.innosistemas.security;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Permisos del sistema. Cada permiso ocupa un bit (su ordinal) en la máscara de permisos de un rol,
+ * de modo que verificar un permiso es una operación AND sobre un {@code long}.
+ *
+ * Los permisos listados son los que se informan al cliente en {@code getUserPermissions}; los no listados
+ * son capacidades internas que usan las directivas y los resolvers (por ejemplo, ver cualquier equipo).
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+public enum Permission {
+
+    USER_CREATE("user:create"),
+    USER_READ("user:read"),
+    USER_UPDATE("user:update"),
+    USER_DELETE("user:delete"),
+    TEAM_CREATE("team:create"),
+    TEAM_READ("team:read"),
+    TEAM_UPDATE("team:update"),
+    TEAM_DELETE("team:delete"),
+    COURSE_CREATE("course:create"),
+    COURSE_READ("course:read"),
+    COURSE_UPDATE("course:update"),
+    COURSE_DELETE("course:delete"),
+    NOTIFICATION_SEND("notification:send"),
+    SYSTEM_CONFIGURE("system:configure"),
+    GRADE_ASSIGN("grade:assign"),
+    PROJECT_SUBMIT("project:submit"),
+    GRADE_VIEW("grade:view"),
+
+    /**
+     * Gestionar cualquier equipo (crear, eliminar, reasignar miembros)
+     */
+    TEAM_MANAGE("team:manage", false),
+
+    /**
+     * Acceder a cualquier equipo y modificarlo como personal docente
+     */
+    TEAM_SUPERVISE("team:supervise", false),
+
+    /**
+     * Consultar cualquier equipo, no solo el propio
+     */
+    TEAM_READ_ANY("team:read:any", false),
+
+    /**
+     * Consultar cualquier curso, no solo el propio
+     */
+    COURSE_READ_ANY("course:read:any", false);
+
+    private static final Map<String, Permission> BY_CODE = Arrays.stream(values())
+            .collect(Collectors.toUnmodifiableMap(Permission::getCode, Function.identity()));
+
+    private final String code;
+    private final boolean listed;
+    private final long bit;
+
+    Permission(String code) {
+        this(code, true);
+    }
+
+    Permission(String code, boolean listed) {
+        this.code = code;
+        this.listed = listed;
+        this.bit = 1L << ordinal();
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public boolean isListed() {
+        return listed;
+    }
+
+    /**
+     * @return Bit del permiso dentro de una máscara
+     */
+    public long bit() {
+        return bit;
+    }
+
+    /**
+     * @param code Código del permiso (por ejemplo, "team:update")
+     * @return Permiso con ese código
+     */
+    public static Optional<Permission> fromCode(String code) {
+        return Optional.ofNullable(BY_CODE.get(code));
+    }
+}
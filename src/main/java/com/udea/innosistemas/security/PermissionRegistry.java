@@ -0,0 +1,126 @@
+package com.udea.innosistemas.security;
+
+import com.udea.innosistemas.entity.User;
+import com.udea.innosistemas.entity.UserRole;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.udea.innosistemas.security.Permission.*;
+
+/**
+ * Registro de permisos por rol. Al arrancar precalcula, para cada {@link UserRole}, la máscara de bits
+ * de sus permisos y la lista inmutable de códigos que se devuelve al cliente, de modo que una verificación
+ * de permiso es un AND y {@code getUserPermissions} no construye listas por petición.
+ *
+ * El rol se obtiene de la autenticación actual (el usuario cargado por el filtro JWT o su authority
+ * {@code ROLE_*}), sin consultar la base de datos.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Component
+public class PermissionRegistry {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final long[] masks = new long[UserRole.values().length];
+    private final Map<UserRole, List<String>> codes = new EnumMap<>(UserRole.class);
+
+    public PermissionRegistry() {
+        for (Map.Entry<UserRole, Set<Permission>> grant : grants().entrySet()) {
+            long mask = 0;
+            List<String> listed = new ArrayList<>();
+            for (Permission permission : grant.getValue()) {
+                mask |= permission.bit();
+                if (permission.isListed()) {
+                    listed.add(permission.getCode());
+                }
+            }
+            masks[grant.getKey().ordinal()] = mask;
+            codes.put(grant.getKey(), List.copyOf(listed));
+        }
+    }
+
+    /**
+     * Permisos otorgados a cada rol
+     */
+    private static Map<UserRole, Set<Permission>> grants() {
+        Map<UserRole, Set<Permission>> grants = new EnumMap<>(UserRole.class);
+        grants.put(UserRole.ADMIN, EnumSet.of(
+                USER_CREATE, USER_READ, USER_UPDATE, USER_DELETE,
+                TEAM_CREATE, TEAM_READ, TEAM_UPDATE, TEAM_DELETE,
+                COURSE_CREATE, COURSE_READ, COURSE_UPDATE, COURSE_DELETE,
+                NOTIFICATION_SEND, SYSTEM_CONFIGURE,
+                TEAM_MANAGE, TEAM_SUPERVISE, TEAM_READ_ANY, COURSE_READ_ANY));
+        grants.put(UserRole.PROFESSOR, EnumSet.of(
+                USER_READ, TEAM_READ, TEAM_UPDATE,
+                COURSE_CREATE, COURSE_READ, COURSE_UPDATE,
+                NOTIFICATION_SEND, GRADE_ASSIGN,
+                TEAM_SUPERVISE, TEAM_READ_ANY, COURSE_READ_ANY));
+        grants.put(UserRole.TA, EnumSet.of(
+                USER_READ, TEAM_READ, COURSE_READ, NOTIFICATION_SEND, GRADE_VIEW,
+                TEAM_SUPERVISE));
+        grants.put(UserRole.STUDENT, EnumSet.of(
+                TEAM_READ, COURSE_READ, PROJECT_SUBMIT, GRADE_VIEW));
+        return grants;
+    }
+
+    /**
+     * @return true si el rol tiene el permiso
+     */
+    public boolean hasPermission(UserRole role, Permission permission) {
+        return role != null && (masks[role.ordinal()] & permission.bit()) != 0;
+    }
+
+    /**
+     * @return true si el usuario autenticado tiene el permiso
+     */
+    public boolean hasPermission(Authentication authentication, Permission permission) {
+        return hasPermission(roleOf(authentication), permission);
+    }
+
+    /**
+     * @return Máscara de permisos del rol
+     */
+    public long mask(UserRole role) {
+        return masks[role.ordinal()];
+    }
+
+    /**
+     * @return Códigos de los permisos listados del rol (lista inmutable compartida)
+     */
+    public List<String> permissionCodes(UserRole role) {
+        return codes.getOrDefault(role, List.of());
+    }
+
+    /**
+     * @return Rol del usuario autenticado, o null si no está autenticado o no tiene un rol conocido
+     */
+    public UserRole roleOf(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof User user) {
+            return user.getRole();
+        }
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            String name = authority.getAuthority();
+            if (name != null && name.startsWith(ROLE_PREFIX)) {
+                try {
+                    return UserRole.valueOf(name.substring(ROLE_PREFIX.length()));
+                } catch (IllegalArgumentException e) {
+                    // Authority que no corresponde a un rol del sistema
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,218 @@
+package com.udea.innosistemas.security;
+
+import com.udea.innosistemas.config.properties.GraphQLLimitsProperties;
+import com.udea.innosistemas.entity.UserRole;
+import graphql.ExecutionResult;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.analysis.QueryTraverser;
+import graphql.analysis.QueryVisitorFieldEnvironment;
+import graphql.analysis.QueryVisitorStub;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLNonNull;
+import graphql.schema.GraphQLType;
+import graphql.util.TraversalControl;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Instrumentación que admite o rechaza cada operación GraphQL según su profundidad y su costo estimado,
+ * antes de que se ejecute cualquier data fetcher.
+ *
+ * El costo de un campo es su costo propio (1 o el configurado para {@code Tipo.campo}) multiplicado por el
+ * tamaño esperado de cada lista que lo contiene: el argumento {@code first} si existe (con tope) o el
+ * tamaño por defecto. Así, un campo anidado bajo una lista cuenta una vez por elemento esperado, que es
+ * el número de resoluciones (y de consultas) que provoca. Los campos de introspección no cuentan.
+ * Cada rol tiene su propio presupuesto de profundidad y costo; el costo de las operaciones admitidas
+ * se publica como histograma para ajustar los presupuestos con datos reales.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Component
+public class QueryCostInstrumentation extends SimplePerformantInstrumentation {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryCostInstrumentation.class);
+    private static final String ANONYMOUS = "anonymous";
+
+    @Autowired
+    private GraphQLLimitsProperties limits;
+
+    @Autowired
+    private PermissionRegistry permissionRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<UserRole, DistributionSummary> costByRole = new EnumMap<>(UserRole.class);
+    private DistributionSummary anonymousCost;
+    private Counter depthRejections;
+    private Counter costRejections;
+
+    /**
+     * Forma medida de una operación
+     *
+     * @param depth Profundidad máxima de campos (los campos raíz tienen profundidad 1)
+     * @param cost Costo estimado
+     */
+    record QueryShape(int depth, long cost) {
+    }
+
+    @PostConstruct
+    public void init() {
+        for (UserRole role : UserRole.values()) {
+            costByRole.put(role, costSummary(role.name().toLowerCase(Locale.ROOT)));
+        }
+        anonymousCost = costSummary(ANONYMOUS);
+        depthRejections = rejectionCounter("depth");
+        costRejections = rejectionCounter("cost");
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        if (!limits.isEnabled()) {
+            return super.beginExecuteOperation(parameters, state);
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserRole role = permissionRegistry.roleOf(authentication);
+        GraphQLLimitsProperties.Budget budget = limits.budgetFor(role);
+
+        QueryShape shape = measure(parameters.getExecutionContext(), budget);
+        if (shape.depth() > budget.getMaxDepth()) {
+            depthRejections.increment();
+            throw reject("La consulta excede la profundidad máxima permitida", "depth",
+                    budget.getMaxDepth(), shape.depth());
+        }
+        if (shape.cost() > budget.getMaxCost()) {
+            costRejections.increment();
+            throw reject("La consulta excede el costo máximo permitido", "cost",
+                    budget.getMaxCost(), shape.cost());
+        }
+
+        (role != null ? costByRole.get(role) : anonymousCost).record(shape.cost());
+        logger.debug("GraphQL operation admitted: depth {} cost {} ({})", shape.depth(), shape.cost(),
+                role != null ? role : ANONYMOUS);
+        return super.beginExecuteOperation(parameters, state);
+    }
+
+    /**
+     * Mide profundidad y costo de la operación. El recorrido se detiene en cuanto se supera
+     * el presupuesto, de modo que una consulta abusiva no se recorre completa.
+     */
+    QueryShape measure(ExecutionContext executionContext, GraphQLLimitsProperties.Budget budget) {
+        QueryTraverser traverser = QueryTraverser.newQueryTraverser()
+                .schema(executionContext.getGraphQLSchema())
+                .document(executionContext.getDocument())
+                .operationName(executionContext.getOperationDefinition().getName())
+                .coercedVariables(executionContext.getCoercedVariables())
+                .build();
+
+        int[] maxDepth = {0};
+        long[] totalCost = {0};
+        traverser.visitPreOrder(new QueryVisitorStub() {
+            @Override
+            public TraversalControl visitFieldWithControl(QueryVisitorFieldEnvironment environment) {
+                if (environment.isTypeNameIntrospectionField()) {
+                    return TraversalControl.CONTINUE;
+                }
+                if (environment.getField().getName().startsWith("__")) {
+                    // __schema / __type: la introspección no consume presupuesto
+                    return TraversalControl.ABORT;
+                }
+
+                int depth = 1;
+                long multiplier = 1;
+                for (QueryVisitorFieldEnvironment parent = environment.getParentEnvironment(); parent != null;
+                     parent = parent.getParentEnvironment()) {
+                    depth++;
+                    multiplier = saturatedMultiply(multiplier, listSize(parent));
+                }
+                maxDepth[0] = Math.max(maxDepth[0], depth);
+                totalCost[0] = saturatedAdd(totalCost[0], saturatedMultiply(multiplier, ownCost(environment)));
+
+                return maxDepth[0] > budget.getMaxDepth() || totalCost[0] > budget.getMaxCost()
+                        ? TraversalControl.QUIT
+                        : TraversalControl.CONTINUE;
+            }
+        });
+        return new QueryShape(maxDepth[0], totalCost[0]);
+    }
+
+    private long ownCost(QueryVisitorFieldEnvironment environment) {
+        String coordinates = environment.getFieldsContainer().getName() + "." + environment.getFieldDefinition().getName();
+        Integer cost = limits.getFieldCosts().get(coordinates);
+        return cost != null ? Math.max(0, cost) : 1;
+    }
+
+    // Elementos esperados que devuelve el campo: 1 si no es lista
+    private long listSize(QueryVisitorFieldEnvironment environment) {
+        GraphQLType type = environment.getFieldDefinition().getType();
+        if (type instanceof GraphQLNonNull nonNull) {
+            type = nonNull.getWrappedType();
+        }
+        if (!(type instanceof GraphQLList)) {
+            return 1;
+        }
+        if (environment.getArguments().get("first") instanceof Number first) {
+            return Math.max(0, Math.min(first.longValue(), limits.getMaxListSize()));
+        }
+        return limits.getDefaultListSize();
+    }
+
+    private AbortExecutionException reject(String message, String reason, long limit, long actual) {
+        logger.warn("GraphQL operation rejected: {} {} exceeds {}", reason, actual, limit);
+        GraphQLError error = GraphqlErrorBuilder.newError()
+                .message(message)
+                .errorType(ErrorType.BAD_REQUEST)
+                .extensions(Map.of("reason", reason, "limit", limit, "actual", actual))
+                .build();
+        return new AbortExecutionException(List.of(error));
+    }
+
+    private DistributionSummary costSummary(String role) {
+        return DistributionSummary.builder("innosistemas.graphql.query.cost")
+                .description("Costo estimado de las operaciones GraphQL admitidas")
+                .tag("role", role)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Counter rejectionCounter(String reason) {
+        return Counter.builder("innosistemas.graphql.query.rejected")
+                .description("Operaciones GraphQL rechazadas por exceder el presupuesto del rol")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static long saturatedMultiply(long a, long b) {
+        long result = a * b;
+        return (a != 0 && (result / a != b || result < 0)) ? Long.MAX_VALUE : result;
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long result = a + b;
+        return result < 0 ? Long.MAX_VALUE : result;
+    }
+}
@@ -29,15 +29,25 @@ public class RateLimitFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
 
+    /**
+     * Atributo de la petición con la clave de rate limiting, para aplicar el límite de autenticación
+     * a las mutaciones GraphQL una vez clasificada la operación ({@link GraphQLSecurityInterceptor})
+     */
+    public static final String RATE_LIMIT_KEY_ATTRIBUTE = RateLimitFilter.class.getName() + ".key";
+
     @Autowired
     private RateLimitingService rateLimitingService;
 
+    @Autowired
+    private ClientIpResolver clientIpResolver;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
         // Obtener clave para rate limiting (usuario o IP)
         String key = getRateLimitKey(request);
+        request.setAttribute(RATE_LIMIT_KEY_ATTRIBUTE, key);
 
         // Verificar si es un endpoint de autenticación
         boolean isAuthEndpoint = isAuthenticationEndpoint(request);
@@ -83,31 +93,10 @@ public class RateLimitFilter extends OncePerRequestFilter {
         }
 
         // Si no está autenticado, usar IP del cliente
-        String clientIp = getClientIp(request);
+        String clientIp = clientIpResolver.resolve(request);
         return "ip:" + clientIp;
     }
 
-    /**
-     * Obtiene la IP del cliente considerando proxies
-     *
-     * @param request HttpServletRequest
-     * @return IP del cliente
-     */
-    private String getClientIp(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            // Tomar la primera IP de la lista
-            return xForwardedFor.split(",")[0].trim();
-        }
-
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty()) {
-            return xRealIp;
-        }
-
-        return request.getRemoteAddr();
-    }
-
     /**
      * Verifica si el endpoint es de autenticación
      *
@@ -116,14 +105,8 @@ public class RateLimitFilter extends OncePerRequestFilter {
      */
     private boolean isAuthenticationEndpoint(HttpServletRequest request) {
         String uri = request.getRequestURI();
-        String method = request.getMethod();
-
-        // GraphQL mutations de autenticación
-        if (uri.contains("/graphql") && "POST".equals(method)) {
-            // Para GraphQL necesitaríamos parsear el body, por ahora aplicar límite estricto
-            return true;
-        }
 
+        // Las mutaciones GraphQL de autenticación las limita GraphQLSecurityInterceptor tras clasificar la operación
         // REST endpoints de autenticación
         return uri.contains("/auth/login") ||
                uri.contains("/auth/refresh") ||
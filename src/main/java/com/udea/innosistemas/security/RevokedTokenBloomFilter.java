@@ -0,0 +1,95 @@
+package com.udea.innosistemas.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom en memoria con los identificadores (jti) de tokens revocados.
+ * Permite responder localmente "este token seguro no está revocado" sin consultar Redis;
+ * solo los positivos (revocados reales o falsos positivos) requieren confirmación remota.
+ *
+ * Es seguro para uso concurrente: los bits se almacenan en un {@link AtomicLongArray}
+ * y las inserciones usan CAS, por lo que lecturas y escrituras no requieren bloqueo.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+public class RevokedTokenBloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashFunctions;
+
+    /**
+     * Crea un filtro dimensionado para el número de elementos y la tasa de falsos positivos indicados
+     *
+     * @param expectedInsertions Número esperado de tokens revocados vigentes
+     * @param falsePositiveRate Probabilidad de falso positivo deseada (0 < p < 1)
+     */
+    public RevokedTokenBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (m + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    /**
+     * Agrega un jti al filtro
+     */
+    public void put(String jti) {
+        long hash = hash64(jti);
+        long h1 = hash;
+        long h2 = mix(hash);
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitCount);
+            setBit(index);
+        }
+    }
+
+    /**
+     * Indica si el jti podría estar revocado. Un resultado false es definitivo.
+     */
+    public boolean mightContain(String jti) {
+        long hash = hash64(jti);
+        long h1 = hash;
+        long h2 = mix(hash);
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+    }
+
+    // FNV-1a de 64 bits sobre los bytes UTF-8, seguido de una mezcla final para dispersar los bits
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // Finalizador de splitmix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
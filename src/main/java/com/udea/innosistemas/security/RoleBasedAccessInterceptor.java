@@ -5,18 +5,24 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
-import java.util.*;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Interceptor que implementa control de acceso basado en roles (RBAC).
  * Verifica que el usuario tenga los roles necesarios para acceder a endpoints específicos.
  * Complementa las anotaciones @PreAuthorize de Spring Security.
  *
+ * Las reglas se compilan en una {@link RouteAccessTable} inmutable: cada petición solo evalúa patrones ya
+ * compilados, aplica la regla más específica que coincide y compara roles como máscaras de bits.
+ * Agregar o remover reglas compila una tabla nueva y la publica de forma atómica.
+ *
  * Autor: Fábrica-Escuela de Software UdeA
  * Versión: 1.0.0
  */
@@ -25,23 +31,26 @@ public class RoleBasedAccessInterceptor implements HandlerInterceptor {
 
     private static final Logger logger = LoggerFactory.getLogger(RoleBasedAccessInterceptor.class);
 
-    // Mapeo de rutas a roles requeridos
-    private static final Map<String, Set<String>> ROUTE_ROLE_MAPPING = new HashMap<>();
+    // Tabla de rutas a roles requeridos; se reemplaza completa al cambiar las reglas
+    private static volatile RouteAccessTable routeTable = new RouteAccessTable(defaultRules());
+
+    private static Map<String, Set<String>> defaultRules() {
+        Map<String, Set<String>> rules = new LinkedHashMap<>();
 
-    static {
         // Admin only endpoints
-        ROUTE_ROLE_MAPPING.put("/api/v1/admin/**", Set.of("ROLE_ADMIN"));
-        ROUTE_ROLE_MAPPING.put("/actuator/prometheus", Set.of("ROLE_ADMIN"));
-        ROUTE_ROLE_MAPPING.put("/actuator/metrics", Set.of("ROLE_ADMIN"));
+        rules.put("/api/v1/admin/**", Set.of("ROLE_ADMIN"));
+        rules.put("/actuator/prometheus", Set.of("ROLE_ADMIN"));
+        rules.put("/actuator/metrics", Set.of("ROLE_ADMIN"));
 
         // Student endpoints
-        ROUTE_ROLE_MAPPING.put("/api/v1/projects/**", Set.of("ROLE_STUDENT", "ROLE_ADMIN"));
-        ROUTE_ROLE_MAPPING.put("/api/v1/teams/**", Set.of("ROLE_STUDENT", "ROLE_ADMIN"));
+        rules.put("/api/v1/projects/**", Set.of("ROLE_STUDENT", "ROLE_ADMIN"));
+        rules.put("/api/v1/teams/**", Set.of("ROLE_STUDENT", "ROLE_ADMIN"));
 
         // Public endpoints (no roles required)
-        ROUTE_ROLE_MAPPING.put("/auth/**", Set.of());
-        ROUTE_ROLE_MAPPING.put("/graphql", Set.of());
-        ROUTE_ROLE_MAPPING.put("/graphiql/**", Set.of());
+        rules.put("/auth/**", Set.of());
+        rules.put("/graphql", Set.of());
+        rules.put("/graphiql/**", Set.of());
+        return rules;
     }
 
     @Override
@@ -56,30 +65,27 @@ public class RoleBasedAccessInterceptor implements HandlerInterceptor {
             return true;
         }
 
-        // Obtener roles del usuario
-        Set<String> userRoles = extractUserRoles(authentication);
-
-        // Verificar acceso basado en la ruta
-        Set<String> requiredRoles = getRequiredRoles(requestURI);
+        // Verificar acceso basado en la ruta más específica
+        RouteAccessTable table = routeTable;
+        RouteAccessTable.Route route = table.match(requestURI);
 
-        if (requiredRoles.isEmpty()) {
+        if (route == null || !route.isRestricted()) {
             // No hay restricciones de roles para esta ruta
             return true;
         }
 
         // Verificar si el usuario tiene alguno de los roles requeridos
-        boolean hasRequiredRole = userRoles.stream()
-                .anyMatch(requiredRoles::contains);
+        boolean hasRequiredRole = (table.roleMask(authentication.getAuthorities()) & route.requiredMask()) != 0;
 
         if (!hasRequiredRole) {
             logger.warn("Access denied for user {} to {}: Required roles {}, User roles {}",
-                    authentication.getName(), requestURI, requiredRoles, userRoles);
+                    authentication.getName(), requestURI, route.requiredRoles(), authentication.getAuthorities());
 
             response.setStatus(HttpServletResponse.SC_FORBIDDEN);
             response.setContentType("application/json");
             response.getWriter().write(
                     String.format("{\"error\":\"Forbidden\",\"message\":\"Insufficient permissions. Required roles: %s\"}",
-                            requiredRoles)
+                            route.requiredRoles())
             );
             return false;
         }
@@ -88,61 +94,16 @@ public class RoleBasedAccessInterceptor implements HandlerInterceptor {
         return true;
     }
 
-    /**
-     * Extrae los roles del usuario autenticado
-     *
-     * @param authentication Objeto de autenticación
-     * @return Set de roles del usuario
-     */
-    private Set<String> extractUserRoles(Authentication authentication) {
-        Set<String> roles = new HashSet<>();
-        for (GrantedAuthority authority : authentication.getAuthorities()) {
-            roles.add(authority.getAuthority());
-        }
-        return roles;
-    }
-
-    /**
-     * Obtiene los roles requeridos para una URI específica
-     *
-     * @param uri URI de la petición
-     * @return Set de roles requeridos
-     */
-    private Set<String> getRequiredRoles(String uri) {
-        for (Map.Entry<String, Set<String>> entry : ROUTE_ROLE_MAPPING.entrySet()) {
-            String pattern = entry.getKey();
-            if (matchesPattern(uri, pattern)) {
-                return entry.getValue();
-            }
-        }
-        return Set.of(); // No restrictions
-    }
-
-    /**
-     * Verifica si una URI coincide con un patrón (soporta **)
-     *
-     * @param uri URI a verificar
-     * @param pattern Patrón con wildcards
-     * @return true si coincide
-     */
-    private boolean matchesPattern(String uri, String pattern) {
-        // Convertir patrón de Ant a regex
-        String regex = pattern
-                .replace("**", ".*")
-                .replace("*", "[^/]*")
-                .replace("?", ".");
-
-        return uri.matches(regex);
-    }
-
     /**
      * Agrega una regla de acceso personalizada
      *
      * @param pattern Patrón de ruta
      * @param roles Roles permitidos
      */
-    public static void addAccessRule(String pattern, Set<String> roles) {
-        ROUTE_ROLE_MAPPING.put(pattern, roles);
+    public static synchronized void addAccessRule(String pattern, Set<String> roles) {
+        Map<String, Set<String>> rules = new LinkedHashMap<>(routeTable.rules());
+        rules.put(pattern, roles);
+        routeTable = new RouteAccessTable(rules);
     }
 
     /**
@@ -150,8 +111,11 @@ public class RoleBasedAccessInterceptor implements HandlerInterceptor {
      *
      * @param pattern Patrón de ruta
      */
-    public static void removeAccessRule(String pattern) {
-        ROUTE_ROLE_MAPPING.remove(pattern);
+    public static synchronized void removeAccessRule(String pattern) {
+        Map<String, Set<String>> rules = new LinkedHashMap<>(routeTable.rules());
+        if (rules.remove(pattern) != null) {
+            routeTable = new RouteAccessTable(rules);
+        }
     }
 
     /**
@@ -160,6 +124,6 @@ public class RoleBasedAccessInterceptor implements HandlerInterceptor {
      * @return Mapa de reglas
      */
     public static Map<String, Set<String>> getAllAccessRules() {
-        return new HashMap<>(ROUTE_ROLE_MAPPING);
+        return new HashMap<>(routeTable.rules());
     }
 }
@@ -0,0 +1,150 @@
+package com.udea.innosistemas.security;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tabla inmutable de autorización por ruta, compilada una sola vez a partir de las reglas de acceso.
+ *
+ * Cada patrón se compila con {@link PathPatternParser} y las rutas se ordenan de la más específica a la
+ * menos específica, de modo que la primera coincidencia es siempre la más específica. Las rutas se indexan
+ * por su primer segmento literal para evaluar solo las candidatas. Los roles se traducen a bits: los roles
+ * requeridos por cada ruta y los del usuario son máscaras {@code long} y la verificación es un AND.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+final class RouteAccessTable {
+
+    private static final int MAX_ROLES = Long.SIZE;
+    private static final PathPatternParser PARSER = PathPatternParser.defaultInstance;
+
+    /**
+     * Ruta compilada: patrón, roles requeridos (vacío = sin restricción) y su máscara
+     */
+    record Route(PathPattern pattern, Set<String> requiredRoles, long requiredMask) {
+
+        boolean isRestricted() {
+            return requiredMask != 0;
+        }
+    }
+
+    private final Map<String, Set<String>> rules;
+    private final Map<String, Long> roleBits;
+    private final Map<String, Route[]> routesBySegment;
+    private final Route[] wildcardRoutes;
+
+    RouteAccessTable(Map<String, Set<String>> rules) {
+        this.rules = Collections.unmodifiableMap(new LinkedHashMap<>(rules));
+
+        Map<String, Long> bits = new HashMap<>();
+        List<Route> routes = new ArrayList<>(rules.size());
+        for (Map.Entry<String, Set<String>> rule : rules.entrySet()) {
+            long mask = 0;
+            for (String role : rule.getValue()) {
+                Long bit = bits.get(role);
+                if (bit == null) {
+                    if (bits.size() == MAX_ROLES) {
+                        throw new IllegalArgumentException("Too many distinct roles in access rules (max " + MAX_ROLES + ")");
+                    }
+                    bit = 1L << bits.size();
+                    bits.put(role, bit);
+                }
+                mask |= bit;
+            }
+            routes.add(new Route(PARSER.parse(rule.getKey()), Set.copyOf(rule.getValue()), mask));
+        }
+        routes.sort((a, b) -> PathPattern.SPECIFICITY_COMPARATOR.compare(a.pattern(), b.pattern()));
+        this.roleBits = Map.copyOf(bits);
+
+        // Cada segmento literal ve sus rutas y las que empiezan con comodín, en orden de especificidad
+        Set<String> segments = new HashSet<>();
+        List<Route> wildcards = new ArrayList<>();
+        for (Route route : routes) {
+            String segment = firstLiteralSegment(route.pattern().getPatternString());
+            if (segment == null) {
+                wildcards.add(route);
+            } else {
+                segments.add(segment);
+            }
+        }
+        Map<String, Route[]> index = new HashMap<>();
+        for (String segment : segments) {
+            List<Route> candidates = new ArrayList<>();
+            for (Route route : routes) {
+                String routeSegment = firstLiteralSegment(route.pattern().getPatternString());
+                if (routeSegment == null || routeSegment.equals(segment)) {
+                    candidates.add(route);
+                }
+            }
+            index.put(segment, candidates.toArray(new Route[0]));
+        }
+        this.routesBySegment = Map.copyOf(index);
+        this.wildcardRoutes = wildcards.toArray(new Route[0]);
+    }
+
+    /**
+     * @return Ruta más específica que coincide con la URI, o null si ninguna coincide
+     */
+    Route match(String uri) {
+        Route[] candidates = routesBySegment.getOrDefault(firstSegment(uri), wildcardRoutes);
+        if (candidates.length == 0) {
+            return null;
+        }
+        PathContainer path = PathContainer.parsePath(uri);
+        for (Route route : candidates) {
+            if (route.pattern().matches(path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Máscara con los roles del usuario que aparecen en alguna regla
+     */
+    long roleMask(Collection<? extends GrantedAuthority> authorities) {
+        long mask = 0;
+        for (GrantedAuthority authority : authorities) {
+            Long bit = roleBits.get(authority.getAuthority());
+            if (bit != null) {
+                mask |= bit;
+            }
+        }
+        return mask;
+    }
+
+    Map<String, Set<String>> rules() {
+        return rules;
+    }
+
+    // Primer segmento del patrón si es literal; null si contiene comodines o variables
+    private static String firstLiteralSegment(String pattern) {
+        String segment = firstSegment(pattern);
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c == '*' || c == '?' || c == '{') {
+                return null;
+            }
+        }
+        return segment;
+    }
+
+    private static String firstSegment(String path) {
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.indexOf('/', start);
+        return end < 0 ? path.substring(start) : path.substring(start, end);
+    }
+}
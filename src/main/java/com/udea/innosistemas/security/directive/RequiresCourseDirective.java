@@ -1,8 +1,9 @@
 package com.udea.innosistemas.security.directive;
 
-import com.udea.innosistemas.entity.User;
-import com.udea.innosistemas.entity.UserRole;
-import com.udea.innosistemas.repository.UserRepository;
+import com.udea.innosistemas.security.AuthorizedPrincipal;
+import com.udea.innosistemas.security.GraphQLPrincipalResolver;
+import com.udea.innosistemas.security.Permission;
+import com.udea.innosistemas.security.PermissionRegistry;
 import graphql.schema.DataFetcher;
 import graphql.schema.FieldCoordinates;
 import graphql.schema.GraphQLFieldDefinition;
@@ -20,6 +21,8 @@ import org.springframework.stereotype.Component;
  * Implementación de la directiva @requiresCourse para GraphQL.
  * Valida que el usuario pertenezca a un curso específico o tenga
  * permisos de profesor/admin para ver otros cursos.
+ * Rol, equipo y curso se obtienen de {@link GraphQLPrincipalResolver} una sola vez por operación,
+ * sin consultar la base de datos por cada campo o elemento de una lista.
  *
  * Autor: Fábrica-Escuela de Software UdeA
  * Versión: 1.0.0
@@ -30,7 +33,10 @@ public class RequiresCourseDirective implements SchemaDirectiveWiring {
     private static final Logger logger = LoggerFactory.getLogger(RequiresCourseDirective.class);
 
     @Autowired
-    private UserRepository userRepository;
+    private GraphQLPrincipalResolver principalResolver;
+
+    @Autowired
+    private PermissionRegistry permissionRegistry;
 
     @Override
     public GraphQLFieldDefinition onField(SchemaDirectiveWiringEnvironment<GraphQLFieldDefinition> environment) {
@@ -54,29 +60,29 @@ public class RequiresCourseDirective implements SchemaDirectiveWiring {
             }
 
             String username = authentication.getName();
-            User user = userRepository.findByEmail(username)
-                    .orElseThrow(() -> new AccessDeniedException("Usuario no encontrado"));
+            // Rol, equipo y curso se materializan una vez por operación y se comparten entre campos
+            AuthorizedPrincipal principal = principalResolver.resolve(dataFetchingEnvironment, authentication);
 
-            // Profesores y admins pueden ver cualquier curso
-            if (user.getRole() == UserRole.PROFESSOR || user.getRole() == UserRole.ADMIN) {
-                logger.debug("@requiresCourse directive allowed access for {} with role {}", username, user.getRole());
+            // Profesores y admins pueden ver cualquier curso (verificación sobre la máscara de permisos del rol)
+            if (permissionRegistry.hasPermission(principal.role(), Permission.COURSE_READ_ANY)) {
+                logger.debug("@requiresCourse directive allowed access for {} with permission {}",
+                        username, Permission.COURSE_READ_ANY.getCode());
                 return originalDataFetcher.get(dataFetchingEnvironment);
             }
 
-            // Estudiantes y TAs solo pueden ver su propio curso
-            Long requestedCourseId = dataFetchingEnvironment.getArgument("courseId");
+            // Estudiantes y TAs solo pueden ver su propio curso (los argumentos ID llegan como String)
+            Object requestedCourseId = dataFetchingEnvironment.getArgument("courseId");
             if (requestedCourseId != null) {
-                // Convertir a Long si viene como String
                 Long courseIdLong = Long.parseLong(requestedCourseId.toString());
 
-                if (user.getCourseId() == null) {
+                if (principal.courseId() == null) {
                     logger.warn("User {} has no course assigned", username);
                     throw new AccessDeniedException("No perteneces a ningún curso");
                 }
 
-                if (!user.getCourseId().equals(courseIdLong)) {
+                if (!principal.courseId().equals(courseIdLong)) {
                     logger.warn("User {} attempted to access course {} but belongs to course {}",
-                            username, courseIdLong, user.getCourseId());
+                            username, courseIdLong, principal.courseId());
                     throw new AccessDeniedException("Solo puedes ver tu propio curso");
                 }
             }
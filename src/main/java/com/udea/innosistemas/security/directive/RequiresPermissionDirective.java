@@ -0,0 +1,73 @@
+package com.udea.innosistemas.security.directive;
+
+import com.udea.innosistemas.security.Permission;
+import com.udea.innosistemas.security.PermissionRegistry;
+import graphql.schema.DataFetcher;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLAppliedDirectiveArgument;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.idl.SchemaDirectiveWiring;
+import graphql.schema.idl.SchemaDirectiveWiringEnvironment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Implementación de la directiva @requiresPermission(permission: "...") para GraphQL.
+ * Valida que el rol del usuario tenga el permiso indicado antes de ejecutar el campo.
+ * El código del permiso se resuelve una sola vez al construir el esquema; en cada petición
+ * la verificación es una operación sobre la máscara de permisos del rol, sin consultar la base de datos.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Component
+public class RequiresPermissionDirective implements SchemaDirectiveWiring {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequiresPermissionDirective.class);
+
+    @Autowired
+    private PermissionRegistry permissionRegistry;
+
+    @Override
+    public GraphQLFieldDefinition onField(SchemaDirectiveWiringEnvironment<GraphQLFieldDefinition> environment) {
+        GraphQLFieldDefinition field = environment.getElement();
+        FieldCoordinates coordinates = FieldCoordinates.coordinates(
+                environment.getFieldsContainer().getName(),
+                field.getName()
+        );
+        DataFetcher<?> originalDataFetcher = environment.getCodeRegistry().getDataFetcher(
+                coordinates,
+                field
+        );
+
+        GraphQLAppliedDirectiveArgument argument = environment.getAppliedDirective().getArgument("permission");
+        String code = argument.getValue();
+        Permission permission = Permission.fromCode(code)
+                .orElseThrow(() -> new IllegalStateException(
+                        "Unknown permission '" + code + "' in @requiresPermission on field " + coordinates));
+
+        DataFetcher<?> permissionDataFetcher = dataFetchingEnvironment -> {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+            if (!permissionRegistry.hasPermission(authentication, permission)) {
+                logger.warn("@requiresPermission directive denied {} to {} on field: {}",
+                        permission.getCode(), authentication != null ? authentication.getName() : null, field.getName());
+                throw new AccessDeniedException("No tienes permiso para realizar esta operación");
+            }
+
+            return originalDataFetcher.get(dataFetchingEnvironment);
+        };
+
+        environment.getCodeRegistry().dataFetcher(
+                coordinates,
+                permissionDataFetcher
+        );
+
+        return field;
+    }
+}
@@ -1,8 +1,9 @@
 package com.udea.innosistemas.security.directive;
 
-import com.udea.innosistemas.entity.User;
-import com.udea.innosistemas.entity.UserRole;
-import com.udea.innosistemas.repository.UserRepository;
+import com.udea.innosistemas.security.AuthorizedPrincipal;
+import com.udea.innosistemas.security.GraphQLPrincipalResolver;
+import com.udea.innosistemas.security.Permission;
+import com.udea.innosistemas.security.PermissionRegistry;
 import graphql.schema.DataFetcher;
 import graphql.schema.FieldCoordinates;
 import graphql.schema.GraphQLFieldDefinition;
@@ -20,6 +21,8 @@ import org.springframework.stereotype.Component;
  * Implementación de la directiva @requiresTeam para GraphQL.
  * Valida que el usuario pertenezca a un equipo específico o tenga
  * permisos de profesor/admin para ver otros equipos.
+ * Rol, equipo y curso se obtienen de {@link GraphQLPrincipalResolver} una sola vez por operación,
+ * sin consultar la base de datos por cada campo o elemento de una lista.
  *
  * Autor: Fábrica-Escuela de Software UdeA
  * Versión: 1.0.0
@@ -30,7 +33,10 @@ public class RequiresTeamDirective implements SchemaDirectiveWiring {
     private static final Logger logger = LoggerFactory.getLogger(RequiresTeamDirective.class);
 
     @Autowired
-    private UserRepository userRepository;
+    private GraphQLPrincipalResolver principalResolver;
+
+    @Autowired
+    private PermissionRegistry permissionRegistry;
 
     @Override
     public GraphQLFieldDefinition onField(SchemaDirectiveWiringEnvironment<GraphQLFieldDefinition> environment) {
@@ -54,29 +60,29 @@ public class RequiresTeamDirective implements SchemaDirectiveWiring {
             }
 
             String username = authentication.getName();
-            User user = userRepository.findByEmail(username)
-                    .orElseThrow(() -> new AccessDeniedException("Usuario no encontrado"));
+            // Rol, equipo y curso se materializan una vez por operación y se comparten entre campos
+            AuthorizedPrincipal principal = principalResolver.resolve(dataFetchingEnvironment, authentication);
 
-            // Profesores y admins pueden ver cualquier equipo
-            if (user.getRole() == UserRole.PROFESSOR || user.getRole() == UserRole.ADMIN) {
-                logger.debug("@requiresTeam directive allowed access for {} with role {}", username, user.getRole());
+            // Profesores y admins pueden ver cualquier equipo (verificación sobre la máscara de permisos del rol)
+            if (permissionRegistry.hasPermission(principal.role(), Permission.TEAM_READ_ANY)) {
+                logger.debug("@requiresTeam directive allowed access for {} with permission {}",
+                        username, Permission.TEAM_READ_ANY.getCode());
                 return originalDataFetcher.get(dataFetchingEnvironment);
             }
 
-            // Estudiantes solo pueden ver su propio equipo
-            Long requestedTeamId = dataFetchingEnvironment.getArgument("teamId");
+            // Estudiantes solo pueden ver su propio equipo (los argumentos ID llegan como String)
+            Object requestedTeamId = dataFetchingEnvironment.getArgument("teamId");
             if (requestedTeamId != null) {
-                // Convertir a Long si viene como String
                 Long teamIdLong = Long.parseLong(requestedTeamId.toString());
 
-                if (user.getTeamId() == null) {
+                if (principal.teamId() == null) {
                     logger.warn("Student {} has no team assigned", username);
                     throw new AccessDeniedException("No perteneces a ningún equipo");
                 }
 
-                if (!user.getTeamId().equals(teamIdLong)) {
+                if (!principal.teamId().equals(teamIdLong)) {
                     logger.warn("Student {} attempted to access team {} but belongs to team {}",
-                            username, teamIdLong, user.getTeamId());
+                            username, teamIdLong, principal.teamId());
                     throw new AccessDeniedException("Solo puedes ver tu propio equipo");
                 }
             }
@@ -1,25 +1,42 @@
 package com.udea.innosistemas.service;
 
+import com.udea.innosistemas.config.AsyncConfig;
 import com.udea.innosistemas.dto.AuthResponse;
 import com.udea.innosistemas.dto.LoginRequest;
 import com.udea.innosistemas.dto.LogoutResponse;
 import com.udea.innosistemas.dto.UserInfo;
 import com.udea.innosistemas.entity.User;
 import com.udea.innosistemas.exception.AuthenticationException;
+import com.udea.innosistemas.exception.LoginThrottledException;
+import com.udea.innosistemas.exception.ServiceUnavailableException;
 import com.udea.innosistemas.repository.UserRepository;
 import com.udea.innosistemas.security.JwtTokenProvider;
+import com.udea.innosistemas.security.LoginAttemptGuard;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.authentication.AccountStatusException;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsChecker;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Date;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 //clase para gestionar la autenticación de usuarios en la aplicación.
 //Proporciona métodos para iniciar sesión, validar credenciales y generar tokens JWT.
@@ -31,6 +48,8 @@ import java.util.UUID;
 public class AuthenticationService {
 
     private static final Logger logger = LoggerFactory.getLogger(AuthenticationService.class);
+    private static final String LOGIN_PHASE_METRIC = "innosistemas.auth.login.phase";
+    private static final UserDetailsChecker ACCOUNT_STATUS_CHECKER = new AccountStatusUserDetailsChecker();
 
     @Autowired
     private AuthenticationManager authenticationManager;
@@ -47,46 +66,148 @@ public class AuthenticationService {
     @Autowired
     private SessionManagementService sessionManagementService;
 
-    public AuthResponse login(LoginRequest loginRequest) {
-        try {
-            logger.info("Attempting login for user ID");
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private LoginAttemptGuard loginAttemptGuard;
+
+    // La emisión de tokens (firma y Redis) no ocupa hilos del pool de hashing
+    @Autowired
+    @Qualifier(AsyncConfig.AUTH_IO_EXECUTOR)
+    private Executor ioExecutor;
+
+    /**
+     * Autentica al usuario. El usuario se carga una sola vez y la verificación de la contraseña (BCrypt)
+     * se ejecuta en el pool de hashing, de modo que el hilo de la petición queda libre mientras tanto;
+     * la emisión de tokens y el registro de la sesión continúan en el pool de E/S de autenticación.
+     * Cada fase (db, hash, sign, redis) se mide en {@code innosistemas.auth.login.phase}.
+     *
+     * @param loginRequest Credenciales del usuario
+     * @return Future con los tokens; falla con {@link AuthenticationException} o, si el pool
+     *         de hashing está saturado, con {@link ServiceUnavailableException}
+     */
+    public CompletableFuture<AuthResponse> login(LoginRequest loginRequest) {
+        return login(loginRequest, null);
+    }
 
-            User user = userRepository.findByEmail(loginRequest.getEmail())
+    /**
+     * Autentica al usuario aplicando antes la guardia de intentos fallidos por email y por IP:
+     * si alguna está bloqueada, el intento se rechaza sin consultar la base de datos ni calcular BCrypt.
+     *
+     * @param loginRequest Credenciales del usuario
+     * @param clientIp IP del cliente (null si no se conoce)
+     * @return Future con los tokens; falla con {@link LoginThrottledException} si el intento se rechaza por la guardia
+     */
+    public CompletableFuture<AuthResponse> login(LoginRequest loginRequest, String clientIp) {
+        logger.info("Attempting login for user ID");
+
+        User user;
+        try {
+            loginAttemptGuard.check(loginRequest.getEmail(), clientIp);
+            user = timePhase("db", () -> userRepository.findByEmail(loginRequest.getEmail()))
                     .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado"));
+            // Mismas verificaciones de estado de cuenta que hacía DaoAuthenticationProvider
+            ACCOUNT_STATUS_CHECKER.check(user);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(handleLoginFailure(e, loginRequest.getEmail(), clientIp));
+        }
 
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            loginRequest.getEmail(),
-                            loginRequest.getPassword()
-                    )
-            );
+        return passwordHashingService.submit(() -> timePhase("hash",
+                        () -> verifyPassword(user, loginRequest.getPassword())))
+                .thenApplyAsync(matches -> {
+                    if (!matches) {
+                        throw new BadCredentialsException("Credenciales inválidas");
+                    }
+                    loginAttemptGuard.recordSuccess(user.getEmail());
+                    return issueTokens(user);
+                }, ioExecutor)
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    throw handleLoginFailure(cause, loginRequest.getEmail(), clientIp);
+                });
+    }
+
+    /**
+     * Verifica la contraseña y, si el hash almacenado tiene un costo o algoritmo desactualizado,
+     * lo rehace con la política vigente. Un fallo al guardar el nuevo hash no impide el login.
+     */
+    private boolean verifyPassword(User user, String rawPassword) {
+        if (!passwordEncoder.matches(rawPassword, user.getPassword())) {
+            return false;
+        }
+
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            try {
+                String upgraded = passwordEncoder.encode(rawPassword);
+                userRepository.updatePassword(user.getId(), upgraded);
+                user.setPassword(upgraded);
+                logger.info("Password hash upgraded for user ID: {}", user.getId());
+            } catch (Exception e) {
+                logger.warn("Could not upgrade password hash for user ID {}: {}", user.getId(), e.getMessage());
+            }
+        }
+        return true;
+    }
 
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+    private AuthResponse issueTokens(User user) {
+        // El login no depende del SecurityContext: se ejecuta fuera del hilo de la petición y la respuesta lleva el token.
+        // La sesión es también la familia del refresh token: cada renovación rota el token dentro de ella
+        String sessionId = UUID.randomUUID().toString();
+        String refreshTokenId = UUID.randomUUID().toString();
+        Date familyExpiresAt = new Date(System.currentTimeMillis() + tokenProvider.getRefreshExpirationMillis());
+        JwtTokenProvider.TokenPair tokens = timePhase("sign",
+                () -> tokenProvider.generateTokenPair(user, sessionId, refreshTokenId, familyExpiresAt));
 
-            String jwt = tokenProvider.generateToken(authentication);
-            String refreshToken = tokenProvider.generateRefreshToken(authentication);
+        // Registrar sesión activa
+        timePhase("redis", () -> sessionManagementService.registerSession(
+                user.getEmail(), sessionId, refreshTokenId, familyExpiresAt.getTime()));
 
-            // Registrar sesión activa
-            String sessionId = UUID.randomUUID().toString();
-            sessionManagementService.registerSession(user.getEmail(), sessionId);
+        // Usar el nuevo constructor que incluye todos los campos
+        UserInfo userInfo = new UserInfo(user);
 
-            // Usar el nuevo constructor que incluye todos los campos
-            UserInfo userInfo = new UserInfo(user);
+        logger.info("Login successful for user ID: {}", user.getId());
 
-            logger.info("Login successful for user ID: {}", user.getId());
+        return new AuthResponse(tokens.accessToken(), tokens.refreshToken(), userInfo);
+    }
 
-            return new AuthResponse(jwt, refreshToken, userInfo);
+    private <T> T timePhase(String phase, Supplier<T> step) {
+        return Timer.builder(LOGIN_PHASE_METRIC)
+                .tag("phase", phase)
+                .register(meterRegistry)
+                .record(step);
+    }
 
-        } catch (BadCredentialsException e) {
+    /**
+     * Traduce el fallo de un login a la excepción expuesta al cliente y registra los intentos
+     * fallidos (contraseña incorrecta o usuario inexistente) en la guardia
+     */
+    private RuntimeException handleLoginFailure(Throwable e, String email, String clientIp) {
+        if (e instanceof BadCredentialsException) {
             logger.warn("Login failed - Invalid credentials");
-            throw new AuthenticationException("Credenciales inválidas");
-        } catch (UsernameNotFoundException e) {
+            loginAttemptGuard.recordFailure(email, clientIp);
+            return new AuthenticationException("Credenciales inválidas");
+        }
+        if (e instanceof UsernameNotFoundException) {
             logger.warn("Login failed - User not found");
-            throw new AuthenticationException("Usuario no encontrado");
-        } catch (Exception e) {
-            logger.error("Login failed - Unexpected error: {}", e.getMessage());
-            throw new AuthenticationException("Error durante la autenticación");
+            loginAttemptGuard.recordFailure(email, clientIp);
+            return new AuthenticationException("Usuario no encontrado");
+        }
+        if (e instanceof LoginThrottledException throttled) {
+            logger.warn("Login rejected - Too many failed attempts");
+            return throttled;
+        }
+        if (e instanceof ServiceUnavailableException unavailable) {
+            return unavailable;
         }
+        logger.error("Login failed - Unexpected error: {}", e.getMessage());
+        return new AuthenticationException("Error durante la autenticación");
     }
 
     public boolean validateCredentials(String email, String password) {
@@ -104,43 +225,57 @@ public class AuthenticationService {
         try {
             logger.info("Attempting to refresh token");
 
-            // Validar que el token no esté en la blacklist
-            if (tokenBlacklistService.isTokenBlacklisted(refreshToken)) {
-                logger.warn("Refresh token is blacklisted");
-                throw new AuthenticationException("Token inválido o revocado");
-            }
-
-            // Validar el refresh token
-            if (!tokenProvider.validateToken(refreshToken)) {
+            // Validar el refresh token (única verificación de firma)
+            Claims claims;
+            try {
+                claims = tokenProvider.parseClaims(refreshToken);
+            } catch (JwtException | IllegalArgumentException e) {
                 logger.warn("Invalid refresh token");
                 throw new AuthenticationException("Token inválido");
             }
 
             // Verificar que sea un refresh token
-            if (!tokenProvider.isRefreshToken(refreshToken)) {
+            if (!"refresh".equals(claims.get("type", String.class))) {
                 logger.warn("Token is not a refresh token");
                 throw new AuthenticationException("Token no es un refresh token");
             }
 
-            // Extraer username del token
-            String username = tokenProvider.getUsernameFromJWT(refreshToken);
+            String username = claims.getSubject();
+            String familyId = claims.get("fid", String.class);
+            if (familyId == null || claims.getId() == null) {
+                // Refresh token emitido antes de las familias: requiere iniciar sesión de nuevo
+                logger.warn("Refresh token without family");
+                throw new AuthenticationException("Token inválido o revocado");
+            }
 
-            // Buscar usuario
+            // Buscar usuario y verificar su cuenta antes de rotar: un fallo posterior no debe consumir el token
             User user = userRepository.findByEmail(username)
                     .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado"));
-
-            // Verificar que el usuario tenga sesiones activas
-            if (!sessionManagementService.hasActiveSessions(username)) {
-                logger.warn("User has no active sessions");
-                throw new AuthenticationException("No hay sesiones activas");
+            ACCOUNT_STATUS_CHECKER.check(user);
+
+            // Validar, rotar y registrar el nuevo token en un único paso atómico
+            String newRefreshTokenId = UUID.randomUUID().toString();
+            SessionManagementService.RefreshRotation rotation = sessionManagementService.rotateRefreshToken(
+                    username, familyId, claims.getId(), newRefreshTokenId);
+
+            switch (rotation.status()) {
+                case REUSED -> {
+                    // Reutilización: la familia ya se revocó en Redis; se invalidan también sus access tokens vigentes
+                    tokenBlacklistService.revokeFamily(familyId,
+                            new Date(System.currentTimeMillis() + tokenProvider.getExpirationMillis()));
+                    throw new AuthenticationException("Token inválido o revocado");
+                }
+                case UNKNOWN_FAMILY -> {
+                    logger.warn("User has no active sessions");
+                    throw new AuthenticationException("No hay sesiones activas");
+                }
+                case ROTATED -> logger.debug("Refresh token rotated for family {}", familyId);
             }
 
-            // Generar nuevos tokens con claims completos
-            String newAccessToken = tokenProvider.generateTokenFromUser(user);
-            String newRefreshToken = tokenProvider.generateRefreshTokenFromUser(user);
-
-            // Invalidar el refresh token anterior
-            tokenBlacklistService.blacklistToken(refreshToken, tokenProvider.getExpirationDateFromJWT(refreshToken));
+            // Generar nuevos tokens con claims completos; el refresh token conserva la expiración de su familia
+            String newAccessToken = tokenProvider.generateTokenFromUser(user, familyId);
+            String newRefreshToken = tokenProvider.generateRefreshTokenFromUser(
+                    user, familyId, newRefreshTokenId, new Date(rotation.familyExpiresAt()));
 
             UserInfo userInfo = new UserInfo(user);
 
@@ -151,6 +286,9 @@ public class AuthenticationService {
         } catch (UsernameNotFoundException e) {
             logger.warn("Token refresh failed - User not found");
             throw new AuthenticationException("Usuario no encontrado");
+        } catch (AccountStatusException e) {
+            logger.warn("Token refresh failed - Account status: {}", e.getMessage());
+            throw new AuthenticationException("Cuenta deshabilitada o bloqueada");
         } catch (AuthenticationException e) {
             throw e;
         } catch (Exception e) {
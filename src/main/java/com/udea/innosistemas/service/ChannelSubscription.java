@@ -0,0 +1,114 @@
+package com.udea.innosistemas.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Suscripción de un servicio a un canal de pub/sub dentro del contenedor de listeners compartido.
+ *
+ * El contenedor es uno solo para toda la aplicación, así que {@code isListening()} indica que hay alguna
+ * suscripción, no que exista la de este canal. Cada servicio lleva aquí su propio estado, que solo pasa a
+ * activo cuando Redis confirma la suscripción al canal ({@code onChannelSubscribed}) y se pierde al
+ * desuscribirse o si el contenedor deja de escuchar.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+final class ChannelSubscription implements MessageListener, SubscriptionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChannelSubscription.class);
+
+    private final String channel;
+    private final byte[] channelBytes;
+    private final MessageListener delegate;
+    private final Runnable onSubscribed;
+    private final Runnable onUnsubscribed;
+    private volatile boolean subscribed;
+
+    /**
+     * @param channel Canal a escuchar
+     * @param delegate Receptor de los mensajes del canal
+     * @param onSubscribed Acción al confirmarse la suscripción (por ejemplo, descartar lo que pudo perderse)
+     * @param onUnsubscribed Acción al perderse la suscripción
+     */
+    ChannelSubscription(String channel, MessageListener delegate, Runnable onSubscribed, Runnable onUnsubscribed) {
+        this.channel = channel;
+        this.channelBytes = channel.getBytes(StandardCharsets.UTF_8);
+        this.delegate = delegate;
+        this.onSubscribed = onSubscribed;
+        this.onUnsubscribed = onUnsubscribed;
+    }
+
+    /**
+     * Registra el listener del canal si la suscripción no está activa
+     *
+     * @param container Contenedor compartido (null si no hay Redis)
+     * @return true si la suscripción al canal está confirmada
+     */
+    boolean ensure(RedisMessageListenerContainer container) {
+        if (container == null) {
+            return false;
+        }
+        if (isActive(container)) {
+            return true;
+        }
+        try {
+            container.removeMessageListener(this);
+            container.addMessageListener(this, new ChannelTopic(channel));
+        } catch (Exception e) {
+            logger.warn("Could not subscribe to channel {}: {}", channel, e.getMessage());
+        }
+        return isActive(container);
+    }
+
+    /**
+     * @return true si Redis confirmó la suscripción a este canal y el contenedor sigue escuchando
+     */
+    boolean isActive(RedisMessageListenerContainer container) {
+        if (!subscribed) {
+            return false;
+        }
+        if (container == null || !container.isListening()) {
+            // Conexión perdida sin notificación: la próxima confirmación se trata como una suscripción nueva
+            markUnsubscribed();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        delegate.onMessage(message, pattern);
+    }
+
+    @Override
+    public void onChannelSubscribed(byte[] subscribedChannel, long count) {
+        if (Arrays.equals(channelBytes, subscribedChannel) && !subscribed) {
+            subscribed = true;
+            logger.info("Subscribed to channel {}", channel);
+            onSubscribed.run();
+        }
+    }
+
+    @Override
+    public void onChannelUnsubscribed(byte[] unsubscribedChannel, long count) {
+        if (Arrays.equals(channelBytes, unsubscribedChannel)) {
+            markUnsubscribed();
+        }
+    }
+
+    private void markUnsubscribed() {
+        if (subscribed) {
+            subscribed = false;
+            onUnsubscribed.run();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.udea.innosistemas.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Almacén local acotado con expiración por entrada, usado como sombra de datos de Redis
+ * mientras el circuito hacia Redis está abierto. Es seguro para uso concurrente.
+ *
+ * Las lecturas no toman ningún lock (se consultan en cada petición autenticada): cada entrada guarda
+ * el instante de su último acceso con resolución de {@value #ACCESS_RESOLUTION_MS} ms. Al superar
+ * {@code maxEntries}, un único hilo descarta en lote las expiradas y las usadas hace más tiempo
+ * (LRU aproximada); mientras tanto el tamaño puede superar brevemente el máximo.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+public class LocalShadowStore<V> {
+
+    private static final long ACCESS_RESOLUTION_MS = 1;
+    private static final long ACCESS_RESOLUTION_NANOS = TimeUnit.MILLISECONDS.toNanos(ACCESS_RESOLUTION_MS);
+    // Fracción del máximo que se libera en cada desalojo, para no ordenar en cada inserción
+    private static final int EVICTION_BATCH_DIVISOR = 16;
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+        private volatile long lastAccess;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.lastAccess = System.nanoTime();
+        }
+    }
+
+    private record Candidate<V>(String key, Entry<V> entry, long lastAccess) {
+    }
+
+    private final int maxEntries;
+    private final Map<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    public LocalShadowStore(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @param expiresAt Instante (epoch ms) a partir del cual la entrada deja de ser válida
+     */
+    public void put(String key, V value, long expiresAt) {
+        entries.put(key, new Entry<>(value, expiresAt));
+        evictIfFull();
+    }
+
+    /**
+     * @return Valor vigente o null si no existe o expiró
+     */
+    public V get(String key) {
+        if (entries.isEmpty()) {
+            return null;
+        }
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        // Solo se escribe si cambió el intervalo, para que una clave muy leída no se escriba en cada lectura
+        long now = System.nanoTime();
+        if (now - entry.lastAccess >= ACCESS_RESOLUTION_NANOS) {
+            entry.lastAccess = now;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Reemplaza atómicamente el valor de una clave. Si la función devuelve null la entrada se elimina.
+     *
+     * @param update Recibe el valor vigente (o null) y devuelve el nuevo
+     * @param expiresAt Calcula la expiración de la entrada a partir del nuevo valor
+     * @return Nuevo valor
+     */
+    public V update(String key, UnaryOperator<V> update, ToLongFunction<V> expiresAt) {
+        Entry<V> next = entries.compute(key, (k, current) -> {
+            V value = current != null && current.expiresAt > System.currentTimeMillis() ? current.value : null;
+            V updated = update.apply(value);
+            return updated != null ? new Entry<>(updated, expiresAt.applyAsLong(updated)) : null;
+        });
+        evictIfFull();
+        return next != null ? next.value : null;
+    }
+
+    public V remove(String key) {
+        Entry<V> entry = entries.remove(key);
+        return entry != null ? entry.value : null;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictIfFull() {
+        if (entries.size() <= maxEntries || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            entries.entrySet().removeIf(entry -> entry.getValue().expiresAt <= now);
+            int excess = entries.size() - maxEntries;
+            if (excess <= 0) {
+                return;
+            }
+            // Se copia el último acceso: las lecturas concurrentes no deben cambiar el orden durante la ordenación
+            List<Candidate<V>> candidates = new ArrayList<>(entries.size());
+            entries.forEach((key, entry) -> candidates.add(new Candidate<>(key, entry, entry.lastAccess)));
+            candidates.sort(Comparator.comparingLong(Candidate::lastAccess));
+            int toEvict = Math.min(candidates.size(), Math.max(excess, maxEntries / EVICTION_BATCH_DIVISOR));
+            for (int i = 0; i < toEvict; i++) {
+                entries.remove(candidates.get(i).key(), candidates.get(i).entry());
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+}
@@ -9,6 +9,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +26,7 @@ import java.util.stream.Collectors;
  * - Marcar notificaciones como leídas
  * - Obtener notificaciones no leídas
  * - Publicar eventos cuando se crean notificaciones
+ * - Compartir las lecturas idénticas concurrentes ({@link SingleFlightService}), con listas no modificables
  *
  * Autor: Fábrica-Escuela de Software UdeA
  * Versión: 1.0.0
@@ -39,6 +42,9 @@ public class NotificationService {
     @Autowired
     private ApplicationEventPublisher eventPublisher;
 
+    @Autowired
+    private SingleFlightService singleFlightService;
+
     /**
      * Crea una nueva notificación y publica un evento
      *
@@ -115,7 +121,31 @@ public class NotificationService {
     public List<NotificationDTO> obtenerNotificacionesPorUsuario(Long userId) {
         logger.debug("Obteniendo notificaciones para usuario {}", userId);
 
-        List<Notification> notifications = notificationRepository.findByUserId(userId);
+        return singleFlightService.load("NotificationService.obtenerNotificacionesPorUsuario", List.of(userId),
+                () -> notificationRepository.findByUserId(userId).stream()
+                        .map(NotificationDTO::new)
+                        .toList());
+    }
+
+    /**
+     * Página de las notificaciones de un usuario (más recientes primero), por keyset sobre
+     * (fechaCreacion, id). Cada página es una transacción corta: quien recorre la bandeja completa no
+     * retiene una conexión mientras procesa cada página.
+     *
+     * @param userId ID del usuario
+     * @param despuesDe Última notificación de la página anterior (null para la primera página)
+     * @param tamano Máximo de notificaciones de la página
+     * @return Notificaciones de la página, en orden
+     */
+    @Transactional(readOnly = true)
+    public List<NotificationDTO> paginaNotificacionesPorUsuario(Long userId, NotificationDTO despuesDe, int tamano) {
+        logger.debug("Obteniendo página de notificaciones para usuario {}", userId);
+
+        Pageable page = PageRequest.of(0, tamano);
+        List<Notification> notifications = despuesDe == null
+                ? notificationRepository.findPageByUserId(userId, page)
+                : notificationRepository.findPageByUserIdAfter(userId, despuesDe.getFechaCreacion(),
+                        despuesDe.getId(), page);
         return notifications.stream()
                 .map(NotificationDTO::new)
                 .collect(Collectors.toList());
@@ -130,11 +160,10 @@ public class NotificationService {
     public List<NotificationDTO> obtenerNotificacionesNoLeidas(Long userId) {
         logger.debug("Obteniendo notificaciones no leídas para usuario {}", userId);
 
-        List<Notification> notifications = notificationRepository
-                .findByUserIdAndLeidaOrderByFechaCreacionDesc(userId, false);
-        return notifications.stream()
-                .map(NotificationDTO::new)
-                .collect(Collectors.toList());
+        return singleFlightService.load("NotificationService.obtenerNotificacionesNoLeidas", List.of(userId),
+                () -> notificationRepository.findByUserIdAndLeidaOrderByFechaCreacionDesc(userId, false).stream()
+                        .map(NotificationDTO::new)
+                        .toList());
     }
 
     /**
@@ -180,7 +209,8 @@ public class NotificationService {
      * @return Número de notificaciones no leídas
      */
     public long contarNotificacionesNoLeidas(Long userId) {
-        return notificationRepository.countByUserIdAndLeida(userId, false);
+        return singleFlightService.load("NotificationService.contarNotificacionesNoLeidas", List.of(userId),
+                () -> notificationRepository.countByUserIdAndLeida(userId, false));
     }
 
     /**
@@ -190,12 +220,12 @@ public class NotificationService {
      * @return Lista de NotificationDTO recientes
      */
     public List<NotificationDTO> obtenerNotificacionesRecientes(Long userId) {
-        LocalDateTime hace24Horas = LocalDateTime.now().minusHours(24);
-        List<Notification> notifications = notificationRepository
-                .findNotificacionesRecientes(userId, hace24Horas);
-        return notifications.stream()
-                .map(NotificationDTO::new)
-                .collect(Collectors.toList());
+        return singleFlightService.load("NotificationService.obtenerNotificacionesRecientes", List.of(userId), () -> {
+            LocalDateTime hace24Horas = LocalDateTime.now().minusHours(24);
+            return notificationRepository.findNotificacionesRecientes(userId, hace24Horas).stream()
+                    .map(NotificationDTO::new)
+                    .toList();
+        });
     }
 
     /**
@@ -216,9 +246,9 @@ public class NotificationService {
      */
     public List<NotificationDTO> obtenerNotificacionesPorEquipo(Long teamId) {
         logger.debug("Obteniendo notificaciones para equipo {}", teamId);
-        List<Notification> notifications = notificationRepository.findByTeamId(teamId);
-        return notifications.stream()
-                .map(NotificationDTO::new)
-                .collect(Collectors.toList());
+        return singleFlightService.load("NotificationService.obtenerNotificacionesPorEquipo", List.of(teamId),
+                () -> notificationRepository.findByTeamId(teamId).stream()
+                        .map(NotificationDTO::new)
+                        .toList());
     }
 }
@@ -0,0 +1,131 @@
+package com.udea.innosistemas.service;
+
+import com.udea.innosistemas.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Servicio que ejecuta las operaciones de hashing de contraseñas (BCrypt) en un pool dedicado.
+ * El pool tiene tantos hilos como núcleos disponibles y una cola de espera acotada: cuando la cola
+ * está llena la operación se rechaza de inmediato con {@link ServiceUnavailableException}, en lugar
+ * de ocupar hilos de Tomcat y dejar sin CPU al resto de peticiones durante una ráfaga de logins.
+ *
+ * La utilización del pool, el tamaño de la cola, el tiempo de espera en cola y los rechazos
+ * se exportan a Micrometer.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+    private static final String METRIC_PREFIX = "innosistemas.auth.password.hashing";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Número de hilos del pool; 0 usa el número de núcleos disponibles
+     */
+    @Value("${innosistemas.auth.password-hashing.pool-size:0}")
+    private int poolSize;
+
+    @Value("${innosistemas.auth.password-hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+    private Timer queueWaitTimer;
+    private Timer executionTimer;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void init() {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                threadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        queueWaitTimer = Timer.builder(METRIC_PREFIX + ".queue.wait")
+                .description("Tiempo de espera en cola antes de iniciar el hashing")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        executionTimer = Timer.builder(METRIC_PREFIX + ".duration")
+                .description("Duración de cada operación de hashing")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder(METRIC_PREFIX + ".rejected")
+                .description("Operaciones rechazadas por cola llena")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".utilization", executor,
+                        pool -> (double) pool.getActiveCount() / pool.getMaximumPoolSize())
+                .description("Fracción de hilos del pool ocupados")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".queue.size", executor, pool -> pool.getQueue().size())
+                .register(meterRegistry);
+
+        logger.info("Password hashing pool initialized: threads={}, queueCapacity={}", threads, queueCapacity);
+    }
+
+    /**
+     * Ejecuta una operación de hashing en el pool dedicado
+     *
+     * @param task Operación a ejecutar (por ejemplo, la verificación de credenciales)
+     * @return Future con el resultado; falla con {@link ServiceUnavailableException} si la cola está llena
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                long startedAt = System.nanoTime();
+                queueWaitTimer.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    result.complete(task.get());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    executionTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            logger.warn("Password hashing queue full - rejecting request");
+            result.completeExceptionally(
+                    new ServiceUnavailableException("Servicio de autenticación saturado, intente de nuevo en unos segundos", e));
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
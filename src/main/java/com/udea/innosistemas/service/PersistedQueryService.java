@@ -0,0 +1,313 @@
+package com.udea.innosistemas.service;
+
+import com.udea.innosistemas.store.KeyValueStore;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import graphql.execution.preparsed.persisted.PersistedQueryCache;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servicio de Automatic Persisted Queries (APQ) y caché de documentos GraphQL parseados y validados.
+ *
+ * Los documentos se identifican por el SHA-256 de su texto: el que envía el cliente en
+ * {@code extensions.persistedQuery.sha256Hash} o, si no lo envía, el calculado sobre la consulta.
+ * Una LRU local acotada guarda, por hash, el texto y el documento ya parseado y validado, de modo que
+ * graphql-java no vuelve a parsear ni validar las operaciones repetidas. Con un {@link KeyValueStore}
+ * compartido (Redis) los textos que el cliente registra por APQ (enviando {@code extensions.persistedQuery})
+ * se publican con TTL para que las demás réplicas resuelvan los hashes que no registraron ellas; las consultas
+ * enviadas sin hash solo se cachean localmente. El nivel compartido tiene un máximo de registros vigentes,
+ * llevado en un índice (hash → expiración): lleno, los registros nuevos quedan solo en la réplica que los
+ * recibió. Si el almacén falla, el servicio sigue solo con la caché local.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Service
+public class PersistedQueryService implements PersistedQueryCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersistedQueryService.class);
+    private static final String SHARED_PREFIX = "graphql:apq:";
+    private static final String SHARED_INDEX_KEY = "graphql:apq-index";
+    private static final String PERSISTED_QUERY_EXTENSION = "persistedQuery";
+
+    // Texto registrado y, una vez parseado en esta réplica, su documento validado
+    private record Entry(String query, int bytes, PreparsedDocumentEntry document) {
+    }
+
+    @Value("${innosistemas.graphql.persisted-queries.max-entries:500}")
+    private int maxEntries;
+
+    @Value("${innosistemas.graphql.persisted-queries.shared:true}")
+    private boolean sharedEnabled;
+
+    @Value("${innosistemas.graphql.persisted-queries.shared-ttl-hours:168}")
+    private long sharedTtlHours;
+
+    @Value("${innosistemas.graphql.persisted-queries.shared-max-entries:10000}")
+    private long sharedMaxEntries;
+
+    @Autowired
+    private KeyValueStore keyValueStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Map<String, Entry> cache;
+    private PreparsedDocumentProvider documentProvider;
+    private Counter localHitCounter;
+    private Counter sharedHitCounter;
+    private Counter missCounter;
+    private Counter sharedRejectedCounter;
+    private Timer hitTimer;
+    private Timer missTimer;
+    private DistributionSummary savedBytesSummary;
+
+    @PostConstruct
+    public void init() {
+        int capacity = Math.max(1, maxEntries);
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+        documentProvider = new HashedDocumentProvider(this);
+
+        localHitCounter = documentCounter("hit");
+        sharedHitCounter = documentCounter("shared");
+        missCounter = documentCounter("miss");
+        sharedRejectedCounter = Counter.builder("innosistemas.graphql.persisted-query.shared.rejected")
+                .description("Registros APQ no publicados porque el nivel compartido está lleno")
+                .register(meterRegistry);
+        hitTimer = parseValidateTimer("hit");
+        missTimer = parseValidateTimer("miss");
+        savedBytesSummary = DistributionSummary.builder("innosistemas.graphql.persisted-query.saved")
+                .description("Bytes de consulta que el cliente no envió gracias a un hash persistido")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("innosistemas.graphql.document.cache.size", this, PersistedQueryService::size)
+                .description("Documentos GraphQL en la caché local")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return Proveedor de documentos para graphql-java (APQ más caché de documentos validados)
+     */
+    public PreparsedDocumentProvider documentProvider() {
+        return documentProvider;
+    }
+
+    /**
+     * Resuelve el texto de una consulta persistida a partir de su hash, para peticiones que solo envían el hash
+     *
+     * @param hash SHA-256 de la consulta
+     * @return Texto registrado, o null si ninguna réplica lo ha registrado
+     */
+    public String resolveQuery(String hash) {
+        Entry entry = local(hash);
+        String query = entry != null ? entry.query() : sharedQuery(hash);
+        if (query != null) {
+            savedBytesSummary.record(entry != null ? entry.bytes() : utf8Length(query));
+        }
+        return query;
+    }
+
+    /**
+     * Variante síncrona que graphql-java 21 aún declara abstracta; delega en
+     * {@link #getPersistedQueryDocumentAsync}, que ya resuelve el documento sin bloquear.
+     */
+    @Override
+    @Deprecated
+    public PreparsedDocumentEntry getPersistedQueryDocument(Object persistedQueryId, ExecutionInput executionInput,
+                                                            PersistedQueryCacheMiss onCacheMiss)
+            throws PersistedQueryNotFound {
+        return getPersistedQueryDocumentAsync(persistedQueryId, executionInput, onCacheMiss).join();
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getPersistedQueryDocumentAsync(Object persistedQueryId,
+                                                                                    ExecutionInput executionInput,
+                                                                                    PersistedQueryCacheMiss onCacheMiss)
+            throws PersistedQueryNotFound {
+        long start = System.nanoTime();
+        String hash = persistedQueryId.toString();
+
+        Entry entry = local(hash);
+        if (entry != null && entry.document() != null) {
+            localHitCounter.increment();
+            hitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return CompletableFuture.completedFuture(entry.document());
+        }
+
+        // Texto ya conocido (local o registrado por otra réplica) o el que envía el cliente
+        String query = entry != null ? entry.query() : sharedQuery(hash);
+        boolean registered = query != null;
+        if (registered) {
+            sharedHitCounter.increment();
+        } else {
+            missCounter.increment();
+            query = executionInput.getQuery();
+            if (PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query)) {
+                // El cliente solo envió el hash y nadie lo registró: debe reenviar la consulta completa
+                throw new PersistedQueryNotFound(persistedQueryId);
+            }
+        }
+
+        PreparsedDocumentEntry document = onCacheMiss.apply(query);
+        missTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!document.hasErrors()) {
+            synchronized (cache) {
+                cache.put(hash, new Entry(query, utf8Length(query), document));
+            }
+            // Solo se publican los registros APQ: las consultas sin hash no ocupan el nivel compartido
+            if (!registered && executionInput.getExtensions().containsKey(PERSISTED_QUERY_EXTENSION)) {
+                publish(hash, query);
+            }
+        }
+        return CompletableFuture.completedFuture(document);
+    }
+
+    /**
+     * @return SHA-256 en hexadecimal (minúsculas) del texto, como lo calculan los clientes APQ
+     */
+    public static String sha256(String query) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(query.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private Entry local(String hash) {
+        synchronized (cache) {
+            return cache.get(hash);
+        }
+    }
+
+    private String sharedQuery(String hash) {
+        if (!isSharedTier()) {
+            return null;
+        }
+        try {
+            String query = keyValueStore.get(SHARED_PREFIX + hash);
+            if (query != null) {
+                synchronized (cache) {
+                    cache.putIfAbsent(hash, new Entry(query, utf8Length(query), null));
+                }
+            }
+            return query;
+        } catch (Exception e) {
+            logger.warn("Error reading persisted query {}: {}", hash, e.getMessage());
+            return null;
+        }
+    }
+
+    private void publish(String hash, String query) {
+        if (!isSharedTier()) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            long ttlMillis = TimeUnit.HOURS.toMillis(sharedTtlHours);
+            // El índice purga los registros vencidos al agregar y devuelve cuántos quedan vigentes
+            if (keyValueStore.sortedSetPut(SHARED_INDEX_KEY, hash, now + ttlMillis, now, ttlMillis) > sharedMaxEntries) {
+                keyValueStore.sortedSetRemove(SHARED_INDEX_KEY, hash);
+                sharedRejectedCounter.increment();
+                logger.debug("Shared persisted query tier full - {} kept local", hash);
+                return;
+            }
+            keyValueStore.set(SHARED_PREFIX + hash, query, ttlMillis);
+        } catch (Exception e) {
+            logger.warn("Error registering persisted query {}: {}", hash, e.getMessage());
+        }
+    }
+
+    private boolean isSharedTier() {
+        return sharedEnabled && keyValueStore.isShared();
+    }
+
+    private Counter documentCounter(String result) {
+        return Counter.builder("innosistemas.graphql.document.cache")
+                .description("Documentos GraphQL resueltos por caché local, registro compartido o parseo")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Timer parseValidateTimer(String cache) {
+        return Timer.builder("innosistemas.graphql.document.parse-validate")
+                .description("Tiempo de obtener el documento parseado y validado de cada petición")
+                .tag("cache", cache)
+                .register(meterRegistry);
+    }
+
+    private static int utf8Length(String value) {
+        int bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * APQ de Apollo que, además, cachea por su SHA-256 las consultas enviadas sin hash
+     */
+    private static final class HashedDocumentProvider extends ApolloPersistedQuerySupport {
+
+        HashedDocumentProvider(PersistedQueryCache cache) {
+            super(cache);
+        }
+
+        @Override
+        protected Optional<Object> getPersistedQueryId(ExecutionInput executionInput) {
+            Optional<Object> id = super.getPersistedQueryId(executionInput);
+            String query = executionInput.getQuery();
+            if (id.isPresent() || query == null || query.isEmpty()
+                    || PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query)) {
+                return id;
+            }
+            return Optional.of(sha256(query));
+        }
+    }
+}
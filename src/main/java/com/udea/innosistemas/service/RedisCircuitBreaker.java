@@ -0,0 +1,284 @@
+package com.udea.innosistemas.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker para el acceso a Redis desde los caminos de seguridad (blacklist y sesiones).
+ *
+ * Registra el resultado de las últimas {@code window-size} llamadas en una ventana circular; si la tasa
+ * de errores o de llamadas lentas supera el umbral, el circuito se abre y durante {@code open-duration-ms}
+ * las llamadas se resuelven directamente con el fallback local sin esperar el timeout de Redis.
+ * Pasado ese tiempo se permiten unas pocas llamadas de prueba (semiabierto): si todas responden a tiempo
+ * el circuito se cierra y se notifica a los servicios para que resincronicen su estado local con Redis.
+ *
+ * Expone el estado ({@code innosistemas.redis.circuit.state}: 0 cerrado, 1 abierto, 2 semiabierto),
+ * las transiciones y el resultado de cada llamada como métricas.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Component
+public class RedisCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisCircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    // Resultado de cada llamada en la ventana circular
+    private static final byte EMPTY = 0;
+    private static final byte SUCCESS = 1;
+    private static final byte SLOW = 2;
+    private static final byte FAILURE = 3;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${innosistemas.redis.circuit-breaker.enabled:true}")
+    private boolean enabled;
+
+    @Value("${innosistemas.redis.circuit-breaker.window-size:50}")
+    private int windowSize;
+
+    @Value("${innosistemas.redis.circuit-breaker.minimum-calls:20}")
+    private int minimumCalls;
+
+    @Value("${innosistemas.redis.circuit-breaker.failure-rate-threshold:50}")
+    private int failureRateThreshold;
+
+    @Value("${innosistemas.redis.circuit-breaker.slow-call-threshold-ms:250}")
+    private long slowCallThresholdMillis;
+
+    @Value("${innosistemas.redis.circuit-breaker.slow-call-rate-threshold:50}")
+    private int slowCallRateThreshold;
+
+    @Value("${innosistemas.redis.circuit-breaker.open-duration-ms:10000}")
+    private long openDurationMillis;
+
+    @Value("${innosistemas.redis.circuit-breaker.half-open-calls:5}")
+    private int halfOpenCalls;
+
+    private final List<Runnable> recoveryListeners = new CopyOnWriteArrayList<>();
+
+    // Estado protegido por el monitor de la instancia; state es volatile para lecturas sin bloqueo
+    private volatile State state = State.CLOSED;
+    private byte[] window;
+    private int windowIndex;
+    private int recordedCalls;
+    private int failures;
+    private int slowCalls;
+    private long openUntil;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    private Counter successCounter;
+    private Counter slowCounter;
+    private Counter failureCounter;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void init() {
+        window = new byte[Math.max(1, windowSize)];
+        successCounter = callCounter("success");
+        slowCounter = callCounter("slow");
+        failureCounter = callCounter("failure");
+        rejectedCounter = callCounter("rejected");
+        Gauge.builder("innosistemas.redis.circuit.state", this, breaker -> breaker.state.ordinal())
+                .description("0 = cerrado, 1 = abierto, 2 = semiabierto")
+                .register(meterRegistry);
+        // Registrar todas las transiciones para que la serie exista desde el arranque
+        for (State from : State.values()) {
+            for (State to : State.values()) {
+                if (from != to) {
+                    transitionCounter(from, to);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ejecuta una llamada a Redis protegida por el circuito.
+     * Si el circuito está abierto o la llamada falla, se devuelve el resultado del fallback local.
+     *
+     * @param call Llamada a Redis
+     * @param fallback Resultado local; puede lanzar una excepción si la operación debe fallar cerrada
+     * @return Resultado de Redis o del fallback
+     */
+    public <T> T execute(Supplier<T> call, Supplier<T> fallback) {
+        if (!tryAcquirePermission()) {
+            rejectedCounter.increment();
+            return fallback.get();
+        }
+
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            onResult(FAILURE);
+            logger.warn("Redis call failed, using local fallback: {}", e.getMessage());
+            return fallback.get();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        onResult(elapsedMillis > slowCallThresholdMillis ? SLOW : SUCCESS);
+        return result;
+    }
+
+    /**
+     * @return true si las llamadas se están resolviendo con el fallback local
+     */
+    public boolean isOpen() {
+        return state == State.OPEN;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Registra una acción a ejecutar (en segundo plano) cada vez que el circuito se cierra
+     * después de haber estado abierto, para volcar a Redis el estado acumulado localmente.
+     */
+    public void onRecovery(Runnable listener) {
+        recoveryListeners.add(listener);
+    }
+
+    private boolean tryAcquirePermission() {
+        // Camino rápido sin bloqueo: el circuito está cerrado casi siempre
+        if (!enabled || state == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (System.currentTimeMillis() < openUntil) {
+                        return false;
+                    }
+                    transitionTo(State.HALF_OPEN);
+                    halfOpenPermits = halfOpenCalls - 1;
+                    halfOpenSuccesses = 0;
+                    return true;
+                default:
+                    if (halfOpenPermits <= 0) {
+                        return false;
+                    }
+                    halfOpenPermits--;
+                    return true;
+            }
+        }
+    }
+
+    private synchronized void onResult(byte outcome) {
+        switch (outcome) {
+            case SUCCESS -> successCounter.increment();
+            case SLOW -> slowCounter.increment();
+            default -> failureCounter.increment();
+        }
+        if (!enabled) {
+            return;
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (outcome == SUCCESS) {
+                if (++halfOpenSuccesses >= halfOpenCalls) {
+                    resetWindow();
+                    transitionTo(State.CLOSED);
+                    notifyRecovery();
+                }
+            } else {
+                open();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // Llamada iniciada antes de abrir el circuito
+            return;
+        }
+
+        byte previous = window[windowIndex];
+        if (previous == FAILURE) {
+            failures--;
+        } else if (previous == SLOW) {
+            slowCalls--;
+        } else if (previous == EMPTY) {
+            recordedCalls++;
+        }
+        window[windowIndex] = outcome;
+        windowIndex = (windowIndex + 1) % window.length;
+        if (outcome == FAILURE) {
+            failures++;
+        } else if (outcome == SLOW) {
+            slowCalls++;
+        }
+
+        if (recordedCalls >= minimumCalls
+                && (failures * 100 >= failureRateThreshold * recordedCalls
+                || slowCalls * 100 >= slowCallRateThreshold * recordedCalls)) {
+            logger.warn("Redis circuit opened: failures={}, slow={}, calls={}", failures, slowCalls, recordedCalls);
+            open();
+        }
+    }
+
+    private void open() {
+        openUntil = System.currentTimeMillis() + openDurationMillis;
+        resetWindow();
+        transitionTo(State.OPEN);
+    }
+
+    private void resetWindow() {
+        Arrays.fill(window, EMPTY);
+        windowIndex = 0;
+        recordedCalls = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+
+    private void transitionTo(State next) {
+        State previous = state;
+        if (previous == next) {
+            return;
+        }
+        state = next;
+        transitionCounter(previous, next).increment();
+        logger.info("Redis circuit transition: {} -> {}", previous, next);
+    }
+
+    private void notifyRecovery() {
+        for (Runnable listener : recoveryListeners) {
+            CompletableFuture.runAsync(listener).exceptionally(e -> {
+                logger.error("Error resynchronizing local state with Redis: {}", e.getMessage(), e);
+                return null;
+            });
+        }
+    }
+
+    private Counter callCounter(String outcome) {
+        return Counter.builder("innosistemas.redis.circuit.calls")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Counter transitionCounter(State from, State to) {
+        return Counter.builder("innosistemas.redis.circuit.transitions")
+                .tag("from", from.name().toLowerCase())
+                .tag("to", to.name().toLowerCase())
+                .register(meterRegistry);
+    }
+}
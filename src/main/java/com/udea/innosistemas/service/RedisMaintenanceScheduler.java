@@ -0,0 +1,39 @@
+package com.udea.innosistemas.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Servicio con tareas programadas de mantenimiento de Redis
+ * Responsabilidades:
+ * - Purgar sesiones expiradas de los índices de sesión (cada 5 minutos por defecto)
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Service
+public class RedisMaintenanceScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisMaintenanceScheduler.class);
+
+    @Autowired
+    private SessionManagementService sessionManagementService;
+
+    /**
+     * Purga sesiones expiradas. Cada ejecución examina un número acotado de claves
+     * y la siguiente continúa desde el cursor guardado.
+     */
+    @Scheduled(fixedDelayString = "${innosistemas.redis.maintenance.session-cleanup-interval-ms:300000}",
+            initialDelayString = "${innosistemas.redis.maintenance.session-cleanup-interval-ms:300000}")
+    public void limpiarSesionesExpiradas() {
+        logger.debug("Ejecutando tarea programada: limpiar sesiones expiradas");
+        try {
+            sessionManagementService.cleanupExpiredSessions();
+        } catch (Exception e) {
+            logger.error("Error en limpieza de sesiones expiradas", e);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.udea.innosistemas.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Servicio para enviar varios comandos Redis en un único round-trip.
+ * Los servicios describen el lote con {@link Batch} usando claves y valores String, y el servicio
+ * decide cómo enviarlo: en pipeline cuando la conexión lo admite, o comando a comando en Redis Cluster,
+ * donde Jedis no soporta pipelines (las claves de un lote pueden vivir en nodos distintos).
+ *
+ * Dentro de un pipeline, EVAL y PUBLISH se envían como comandos crudos: Jedis no admite sus variantes
+ * tipadas de Spring Data en ese modo, y tampoco aplica el fallback EVALSHA → EVAL de RedisTemplate.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Service
+public class RedisPipelineService {
+
+    @Autowired(required = false)
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private DistributionSummary batchSizeSummary;
+
+    @PostConstruct
+    public void init() {
+        batchSizeSummary = DistributionSummary.builder("innosistemas.redis.pipeline.commands")
+                .description("Comandos enviados por lote")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lote de comandos a enviar juntos. Los resultados se devuelven en el mismo orden en que se agregan.
+     */
+    public static final class Batch {
+
+        private final List<RedisCallback<Object>> commands = new ArrayList<>();
+
+        /**
+         * SET con expiración en milisegundos (sin expiración si ttlMillis es menor o igual a cero)
+         */
+        public Batch set(String key, String value, long ttlMillis) {
+            Expiration expiration = ttlMillis > 0 ? Expiration.milliseconds(ttlMillis) : Expiration.persistent();
+            commands.add(connection -> connection.stringCommands().set(bytes(key), bytes(value),
+                    expiration, RedisStringCommands.SetOption.upsert()));
+            return this;
+        }
+
+        public Batch delete(String key) {
+            commands.add(connection -> connection.keyCommands().del(bytes(key)));
+            return this;
+        }
+
+        public Batch publish(String channel, String message) {
+            commands.add(connection -> connection.isPipelined()
+                    // Comando crudo: Jedis rechaza PUBLISH tipado dentro de un pipeline
+                    ? connection.execute("PUBLISH", bytes(channel), bytes(message))
+                    : connection.publish(bytes(channel), bytes(message)));
+            return this;
+        }
+
+        public Batch zAdd(String key, double score, String member) {
+            commands.add(connection -> connection.zSetCommands().zAdd(bytes(key), score, bytes(member)));
+            return this;
+        }
+
+        public Batch zRem(String key, String member) {
+            commands.add(connection -> connection.zSetCommands().zRem(bytes(key), bytes(member)));
+            return this;
+        }
+
+        public Batch zRemRangeByScore(String key, double min, double max) {
+            commands.add(connection -> connection.zSetCommands().zRemRangeByScore(bytes(key), min, max));
+            return this;
+        }
+
+        /**
+         * Ejecuta un script Lua. Todas las claves deben compartir slot si se usa Redis Cluster.
+         */
+        public Batch eval(RedisScript<?> script, List<String> keys, String... args) {
+            byte[] body = bytes(script.getScriptAsString());
+            ReturnType returnType = ReturnType.fromJavaType(script.getResultType());
+            commands.add(connection -> {
+                byte[][] keysAndArgs = new byte[keys.size() + args.length][];
+                int i = 0;
+                for (String key : keys) {
+                    keysAndArgs[i++] = bytes(key);
+                }
+                for (String arg : args) {
+                    keysAndArgs[i++] = bytes(arg);
+                }
+                if (connection.isPipelined()) {
+                    // Comando crudo: Jedis rechaza scriptingCommands() dentro de un pipeline
+                    byte[][] evalArgs = new byte[keysAndArgs.length + 2][];
+                    evalArgs[0] = body;
+                    evalArgs[1] = bytes(String.valueOf(keys.size()));
+                    System.arraycopy(keysAndArgs, 0, evalArgs, 2, keysAndArgs.length);
+                    return connection.execute("EVAL", evalArgs);
+                }
+                return connection.scriptingCommands().eval(body, returnType, keys.size(), keysAndArgs);
+            });
+            return this;
+        }
+
+        int size() {
+            return commands.size();
+        }
+    }
+
+    /**
+     * Envía el lote en un único round-trip (o secuencialmente en Redis Cluster)
+     *
+     * @param commands Describe los comandos del lote
+     * @return Resultado de cada comando, en orden (los valores binarios se devuelven como String)
+     * @throws IllegalStateException si Redis no está disponible
+     */
+    public List<Object> execute(Consumer<Batch> commands) {
+        if (redisTemplate == null) {
+            throw new IllegalStateException("Redis not available");
+        }
+
+        Batch batch = new Batch();
+        commands.accept(batch);
+        if (batch.size() == 0) {
+            return List.of();
+        }
+        batchSizeSummary.record(batch.size());
+
+        if (supportsPipelining()) {
+            return redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (RedisCallback<Object> command : batch.commands) {
+                    command.doInRedis(connection);
+                }
+                return null;
+            });
+        }
+
+        return redisTemplate.execute((RedisCallback<List<Object>>) connection -> {
+            List<Object> results = new ArrayList<>(batch.size());
+            for (RedisCallback<Object> command : batch.commands) {
+                results.add(string(command.doInRedis(connection)));
+            }
+            return results;
+        });
+    }
+
+    private boolean supportsPipelining() {
+        return !(redisTemplate.getConnectionFactory() instanceof JedisConnectionFactory factory)
+                || !factory.isRedisClusterAware();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Object string(Object raw) {
+        return raw instanceof byte[] data ? new String(data, StandardCharsets.UTF_8) : raw;
+    }
+}
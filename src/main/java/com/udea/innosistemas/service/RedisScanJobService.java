@@ -0,0 +1,328 @@
+package com.udea.innosistemas.service;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import redis.clients.jedis.ConnectionPool;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servicio para ejecutar tareas de mantenimiento sobre Redis recorriendo el keyspace con SCAN.
+ * Reemplaza el uso de KEYS, que bloquea el servidor durante todo el recorrido, por iteraciones
+ * incrementales con cursor: cada lote examina a lo sumo {@code scan-batch-size} claves, las escrituras
+ * se limitan con un token bucket y el cursor se persiste en Redis para reanudar el recorrido
+ * en la siguiente ejecución si el job se detiene por límite de claves o por un error.
+ *
+ * En Redis Cluster cada master tiene su propio keyspace y su propio cursor: el recorrido pasa por los masters
+ * uno tras otro y el cursor persistido indica el nodo en curso ("host:port@cursor").
+ *
+ * Cada ejecución se reporta a Micrometer (claves examinadas, claves procesadas y duración).
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Service
+public class RedisScanJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisScanJobService.class);
+    private static final String CURSOR_PREFIX = "maintenance:scan:cursor:";
+    private static final String INITIAL_CURSOR = "0";
+    private static final Duration CURSOR_TTL = Duration.ofHours(24);
+    private static final char CLUSTER_CURSOR_SEPARATOR = '@';
+
+    @Autowired(required = false)
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${innosistemas.redis.maintenance.scan-batch-size:500}")
+    private int scanBatchSize;
+
+    @Value("${innosistemas.redis.maintenance.max-writes-per-second:1000}")
+    private long maxWritesPerSecond;
+
+    private volatile Bucket writeBucket;
+
+    /**
+     * Procesa un lote de claves devuelto por SCAN
+     */
+    @FunctionalInterface
+    public interface BatchHandler {
+        /**
+         * @param keys Claves del lote (nunca vacío)
+         * @return Número de claves efectivamente procesadas (eliminadas, recortadas, etc.)
+         */
+        long process(List<String> keys);
+    }
+
+    /**
+     * Resultado de una ejecución de un job de SCAN
+     */
+    public record ScanJobResult(String job, long keysExamined, long keysProcessed, boolean completed, Duration duration) {
+    }
+
+    /**
+     * Ejecuta un job de SCAN reanudando desde el último cursor guardado.
+     *
+     * @param job Nombre del job (se usa como tag de métricas y para persistir el cursor)
+     * @param pattern Patrón MATCH de SCAN
+     * @param maxKeys Máximo de claves a examinar en esta ejecución
+     * @param handler Procesador de cada lote
+     * @return Resultado de la ejecución
+     */
+    public ScanJobResult run(String job, String pattern, long maxKeys, BatchHandler handler) {
+        if (redisTemplate == null) {
+            logger.warn("Redis not available - scan job {} skipped", job);
+            return new ScanJobResult(job, 0, 0, false, Duration.ZERO);
+        }
+
+        long start = System.nanoTime();
+        long examined = 0;
+        long processed = 0;
+        boolean completed = false;
+        String cursorKey = CURSOR_PREFIX + job;
+
+        try {
+            String cursor = redisTemplate.opsForValue().get(cursorKey);
+            if (cursor == null) {
+                cursor = INITIAL_CURSOR;
+            }
+
+            do {
+                ScanPage page = scan(cursor, pattern);
+                cursor = page.cursor();
+
+                if (!page.keys().isEmpty()) {
+                    examined += page.keys().size();
+                    acquireWritePermits(page.keys().size());
+                    processed += handler.process(page.keys());
+                }
+
+                if (INITIAL_CURSOR.equals(cursor)) {
+                    completed = true;
+                    redisTemplate.delete(cursorKey);
+                } else {
+                    redisTemplate.opsForValue().set(cursorKey, cursor, CURSOR_TTL.toMillis(), TimeUnit.MILLISECONDS);
+                }
+            } while (!completed && examined < maxKeys);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Scan job {} interrupted, progress saved", job);
+        } catch (Exception e) {
+            logger.error("Error running scan job {}: {}", job, e.getMessage(), e);
+        }
+
+        Duration duration = Duration.ofNanos(System.nanoTime() - start);
+        record(job, examined, processed, duration);
+        logger.info("Scan job {} finished: examined={}, processed={}, completed={}, duration={}ms",
+                job, examined, processed, completed, duration.toMillis());
+        return new ScanJobResult(job, examined, processed, completed, duration);
+    }
+
+    /**
+     * Recorre completamente las claves que coinciden con el patrón, sin persistir el cursor
+     * ni limitar el ritmo. Pensado para recorridos de solo lectura locales a cada instancia
+     * (por ejemplo, reconstruir una caché en memoria).
+     *
+     * @param job Nombre del job (tag de métricas)
+     * @param pattern Patrón MATCH de SCAN
+     * @param handler Procesador de cada lote
+     * @return Resultado de la ejecución
+     * @throws IllegalStateException si Redis no está disponible o el recorrido falla
+     */
+    public ScanJobResult scanAll(String job, String pattern, BatchHandler handler) {
+        if (redisTemplate == null) {
+            throw new IllegalStateException("Redis not available");
+        }
+
+        long start = System.nanoTime();
+        long examined = 0;
+        long processed = 0;
+        String cursor = INITIAL_CURSOR;
+
+        do {
+            ScanPage page = scan(cursor, pattern);
+            cursor = page.cursor();
+            if (!page.keys().isEmpty()) {
+                examined += page.keys().size();
+                processed += handler.process(page.keys());
+            }
+        } while (!INITIAL_CURSOR.equals(cursor));
+
+        Duration duration = Duration.ofNanos(System.nanoTime() - start);
+        record(job, examined, processed, duration);
+        logger.debug("Scan job {} finished: examined={}, processed={}, duration={}ms",
+                job, examined, processed, duration.toMillis());
+        return new ScanJobResult(job, examined, processed, true, duration);
+    }
+
+    /**
+     * Ejecuta una iteración de SCAN a partir de un cursor explícito.
+     * Se usa el comando crudo porque la API de alto nivel de Spring Data no permite reanudar un cursor.
+     */
+    private ScanPage scan(String cursor, String pattern) {
+        return redisTemplate.execute((RedisCallback<ScanPage>) connection ->
+                connection instanceof RedisClusterConnection clusterConnection
+                        ? scanCluster(clusterConnection, cursor, pattern)
+                        : scanNode(connection, cursor, pattern));
+    }
+
+    private ScanPage scanNode(RedisConnection connection, String cursor, String pattern) {
+        Object reply = connection.execute("SCAN",
+                bytes(cursor),
+                bytes("MATCH"), bytes(pattern),
+                bytes("COUNT"), bytes(String.valueOf(scanBatchSize)));
+
+        if (!(reply instanceof List<?> parts) || parts.size() != 2) {
+            throw new IllegalStateException("Unexpected SCAN reply: " + reply);
+        }
+
+        List<String> keys = new ArrayList<>();
+        if (parts.get(1) instanceof List<?> rawKeys) {
+            for (Object rawKey : rawKeys) {
+                keys.add(string(rawKey));
+            }
+        }
+        return new ScanPage(string(parts.get(0)), keys);
+    }
+
+    /**
+     * Iteración de SCAN en Redis Cluster. SCAN sobre la conexión de cluster iría a un nodo cualquiera en cada
+     * página, así que se envía al master en curso con una conexión propia de ese nodo. Los masters se recorren
+     * en orden de host:port; al terminar uno se sigue con el siguiente y al terminar el último el cursor
+     * vuelve a "0". Si el nodo del cursor ya no es master (failover), se sigue con el siguiente en orden:
+     * las claves de sus slots pueden faltar en esta pasada, igual que una clave movida durante un SCAN.
+     */
+    private ScanPage scanCluster(RedisClusterConnection connection, String cursor, String pattern) {
+        List<String> masters = new ArrayList<>();
+        for (RedisClusterNode node : connection.clusterGetNodes()) {
+            if (node.isMaster()) {
+                masters.add(node.getHost() + ":" + node.getPort());
+            }
+        }
+        Collections.sort(masters);
+        if (masters.isEmpty()) {
+            throw new IllegalStateException("No cluster masters available");
+        }
+
+        String node = masters.get(0);
+        String nodeCursor = INITIAL_CURSOR;
+        if (!INITIAL_CURSOR.equals(cursor)) {
+            int separator = cursor.lastIndexOf(CLUSTER_CURSOR_SEPARATOR);
+            String savedNode = cursor.substring(0, separator);
+            if (masters.contains(savedNode)) {
+                node = savedNode;
+                nodeCursor = cursor.substring(separator + 1);
+            } else {
+                node = next(masters, savedNode);
+                if (node == null) {
+                    return new ScanPage(INITIAL_CURSOR, List.of());
+                }
+            }
+        }
+
+        ConnectionPool pool = ((JedisCluster) connection.getNativeConnection()).getClusterNodes().get(node);
+        if (pool == null) {
+            throw new IllegalStateException("No connection pool for cluster node " + node);
+        }
+        ScanResult<String> result;
+        try (Jedis jedis = new Jedis(pool.getResource())) {
+            result = jedis.scan(nodeCursor, new ScanParams().match(pattern).count(scanBatchSize));
+        }
+
+        if (!result.isCompleteIteration()) {
+            return new ScanPage(node + CLUSTER_CURSOR_SEPARATOR + result.getCursor(), result.getResult());
+        }
+        String nextNode = next(masters, node);
+        return new ScanPage(nextNode != null ? nextNode + CLUSTER_CURSOR_SEPARATOR + INITIAL_CURSOR : INITIAL_CURSOR,
+                result.getResult());
+    }
+
+    // Primer master posterior a node en el orden del recorrido (null si no hay)
+    private static String next(List<String> masters, String node) {
+        for (String master : masters) {
+            if (master.compareTo(node) > 0) {
+                return master;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Bloquea hasta disponer de permisos de escritura suficientes para el lote
+     */
+    private void acquireWritePermits(long permits) throws InterruptedException {
+        Bucket bucket = writeBucket();
+        long capacity = Math.max(1, maxWritesPerSecond);
+        long remaining = permits;
+        while (remaining > 0) {
+            long take = Math.min(remaining, capacity);
+            bucket.asBlocking().consume(take);
+            remaining -= take;
+        }
+    }
+
+    private Bucket writeBucket() {
+        Bucket bucket = writeBucket;
+        if (bucket == null) {
+            long capacity = Math.max(1, maxWritesPerSecond);
+            bucket = Bucket.builder()
+                    .addLimit(Bandwidth.builder()
+                            .capacity(capacity)
+                            .refillGreedy(capacity, Duration.ofSeconds(1))
+                            .build())
+                    .build();
+            writeBucket = bucket;
+        }
+        return bucket;
+    }
+
+    private void record(String job, long examined, long processed, Duration duration) {
+        Counter.builder("innosistemas.redis.scan.keys.examined")
+                .tag("job", job)
+                .register(meterRegistry)
+                .increment(examined);
+        Counter.builder("innosistemas.redis.scan.keys.processed")
+                .tag("job", job)
+                .register(meterRegistry)
+                .increment(processed);
+        Timer.builder("innosistemas.redis.scan.duration")
+                .tag("job", job)
+                .register(meterRegistry)
+                .record(duration);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(Object raw) {
+        return raw instanceof byte[] data ? new String(data, StandardCharsets.UTF_8) : String.valueOf(raw);
+    }
+
+    private record ScanPage(String cursor, List<String> keys) {
+    }
+}
@@ -1,21 +1,46 @@
 package com.udea.innosistemas.service;
 
+import com.udea.innosistemas.store.KeyValueStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Servicio para gestionar sesiones activas de usuarios utilizando Redis.
+ * Servicio para gestionar sesiones activas de usuarios sobre {@link KeyValueStore} (Redis o memoria).
  * Permite trackear sesiones concurrentes, limitar dispositivos simultáneos y gestionar sesiones activas.
  * Proporciona funcionalidades de auditoría y control de sesiones por usuario.
  *
+ * Las sesiones de cada usuario se almacenan en un conjunto ordenado cuyo miembro es el ID de la sesión
+ * y cuyo score es el instante de expiración (epoch ms); la búsqueda por ID es O(1) y el conteo se obtiene
+ * del propio índice, por lo que no existe un contador separado que pueda desincronizarse. Además se mantiene
+ * un índice global (usuario → expiración de su última sesión) para contar usuarios activos sin recorrer
+ * el keyspace, y la limpieza de sesiones expiradas se hace con SCAN incremental.
+ *
+ * Cada sesión puede tener una familia de refresh tokens (sesión → "jti:expiración absoluta") en un hash
+ * del usuario. Registro, rotación, logout e invalidación son cada uno un único paso atómico sobre el índice
+ * y las familias del usuario ({@link KeyValueStore.MemberIndex}): de dos peticiones con el mismo refresh token
+ * solo una rota, presentar un jti ya rotado se considera robo del token y revoca la familia completa, y un
+ * login concurrente con {@link #invalidateAllUserSessions(String)} queda completo antes o después de ella.
+ *
+ * El acceso a Redis pasa por {@link RedisCircuitBreaker}. Las sesiones registradas o rotadas recientemente
+ * se reflejan en una sombra local acotada; con el circuito abierto, login, refresh y logout se resuelven
+ * contra esa sombra sin esperar el timeout de Redis, y los cambios se vuelcan a Redis cuando el circuito
+ * se cierra. La sombra no conoce las rotaciones hechas por otras instancias: un refresh token que no
+ * coincide con la sombra se rechaza sin revocar la familia.
+ *
  * Autor: Fábrica-Escuela de Software UdeA
  * Versión: 1.0.0
  */
@@ -23,14 +48,84 @@ import java.util.concurrent.TimeUnit;
 public class SessionManagementService {
 
     private static final Logger logger = LoggerFactory.getLogger(SessionManagementService.class);
-    private static final String SESSION_PREFIX = "session:user:";
-    private static final String SESSION_COUNT_PREFIX = "session:count:";
+
+    // Prefijo nuevo: el formato anterior (session:user:*) era un SET y no es compatible con el ZSET
+    private static final String SESSION_PREFIX = "session:active:";
+    private static final String REFRESH_FAMILY_PREFIX = "session:refresh:";
+    private static final String ACTIVE_USERS_KEY = "session:active-users";
+    private static final String CLEANUP_JOB = "session-cleanup";
 
     @Autowired
-    private RedisTemplate<String, String> redisTemplate;
+    private KeyValueStore keyValueStore;
+
+    @Autowired
+    private RedisScanJobService redisScanJobService;
+
+    @Autowired
+    private RedisPipelineService redisPipelineService;
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @Value("${innosistemas.auth.jwt.expiration}")
-    private long jwtExpirationInMs;
+    private long jwtExpirationInSeconds;
+
+    @Value("${innosistemas.redis.maintenance.session-cleanup-max-keys:10000}")
+    private long sessionCleanupMaxKeys;
+
+    @Value("${innosistemas.auth.session.shadow-max-users:10000}")
+    private int shadowMaxUsers;
+
+    // Sombra local: usuario → (sesión → estado). Los mapas se reemplazan completos (copias inmutables)
+    private LocalShadowStore<Map<String, ShadowSession>> sessionShadow;
+    // Cambios hechos con el circuito abierto, pendientes de volcar a Redis
+    private final Set<String> pendingSessionUsers = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingInvalidations = ConcurrentHashMap.newKeySet();
+    // Logout hechos con el circuito abierto: usuario → sesiones a remover de Redis
+    private final Map<String, Set<String>> pendingRemovals = new ConcurrentHashMap<>();
+
+    /**
+     * Estado local de una sesión
+     *
+     * @param refreshTokenId jti vigente de la familia (null si la sesión no tiene familia)
+     * @param familyExpiresAt Expiración absoluta de la familia (epoch ms)
+     * @param expiresAt Expiración de la sesión (epoch ms)
+     */
+    private record ShadowSession(String refreshTokenId, long familyExpiresAt, long expiresAt) {
+    }
+
+    /**
+     * Resultado de la rotación de un refresh token
+     */
+    public enum RotationStatus {
+        /** El token era el vigente de su familia y fue reemplazado */
+        ROTATED,
+        /** La familia no existe o expiró (sesión cerrada) */
+        UNKNOWN_FAMILY,
+        /** El token ya había sido rotado: se revocó la familia completa */
+        REUSED
+    }
+
+    /**
+     * @param status Resultado de la rotación
+     * @param familyExpiresAt Expiración absoluta de la familia (epoch ms); solo válida si status es ROTATED
+     */
+    public record RefreshRotation(RotationStatus status, long familyExpiresAt) {
+    }
+
+    @PostConstruct
+    public void init() {
+        sessionShadow = new LocalShadowStore<>(shadowMaxUsers);
+        Gauge.builder("innosistemas.session.pending", this,
+                        service -> service.pendingSessionUsers.size() + service.pendingInvalidations.size()
+                                + service.pendingRemovals.size())
+                .description("Usuarios con cambios de sesión pendientes de volcar a Redis")
+                .register(meterRegistry);
+        circuitBreaker.onRecovery(this::resynchronize);
+    }
 
     /**
      * Registra una nueva sesión para un usuario
@@ -40,25 +135,103 @@ public class SessionManagementService {
      * @return true si la sesión fue registrada exitosamente
      */
     public boolean registerSession(String username, String sessionId) {
-        try {
-            String sessionKey = SESSION_PREFIX + username;
-            String value = sessionId + ":" + Instant.now().toEpochMilli();
+        return registerSession(username, sessionId, null, 0);
+    }
+
+    /**
+     * Registra una nueva sesión junto con la familia de refresh tokens que la mantiene viva
+     *
+     * @param username Nombre de usuario
+     * @param sessionId ID único de la sesión; es también el identificador de la familia
+     * @param refreshTokenId jti del refresh token inicial (null si la sesión no tiene familia)
+     * @param familyExpiresAt Expiración absoluta de la familia (epoch ms)
+     * @return true si la sesión fue registrada exitosamente
+     */
+    public boolean registerSession(String username, String sessionId, String refreshTokenId, long familyExpiresAt) {
+        long now = Instant.now().toEpochMilli();
+        ShadowSession session = new ShadowSession(refreshTokenId, familyExpiresAt, now + jwtExpirationInSeconds * 1000);
+        putShadowSession(username, sessionId, session);
 
-            // Agregar sesión al conjunto de sesiones activas del usuario
-            redisTemplate.opsForSet().add(sessionKey, value);
+        return circuitBreaker.execute(() -> {
+            long activeSessions = writeSession(username, sessionId, session, now);
+            logger.info("Session registered for user: {}, sessionId: {}, active sessions: {}",
+                    username, sessionId, activeSessions);
+            return true;
+        }, () -> {
+            pendingSessionUsers.add(username);
+            logger.warn("Redis unavailable - session {} for user {} registered locally", sessionId, username);
+            return true;
+        });
+    }
 
-            // Establecer expiración en el conjunto
-            redisTemplate.expire(sessionKey, jwtExpirationInMs, TimeUnit.SECONDS);
+    /**
+     * Escribe una sesión: alta en el índice del usuario, familia de refresh tokens e índice de usuarios activos
+     *
+     * @return Número de sesiones activas del usuario después del registro
+     */
+    private long writeSession(String username, String sessionId, ShadowSession session, long now) {
+        // La sesión puede renovarse hasta la expiración de su familia; como todas las familias tienen la
+        // misma duración, el último registro es el que más tarde expira en el índice de usuarios activos
+        boolean hasFamily = session.refreshTokenId() != null && session.familyExpiresAt() > now;
+        return keyValueStore.indexPut(sessionIndex(username), sessionId, session.expiresAt(),
+                hasFamily ? session.refreshTokenId() : null, hasFamily ? session.familyExpiresAt() : 0, now);
+    }
 
-            // Incrementar contador de sesiones
-            incrementSessionCount(username);
+    /**
+     * Rota el refresh token de una familia con compare-and-set sobre su jti vigente.
+     * Si el jti presentado no es el vigente, la familia y su sesión se revocan (detección de reutilización).
+     *
+     * @param username Nombre de usuario
+     * @param familyId ID de la familia (ID de la sesión)
+     * @param presentedTokenId jti del refresh token presentado
+     * @param newTokenId jti del nuevo refresh token
+     * @return Resultado de la rotación
+     */
+    public RefreshRotation rotateRefreshToken(String username, String familyId, String presentedTokenId, String newTokenId) {
+        RefreshRotation rotation = circuitBreaker.execute(
+                () -> rotateInStore(username, familyId, presentedTokenId, newTokenId),
+                () -> rotateLocally(username, familyId, presentedTokenId, newTokenId));
 
-            logger.info("Session registered for user: {}, sessionId: {}", username, sessionId);
-            return true;
-        } catch (Exception e) {
-            logger.error("Error registering session for user {}: {}", username, e.getMessage(), e);
-            return false;
+        if (rotation.status() == RotationStatus.ROTATED) {
+            long now = Instant.now().toEpochMilli();
+            putShadowSession(username, familyId,
+                    new ShadowSession(newTokenId, rotation.familyExpiresAt(), now + jwtExpirationInSeconds * 1000));
+        } else {
+            removeShadowSession(username, familyId);
+        }
+        return rotation;
+    }
+
+    private RefreshRotation rotateInStore(String username, String familyId, String presentedTokenId, String newTokenId) {
+        // La sesión sigue activa mientras se renueve, sin superar la expiración absoluta de la familia
+        long familyExpiresAt = keyValueStore.indexSwap(sessionIndex(username), familyId, presentedTokenId, newTokenId,
+                jwtExpirationInSeconds * 1000, Instant.now().toEpochMilli());
+        if (familyExpiresAt == KeyValueStore.MISSING) {
+            return new RefreshRotation(RotationStatus.UNKNOWN_FAMILY, 0);
+        }
+        if (familyExpiresAt == KeyValueStore.MISMATCH) {
+            logger.warn("Refresh token reuse detected for user: {}, family {} revoked", username, familyId);
+            return new RefreshRotation(RotationStatus.REUSED, 0);
+        }
+        return new RefreshRotation(RotationStatus.ROTATED, familyExpiresAt);
+    }
+
+    /**
+     * Rotación contra la sombra local (circuito abierto). Un jti que no coincide se rechaza sin revocar
+     * la familia: puede haber sido rotado legítimamente por otra instancia que la sombra no conoce.
+     */
+    private RefreshRotation rotateLocally(String username, String familyId, String presentedTokenId, String newTokenId) {
+        Map<String, ShadowSession> sessions = sessionShadow.get(username);
+        ShadowSession session = sessions != null ? sessions.get(familyId) : null;
+        if (session == null
+                || session.familyExpiresAt() <= Instant.now().toEpochMilli()
+                || !presentedTokenId.equals(session.refreshTokenId())) {
+            logger.warn("Redis unavailable - refresh token of family {} cannot be verified locally", familyId);
+            return new RefreshRotation(RotationStatus.UNKNOWN_FAMILY, 0);
         }
+        pendingSessionUsers.add(username);
+        logger.warn("Redis unavailable - refresh token of family {} rotated locally", familyId);
+        return new RefreshRotation(RotationStatus.ROTATED, session.familyExpiresAt());
     }
 
     /**
@@ -69,50 +242,54 @@ public class SessionManagementService {
      * @return true si la sesión fue removida exitosamente
      */
     public boolean removeSession(String username, String sessionId) {
-        try {
-            String sessionKey = SESSION_PREFIX + username;
-            Set<String> sessions = redisTemplate.opsForSet().members(sessionKey);
-
-            if (sessions != null) {
-                // Buscar y remover la sesión que coincida con el sessionId
-                sessions.stream()
-                        .filter(s -> s.startsWith(sessionId + ":"))
-                        .forEach(s -> redisTemplate.opsForSet().remove(sessionKey, s));
-
-                decrementSessionCount(username);
+        removeShadowSession(username, sessionId);
+        return circuitBreaker.execute(() -> {
+            boolean removed = removeInStore(username, sessionId);
+            if (removed) {
                 logger.info("Session removed for user: {}, sessionId: {}", username, sessionId);
-                return true;
             }
-            return false;
-        } catch (Exception e) {
-            logger.error("Error removing session for user {}: {}", username, e.getMessage(), e);
-            return false;
-        }
+            return removed;
+        }, () -> {
+            pendingRemovals.compute(username, (user, sessionIds) -> {
+                Set<String> next = sessionIds != null ? sessionIds : ConcurrentHashMap.newKeySet();
+                next.add(sessionId);
+                return next;
+            });
+            logger.warn("Redis unavailable - session {} of user {} removed locally", sessionId, username);
+            return true;
+        });
+    }
+
+    private boolean removeInStore(String username, String sessionId) {
+        return keyValueStore.indexRemove(sessionIndex(username), sessionId, Instant.now().toEpochMilli());
     }
 
     /**
-     * Invalida todas las sesiones de un usuario
+     * Invalida todas las sesiones de un usuario y sus familias de refresh tokens
      *
      * @param username Nombre de usuario
      * @return Número de sesiones invalidadas
      */
     public long invalidateAllUserSessions(String username) {
-        try {
-            String sessionKey = SESSION_PREFIX + username;
-            Set<String> sessions = redisTemplate.opsForSet().members(sessionKey);
-
-            if (sessions != null && !sessions.isEmpty()) {
-                long count = sessions.size();
-                redisTemplate.delete(sessionKey);
-                resetSessionCount(username);
-                logger.info("All sessions invalidated for user: {}, count: {}", username, count);
-                return count;
+        Map<String, ShadowSession> local = sessionShadow.remove(username);
+        return circuitBreaker.execute(() -> {
+            long invalidated = invalidateInStore(username);
+            if (invalidated > 0) {
+                logger.info("All sessions invalidated for user: {}, count: {}", username, invalidated);
             }
-            return 0;
-        } catch (Exception e) {
-            logger.error("Error invalidating sessions for user {}: {}", username, e.getMessage(), e);
-            return 0;
-        }
+            return invalidated;
+        }, () -> {
+            pendingSessionUsers.remove(username);
+            // La invalidación completa ya incluye los logout pendientes del usuario
+            pendingRemovals.remove(username);
+            pendingInvalidations.add(username);
+            logger.warn("Redis unavailable - sessions of user {} invalidated locally", username);
+            return local != null ? (long) local.size() : 0L;
+        });
+    }
+
+    private long invalidateInStore(String username) {
+        return keyValueStore.indexClear(sessionIndex(username), Instant.now().toEpochMilli());
     }
 
     /**
@@ -122,14 +299,9 @@ public class SessionManagementService {
      * @return Número de sesiones activas
      */
     public long getActiveSessionCount(String username) {
-        try {
-            String sessionKey = SESSION_PREFIX + username;
-            Long count = redisTemplate.opsForSet().size(sessionKey);
-            return count != null ? count : 0;
-        } catch (Exception e) {
-            logger.error("Error getting session count for user {}: {}", username, e.getMessage(), e);
-            return 0;
-        }
+        return circuitBreaker.execute(() -> keyValueStore.sortedSetCount(
+                        sessionKey(username), Instant.now().toEpochMilli() + 1, Double.POSITIVE_INFINITY),
+                () -> (long) localSessions(username).size());
     }
 
     /**
@@ -149,13 +321,9 @@ public class SessionManagementService {
      * @return Conjunto de IDs de sesión
      */
     public Set<String> getUserSessions(String username) {
-        try {
-            String sessionKey = SESSION_PREFIX + username;
-            return redisTemplate.opsForSet().members(sessionKey);
-        } catch (Exception e) {
-            logger.error("Error getting sessions for user {}: {}", username, e.getMessage(), e);
-            return Set.of();
-        }
+        return circuitBreaker.execute(() -> keyValueStore.sortedSetRange(
+                        sessionKey(username), Instant.now().toEpochMilli() + 1, Double.POSITIVE_INFINITY),
+                () -> localSessions(username).keySet());
     }
 
     /**
@@ -166,92 +334,176 @@ public class SessionManagementService {
      * @return true si la sesión está activa
      */
     public boolean isSessionActive(String username, String sessionId) {
-        try {
-            String sessionKey = SESSION_PREFIX + username;
-            Set<String> sessions = redisTemplate.opsForSet().members(sessionKey);
+        return circuitBreaker.execute(() -> {
+            Double expiresAt = keyValueStore.sortedSetScore(sessionKey(username), sessionId);
+            return expiresAt != null && expiresAt > Instant.now().toEpochMilli();
+        }, () -> localSessions(username).containsKey(sessionId));
+    }
 
-            if (sessions != null) {
-                return sessions.stream().anyMatch(s -> s.startsWith(sessionId + ":"));
-            }
-            return false;
+    /**
+     * Limpia sesiones expiradas de los índices por usuario y del índice global de usuarios activos.
+     * En Redis recorre las claves con SCAN incremental (reanudable y acotado) en lugar de KEYS para no bloquear
+     * Redis, y purga cada lote en un único pipeline; en memoria recorre el almacén local.
+     *
+     * @return Resultado de la ejecución del job
+     */
+    public RedisScanJobService.ScanJobResult cleanupExpiredSessions() {
+        if (circuitBreaker.isOpen()) {
+            logger.warn("Redis circuit open - session cleanup skipped");
+            return new RedisScanJobService.ScanJobResult(CLEANUP_JOB, 0, 0, false, Duration.ZERO);
+        }
+        long now = Instant.now().toEpochMilli();
+        try {
+            keyValueStore.sortedSetRemoveByScore(ACTIVE_USERS_KEY, Double.NEGATIVE_INFINITY, now);
         } catch (Exception e) {
-            logger.error("Error checking session status: {}", e.getMessage(), e);
-            return false;
+            logger.error("Error cleaning up active users index: {}", e.getMessage(), e);
         }
+
+        if (!keyValueStore.isShared()) {
+            long started = System.nanoTime();
+            long[] cleaned = new long[1];
+            long examined = keyValueStore.scan(SESSION_PREFIX + "*", keys -> keys.forEach(key ->
+                    cleaned[0] += keyValueStore.sortedSetRemoveByScore(key, Double.NEGATIVE_INFINITY, now)));
+            return new RedisScanJobService.ScanJobResult(CLEANUP_JOB, examined, cleaned[0], true,
+                    Duration.ofNanos(System.nanoTime() - started));
+        }
+        return redisScanJobService.run(CLEANUP_JOB, SESSION_PREFIX + "*", sessionCleanupMaxKeys,
+                keys -> purgeExpired(keys, now));
+    }
+
+    /**
+     * Obtiene estadísticas de sesiones
+     *
+     * @return Número total de usuarios con sesiones activas
+     */
+    public long getTotalActiveUsers() {
+        return circuitBreaker.execute(() -> keyValueStore.sortedSetCount(
+                ACTIVE_USERS_KEY, Instant.now().toEpochMilli() + 1, Double.POSITIVE_INFINITY), () -> 0L);
     }
 
     /**
-     * Limpia sesiones expiradas (normalmente Redis lo hace automáticamente)
+     * Vuelca a Redis los cambios de sesión hechos mientras el circuito estaba abierto:
+     * primero las invalidaciones, después los logout y por último las sesiones registradas o rotadas localmente.
+     * Los usuarios cuyo volcado falle quedan pendientes para la siguiente recuperación.
      */
-    public void cleanupExpiredSessions() {
+    void resynchronize() {
+        long now = Instant.now().toEpochMilli();
+        int users = 0;
         try {
-            Set<String> keys = redisTemplate.keys(SESSION_PREFIX + "*");
-            if (keys != null) {
-                long cleaned = 0;
-                for (String key : keys) {
-                    Set<String> sessions = redisTemplate.opsForSet().members(key);
-                    if (sessions != null) {
-                        long now = Instant.now().toEpochMilli();
-                        for (String session : sessions) {
-                            String[] parts = session.split(":");
-                            if (parts.length >= 2) {
-                                long timestamp = Long.parseLong(parts[parts.length - 1]);
-                                if (now - timestamp > jwtExpirationInMs * 1000) {
-                                    redisTemplate.opsForSet().remove(key, session);
-                                    cleaned++;
-                                }
-                            }
-                        }
-                    }
+            for (String username : pendingInvalidations) {
+                invalidateInStore(username);
+                pendingInvalidations.remove(username);
+                users++;
+            }
+            for (Map.Entry<String, Set<String>> removals : pendingRemovals.entrySet()) {
+                for (String sessionId : removals.getValue()) {
+                    removeInStore(removals.getKey(), sessionId);
+                    removals.getValue().remove(sessionId);
                 }
-                logger.info("Cleaned up {} expired sessions", cleaned);
+                pendingRemovals.computeIfPresent(removals.getKey(),
+                        (user, sessionIds) -> sessionIds.isEmpty() ? null : sessionIds);
+                users++;
+            }
+            for (String username : pendingSessionUsers) {
+                pendingSessionUsers.remove(username);
+                for (Map.Entry<String, ShadowSession> session : localSessions(username).entrySet()) {
+                    writeSession(username, session.getKey(), session.getValue(), now);
+                }
+                users++;
             }
         } catch (Exception e) {
-            logger.error("Error cleaning up expired sessions: {}", e.getMessage(), e);
+            logger.warn("Could not replay local sessions to Redis: {}", e.getMessage());
+            return;
         }
+        logger.info("Redis recovered: sessions of {} users replayed", users);
     }
 
-    // Métodos privados para gestión de contadores
-
-    private void incrementSessionCount(String username) {
-        try {
-            String countKey = SESSION_COUNT_PREFIX + username;
-            redisTemplate.opsForValue().increment(countKey);
-        } catch (Exception e) {
-            logger.error("Error incrementing session count: {}", e.getMessage());
+    private Map<String, ShadowSession> localSessions(String username) {
+        Map<String, ShadowSession> sessions = sessionShadow.get(username);
+        if (sessions == null) {
+            return Map.of();
         }
+        long now = Instant.now().toEpochMilli();
+        Map<String, ShadowSession> active = new HashMap<>();
+        sessions.forEach((sessionId, session) -> {
+            if (session.expiresAt() > now) {
+                active.put(sessionId, session);
+            }
+        });
+        return active;
     }
 
-    private void decrementSessionCount(String username) {
-        try {
-            String countKey = SESSION_COUNT_PREFIX + username;
-            redisTemplate.opsForValue().decrement(countKey);
-        } catch (Exception e) {
-            logger.error("Error decrementing session count: {}", e.getMessage());
-        }
+    private void putShadowSession(String username, String sessionId, ShadowSession session) {
+        long now = Instant.now().toEpochMilli();
+        sessionShadow.update(username, current -> {
+            Map<String, ShadowSession> next = new HashMap<>();
+            if (current != null) {
+                current.forEach((id, existing) -> {
+                    if (Math.max(existing.expiresAt(), existing.familyExpiresAt()) > now) {
+                        next.put(id, existing);
+                    }
+                });
+            }
+            next.put(sessionId, session);
+            return Map.copyOf(next);
+        }, SessionManagementService::shadowExpiresAt);
     }
 
-    private void resetSessionCount(String username) {
-        try {
-            String countKey = SESSION_COUNT_PREFIX + username;
-            redisTemplate.delete(countKey);
-        } catch (Exception e) {
-            logger.error("Error resetting session count: {}", e.getMessage());
+    private void removeShadowSession(String username, String sessionId) {
+        sessionShadow.update(username, current -> {
+            if (current == null || !current.containsKey(sessionId)) {
+                return current;
+            }
+            Map<String, ShadowSession> next = new HashMap<>(current);
+            next.remove(sessionId);
+            return next.isEmpty() ? null : Map.copyOf(next);
+        }, SessionManagementService::shadowExpiresAt);
+    }
+
+    // La entrada del usuario vive mientras alguna de sus sesiones pueda renovarse
+    private static long shadowExpiresAt(Map<String, ShadowSession> sessions) {
+        long expiresAt = 0;
+        for (ShadowSession session : sessions.values()) {
+            expiresAt = Math.max(expiresAt, Math.max(session.expiresAt(), session.familyExpiresAt()));
         }
+        return expiresAt;
     }
 
     /**
-     * Obtiene estadísticas de sesiones
-     *
-     * @return Número total de usuarios con sesiones activas
+     * Elimina en un único pipeline de Redis las sesiones expiradas de un lote de índices
      */
-    public long getTotalActiveUsers() {
-        try {
-            Set<String> keys = redisTemplate.keys(SESSION_PREFIX + "*");
-            return keys != null ? keys.size() : 0;
-        } catch (Exception e) {
-            logger.error("Error getting total active users: {}", e.getMessage(), e);
-            return 0;
+    private long purgeExpired(List<String> keys, long now) {
+        List<Object> results = redisPipelineService.execute(batch -> {
+            for (String key : keys) {
+                batch.zRemRangeByScore(key, Double.NEGATIVE_INFINITY, now);
+            }
+        });
+
+        long cleaned = 0;
+        for (Object result : results) {
+            if (result instanceof Number removed) {
+                cleaned += removed.longValue();
+            }
         }
+        return cleaned;
+    }
+
+    /**
+     * Construye la clave del índice de sesiones de un usuario.
+     * El username va entre llaves (hash tag) para que todas las claves de un usuario
+     * caigan en el mismo slot si se usa Redis Cluster.
+     */
+    private String sessionKey(String username) {
+        return SESSION_PREFIX + "{" + username + "}";
+    }
+
+    /**
+     * Índice de sesiones del usuario con sus familias de refresh tokens (hash sesión → "jti:expiración").
+     * Ambas claves comparten hash tag, de modo que el script de cada operación toca una sola ranura
+     * de Redis Cluster.
+     */
+    private KeyValueStore.MemberIndex sessionIndex(String username) {
+        return new KeyValueStore.MemberIndex(sessionKey(username),
+                REFRESH_FAMILY_PREFIX + "{" + username + "}", ACTIVE_USERS_KEY, username);
     }
 }
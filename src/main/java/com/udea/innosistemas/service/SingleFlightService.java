@@ -0,0 +1,154 @@
+package com.udea.innosistemas.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalescencia (single-flight) de lecturas idénticas concurrentes.
+ *
+ * Las lecturas se identifican por operación ({@code Servicio.método}) y argumentos. Si llega una lectura
+ * mientras otra idéntica está en curso, espera y recibe el mismo resultado (o la misma excepción) en lugar
+ * de repetir la consulta; en cuanto la primera termina, la clave se libera. No hay caché: un resultado solo
+ * se comparte con quien llegó durante la consulta que lo produjo. Pensado para las avalanchas de
+ * relecturas de los mismos equipos y notificaciones tras un cambio (por ejemplo, de fecha límite).
+ *
+ * Todos los que esperan reciben la misma instancia, así que los llamadores devuelven listas no modificables
+ * y no modifican los elementos (los DTOs de equipos son inmutables). Dentro de una transacción de escritura
+ * no se coalesce, para que la operación lea sus propios cambios; si la lectura en curso tarda más de
+ * {@code max-wait-ms}, quien espera la repite por su cuenta.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Service
+public class SingleFlightService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SingleFlightService.class);
+    private static final String METRIC_NAME = "innosistemas.singleflight.calls";
+
+    @Value("${innosistemas.singleflight.enabled:true}")
+    private boolean enabled;
+
+    @Value("${innosistemas.singleflight.max-wait-ms:5000}")
+    private long maxWaitMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter[]> counters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("innosistemas.singleflight.inflight", inFlight, Map::size)
+                .description("Lecturas en curso que otras lecturas idénticas pueden compartir")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ejecuta la lectura o, si ya hay una idéntica en curso, espera su resultado
+     *
+     * @param operation Operación ({@code Servicio.método}); etiqueta de las métricas
+     * @param arguments Argumentos de la lectura (los Set se comparan sin importar el orden)
+     * @param loader Lectura a ejecutar
+     * @return Resultado de la lectura, propio o compartido
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T load(String operation, List<?> arguments, Supplier<T> loader) {
+        if (!enabled || inWriteTransaction()) {
+            return loader.get();
+        }
+
+        List<Object> key = key(operation, arguments);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            counters(operation)[1].increment();
+            return (T) await(existing, loader);
+        }
+
+        counters(operation)[0].increment();
+        try {
+            T value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private Object await(CompletableFuture<Object> flight, Supplier<?> loader) {
+        try {
+            return flight.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            logger.warn("Single-flight load still running after {} ms - loading independently", maxWaitMs);
+            return loader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an in-flight load", e);
+        }
+    }
+
+    // Una transacción de escritura puede tener cambios sin confirmar que las demás lecturas no deben ver
+    private static boolean inWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private static List<Object> key(String operation, List<?> arguments) {
+        // List y Set definen equals/hashCode por contenido, así que sirven de clave tal cual
+        List<Object> key = new ArrayList<>(arguments.size() + 1);
+        key.add(operation);
+        key.addAll(arguments);
+        return key;
+    }
+
+    // [líder, coalescida] por operación; las operaciones son un conjunto fijo de métodos de lectura
+    private Counter[] counters(String operation) {
+        return counters.computeIfAbsent(operation, name -> new Counter[]{
+                Counter.builder(METRIC_NAME)
+                        .description("Lecturas que consultaron la base de datos o compartieron una lectura en curso")
+                        .tag("operation", name)
+                        .tag("outcome", "leader")
+                        .register(meterRegistry),
+                Counter.builder(METRIC_NAME)
+                        .description("Lecturas que consultaron la base de datos o compartieron una lectura en curso")
+                        .tag("operation", name)
+                        .tag("outcome", "coalesced")
+                        .register(meterRegistry)
+        });
+    }
+}
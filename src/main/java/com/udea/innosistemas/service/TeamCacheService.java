@@ -0,0 +1,438 @@
+package com.udea.innosistemas.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udea.innosistemas.entity.Team;
+import com.udea.innosistemas.enums.TipoEvento;
+import com.udea.innosistemas.event.TeamEvent;
+import com.udea.innosistemas.repository.TeamRepository;
+import com.udea.innosistemas.store.KeyValueStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caché read-through de equipos ({@link TeamService#obtenerTeamPorId} y las listas por curso) en dos niveles.
+ *
+ * El nivel local es una LRU acotada con expiración; el nivel compartido guarda las mismas entradas en el
+ * {@link KeyValueStore} (Redis) para que una réplica aproveche lo que otra ya leyó. Las escrituras de
+ * {@link TeamService} y los {@link TeamEvent} que cambian filas de equipos invalidan, al confirmar la
+ * transacción, la entrada del equipo y las listas de su curso; la invalidación se difunde a las demás
+ * réplicas por el canal {@value #INVALIDATION_CHANNEL}.
+ *
+ * Consistencia:
+ * - Cada clave compartida tiene un contador de versión que la invalidación incrementa. Una lectura guarda
+ *   su resultado con la versión que vio antes de consultar la base de datos, y una entrada solo se sirve si
+ *   su versión es la vigente; así una lectura lenta que corrió en paralelo con una escritura no vuelve a
+ *   dejar el valor anterior.
+ * - En el nivel local, cualquier invalidación descarta los resultados de las lecturas que estaban en curso.
+ * - Con varias réplicas, el nivel local solo se usa mientras la suscripción al canal está activa; al
+ *   recuperarla se vacía. Las invalidaciones que no se pudieron publicar quedan acotadas por
+ *   {@code local-ttl-ms}.
+ * - Dentro de una transacción de escritura no se usa la caché, para que la operación lea sus propios cambios.
+ *
+ * Los equipos devueltos son copias desacopladas de la sesión y sin miembros cargados: los miembros se
+ * consultan con {@link TeamProjectionService} o {@code UserRepository}. Los resolvers GraphQL de equipos leen
+ * proyecciones con miembros a través de {@link TeamProjectionService} y no pasan por esta caché: solo se
+ * benefician los llamadores de {@link TeamService} (controladores REST y otros servicios).
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Service
+public class TeamCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TeamCacheService.class);
+
+    public static final String INVALIDATION_CHANNEL = "team-cache:invalidations";
+    private static final String SHARED_PREFIX = "team-cache:";
+    private static final String VERSION_PREFIX = "team-cache:version:";
+
+    // Eventos que cambian columnas de la tabla teams; los de membresía no afectan a las entradas cacheadas
+    private static final Set<TipoEvento> TEAM_ROW_EVENTS = EnumSet.of(TipoEvento.CREACION_EQUIPO,
+            TipoEvento.FECHA_LIMITE_ACTUALIZADA, TipoEvento.EQUIPO_ACTUALIZADO, TipoEvento.EQUIPO_ELIMINADO);
+
+    /**
+     * Columnas de un equipo, inmutables, tal como se guardan en ambos niveles
+     */
+    record CachedTeam(Long id, String nombre, String descripcion, LocalDateTime fechaCreacion,
+                      LocalDateTime fechaLimite, LocalDateTime createdAt, LocalDateTime updatedAt,
+                      Long courseId, boolean activo, Integer maxMiembros) {
+
+        static CachedTeam of(Team team) {
+            return new CachedTeam(team.getId(), team.getNombre(), team.getDescripcion(), team.getFechaCreacion(),
+                    team.getFechaLimite(), team.getCreatedAt(), team.getUpdatedAt(), team.getCourseId(),
+                    team.isActivo(), team.getMaxMiembros());
+        }
+
+        Team toTeam() {
+            Team team = new Team();
+            team.setId(id);
+            team.setNombre(nombre);
+            team.setDescripcion(descripcion);
+            team.setFechaCreacion(fechaCreacion);
+            team.setFechaLimite(fechaLimite);
+            team.setCreatedAt(createdAt);
+            team.setUpdatedAt(updatedAt);
+            team.setCourseId(courseId);
+            team.setActivo(activo);
+            team.setMaxMiembros(maxMiembros);
+            return team;
+        }
+    }
+
+    // Entrada del nivel compartido: equipos y versión de la clave con la que se leyeron
+    record SharedEntry(long version, List<CachedTeam> teams) {
+    }
+
+    @Value("${innosistemas.cache.teams.enabled:true}")
+    private boolean enabled;
+
+    @Value("${innosistemas.cache.teams.local-max-entries:10000}")
+    private int localMaxEntries;
+
+    @Value("${innosistemas.cache.teams.local-ttl-ms:300000}")
+    private long localTtlMs;
+
+    @Value("${innosistemas.cache.teams.shared:true}")
+    private boolean sharedEnabled;
+
+    @Value("${innosistemas.cache.teams.shared-ttl-ms:3600000}")
+    private long sharedTtlMs;
+
+    @Autowired
+    private KeyValueStore keyValueStore;
+
+    @Autowired(required = false)
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private RedisPipelineService redisPipelineService;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private LocalShadowStore<List<CachedTeam>> local;
+    // Se incrementa con cada invalidación local; una lectura solo guarda su resultado si no cambió
+    private final AtomicLong epoch = new AtomicLong();
+    // Versiones compartidas que no se pudieron incrementar; mientras existan, no se usa el nivel compartido
+    private final Set<String> pendingVersionBumps = ConcurrentHashMap.newKeySet();
+    // Las invalidaciones publicadas sin suscripción se perdieron: al confirmarse se descarta lo que hubiera
+    private final ChannelSubscription invalidationSubscription = new ChannelSubscription(
+            INVALIDATION_CHANNEL, this::onInvalidationMessage, this::clearLocal, () -> { });
+
+    private Counter localHitCounter;
+    private Counter sharedHitCounter;
+    private Counter missCounter;
+    private Counter invalidationCounter;
+
+    @PostConstruct
+    public void init() {
+        local = new LocalShadowStore<>(Math.max(1, localMaxEntries));
+        localHitCounter = cacheCounter("local");
+        sharedHitCounter = cacheCounter("shared");
+        missCounter = cacheCounter("miss");
+        invalidationCounter = Counter.builder("innosistemas.team.cache.invalidations")
+                .description("Claves de equipos o listas por curso invalidadas")
+                .register(meterRegistry);
+        Gauge.builder("innosistemas.team.cache.hit-ratio", this, TeamCacheService::hitRatio)
+                .description("Fracción de lecturas de equipos servidas por la caché (local o compartida)")
+                .register(meterRegistry);
+        Gauge.builder("innosistemas.team.cache.size", this, service -> service.local.size())
+                .description("Entradas en la caché local de equipos")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Equipo por ID, desde la caché o desde {@code loader}
+     *
+     * @param id ID del equipo
+     * @param loader Consulta a la base de datos
+     * @return Copia del equipo, o vacío si no existe
+     */
+    public Optional<Team> team(Long id, Supplier<Optional<Team>> loader) {
+        if (bypass()) {
+            return loader.get();
+        }
+        List<CachedTeam> teams = read(teamKey(id), () -> loader.get().map(CachedTeam::of).stream().toList());
+        return teams.stream().findFirst().map(CachedTeam::toTeam);
+    }
+
+    /**
+     * Equipos de un curso, desde la caché o desde {@code loader}
+     *
+     * @param courseId ID del curso
+     * @param soloActivos true para la lista de equipos activos
+     * @param loader Consulta a la base de datos
+     * @return Copias de los equipos, en el orden de la consulta
+     */
+    public List<Team> teamsByCourse(Long courseId, boolean soloActivos, Supplier<List<Team>> loader) {
+        if (bypass()) {
+            return loader.get();
+        }
+        List<CachedTeam> teams = read(courseKey(courseId, soloActivos),
+                () -> loader.get().stream().map(CachedTeam::of).toList());
+        List<Team> result = new ArrayList<>(teams.size());
+        for (CachedTeam team : teams) {
+            result.add(team.toTeam());
+        }
+        return result;
+    }
+
+    /**
+     * Invalida el equipo y las listas de su curso cuando la transacción en curso se confirme
+     * (inmediatamente si no hay transacción)
+     *
+     * @param teamId ID del equipo
+     * @param courseId ID del curso del equipo (puede ser null)
+     */
+    public void invalidarEquipo(Long teamId, Long courseId) {
+        List<String> keys = new ArrayList<>(3);
+        keys.add(teamKey(teamId));
+        if (courseId != null) {
+            keys.add(courseKey(courseId, false));
+            keys.add(courseKey(courseId, true));
+        }
+        invalidateAfterCommit(keys);
+    }
+
+    /**
+     * Invalida las entradas afectadas por eventos que cambian filas de equipos. Se ejecuta en el hilo y la
+     * transacción de quien publica el evento, así que el equipo suele estar ya en el contexto de persistencia.
+     */
+    @EventListener
+    public void onTeamEvent(TeamEvent event) {
+        if (event.getTeamId() == null || !TEAM_ROW_EVENTS.contains(event.getTipoEvento())) {
+            return;
+        }
+        Long courseId = teamRepository.findById(event.getTeamId()).map(Team::getCourseId).orElse(null);
+        invalidarEquipo(event.getTeamId(), courseId);
+    }
+
+    double hitRatio() {
+        double hits = localHitCounter.count() + sharedHitCounter.count();
+        double total = hits + missCounter.count();
+        return total == 0 ? 0 : hits / total;
+    }
+
+    // Lectura en dos niveles: local, compartido (si la versión es la vigente) y base de datos
+    private List<CachedTeam> read(String key, Supplier<List<CachedTeam>> loader) {
+        boolean localTier = isLocalTierUsable();
+        if (localTier) {
+            List<CachedTeam> cached = local.get(key);
+            if (cached != null) {
+                localHitCounter.increment();
+                return cached;
+            }
+        }
+
+        long readEpoch = epoch.get();
+        Long version = null;
+        List<CachedTeam> teams = null;
+        if (isSharedTier() && flushPendingVersionBumps()) {
+            try {
+                Map<String, String> found = keyValueStore.getAll(List.of(SHARED_PREFIX + key, VERSION_PREFIX + key));
+                String storedVersion = found.get(VERSION_PREFIX + key);
+                version = storedVersion != null ? Long.parseLong(storedVersion) : 0L;
+                String json = found.get(SHARED_PREFIX + key);
+                if (json != null) {
+                    SharedEntry entry = objectMapper.readValue(json, SharedEntry.class);
+                    if (entry.version() == version) {
+                        teams = entry.teams();
+                    }
+                }
+            } catch (Exception e) {
+                logger.warn("Error reading team cache entry {}: {}", key, e.getMessage());
+                version = null;
+            }
+        }
+
+        if (teams != null) {
+            sharedHitCounter.increment();
+        } else {
+            missCounter.increment();
+            teams = List.copyOf(loader.get());
+            if (version != null) {
+                writeShared(key, new SharedEntry(version, teams));
+            }
+        }
+
+        if (localTier) {
+            synchronized (local) {
+                if (epoch.get() == readEpoch) {
+                    local.put(key, teams, System.currentTimeMillis() + localTtlMs);
+                }
+            }
+        }
+        return teams;
+    }
+
+    private void writeShared(String key, SharedEntry entry) {
+        try {
+            keyValueStore.set(SHARED_PREFIX + key, objectMapper.writeValueAsString(entry), sharedTtlMs);
+        } catch (Exception e) {
+            logger.warn("Error writing team cache entry {}: {}", key, e.getMessage());
+        }
+    }
+
+    // Agrupa las invalidaciones de una transacción y las aplica solo si se confirma
+    @SuppressWarnings("unchecked")
+    private void invalidateAfterCommit(Collection<String> keys) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(keys);
+            return;
+        }
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<String> transactionKeys = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, transactionKeys);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TeamCacheService.this);
+                    if (status == STATUS_COMMITTED) {
+                        invalidate(transactionKeys);
+                    }
+                }
+            });
+            pending = transactionKeys;
+        }
+        pending.addAll(keys);
+    }
+
+    /**
+     * Primero las versiones compartidas y después la caché local: así una lectura local posterior no puede
+     * recuperar del nivel compartido una entrada con la versión anterior.
+     */
+    void invalidate(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (keyValueStore.isShared()) {
+            if (isSharedTier()) {
+                for (String key : keys) {
+                    bumpVersion(key);
+                }
+            }
+            publish(keys);
+        }
+        evictLocal(keys);
+        invalidationCounter.increment(keys.size());
+    }
+
+    private void bumpVersion(String key) {
+        try {
+            keyValueStore.increment(VERSION_PREFIX + key, 1, 0);
+            pendingVersionBumps.remove(key);
+        } catch (Exception e) {
+            pendingVersionBumps.add(key);
+            logger.warn("Error invalidating shared team cache entry {}: {}", key, e.getMessage());
+        }
+    }
+
+    private boolean flushPendingVersionBumps() {
+        for (String key : pendingVersionBumps) {
+            bumpVersion(key);
+        }
+        return pendingVersionBumps.isEmpty();
+    }
+
+    private void publish(Collection<String> keys) {
+        try {
+            redisPipelineService.execute(batch -> batch.publish(INVALIDATION_CHANNEL, String.join(",", keys)));
+        } catch (Exception e) {
+            logger.warn("Could not broadcast team cache invalidation {}: {}", keys, e.getMessage());
+        }
+    }
+
+    private void evictLocal(Collection<String> keys) {
+        synchronized (local) {
+            epoch.incrementAndGet();
+            for (String key : keys) {
+                local.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Recibe las invalidaciones publicadas por cualquier réplica (incluida esta)
+     */
+    void onInvalidationMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        evictLocal(List.of(body.split(",")));
+    }
+
+    // Con varias réplicas, el nivel local sin suscripción podría servir equipos ya modificados en otra
+    private boolean isLocalTierUsable() {
+        return !keyValueStore.isShared() || ensureSubscribed();
+    }
+
+    /**
+     * Se suscribe al canal de invalidaciones si aún no hay suscripción activa.
+     * La suscripción se hace aquí y no al arrancar para que la aplicación inicie aunque Redis no esté disponible.
+     */
+    private boolean ensureSubscribed() {
+        return invalidationSubscription.ensure(listenerContainer);
+    }
+
+    private void clearLocal() {
+        synchronized (local) {
+            epoch.incrementAndGet();
+            local.clear();
+        }
+    }
+
+    private boolean bypass() {
+        return !enabled || (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+
+    private boolean isSharedTier() {
+        return sharedEnabled && keyValueStore.isShared();
+    }
+
+    private static String teamKey(Long teamId) {
+        return "team:" + teamId;
+    }
+
+    private static String courseKey(Long courseId, boolean soloActivos) {
+        return "course:" + courseId + (soloActivos ? ":active" : ":all");
+    }
+
+    private Counter cacheCounter(String result) {
+        return Counter.builder("innosistemas.team.cache")
+                .description("Lecturas de equipos servidas por la caché local, la compartida o la base de datos")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
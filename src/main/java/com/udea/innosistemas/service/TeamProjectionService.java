@@ -0,0 +1,265 @@
+package com.udea.innosistemas.service;
+
+import com.udea.innosistemas.dto.TeamDTO;
+import com.udea.innosistemas.dto.TeamMember;
+import com.udea.innosistemas.entity.UserRole;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Consultas de equipos y miembros que leen solo las columnas que pide el cliente GraphQL.
+ *
+ * Los resolvers pasan los nombres de los campos seleccionados ({@code DataFetchingFieldSelectionSet});
+ * cada campo del esquema se traduce a los atributos de la entidad que necesita (por ejemplo
+ * {@code fullName} necesita nombre, apellido y email) y se ejecuta una consulta JPQL de tuplas con esas
+ * columnas. Así no se materializan entidades {@code User} completas (hash de la contraseña, flags de la
+ * cuenta, timestamps) ni entran en el contexto de persistencia. El plan (atributos y JPQL) se cachea por
+ * forma de la selección; el número de formas está acotado por los campos del esquema.
+ *
+ * Los campos calculados de {@link TeamDTO} que no están en el esquema (vencido, puede agregar miembros)
+ * no se rellenan en las proyecciones.
+ *
+ * Las lecturas idénticas concurrentes (misma consulta, argumentos y selección) comparten una sola consulta
+ * ({@link SingleFlightService}) y reciben las mismas instancias, por eso los resultados son listas no
+ * modificables de DTOs inmutables. La transacción de solo lectura se abre dentro de la lectura compartida,
+ * así que quien espera el resultado de otra no ocupa una conexión del pool.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Service
+public class TeamProjectionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TeamProjectionService.class);
+
+    // Campo de TeamMember -> atributos de User que necesita
+    private static final Map<String, List<String>> MEMBER_ATTRIBUTES = Map.of(
+            "id", List.of("id"),
+            "email", List.of("email"),
+            "firstName", List.of("firstName"),
+            "lastName", List.of("lastName"),
+            "fullName", List.of("firstName", "lastName", "email"),
+            "role", List.of("role"),
+            "teamId", List.of("teamId"),
+            "courseId", List.of("courseId"));
+
+    // Campo de TeamDTO -> atributos de Team que necesita (miembros se consulta aparte)
+    private static final Map<String, List<String>> TEAM_ATTRIBUTES = Map.of(
+            "id", List.of("id"),
+            "nombre", List.of("nombre"),
+            "descripcion", List.of("descripcion"),
+            "fechaLimite", List.of("fechaLimite"),
+            "activo", List.of("activo"),
+            "maxMiembros", List.of("maxMiembros"),
+            "courseId", List.of("courseId"));
+
+    private static final String MEMBERS_BY_TEAMS = "FROM User u WHERE u.teamId IN :teamIds ORDER BY u.id";
+    private static final String TEAM_BY_ID = "FROM Team t WHERE t.id = :id";
+    private static final String TEAMS_BY_IDS = "FROM Team t WHERE t.id IN :ids ORDER BY t.id";
+    private static final String TEAMS_BY_COURSE = "FROM Team t WHERE t.courseId = :courseId ORDER BY t.id";
+    private static final String TEAMS_NEAR_DEADLINE = "FROM Team t WHERE t.fechaLimite IS NOT NULL "
+            + "AND t.fechaLimite BETWEEN :inicio AND :fin ORDER BY t.id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private SingleFlightService singleFlightService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<String, ProjectionPlan> plans = new ConcurrentHashMap<>();
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Columnas a leer y JPQL de una forma de selección
+     */
+    record ProjectionPlan(List<String> attributes, String jpql) {
+    }
+
+    /**
+     * Obtiene un equipo con las columnas seleccionadas
+     *
+     * @param id ID del equipo
+     * @param teamFields Campos de TeamDTO seleccionados
+     * @param memberFields Campos de los miembros seleccionados (vacío si no se pidieron miembros)
+     * @return TeamDTO proyectado, o null si no existe
+     */
+    public TeamDTO teamById(Long id, Set<String> teamFields, Set<String> memberFields) {
+        List<TeamDTO> teams = load("teamById", List.of(id, teamFields, memberFields),
+                () -> teams(TEAM_BY_ID, Map.of("id", id), teamFields, memberFields));
+        return teams.isEmpty() ? null : teams.get(0);
+    }
+
+    /**
+     * Obtiene los equipos de un curso con las columnas seleccionadas. Los miembros de todos los
+     * equipos se leen en una única consulta.
+     */
+    public List<TeamDTO> teamsByCourse(Long courseId, Set<String> teamFields, Set<String> memberFields) {
+        return load("teamsByCourse", List.of(courseId, teamFields, memberFields),
+                () -> teams(TEAMS_BY_COURSE, Map.of("courseId", courseId), teamFields, memberFields));
+    }
+
+    /**
+     * Obtiene un lote de equipos por ID con las columnas seleccionadas (entrega incremental)
+     */
+    @Transactional(readOnly = true)
+    public List<TeamDTO> teamsByIds(List<Long> ids, Set<String> teamFields, Set<String> memberFields) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return teams(TEAMS_BY_IDS, Map.of("ids", ids), teamFields, memberFields);
+    }
+
+    /**
+     * Obtiene los equipos cuya fecha límite cae en los próximos días, con las columnas seleccionadas
+     */
+    public List<TeamDTO> teamsNearDeadline(int dias, Set<String> teamFields, Set<String> memberFields) {
+        return load("teamsNearDeadline", List.of(dias, teamFields, memberFields), () -> {
+            LocalDateTime ahora = LocalDateTime.now();
+            return teams(TEAMS_NEAR_DEADLINE, Map.of("inicio", ahora, "fin", ahora.plusDays(dias)),
+                    teamFields, memberFields);
+        });
+    }
+
+    /**
+     * Obtiene los miembros de un equipo con las columnas seleccionadas
+     */
+    public List<TeamMember> membersOf(Long teamId, Set<String> memberFields) {
+        return load("membersOf", List.of(teamId, memberFields),
+                () -> membersByTeam(List.of(teamId), memberFields).getOrDefault(teamId, List.of()));
+    }
+
+    int planCount() {
+        return plans.size();
+    }
+
+    // Lectura compartida con las idénticas en curso, en su propia transacción de solo lectura
+    private <T> T load(String method, List<?> arguments, Supplier<T> query) {
+        return singleFlightService.load("TeamProjectionService." + method, arguments,
+                () -> readOnlyTransaction.execute(status -> query.get()));
+    }
+
+    private List<TeamDTO> teams(String from, Map<String, Object> parameters,
+                                Set<String> teamFields, Set<String> memberFields) {
+        ProjectionPlan plan = plan("t", from, TEAM_ATTRIBUTES, teamFields, List.of("id"));
+        TypedQuery<Tuple> query = entityManager.createQuery(plan.jpql(), Tuple.class);
+        parameters.forEach(query::setParameter);
+
+        List<Tuple> rows = query.getResultList();
+        Map<Long, List<TeamMember>> members = rows.isEmpty() || memberFields.isEmpty()
+                ? Map.of()
+                : membersByTeam(rows.stream().map(row -> row.get("id", Long.class)).collect(Collectors.toList()),
+                        memberFields);
+
+        List<TeamDTO> teams = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Long id = row.get("id", Long.class);
+            teams.add(toTeam(row, plan.attributes(), members.getOrDefault(id, List.of())));
+        }
+        return List.copyOf(teams);
+    }
+
+    private Map<Long, List<TeamMember>> membersByTeam(Collection<Long> teamIds, Set<String> memberFields) {
+        // teamId siempre se lee para agrupar los miembros por equipo
+        ProjectionPlan plan = plan("u", MEMBERS_BY_TEAMS, MEMBER_ATTRIBUTES, memberFields, List.of("id", "teamId"));
+        List<Tuple> rows = entityManager.createQuery(plan.jpql(), Tuple.class)
+                .setParameter("teamIds", teamIds)
+                .getResultList();
+
+        Map<Long, List<TeamMember>> members = new LinkedHashMap<>();
+        for (Tuple row : rows) {
+            TeamMember member = toMember(row, plan.attributes(), memberFields.contains("fullName"));
+            members.computeIfAbsent(member.getTeamId(), key -> new ArrayList<>()).add(member);
+        }
+        members.replaceAll((teamId, teamMembers) -> List.copyOf(teamMembers));
+        logger.debug("Projected {} members of {} teams with {}", rows.size(), teamIds.size(), plan.attributes());
+        return members;
+    }
+
+    private ProjectionPlan plan(String alias, String from, Map<String, List<String>> attributesByField,
+                                Set<String> fields, List<String> required) {
+        // Forma de la selección: los campos conocidos, ordenados (__typename y similares no cuentan)
+        Set<String> shape = new TreeSet<>();
+        for (String field : fields) {
+            if (attributesByField.containsKey(field)) {
+                shape.add(field);
+            }
+        }
+        return plans.computeIfAbsent(from + "|" + String.join(",", shape), key -> {
+            Set<String> attributes = new LinkedHashSet<>(required);
+            shape.forEach(field -> attributes.addAll(attributesByField.get(field)));
+            String select = attributes.stream()
+                    .map(attribute -> alias + "." + attribute + " AS " + attribute)
+                    .collect(Collectors.joining(", "));
+            return new ProjectionPlan(List.copyOf(attributes), "SELECT " + select + " " + from);
+        });
+    }
+
+    private static TeamDTO toTeam(Tuple row, List<String> attributes, List<TeamMember> members) {
+        Boolean activo = (Boolean) column(row, attributes, "activo");
+        return new TeamDTO(
+                (Long) column(row, attributes, "id"),
+                (String) column(row, attributes, "nombre"),
+                (String) column(row, attributes, "descripcion"),
+                null,
+                (LocalDateTime) column(row, attributes, "fechaLimite"),
+                (Long) column(row, attributes, "courseId"),
+                activo != null && activo,
+                (Integer) column(row, attributes, "maxMiembros"),
+                members,
+                false,
+                false);
+    }
+
+    private static TeamMember toMember(Tuple row, List<String> attributes, boolean fullName) {
+        String email = (String) column(row, attributes, "email");
+        String firstName = (String) column(row, attributes, "firstName");
+        String lastName = (String) column(row, attributes, "lastName");
+        return new TeamMember(
+                (Long) column(row, attributes, "id"),
+                email,
+                firstName,
+                lastName,
+                // Misma regla que User#getFullName
+                fullName ? (firstName != null && lastName != null ? firstName + " " + lastName : email) : null,
+                (UserRole) column(row, attributes, "role"),
+                (Long) column(row, attributes, "teamId"),
+                (Long) column(row, attributes, "courseId"));
+    }
+
+    // Valor de la columna si el plan la lee; null si no se seleccionó
+    private static Object column(Tuple row, List<String> attributes, String attribute) {
+        return attributes.contains(attribute) ? row.get(attribute) : null;
+    }
+}
@@ -7,6 +7,7 @@ import com.udea.innosistemas.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +19,9 @@ import java.util.Optional;
  * Servicio para gestionar equipos (Teams)
  * Proporciona operaciones CRUD y lógica de negocio para equipos
  *
+ * Las lecturas por ID y por curso pasan por {@link TeamCacheService}; las escrituras que cambian
+ * filas de equipos la invalidan al confirmar la transacción.
+ *
  * Autor: Fábrica-Escuela de Software UdeA
  * Versión: 1.0.0
  */
@@ -35,6 +39,9 @@ public class TeamService {
     @Autowired
     private TeamEventService teamEventService;
 
+    @Autowired
+    private TeamCacheService teamCacheService;
+
     /**
      * Crea un nuevo equipo
      *
@@ -46,6 +53,7 @@ public class TeamService {
         logger.info("Creando nuevo equipo: {}", team.getNombre());
 
         Team nuevoTeam = teamRepository.save(team);
+        teamCacheService.invalidarEquipo(nuevoTeam.getId(), nuevoTeam.getCourseId());
 
         // Procesar evento de creación
         teamEventService.procesarEventoCreacionEquipo(nuevoTeam);
@@ -57,30 +65,44 @@ public class TeamService {
      * Obtiene un equipo por ID
      *
      * @param id ID del equipo
-     * @return Optional con el equipo
+     * @return Optional con el equipo (copia desacoplada de la sesión, sin miembros cargados)
      */
     public Optional<Team> obtenerTeamPorId(Long id) {
-        return teamRepository.findById(id);
+        return teamCacheService.team(id, () -> teamRepository.findById(id));
     }
 
     /**
      * Obtiene todos los equipos de un curso
      *
      * @param courseId ID del curso
-     * @return Lista de equipos
+     * @return Lista de equipos (copias desacopladas de la sesión, sin miembros cargados)
      */
     public List<Team> obtenerTeamsPorCurso(Long courseId) {
-        return teamRepository.findByCourseId(courseId);
+        return teamCacheService.teamsByCourse(courseId, false, () -> teamRepository.findByCourseId(courseId));
+    }
+
+    /**
+     * Página de IDs de los equipos de un curso, por keyset sobre el ID (una transacción corta por página)
+     *
+     * @param courseId ID del curso
+     * @param despuesDeId Último ID de la página anterior (null para la primera página)
+     * @param tamano Máximo de IDs de la página
+     * @return IDs de la página, en orden
+     */
+    public List<Long> paginaIdsPorCurso(Long courseId, Long despuesDeId, int tamano) {
+        return teamRepository.findIdPageByCourseId(courseId, despuesDeId != null ? despuesDeId : Long.MIN_VALUE,
+                PageRequest.of(0, tamano));
     }
 
     /**
      * Obtiene equipos activos por curso
      *
      * @param courseId ID del curso
-     * @return Lista de equipos activos
+     * @return Lista de equipos activos (copias desacopladas de la sesión, sin miembros cargados)
      */
     public List<Team> obtenerTeamsActivosPorCurso(Long courseId) {
-        return teamRepository.findByCourseIdAndActivo(courseId, true);
+        return teamCacheService.teamsByCourse(courseId, true,
+                () -> teamRepository.findByCourseIdAndActivo(courseId, true));
     }
 
     /**
@@ -109,6 +131,7 @@ public class TeamService {
         }
 
         Team updated = teamRepository.save(team);
+        teamCacheService.invalidarEquipo(id, updated.getCourseId());
         return updated;
     }
 
@@ -128,6 +151,7 @@ public class TeamService {
 
         team.setFechaLimite(nuevaFechaLimite);
         Team updated = teamRepository.save(team);
+        teamCacheService.invalidarEquipo(teamId, updated.getCourseId());
 
         // Procesar evento de actualización de fecha límite
         teamEventService.procesarEventoFechaLimite(updated, nuevaFechaLimite);
@@ -244,6 +268,7 @@ public class TeamService {
         // Marcar el equipo como inactivo en lugar de eliminarlo físicamente
         team.setActivo(false);
         teamRepository.save(team);
+        teamCacheService.invalidarEquipo(teamId, team.getCourseId());
 
         logger.info("Equipo {} marcado como inactivo", teamId);
     }
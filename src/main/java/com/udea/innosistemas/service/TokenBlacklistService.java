@@ -1,18 +1,42 @@
 package com.udea.innosistemas.service;
 
+import com.udea.innosistemas.security.JwtTokenProvider;
+import com.udea.innosistemas.security.RevokedTokenBloomFilter;
+import com.udea.innosistemas.store.KeyValueStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Servicio para gestionar la blacklist de tokens JWT revocados utilizando Redis.
+ * Servicio para gestionar la blacklist de tokens JWT revocados.
  * Permite invalidar tokens antes de su expiración natural (logout, cambio de contraseña, etc.).
- * Utiliza Redis para almacenamiento distribuido y expira automáticamente los tokens.
+ * Las revocaciones se guardan en el {@link KeyValueStore} configurado (Redis para almacenamiento
+ * distribuido o el almacén en memoria en despliegues de una sola instancia) y expiran automáticamente.
+ *
+ * Los tokens se revocan por su identificador (jti) con claves compactas {@code token:revoked:<jti>}.
+ * Cada instancia mantiene un filtro de Bloom local con los jti revocados, reconstruido periódicamente
+ * con SCAN y actualizado en tiempo real por pub/sub (con un almacén compartido), de modo que la gran
+ * mayoría de verificaciones se resuelven sin consultar Redis. Los tokens emitidos antes de incluir jti se siguen verificando
+ * con la clave heredada {@code token:blacklist:<token>} hasta que expiren.
+ *
+ * El acceso a Redis pasa por {@link RedisCircuitBreaker}. Los jti revocados recientemente (localmente,
+ * por pub/sub o confirmados en Redis) se guardan en una sombra local acotada que se consulta antes que
+ * Redis; mientras el circuito está abierto las revocaciones quedan pendientes en memoria y se vuelcan
+ * a Redis cuando el circuito se cierra, seguidas de una reconstrucción del filtro.
  *
  * Autor: Fábrica-Escuela de Software UdeA
  * Versión: 1.0.0
@@ -21,10 +45,74 @@ import java.util.concurrent.TimeUnit;
 public class TokenBlacklistService {
 
     private static final Logger logger = LoggerFactory.getLogger(TokenBlacklistService.class);
-    private static final String BLACKLIST_PREFIX = "token:blacklist:";
+    private static final String REVOKED_PREFIX = "token:revoked:";
+    private static final String LEGACY_BLACKLIST_PREFIX = "token:blacklist:";
+    // Las familias revocadas se guardan como jti con este prefijo (token:revoked:family:<fid>)
+    private static final String FAMILY_REVOCATION_PREFIX = "family:";
+    public static final String REVOCATION_CHANNEL = "token:revocations";
+    private static final String CLEAR_JOB = "blacklist-clear";
+    private static final String CLEAR_LEGACY_JOB = "blacklist-clear-legacy";
+
+    @Autowired
+    private KeyValueStore keyValueStore;
 
     @Autowired(required = false)
-    private RedisTemplate<String, String> redisTemplate;
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private RedisPipelineService redisPipelineService;
+
+    @Autowired
+    private RedisScanJobService redisScanJobService;
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${innosistemas.auth.blacklist.filter.expected-insertions:100000}")
+    private long filterExpectedInsertions;
+
+    @Value("${innosistemas.auth.blacklist.filter.false-positive-rate:0.01}")
+    private double filterFalsePositiveRate;
+
+    @Value("${innosistemas.auth.blacklist.shadow.max-entries:50000}")
+    private int shadowMaxEntries;
+
+    @Value("${innosistemas.auth.jwt.expiration:3600}")
+    private long jwtExpirationInSeconds;
+
+    private volatile RevokedTokenBloomFilter revokedFilter;
+    private volatile RevokedTokenBloomFilter rebuildingFilter;
+    private volatile boolean filterReady = false;
+    private final ChannelSubscription revocationSubscription = new ChannelSubscription(
+            REVOCATION_CHANNEL, this::onRevocationMessage, () -> { }, () -> filterReady = false);
+    // La reconstrucción programada y la de la recuperación de Redis no deben solaparse
+    private final Object rebuildLock = new Object();
+    private LocalShadowStore<Boolean> revokedShadow;
+    // Revocaciones hechas con el circuito abierto: jti → expiración (epoch ms)
+    private final Map<String, Long> pendingRevocations = new ConcurrentHashMap<>();
+
+    private Counter filterNegativeCounter;
+    private Counter revokedCounter;
+    private Counter notRevokedCounter;
+
+    @PostConstruct
+    public void init() {
+        revokedFilter = newFilter();
+        filterNegativeCounter = lookupCounter("filter-negative");
+        revokedCounter = lookupCounter("revoked");
+        notRevokedCounter = lookupCounter("not-revoked");
+        revokedShadow = new LocalShadowStore<>(shadowMaxEntries);
+        Gauge.builder("innosistemas.token.blacklist.pending", pendingRevocations, Map::size)
+                .description("Revocaciones pendientes de volcar a Redis")
+                .register(meterRegistry);
+        circuitBreaker.onRecovery(this::resynchronize);
+    }
 
     /**
      * Agrega un token a la blacklist
@@ -33,18 +121,17 @@ public class TokenBlacklistService {
      * @param expirationDate Fecha de expiración del token
      */
     public void blacklistToken(String token, Date expirationDate) {
-        if (redisTemplate == null) {
-            logger.warn("Redis not available - token blacklist disabled");
+        String jti = tokenProvider.getTokenId(token);
+        if (jti != null) {
+            revokeTokenId(jti, expirationDate);
             return;
         }
 
         try {
-            String key = BLACKLIST_PREFIX + token;
             long ttl = expirationDate.getTime() - System.currentTimeMillis();
-
             if (ttl > 0) {
-                redisTemplate.opsForValue().set(key, "revoked", ttl, TimeUnit.MILLISECONDS);
-                logger.info("Token added to blacklist with TTL: {} ms", ttl);
+                keyValueStore.set(LEGACY_BLACKLIST_PREFIX + token, "revoked", ttl);
+                logger.info("Legacy token (without jti) added to blacklist with TTL: {} ms", ttl);
             } else {
                 logger.warn("Token already expired, not adding to blacklist");
             }
@@ -53,6 +140,57 @@ public class TokenBlacklistService {
         }
     }
 
+    /**
+     * Revoca un token por su identificador (jti) y notifica la revocación a todas las instancias
+     *
+     * @param jti Identificador del token
+     * @param expirationDate Fecha de expiración del token
+     */
+    public void revokeTokenId(String jti, Date expirationDate) {
+        long ttl = expirationDate.getTime() - System.currentTimeMillis();
+        if (ttl <= 0) {
+            logger.warn("Token already expired, not adding to blacklist");
+            return;
+        }
+
+        addToFilters(jti);
+        revokedShadow.put(jti, Boolean.TRUE, expirationDate.getTime());
+        boolean stored = circuitBreaker.execute(() -> {
+            writeRevocation(jti, ttl);
+            return true;
+        }, () -> {
+            pendingRevocations.put(jti, expirationDate.getTime());
+            return false;
+        });
+
+        if (stored) {
+            logger.info("Token {} added to blacklist with TTL: {} ms", jti, ttl);
+        } else {
+            logger.warn("Redis unavailable - revocation of token {} kept locally until Redis recovers", jti);
+        }
+    }
+
+    /**
+     * Revoca todos los access tokens emitidos dentro de una familia de refresh tokens (claim {@code fid}).
+     * La revocación se guarda como un jti más, de modo que la comparten el filtro local y las demás instancias.
+     *
+     * @param familyId ID de la familia (ID de la sesión)
+     * @param expirationDate Instante a partir del cual ningún access token de la familia sigue vigente
+     */
+    public void revokeFamily(String familyId, Date expirationDate) {
+        revokeTokenId(FAMILY_REVOCATION_PREFIX + familyId, expirationDate);
+    }
+
+    /**
+     * Verifica si la familia de refresh tokens de un access token fue revocada
+     *
+     * @param familyId ID de la familia (claim {@code fid})
+     * @return true si la familia está revocada
+     */
+    public boolean isFamilyRevoked(String familyId) {
+        return isTokenIdRevoked(FAMILY_REVOCATION_PREFIX + familyId);
+    }
+
     /**
      * Verifica si un token está en la blacklist
      *
@@ -60,33 +198,66 @@ public class TokenBlacklistService {
      * @return true si el token está revocado, false en caso contrario
      */
     public boolean isTokenBlacklisted(String token) {
-        // Si Redis no está disponible, la blacklist está deshabilitada
-        if (redisTemplate == null) {
-            logger.debug("Redis not available - token blacklist disabled, allowing token");
-            return false;
+        String jti = tokenProvider.getTokenId(token);
+        if (jti != null) {
+            return isTokenIdRevoked(jti);
         }
+        return isLegacyTokenBlacklisted(token);
+    }
 
-        try {
-            String key = BLACKLIST_PREFIX + token;
-            Boolean exists = redisTemplate.hasKey(key);
-            boolean isBlacklisted = Boolean.TRUE.equals(exists);
-
-            if (isBlacklisted) {
-                logger.warn("Token is blacklisted: {}...", token.substring(0, Math.min(30, token.length())));
-            } else {
-                logger.debug("Token is not blacklisted");
-            }
+    /**
+     * Verifica un token emitido sin jti contra la clave heredada {@code token:blacklist:<token>}
+     *
+     * @param token Token a verificar
+     * @return true si el token está revocado
+     */
+    public boolean isLegacyTokenBlacklisted(String token) {
+        boolean isBlacklisted = circuitBreaker.execute(
+                () -> keyValueStore.exists(LEGACY_BLACKLIST_PREFIX + token),
+                () -> {
+                    logger.warn("Redis unavailable - allowing token (blacklist check skipped)");
+                    return false;
+                });
+        if (isBlacklisted) {
+            logger.warn("Token is blacklisted: {}...", token.substring(0, Math.min(30, token.length())));
+        }
+        return isBlacklisted;
+    }
 
-            return isBlacklisted;
-        } catch (Exception e) {
-            logger.error("Error checking token blacklist (Redis error): {}", e.getMessage());
-            logger.warn("Redis error - allowing token (blacklist check failed)");
+    /**
+     * Verifica si un jti está revocado. Si la sombra local lo contiene o el filtro local lo descarta
+     * no se consulta Redis; con el circuito abierto, un jti desconocido localmente se acepta.
+     *
+     * @param jti Identificador del token
+     * @return true si el token está revocado
+     */
+    public boolean isTokenIdRevoked(String jti) {
+        if (revokedShadow.get(jti) != null) {
+            revokedCounter.increment();
+            logger.warn("Token is blacklisted: jti={}", jti);
+            return true;
+        }
 
-            // CAMBIO: Si Redis falla, NO bloqueamos el token
-            // En producción deberías tener Redis funcionando, pero en dev/test
-            // permitimos que funcione sin Redis
+        if (isFilterUsable() && !revokedFilter.mightContain(jti)) {
+            filterNegativeCounter.increment();
             return false;
         }
+
+        boolean revoked = circuitBreaker.execute(
+                () -> keyValueStore.exists(REVOKED_PREFIX + jti),
+                () -> {
+                    // Si Redis no responde, NO bloqueamos el token (mismo criterio que antes)
+                    logger.warn("Redis unavailable - allowing token (blacklist check skipped)");
+                    return false;
+                });
+        if (revoked) {
+            revokedCounter.increment();
+            rememberRevoked(jti);
+            logger.warn("Token is blacklisted: jti={}", jti);
+        } else {
+            notRevokedCounter.increment();
+        }
+        return revoked;
     }
 
     /**
@@ -95,14 +266,15 @@ public class TokenBlacklistService {
      * @param token Token a remover
      */
     public void removeTokenFromBlacklist(String token) {
-        if (redisTemplate == null) {
-            logger.warn("Redis not available - cannot remove token from blacklist");
-            return;
-        }
-
         try {
-            String key = BLACKLIST_PREFIX + token;
-            redisTemplate.delete(key);
+            String jti = tokenProvider.getTokenId(token);
+            if (jti != null) {
+                // Sin esto la sombra seguiría rechazando el token y la recuperación volvería a escribirlo
+                revokedShadow.remove(jti);
+                pendingRevocations.remove(jti);
+            }
+            keyValueStore.delete(jti != null ? REVOKED_PREFIX + jti : LEGACY_BLACKLIST_PREFIX + token);
+            // El filtro de Bloom no admite borrados: el jti seguirá consultándose en Redis hasta la próxima reconstrucción
             logger.info("Token removed from blacklist");
         } catch (Exception e) {
             logger.error("Error removing token from blacklist: {}", e.getMessage(), e);
@@ -110,17 +282,154 @@ public class TokenBlacklistService {
     }
 
     /**
-     * Limpia todos los tokens blacklisted (uso administrativo)
+     * Limpia todos los tokens blacklisted (uso administrativo).
+     * En Redis recorre las claves con un job de SCAN incremental y las elimina con UNLINK a ritmo limitado
+     * (reanudable si se interrumpe), para no bloquear Redis mientras se vacía la blacklist;
+     * en memoria recorre el almacén local.
      */
     public void clearBlacklist() {
-        try {
-            var keys = redisTemplate.keys(BLACKLIST_PREFIX + "*");
-            if (keys != null && !keys.isEmpty()) {
-                redisTemplate.delete(keys);
-                logger.info("Blacklist cleared: {} tokens removed", keys.size());
+        revokedShadow.clear();
+        pendingRevocations.clear();
+        long removed = deleteAll(CLEAR_JOB, REVOKED_PREFIX) + deleteAll(CLEAR_LEGACY_JOB, LEGACY_BLACKLIST_PREFIX);
+        revokedFilter = newFilter();
+        logger.info("Blacklist cleared: {} tokens removed", removed);
+    }
+
+    private long deleteAll(String job, String prefix) {
+        if (!keyValueStore.isShared()) {
+            long[] removed = new long[1];
+            keyValueStore.scan(prefix + "*", keys -> removed[0] += keyValueStore.deleteAll(keys));
+            return removed[0];
+        }
+        RedisScanJobService.ScanJobResult result =
+                redisScanJobService.run(job, prefix + "*", Long.MAX_VALUE, keyValueStore::deleteAll);
+        if (!result.completed()) {
+            logger.warn("Blacklist clear job {} stopped before completion; it resumes on the next call", job);
+        }
+        return result.keysProcessed();
+    }
+
+    /**
+     * Reconstruye el filtro local a partir de las claves del almacén. Se ejecuta al arrancar y
+     * periódicamente para descartar jti ya expirados, que el filtro de Bloom no puede eliminar.
+     * El filtro solo se usa si además hay suscripción activa al canal de revocaciones. La suscripción se
+     * establece antes del SCAN, para que una revocación publicada durante el recorrido llegue al filtro nuevo;
+     * si la reconstrucción o la suscripción fallan, o la suscripción se pierde después, las verificaciones
+     * vuelven a consultar Redis directamente hasta la siguiente reconstrucción.
+     */
+    @Scheduled(fixedDelayString = "${innosistemas.auth.blacklist.filter.refresh-interval-ms:600000}")
+    public void rebuildRevokedFilter() {
+        synchronized (rebuildLock) {
+            RevokedTokenBloomFilter next = newFilter();
+            rebuildingFilter = next;
+            try {
+                // Con un almacén local todas las revocaciones pasan por esta instancia: no hace falta suscripción
+                boolean subscribed = !keyValueStore.isShared() || ensureSubscribed();
+                keyValueStore.scan(REVOKED_PREFIX + "*", keys -> {
+                    for (String key : keys) {
+                        next.put(key.substring(REVOKED_PREFIX.length()));
+                    }
+                });
+                revokedFilter = next;
+                filterReady = subscribed && isSubscriptionActive();
+            } catch (Exception e) {
+                filterReady = false;
+                logger.warn("Could not rebuild revoked token filter, falling back to Redis lookups: {}", e.getMessage());
+            } finally {
+                rebuildingFilter = null;
             }
-        } catch (Exception e) {
-            logger.error("Error clearing blacklist: {}", e.getMessage(), e);
         }
     }
+
+    // Las revocaciones publicadas mientras no hay suscripción se pierden: el filtro deja de ser fiable
+    private boolean isFilterUsable() {
+        if (!filterReady) {
+            return false;
+        }
+        if (!isSubscriptionActive()) {
+            filterReady = false;
+            logger.warn("Token revocation channel disconnected - falling back to Redis lookups until the next rebuild");
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isSubscriptionActive() {
+        return !keyValueStore.isShared() || revocationSubscription.isActive(listenerContainer);
+    }
+
+    /**
+     * Se suscribe al canal de revocaciones si aún no hay suscripción activa.
+     * La suscripción se hace aquí y no al arrancar para que la aplicación inicie aunque Redis no esté disponible.
+     */
+    private boolean ensureSubscribed() {
+        return revocationSubscription.ensure(listenerContainer);
+    }
+
+    /**
+     * Recibe revocaciones publicadas por cualquier instancia
+     */
+    void onRevocationMessage(Message message, byte[] pattern) {
+        String jti = new String(message.getBody(), StandardCharsets.UTF_8);
+        addToFilters(jti);
+        rememberRevoked(jti);
+    }
+
+    /**
+     * Vuelca a Redis las revocaciones hechas mientras el circuito estaba abierto y reconstruye el filtro.
+     * Las que fallen quedan pendientes para la siguiente recuperación.
+     */
+    void resynchronize() {
+        int replayed = 0;
+        for (Map.Entry<String, Long> pending : pendingRevocations.entrySet()) {
+            long ttl = pending.getValue() - System.currentTimeMillis();
+            try {
+                if (ttl > 0) {
+                    writeRevocation(pending.getKey(), ttl);
+                    replayed++;
+                }
+                pendingRevocations.remove(pending.getKey(), pending.getValue());
+            } catch (Exception e) {
+                logger.warn("Could not replay revocation of token {}: {}", pending.getKey(), e.getMessage());
+                return;
+            }
+        }
+        logger.info("Redis recovered: {} pending revocations replayed", replayed);
+        rebuildRevokedFilter();
+    }
+
+    // En Redis, registro y notificación en un único round-trip
+    private void writeRevocation(String jti, long ttl) {
+        if (!keyValueStore.isShared()) {
+            keyValueStore.set(REVOKED_PREFIX + jti, "1", ttl);
+            return;
+        }
+        redisPipelineService.execute(batch -> batch
+                .set(REVOKED_PREFIX + jti, "1", ttl)
+                .publish(REVOCATION_CHANNEL, jti));
+    }
+
+    // Sin la expiración exacta del token, se conserva lo que dura un access token
+    private void rememberRevoked(String jti) {
+        revokedShadow.put(jti, Boolean.TRUE, System.currentTimeMillis() + jwtExpirationInSeconds * 1000);
+    }
+
+    // Las revocaciones recibidas durante una reconstrucción se agregan también al filtro nuevo
+    private void addToFilters(String jti) {
+        revokedFilter.put(jti);
+        RevokedTokenBloomFilter next = rebuildingFilter;
+        if (next != null) {
+            next.put(jti);
+        }
+    }
+
+    private RevokedTokenBloomFilter newFilter() {
+        return new RevokedTokenBloomFilter(filterExpectedInsertions, filterFalsePositiveRate);
+    }
+
+    private Counter lookupCounter(String outcome) {
+        return Counter.builder("innosistemas.token.blacklist.lookups")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
 }
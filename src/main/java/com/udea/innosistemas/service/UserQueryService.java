@@ -7,16 +7,18 @@ import com.udea.innosistemas.entity.User;
 import com.udea.innosistemas.entity.UserRole;
 import com.udea.innosistemas.exception.AuthenticationException;
 import com.udea.innosistemas.repository.UserRepository;
+import com.udea.innosistemas.security.Permission;
+import com.udea.innosistemas.security.PermissionRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * Servicio para gestionar queries de usuario, permisos y equipos.
@@ -34,6 +36,12 @@ public class UserQueryService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PermissionRegistry permissionRegistry;
+
+    @Autowired
+    private TeamProjectionService teamProjectionService;
+
     /**
      * Obtiene la información del usuario actualmente autenticado.
      *
@@ -66,28 +74,38 @@ public class UserQueryService {
 
     /**
      * Obtiene los permisos del usuario actualmente autenticado.
+     * La lista de permisos es la precalculada por {@link PermissionRegistry} para el rol.
      *
      * @return UserPermissions con los permisos calculados basados en el rol
      * @throws AuthenticationException si no hay usuario autenticado
      */
     public UserPermissions getUserPermissions() {
         try {
-            String username = SecurityContextHolder.getContext().getAuthentication().getName();
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            String username = authentication.getName();
 
             if (username == null || username.equals("anonymousUser")) {
                 logger.warn("Attempted to get permissions without authentication");
                 throw new AuthenticationException("No hay usuario autenticado");
             }
 
-            User user = userRepository.findByEmail(username)
+            // El filtro JWT ya cargó el usuario de esta petición
+            User user = authentication.getPrincipal() instanceof User principal
+                    ? principal
+                    : userRepository.findByEmail(username)
                     .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado"));
 
-            // Generar lista de permisos basados en el rol
-            List<String> permissions = generatePermissionsList(user.getRole());
-
-            UserPermissions userPermissions = new UserPermissions(user.getId(), user.getRole(), permissions);
+            UserRole role = user.getRole();
+            UserPermissions userPermissions = new UserPermissions();
+            userPermissions.setUserId(user.getId());
+            userPermissions.setRole(role);
+            userPermissions.setPermissions(permissionRegistry.permissionCodes(role));
             userPermissions.setTeamId(user.getTeamId());
             userPermissions.setCourseId(user.getCourseId());
+            userPermissions.setCanManageTeam(permissionRegistry.hasPermission(role, Permission.TEAM_MANAGE));
+            userPermissions.setCanManageCourse(permissionRegistry.hasPermission(role, Permission.COURSE_UPDATE));
+            userPermissions.setCanViewAllTeams(permissionRegistry.hasPermission(role, Permission.TEAM_READ_ANY));
+            userPermissions.setCanSendNotifications(permissionRegistry.hasPermission(role, Permission.NOTIFICATION_SEND));
 
             logger.info("Retrieved permissions for user: {}, role: {}", username, user.getRole());
             return userPermissions;
@@ -106,24 +124,31 @@ public class UserQueryService {
      * Los estudiantes solo pueden ver su propio equipo.
      * Los profesores y admins pueden ver cualquier equipo.
      *
+     * Solo se leen las columnas de los campos seleccionados.
+     *
      * @param teamId ID del equipo
+     * @param fields Campos de TeamMember seleccionados por el cliente
      * @return Lista de TeamMember
      * @throws AuthenticationException si el usuario no tiene permisos
      */
-    public List<TeamMember> getTeamMembers(Long teamId) {
+    public List<TeamMember> getTeamMembers(Long teamId, Set<String> fields) {
         try {
-            String username = SecurityContextHolder.getContext().getAuthentication().getName();
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            String username = authentication.getName();
 
             if (username == null || username.equals("anonymousUser")) {
                 logger.warn("Attempted to get team members without authentication");
                 throw new AuthenticationException("No hay usuario autenticado");
             }
 
-            User currentUser = userRepository.findByEmail(username)
+            // El filtro JWT ya cargó el usuario de esta petición
+            User currentUser = authentication.getPrincipal() instanceof User principal
+                    ? principal
+                    : userRepository.findByEmail(username)
                     .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado"));
 
             // Validar permisos: estudiantes solo pueden ver su propio equipo
-            if (currentUser.getRole() == UserRole.STUDENT) {
+            if (!permissionRegistry.hasPermission(currentUser.getRole(), Permission.TEAM_SUPERVISE)) {
                 if (currentUser.getTeamId() == null) {
                     logger.warn("Student {} has no team assigned", username);
                     throw new AuthenticationException("No perteneces a ningún equipo");
@@ -135,14 +160,12 @@ public class UserQueryService {
                 }
             }
 
-            // Buscar miembros del equipo
-            List<User> teamMembers = userRepository.findByTeamId(teamId);
+            // Buscar miembros del equipo (proyección de las columnas seleccionadas)
+            List<TeamMember> teamMembers = teamProjectionService.membersOf(teamId, fields);
 
             logger.info("Retrieved {} members for team {}", teamMembers.size(), teamId);
 
-            return teamMembers.stream()
-                    .map(TeamMember::new)
-                    .collect(Collectors.toList());
+            return teamMembers;
 
         } catch (UsernameNotFoundException e) {
             logger.warn("User not found when getting team members");
@@ -154,65 +177,4 @@ public class UserQueryService {
             throw new AuthenticationException("Error al obtener miembros del equipo");
         }
     }
-
-    /**
-     * Genera la lista de permisos basados en el rol del usuario.
-     *
-     * @param role Rol del usuario
-     * @return Lista de strings con los permisos
-     */
-    private List<String> generatePermissionsList(UserRole role) {
-        List<String> permissions = new ArrayList<>();
-
-        switch (role) {
-            case ADMIN:
-                permissions.add("user:create");
-                permissions.add("user:read");
-                permissions.add("user:update");
-                permissions.add("user:delete");
-                permissions.add("team:create");
-                permissions.add("team:read");
-                permissions.add("team:update");
-                permissions.add("team:delete");
-                permissions.add("course:create");
-                permissions.add("course:read");
-                permissions.add("course:update");
-                permissions.add("course:delete");
-                permissions.add("notification:send");
-                permissions.add("system:configure");
-                break;
-
-            case PROFESSOR:
-                permissions.add("user:read");
-                permissions.add("team:read");
-                permissions.add("team:update");
-                permissions.add("course:create");
-                permissions.add("course:read");
-                permissions.add("course:update");
-                permissions.add("notification:send");
-                permissions.add("grade:assign");
-                break;
-
-            case TA:
-                permissions.add("user:read");
-                permissions.add("team:read");
-                permissions.add("course:read");
-                permissions.add("notification:send");
-                permissions.add("grade:view");
-                break;
-
-            case STUDENT:
-                permissions.add("team:read");
-                permissions.add("course:read");
-                permissions.add("project:submit");
-                permissions.add("grade:view");
-                break;
-
-            default:
-                logger.warn("Unknown role: {}", role);
-                break;
-        }
-
-        return permissions;
-    }
 }
@@ -0,0 +1,711 @@
+package com.udea.innosistemas.store;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Implementación de {@link KeyValueStore} en memoria para despliegues de una sola instancia y tests.
+ *
+ * Las claves se reparten en franjas (stripes) con su propio bloqueo, de modo que operaciones sobre
+ * claves distintas rara vez compiten. Las operaciones sobre varias claves toman los bloqueos de todas
+ * sus franjas, siempre en el mismo orden, y son atómicas igual que los scripts Lua en Redis. Las expiraciones se comprueban al leer cada clave y además
+ * se programan en una {@link TimingWheel} que un hilo de barrido avanza cada tick, para liberar
+ * la memoria de claves que nadie vuelve a leer sin recorrer todo el almacén.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "innosistemas.store.type", havingValue = "memory")
+public class InMemoryKeyValueStore implements KeyValueStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryKeyValueStore.class);
+    private static final int SCAN_BATCH_SIZE = 500;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${innosistemas.store.memory.stripes:64}")
+    private int stripeCount;
+
+    @Value("${innosistemas.store.memory.tick-ms:100}")
+    private long tickMillis;
+
+    /**
+     * Valor de una clave: String (valores y contadores), Set (conjuntos), ScoredSet (conjuntos ordenados)
+     * o Map de MemberValue (valores de un índice de miembros)
+     */
+    private static final class Entry {
+        private Object value;
+        private long expiresAt;
+
+        private Entry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Conjunto ordenado: score de cada miembro y orden (score, miembro) para recorrer rangos
+     */
+    private static final class ScoredSet {
+        private final Map<String, Double> scores = new HashMap<>();
+        private final NavigableSet<ScoredMember> ordered = new TreeSet<>();
+
+        private void put(String member, double score) {
+            Double previous = scores.put(member, score);
+            if (previous != null) {
+                ordered.remove(new ScoredMember(previous, member));
+            }
+            ordered.add(new ScoredMember(score, member));
+        }
+
+        private boolean remove(String member) {
+            Double previous = scores.remove(member);
+            return previous != null && ordered.remove(new ScoredMember(previous, member));
+        }
+
+        private List<ScoredMember> range(double min, double max) {
+            List<ScoredMember> members = new ArrayList<>();
+            // "" es el menor miembro posible: el recorrido empieza en el primer miembro con score >= min
+            for (ScoredMember member : ordered.tailSet(new ScoredMember(min, ""), true)) {
+                if (member.score() > max) {
+                    break;
+                }
+                members.add(member);
+            }
+            return members;
+        }
+    }
+
+    private record ScoredMember(double score, String member) implements Comparable<ScoredMember> {
+        @Override
+        public int compareTo(ScoredMember other) {
+            int byScore = Double.compare(score, other.score);
+            return byScore != 0 ? byScore : member.compareTo(other.member);
+        }
+    }
+
+    private record MemberValue(String value, long expiresAt) {
+    }
+
+    private Map<String, Entry>[] stripes;
+    private TimingWheel timingWheel;
+    private ScheduledExecutorService sweeper;
+    private Counter expiredCounter;
+
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    public void init() {
+        int count = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        stripes = new Map[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new HashMap<>();
+        }
+        timingWheel = new TimingWheel(tickMillis, System.currentTimeMillis());
+        expiredCounter = Counter.builder("innosistemas.store.memory.expired")
+                .description("Claves eliminadas por expiración")
+                .register(meterRegistry);
+        Gauge.builder("innosistemas.store.memory.keys", this, InMemoryKeyValueStore::size)
+                .register(meterRegistry);
+
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "kv-store-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleAtFixedRate(this::expireDue, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        logger.info("In-memory key-value store initialized: stripes={}, tick={}ms", count, tickMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    @Override
+    public String get(String key) {
+        Map<String, Entry> stripe = stripe(key);
+        synchronized (stripe) {
+            Entry entry = live(stripe, key, System.currentTimeMillis());
+            return entry != null ? string(entry) : null;
+        }
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        Map<String, String> result = new HashMap<>();
+        for (String key : keys) {
+            String value = get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void set(String key, String value, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        Map<String, Entry> stripe = stripe(key);
+        synchronized (stripe) {
+            stripe.put(key, new Entry(value, expiresAt(key, ttlMillis, now)));
+        }
+    }
+
+    @Override
+    public void setAll(Map<String, String> entries, long ttlMillis) {
+        entries.forEach((key, value) -> set(key, value, ttlMillis));
+    }
+
+    @Override
+    public boolean setIfAbsent(String key, String value, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        Map<String, Entry> stripe = stripe(key);
+        synchronized (stripe) {
+            if (live(stripe, key, now) != null) {
+                return false;
+            }
+            stripe.put(key, new Entry(value, expiresAt(key, ttlMillis, now)));
+            return true;
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        Map<String, Entry> stripe = stripe(key);
+        synchronized (stripe) {
+            return live(stripe, key, System.currentTimeMillis()) != null;
+        }
+    }
+
+    @Override
+    public boolean delete(String key) {
+        long now = System.currentTimeMillis();
+        Map<String, Entry> stripe = stripe(key);
+        synchronized (stripe) {
+            return live(stripe, key, now) != null && stripe.remove(key) != null;
+        }
+    }
+
+    @Override
+    public long deleteAll(Collection<String> keys) {
+        long removed = 0;
+        for (String key : keys) {
+            if (delete(key)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean expire(String key, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        Map<String, Entry> stripe = stripe(key);
+        synchronized (stripe) {
+            Entry entry = live(stripe, key, now);
+            if (entry == null) {
+                return false;
+            }
+            entry.expiresAt = expiresAt(key, ttlMillis, now);
+            return true;
+        }
+    }
+
+    @Override
+    public long ttl(String key) {
+        long now = System.currentTimeMillis();
+        Map<String, Entry> stripe = stripe(key);
+        synchronized (stripe) {
+            Entry entry = live(stripe, key, now);
+            if (entry == null) {
+                return MISSING;
+            }
+            return entry.expiresAt > 0 ? entry.expiresAt - now : NO_EXPIRY;
+        }
+    }
+
+    @Override
+    public long increment(String key, long delta, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        Map<String, Entry> stripe = stripe(key);
+        synchronized (stripe) {
+            Entry entry = live(stripe, key, now);
+            if (entry == null) {
+                entry = new Entry("0", 0);
+                stripe.put(key, entry);
+            }
+            long value;
+            try {
+                value = Math.addExact(Long.parseLong(string(entry)), delta);
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw new IllegalStateException("Value is not an integer or out of range: " + key, e);
+            }
+            entry.value = String.valueOf(value);
+            if (entry.expiresAt == 0 && ttlMillis > 0) {
+                entry.expiresAt = expiresAt(key, ttlMillis, now);
+            }
+            return value;
+        }
+    }
+
+    @Override
+    public long setAdd(String key, String... members) {
+        long now = System.currentTimeMillis();
+        Map<String, Entry> stripe = stripe(key);
+        synchronized (stripe) {
+            Entry entry = live(stripe, key, now);
+            if (entry == null) {
+                entry = new Entry(new HashSet<String>(), 0);
+                stripe.put(key, entry);
+            }
+            Set<String> set = set(entry, key);
+            long added = 0;
+            for (String member : members) {
+                if (set.add(member)) {
+                    added++;
+                }
+            }
+            return added;
+        }
+    }
+
+    @Override
+    public boolean setRemove(String key, String member) {
+        long now = System.currentTimeMillis();
+        Map<String, Entry> stripe = stripe(key);
+        synchronized (stripe) {
+            Entry entry = live(stripe, key, now);
+            if (entry == null) {
+                return false;
+            }
+            Set<String> set = set(entry, key);
+            boolean removed = set.remove(member);
+            // Igual que en Redis, un conjunto vacío deja de existir
+            if (set.isEmpty()) {
+                stripe.remove(key);
+            }
+            return removed;
+        }
+    }
+
+    @Override
+    public boolean setContains(String key, String member) {
+        Map<String, Entry> stripe = stripe(key);
+        synchronized (stripe) {
+            Entry entry = live(stripe, key, System.currentTimeMillis());
+            return entry != null && set(entry, key).contains(member);
+        }
+    }
+
+    @Override
+    public Set<String> setMembers(String key) {
+        Map<String, Entry> stripe = stripe(key);
+        synchronized (stripe) {
+            Entry entry = live(stripe, key, System.currentTimeMillis());
+            return entry != null ? Set.copyOf(set(entry, key)) : Set.of();
+        }
+    }
+
+    @Override
+    public boolean compareAndSet(String key, String expected, String value, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        Map<String, Entry> stripe = stripe(key);
+        synchronized (stripe) {
+            Entry entry = live(stripe, key, now);
+            if (entry == null || !expected.equals(string(entry))) {
+                return false;
+            }
+            stripe.put(key, new Entry(value, expiresAt(key, ttlMillis, now)));
+            return true;
+        }
+    }
+
+    @Override
+    public long sortedSetPut(String key, String member, double score, double purgeUpTo, long minTtlMillis) {
+        long now = System.currentTimeMillis();
+        Map<String, Entry> stripe = stripe(key);
+        synchronized (stripe) {
+            Entry entry = live(stripe, key, now);
+            if (entry == null) {
+                entry = new Entry(new ScoredSet(), 0);
+                stripe.put(key, entry);
+            }
+            ScoredSet set = scoredSet(entry, key);
+            set.range(Double.NEGATIVE_INFINITY, purgeUpTo).forEach(expired -> set.remove(expired.member()));
+            set.put(member, score);
+            if (minTtlMillis > 0 && (entry.expiresAt == 0 || entry.expiresAt - now < minTtlMillis)) {
+                entry.expiresAt = expiresAt(key, minTtlMillis, now);
+            }
+            return set.scores.size();
+        }
+    }
+
+    @Override
+    public void sortedSetAdd(String key, String member, double score) {
+        long now = System.currentTimeMillis();
+        Map<String, Entry> stripe = stripe(key);
+        synchronized (stripe) {
+            Entry entry = live(stripe, key, now);
+            if (entry == null) {
+                entry = new Entry(new ScoredSet(), 0);
+                stripe.put(key, entry);
+            }
+            scoredSet(entry, key).put(member, score);
+        }
+    }
+
+    @Override
+    public boolean sortedSetRemove(String key, String member) {
+        long now = System.currentTimeMillis();
+        Map<String, Entry> stripe = stripe(key);
+        synchronized (stripe) {
+            Entry entry = live(stripe, key, now);
+            if (entry == null) {
+                return false;
+            }
+            ScoredSet set = scoredSet(entry, key);
+            boolean removed = set.remove(member);
+            if (set.scores.isEmpty()) {
+                stripe.remove(key);
+            }
+            return removed;
+        }
+    }
+
+    @Override
+    public long sortedSetRemoveByScore(String key, double min, double max) {
+        long now = System.currentTimeMillis();
+        Map<String, Entry> stripe = stripe(key);
+        synchronized (stripe) {
+            Entry entry = live(stripe, key, now);
+            if (entry == null) {
+                return 0;
+            }
+            ScoredSet set = scoredSet(entry, key);
+            List<ScoredMember> removed = set.range(min, max);
+            removed.forEach(member -> set.remove(member.member()));
+            if (set.scores.isEmpty()) {
+                stripe.remove(key);
+            }
+            return removed.size();
+        }
+    }
+
+    @Override
+    public long sortedSetCount(String key, double min, double max) {
+        Map<String, Entry> stripe = stripe(key);
+        synchronized (stripe) {
+            Entry entry = live(stripe, key, System.currentTimeMillis());
+            return entry != null ? scoredSet(entry, key).range(min, max).size() : 0;
+        }
+    }
+
+    @Override
+    public Set<String> sortedSetRange(String key, double min, double max) {
+        Map<String, Entry> stripe = stripe(key);
+        synchronized (stripe) {
+            Entry entry = live(stripe, key, System.currentTimeMillis());
+            if (entry == null) {
+                return Set.of();
+            }
+            Set<String> members = new LinkedHashSet<>();
+            scoredSet(entry, key).range(min, max).forEach(member -> members.add(member.member()));
+            return members;
+        }
+    }
+
+    @Override
+    public Double sortedSetScore(String key, String member) {
+        Map<String, Entry> stripe = stripe(key);
+        synchronized (stripe) {
+            Entry entry = live(stripe, key, System.currentTimeMillis());
+            return entry != null ? scoredSet(entry, key).scores.get(member) : null;
+        }
+    }
+
+    @Override
+    public long indexPut(MemberIndex index, String member, long expiresAt, String value, long valueExpiresAt, long now) {
+        return locked(() -> {
+            long size = sortedSetPut(index.key(), member, expiresAt, now, expiresAt - now);
+            Map<String, Entry> stripe = stripe(index.valuesKey());
+            Map<String, MemberValue> values = memberValues(index.valuesKey(), now);
+            if (values != null) {
+                values.values().removeIf(current -> current.expiresAt() <= now);
+                if (values.isEmpty()) {
+                    stripe.remove(index.valuesKey());
+                }
+            }
+            if (value != null) {
+                Entry entry = stripe.get(index.valuesKey());
+                if (entry == null) {
+                    entry = new Entry(new HashMap<String, MemberValue>(), 0);
+                    stripe.put(index.valuesKey(), entry);
+                }
+                memberValues(index.valuesKey(), now).put(member, new MemberValue(value, valueExpiresAt));
+                long ttlMillis = valueExpiresAt - now;
+                if (ttlMillis > 0 && (entry.expiresAt == 0 || entry.expiresAt - now < ttlMillis)) {
+                    entry.expiresAt = expiresAt(index.valuesKey(), ttlMillis, now);
+                }
+            }
+            sortedSetAdd(index.ownersKey(), index.owner(), Math.max(expiresAt, valueExpiresAt));
+            return size;
+        }, index.key(), index.valuesKey(), index.ownersKey());
+    }
+
+    @Override
+    public long indexSwap(MemberIndex index, String member, String expected, String value, long maxTtlMillis, long now) {
+        return locked(() -> {
+            Map<String, MemberValue> values = memberValues(index.valuesKey(), now);
+            MemberValue current = values != null ? values.get(member) : null;
+            if (current == null) {
+                return MISSING;
+            }
+            if (current.expiresAt() <= now) {
+                removeMember(index, member, values);
+                return MISSING;
+            }
+            if (!current.value().equals(expected)) {
+                removeMember(index, member, values);
+                return MISMATCH;
+            }
+            values.put(member, new MemberValue(value, current.expiresAt()));
+            long ttlMillis = Math.min(maxTtlMillis, current.expiresAt() - now);
+            sortedSetPut(index.key(), member, now + ttlMillis, Double.NEGATIVE_INFINITY, ttlMillis);
+            return current.expiresAt();
+        }, index.key(), index.valuesKey());
+    }
+
+    @Override
+    public boolean indexRemove(MemberIndex index, String member, long now) {
+        return locked(() -> {
+            boolean removed = removeMember(index, member, memberValues(index.valuesKey(), now));
+            sortedSetRemoveByScore(index.key(), Double.NEGATIVE_INFINITY, now);
+            if (removed && !exists(index.key())) {
+                sortedSetRemove(index.ownersKey(), index.owner());
+            }
+            return removed;
+        }, index.key(), index.valuesKey(), index.ownersKey());
+    }
+
+    @Override
+    public long indexClear(MemberIndex index, long now) {
+        return locked(() -> {
+            long active = sortedSetCount(index.key(), now + 1, Double.POSITIVE_INFINITY);
+            delete(index.key());
+            delete(index.valuesKey());
+            sortedSetRemove(index.ownersKey(), index.owner());
+            return active;
+        }, index.key(), index.valuesKey(), index.ownersKey());
+    }
+
+    @Override
+    public long scan(String pattern, Consumer<List<String>> handler) {
+        Pattern matcher = glob(pattern);
+        long visited = 0;
+        for (Map<String, Entry> stripe : stripes) {
+            List<String> keys = new ArrayList<>();
+            long now = System.currentTimeMillis();
+            synchronized (stripe) {
+                for (Map.Entry<String, Entry> entry : stripe.entrySet()) {
+                    if (!isExpired(entry.getValue(), now) && matcher.matcher(entry.getKey()).matches()) {
+                        keys.add(entry.getKey());
+                    }
+                }
+            }
+            // El handler se invoca fuera del bloqueo: puede volver a operar sobre el almacén
+            for (int from = 0; from < keys.size(); from += SCAN_BATCH_SIZE) {
+                handler.accept(keys.subList(from, Math.min(keys.size(), from + SCAN_BATCH_SIZE)));
+            }
+            visited += keys.size();
+        }
+        return visited;
+    }
+
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+
+    /**
+     * Elimina las claves cuya expiración programada venció. Lo invoca el hilo de barrido en cada tick.
+     */
+    void expireDue() {
+        try {
+            long now = System.currentTimeMillis();
+            for (String key : timingWheel.advance(now)) {
+                Map<String, Entry> stripe = stripe(key);
+                synchronized (stripe) {
+                    Entry entry = stripe.get(key);
+                    // La entrada de la rueda puede ser obsoleta (la clave se reescribió o cambió su TTL)
+                    if (entry != null && isExpired(entry, now)) {
+                        stripe.remove(key);
+                        expiredCounter.increment();
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error expiring keys: {}", e.getMessage(), e);
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Map<String, Entry> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private Map<String, Entry> stripe(String key) {
+        return stripes[stripeIndex(key)];
+    }
+
+    private int stripeIndex(String key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return hash & (stripes.length - 1);
+    }
+
+    /**
+     * Ejecuta una operación sobre varias claves con los bloqueos de todas sus franjas. Se toman en orden
+     * ascendente para que dos operaciones multi-clave no se interbloqueen; los bloqueos son reentrantes,
+     * así que la operación puede reutilizar las operaciones de una sola clave.
+     */
+    private <T> T locked(Supplier<T> operation, String... keys) {
+        int[] indexes = Arrays.stream(keys).mapToInt(this::stripeIndex).distinct().sorted().toArray();
+        return locked(operation, indexes, 0);
+    }
+
+    private <T> T locked(Supplier<T> operation, int[] indexes, int from) {
+        if (from == indexes.length) {
+            return operation.get();
+        }
+        synchronized (stripes[indexes[from]]) {
+            return locked(operation, indexes, from + 1);
+        }
+    }
+
+    // Valores de un índice de miembros (incluidos los vencidos); null si la clave no existe
+    private Map<String, MemberValue> memberValues(String key, long now) {
+        Map<String, Entry> stripe = stripe(key);
+        Entry entry = live(stripe, key, now);
+        if (entry == null) {
+            return null;
+        }
+        if (!(entry.value instanceof Map<?, ?>)) {
+            throw new IllegalStateException("WRONGTYPE Operation against a key holding the wrong kind of value: " + key);
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, MemberValue> values = (Map<String, MemberValue>) entry.value;
+        return values;
+    }
+
+    // Elimina un miembro y su valor; las claves vacías dejan de existir. Requiere los bloqueos del índice
+    private boolean removeMember(MemberIndex index, String member, Map<String, MemberValue> values) {
+        if (values != null && values.remove(member) != null && values.isEmpty()) {
+            stripe(index.valuesKey()).remove(index.valuesKey());
+        }
+        return sortedSetRemove(index.key(), member);
+    }
+
+    // Devuelve la entrada vigente; si expiró la elimina (expiración perezosa)
+    private Entry live(Map<String, Entry> stripe, String key, long now) {
+        Entry entry = stripe.get(key);
+        if (entry != null && isExpired(entry, now)) {
+            stripe.remove(key);
+            expiredCounter.increment();
+            return null;
+        }
+        return entry;
+    }
+
+    private long expiresAt(String key, long ttlMillis, long now) {
+        if (ttlMillis <= 0) {
+            return 0;
+        }
+        long expiresAt = now + ttlMillis;
+        timingWheel.schedule(key, expiresAt);
+        return expiresAt;
+    }
+
+    private static boolean isExpired(Entry entry, long now) {
+        return entry.expiresAt > 0 && entry.expiresAt <= now;
+    }
+
+    private static String string(Entry entry) {
+        if (!(entry.value instanceof String value)) {
+            throw new IllegalStateException("WRONGTYPE Operation against a key holding the wrong kind of value");
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String> set(Entry entry, String key) {
+        if (!(entry.value instanceof Set<?>)) {
+            throw new IllegalStateException("WRONGTYPE Operation against a key holding the wrong kind of value: " + key);
+        }
+        return (Set<String>) entry.value;
+    }
+
+    private static ScoredSet scoredSet(Entry entry, String key) {
+        if (!(entry.value instanceof ScoredSet set)) {
+            throw new IllegalStateException("WRONGTYPE Operation against a key holding the wrong kind of value: " + key);
+        }
+        return set;
+    }
+
+    // Traduce un patrón glob de SCAN (*, ?) a una expresión regular
+    private static Pattern glob(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : pattern.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+}
@@ -0,0 +1,218 @@
+package com.udea.innosistemas.store;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Almacén clave-valor con expiración, con la semántica de los comandos Redis equivalentes
+ * (GET, SET PX, SET NX, INCRBY, SADD, ZADD, SCAN...). Permite que los servicios funcionen igual
+ * sobre Redis (despliegues con varias instancias) o sobre un almacén en memoria
+ * (una sola instancia o tests), según {@code innosistemas.store.type}.
+ *
+ * Los TTL se expresan en milisegundos; un TTL menor o igual a cero significa "sin expiración".
+ * Las operaciones sobre una clave de otro tipo (por ejemplo, GET sobre un conjunto) lanzan una excepción.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+public interface KeyValueStore {
+
+    /** Valor de {@link #ttl(String)} para una clave sin expiración */
+    long NO_EXPIRY = -1;
+
+    /** Valor de {@link #ttl(String)} para una clave inexistente */
+    long MISSING = -2;
+
+    /** Valor de {@link #indexSwap} cuando el valor vigente del miembro no es el esperado */
+    long MISMATCH = -3;
+
+    /**
+     * Índice de miembros con expiración: el conjunto ordenado {@code key} (miembro → expiración, epoch ms),
+     * el hash {@code valuesKey} con un valor opcional por miembro ("valor:expiración") y la entrada
+     * {@code owner} del índice global {@code ownersKey} (propietario → expiración de su último miembro).
+     * {@code key} y {@code valuesKey} deben compartir hash tag para caer en la misma ranura de Redis Cluster;
+     * el índice global es una sola clave, así que en Redis se actualiza en el mismo round-trip pero fuera del
+     * paso atómico (solo se usa para contar propietarios).
+     */
+    record MemberIndex(String key, String valuesKey, String ownersKey, String owner) {
+    }
+
+    /**
+     * @return Valor de la clave o null si no existe
+     */
+    String get(String key);
+
+    /**
+     * Lee varias claves en un único round-trip
+     *
+     * @return Mapa con las claves que existen (las inexistentes se omiten)
+     */
+    Map<String, String> getAll(Collection<String> keys);
+
+    /**
+     * Escribe un valor, reemplazando el anterior y su expiración
+     */
+    void set(String key, String value, long ttlMillis);
+
+    /**
+     * Escribe varios valores con la misma expiración en un único round-trip
+     */
+    void setAll(Map<String, String> entries, long ttlMillis);
+
+    /**
+     * Escribe el valor solo si la clave no existe
+     *
+     * @return true si se escribió
+     */
+    boolean setIfAbsent(String key, String value, long ttlMillis);
+
+    boolean exists(String key);
+
+    /**
+     * @return true si la clave existía
+     */
+    boolean delete(String key);
+
+    /**
+     * @return Número de claves eliminadas
+     */
+    long deleteAll(Collection<String> keys);
+
+    /**
+     * Cambia la expiración de una clave existente (TTL menor o igual a cero la vuelve persistente)
+     *
+     * @return true si la clave existe
+     */
+    boolean expire(String key, long ttlMillis);
+
+    /**
+     * @return Milisegundos restantes, {@link #NO_EXPIRY} o {@link #MISSING}
+     */
+    long ttl(String key);
+
+    /**
+     * Suma {@code delta} al contador (creándolo en 0 si no existe). La expiración se aplica
+     * solo si la clave no tiene una, de modo que una ventana de conteo no se extiende con cada incremento.
+     *
+     * @return Valor resultante
+     */
+    long increment(String key, long delta, long ttlMillis);
+
+    /**
+     * @return Número de miembros agregados (los ya presentes no cuentan)
+     */
+    long setAdd(String key, String... members);
+
+    /**
+     * @return true si el miembro estaba en el conjunto
+     */
+    boolean setRemove(String key, String member);
+
+    boolean setContains(String key, String member);
+
+    /**
+     * @return Miembros del conjunto (vacío si la clave no existe)
+     */
+    Set<String> setMembers(String key);
+
+    /**
+     * Reemplaza el valor solo si el actual es {@code expected}, con la nueva expiración
+     *
+     * @return true si se reemplazó
+     */
+    boolean compareAndSet(String key, String expected, String value, long ttlMillis);
+
+    /**
+     * Agrega o actualiza un miembro de un conjunto ordenado en un único paso atómico: elimina antes los
+     * miembros con score menor o igual a {@code purgeUpTo} y fija la expiración de la clave en
+     * {@code minTtlMillis} si no tiene una o le queda menos.
+     *
+     * @return Número de miembros del conjunto después de agregar
+     */
+    long sortedSetPut(String key, String member, double score, double purgeUpTo, long minTtlMillis);
+
+    /**
+     * Agrega o actualiza un miembro sin cambiar la expiración de la clave
+     */
+    void sortedSetAdd(String key, String member, double score);
+
+    /**
+     * @return true si el miembro estaba en el conjunto
+     */
+    boolean sortedSetRemove(String key, String member);
+
+    /**
+     * @return Número de miembros eliminados con score entre {@code min} y {@code max} (inclusive)
+     */
+    long sortedSetRemoveByScore(String key, double min, double max);
+
+    /**
+     * @return Número de miembros con score entre {@code min} y {@code max} (inclusive)
+     */
+    long sortedSetCount(String key, double min, double max);
+
+    /**
+     * @return Miembros con score entre {@code min} y {@code max} (inclusive), de menor a mayor score
+     */
+    Set<String> sortedSetRange(String key, double min, double max);
+
+    /**
+     * @return Score del miembro o null si no está en el conjunto
+     */
+    Double sortedSetScore(String key, String member);
+
+    /**
+     * Agrega o renueva un miembro de un índice en un único paso atómico: purga los miembros y valores vencidos,
+     * registra el miembro, extiende la expiración de las claves si les queda menos y, si {@code value} no es
+     * null, le asocia el valor con su propia expiración absoluta.
+     *
+     * @param value Valor del miembro (null para no asociar ninguno)
+     * @param valueExpiresAt Expiración absoluta del valor (epoch ms)
+     * @param now Instante de referencia para purgar (epoch ms)
+     * @return Número de miembros del índice después de agregar
+     */
+    long indexPut(MemberIndex index, String member, long expiresAt, String value, long valueExpiresAt, long now);
+
+    /**
+     * Reemplaza el valor de un miembro solo si el vigente es {@code expected}, en un único paso atómico.
+     * Si coincide, el miembro se renueva hasta {@code now + maxTtlMillis} sin superar la expiración del valor;
+     * si no coincide o el valor venció, el miembro y su valor se eliminan.
+     *
+     * @return Expiración absoluta del valor (epoch ms), {@link #MISSING} si el miembro no tiene valor vigente
+     *         o {@link #MISMATCH} si el valor no era el esperado
+     */
+    long indexSwap(MemberIndex index, String member, String expected, String value, long maxTtlMillis, long now);
+
+    /**
+     * Elimina un miembro y su valor en un único paso atómico, purgando además los miembros vencidos.
+     * El propietario sale del índice global cuando no le quedan miembros.
+     *
+     * @return true si el miembro estaba en el índice
+     */
+    boolean indexRemove(MemberIndex index, String member, long now);
+
+    /**
+     * Elimina el índice completo y sus valores en un único paso atómico y saca al propietario del índice global
+     *
+     * @return Número de miembros vigentes (expiración posterior a {@code now}) que tenía el índice
+     */
+    long indexClear(MemberIndex index, long now);
+
+    /**
+     * Recorre incrementalmente las claves que coinciden con un patrón glob ({@code *}, {@code ?}).
+     * Igual que SCAN, una clave creada o eliminada durante el recorrido puede o no aparecer.
+     *
+     * @param pattern Patrón de claves
+     * @param handler Recibe cada lote de claves (nunca vacío)
+     * @return Número de claves recorridas
+     */
+    long scan(String pattern, Consumer<List<String>> handler);
+
+    /**
+     * @return true si el almacén es compartido por todas las instancias de la aplicación
+     */
+    boolean isShared();
+}
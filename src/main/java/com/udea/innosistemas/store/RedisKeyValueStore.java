@@ -0,0 +1,278 @@
+package com.udea.innosistemas.store;
+
+import com.udea.innosistemas.service.RedisPipelineService;
+import com.udea.innosistemas.service.RedisScanJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Implementación de {@link KeyValueStore} sobre Redis, compartida por todas las instancias.
+ * Las operaciones por lotes se resuelven en un único round-trip (MGET, SET en pipeline, UNLINK)
+ * y las operaciones compuestas (incremento con expiración, compare-and-set, alta en un conjunto
+ * ordenado con purga, índices de miembros con valores) son atómicas mediante scripts Lua. El índice global
+ * de propietarios de un {@link MemberIndex} se actualiza en el mismo pipeline que el script.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "innosistemas.store.type", havingValue = "redis", matchIfMissing = true)
+public class RedisKeyValueStore implements KeyValueStore {
+
+    private static final RedisScript<Long> INCREMENT_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/kv-increment.lua"), Long.class);
+    private static final RedisScript<Long> COMPARE_AND_SET_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/kv-compare-and-set.lua"), Long.class);
+    private static final RedisScript<Long> SORTED_SET_PUT_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/kv-sorted-set-put.lua"), Long.class);
+    private static final RedisScript<Long> INDEX_PUT_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/kv-index-put.lua"), Long.class);
+    private static final RedisScript<Long> INDEX_SWAP_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/kv-index-swap.lua"), Long.class);
+    private static final RedisScript<Long> INDEX_REMOVE_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/kv-index-remove.lua"), Long.class);
+    private static final RedisScript<Long> INDEX_CLEAR_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/kv-index-clear.lua"), Long.class);
+    private static final String SCAN_JOB = "kv-scan";
+
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Autowired
+    private RedisPipelineService redisPipelineService;
+
+    @Autowired
+    private RedisScanJobService redisScanJobService;
+
+    @Override
+    public String get(String key) {
+        return redisTemplate.opsForValue().get(key);
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        List<String> keyList = new ArrayList<>(keys);
+        List<String> values = redisTemplate.opsForValue().multiGet(keyList);
+        Map<String, String> result = new HashMap<>();
+        if (values != null) {
+            for (int i = 0; i < keyList.size(); i++) {
+                if (values.get(i) != null) {
+                    result.put(keyList.get(i), values.get(i));
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void set(String key, String value, long ttlMillis) {
+        if (ttlMillis > 0) {
+            redisTemplate.opsForValue().set(key, value, ttlMillis, TimeUnit.MILLISECONDS);
+        } else {
+            redisTemplate.opsForValue().set(key, value);
+        }
+    }
+
+    @Override
+    public void setAll(Map<String, String> entries, long ttlMillis) {
+        redisPipelineService.execute(batch -> entries.forEach((key, value) -> batch.set(key, value, ttlMillis)));
+    }
+
+    @Override
+    public boolean setIfAbsent(String key, String value, long ttlMillis) {
+        Boolean stored = ttlMillis > 0
+                ? redisTemplate.opsForValue().setIfAbsent(key, value, ttlMillis, TimeUnit.MILLISECONDS)
+                : redisTemplate.opsForValue().setIfAbsent(key, value);
+        return Boolean.TRUE.equals(stored);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(key));
+    }
+
+    @Override
+    public boolean delete(String key) {
+        return Boolean.TRUE.equals(redisTemplate.delete(key));
+    }
+
+    @Override
+    public long deleteAll(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        Long removed = redisTemplate.unlink(keys);
+        return removed != null ? removed : 0;
+    }
+
+    @Override
+    public boolean expire(String key, long ttlMillis) {
+        if (ttlMillis > 0) {
+            return Boolean.TRUE.equals(redisTemplate.expire(key, ttlMillis, TimeUnit.MILLISECONDS));
+        }
+        // PERSIST responde false si la clave ya era persistente: se distingue con EXISTS
+        return Boolean.TRUE.equals(redisTemplate.persist(key)) || exists(key);
+    }
+
+    @Override
+    public long ttl(String key) {
+        Long ttl = redisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+        return ttl != null ? ttl : MISSING;
+    }
+
+    @Override
+    public long increment(String key, long delta, long ttlMillis) {
+        Long value = redisTemplate.execute(INCREMENT_SCRIPT, List.of(key),
+                String.valueOf(delta), String.valueOf(Math.max(0, ttlMillis)));
+        return value != null ? value : 0;
+    }
+
+    @Override
+    public long setAdd(String key, String... members) {
+        Long added = redisTemplate.opsForSet().add(key, members);
+        return added != null ? added : 0;
+    }
+
+    @Override
+    public boolean setRemove(String key, String member) {
+        Long removed = redisTemplate.opsForSet().remove(key, member);
+        return removed != null && removed > 0;
+    }
+
+    @Override
+    public boolean setContains(String key, String member) {
+        return Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(key, member));
+    }
+
+    @Override
+    public Set<String> setMembers(String key) {
+        Set<String> members = redisTemplate.opsForSet().members(key);
+        return members != null ? members : Set.of();
+    }
+
+    @Override
+    public boolean compareAndSet(String key, String expected, String value, long ttlMillis) {
+        Long replaced = redisTemplate.execute(COMPARE_AND_SET_SCRIPT, List.of(key),
+                expected, value, String.valueOf(Math.max(0, ttlMillis)));
+        return replaced != null && replaced == 1;
+    }
+
+    @Override
+    public long sortedSetPut(String key, String member, double score, double purgeUpTo, long minTtlMillis) {
+        Long size = redisTemplate.execute(SORTED_SET_PUT_SCRIPT, List.of(key),
+                member, score(score), score(purgeUpTo), String.valueOf(Math.max(0, minTtlMillis)));
+        return size != null ? size : 0;
+    }
+
+    @Override
+    public void sortedSetAdd(String key, String member, double score) {
+        redisTemplate.opsForZSet().add(key, member, score);
+    }
+
+    @Override
+    public boolean sortedSetRemove(String key, String member) {
+        Long removed = redisTemplate.opsForZSet().remove(key, member);
+        return removed != null && removed > 0;
+    }
+
+    @Override
+    public long sortedSetRemoveByScore(String key, double min, double max) {
+        Long removed = redisTemplate.opsForZSet().removeRangeByScore(key, min, max);
+        return removed != null ? removed : 0;
+    }
+
+    @Override
+    public long sortedSetCount(String key, double min, double max) {
+        Long count = redisTemplate.opsForZSet().count(key, min, max);
+        return count != null ? count : 0;
+    }
+
+    @Override
+    public Set<String> sortedSetRange(String key, double min, double max) {
+        Set<String> members = redisTemplate.opsForZSet().rangeByScore(key, min, max);
+        return members != null ? members : Set.of();
+    }
+
+    @Override
+    public Double sortedSetScore(String key, String member) {
+        return redisTemplate.opsForZSet().score(key, member);
+    }
+
+    @Override
+    public long indexPut(MemberIndex index, String member, long expiresAt, String value, long valueExpiresAt, long now) {
+        List<Object> results = redisPipelineService.execute(batch -> batch
+                .eval(INDEX_PUT_SCRIPT, List.of(index.key(), index.valuesKey()), member, String.valueOf(expiresAt),
+                        String.valueOf(now), value != null ? value : "", String.valueOf(valueExpiresAt))
+                .zAdd(index.ownersKey(), Math.max(expiresAt, valueExpiresAt), index.owner()));
+        return number(results.get(0));
+    }
+
+    @Override
+    public long indexSwap(MemberIndex index, String member, String expected, String value, long maxTtlMillis, long now) {
+        Long result = redisTemplate.execute(INDEX_SWAP_SCRIPT, List.of(index.key(), index.valuesKey()),
+                member, expected, value, String.valueOf(maxTtlMillis), String.valueOf(now));
+        return result != null ? result : MISSING;
+    }
+
+    @Override
+    public boolean indexRemove(MemberIndex index, String member, long now) {
+        Long remaining = redisTemplate.execute(INDEX_REMOVE_SCRIPT, List.of(index.key(), index.valuesKey()),
+                member, String.valueOf(now));
+        if (remaining == null || remaining < 0) {
+            return false;
+        }
+        if (remaining == 0) {
+            redisTemplate.opsForZSet().remove(index.ownersKey(), index.owner());
+        }
+        return true;
+    }
+
+    @Override
+    public long indexClear(MemberIndex index, long now) {
+        List<Object> results = redisPipelineService.execute(batch -> batch
+                .eval(INDEX_CLEAR_SCRIPT, List.of(index.key(), index.valuesKey()), String.valueOf(now))
+                .zRem(index.ownersKey(), index.owner()));
+        return number(results.get(0));
+    }
+
+    @Override
+    public long scan(String pattern, Consumer<List<String>> handler) {
+        return redisScanJobService.scanAll(SCAN_JOB, pattern, keys -> {
+            handler.accept(keys);
+            return keys.size();
+        }).keysExamined();
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    private static long number(Object result) {
+        return result instanceof Number number ? number.longValue() : 0;
+    }
+
+    // Score como argumento de script: Redis no entiende "Infinity" ni conviene la notación exponencial
+    private static String score(double score) {
+        if (Double.isInfinite(score)) {
+            return score > 0 ? "+inf" : "-inf";
+        }
+        return score == Math.rint(score) ? String.valueOf((long) score) : String.valueOf(score);
+    }
+}
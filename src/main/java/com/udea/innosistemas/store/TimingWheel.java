@@ -0,0 +1,124 @@
+package com.udea.innosistemas.store;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rueda de temporización jerárquica para programar expiraciones de claves en O(1).
+ *
+ * Cada nivel tiene 64 ranuras; una ranura del nivel {@code n} abarca 64<sup>n</sup> ticks. Una expiración
+ * se guarda en el nivel más bajo cuyo horizonte la alcanza y, cuando el tiempo llega a su ranura, baja
+ * en cascada al nivel inferior hasta vencer en el nivel 0. Con 4 niveles y ticks de 100 ms el horizonte
+ * es de unos 19 días; las expiraciones más lejanas se reprograman al pasar por la ranura del nivel superior.
+ *
+ * La rueda no elimina entradas: si la expiración de una clave cambia, la entrada anterior vence igual
+ * y el almacén la descarta al comprobar la expiración vigente de la clave.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private record Timer(String key, long tick) {
+    }
+
+    private final long tickMillis;
+    private final List<List<Timer>> slots = new ArrayList<>(LEVELS * SLOTS);
+    private final List<String> due = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = Math.max(1, tickMillis);
+        this.currentTick = startMillis / this.tickMillis;
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Programa la expiración de una clave
+     *
+     * @param expiresAt Instante de expiración (epoch ms)
+     */
+    synchronized void schedule(String key, long expiresAt) {
+        // Redondear hacia arriba: una clave nunca vence antes de su expiración
+        long tick = (expiresAt + tickMillis - 1) / tickMillis;
+        place(new Timer(key, tick));
+        size++;
+    }
+
+    /**
+     * Avanza la rueda hasta el instante indicado
+     *
+     * @return Claves cuya expiración programada ya pasó (pueden incluir entradas obsoletas)
+     */
+    synchronized List<String> advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            cascade();
+            List<Timer> slot = slots.get(index(0, currentTick));
+            if (!slot.isEmpty()) {
+                List<Timer> timers = new ArrayList<>(slot);
+                slot.clear();
+                size -= timers.size();
+                for (Timer timer : timers) {
+                    place(timer);
+                    size++;
+                }
+            }
+        }
+        List<String> expired = new ArrayList<>(due);
+        size -= due.size();
+        due.clear();
+        return expired;
+    }
+
+    /**
+     * @return Número de expiraciones programadas pendientes
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    // Al completar una vuelta de un nivel, redistribuye la ranura actual del nivel superior
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            long lowerMask = (1L << (SLOT_BITS * level)) - 1;
+            if ((currentTick & lowerMask) != 0) {
+                return;
+            }
+            List<Timer> slot = slots.get(index(level, currentTick >>> (SLOT_BITS * level)));
+            if (!slot.isEmpty()) {
+                List<Timer> timers = new ArrayList<>(slot);
+                slot.clear();
+                for (Timer timer : timers) {
+                    place(timer);
+                }
+            }
+        }
+    }
+
+    private void place(Timer timer) {
+        long delta = timer.tick() - currentTick;
+        if (delta <= 0) {
+            due.add(timer.key());
+            return;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        slots.get(index(level, timer.tick() >>> (SLOT_BITS * level))).add(timer);
+    }
+
+    private static int index(int level, long slotTick) {
+        return level * SLOTS + (int) (slotTick & SLOT_MASK);
+    }
+}
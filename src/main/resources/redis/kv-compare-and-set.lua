@@ -0,0 +1,13 @@
+-- Reemplaza el valor de una clave solo si el actual coincide con el esperado.
+-- KEYS[1] = clave
+-- ARGV[1] = valor esperado, ARGV[2] = nuevo valor, ARGV[3] = TTL (ms; 0 = sin expiración)
+-- Retorna 1 si se reemplazó, 0 en caso contrario.
+if redis.call('GET', KEYS[1]) ~= ARGV[1] then
+    return 0
+end
+if tonumber(ARGV[3]) > 0 then
+    redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+else
+    redis.call('SET', KEYS[1], ARGV[2])
+end
+return 1
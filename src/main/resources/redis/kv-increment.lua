@@ -0,0 +1,9 @@
+-- Incrementa un contador y le asigna expiración solo si aún no tiene una.
+-- KEYS[1] = contador
+-- ARGV[1] = incremento, ARGV[2] = TTL (ms; 0 = sin expiración)
+-- Retorna el valor resultante.
+local value = redis.call('INCRBY', KEYS[1], ARGV[1])
+if tonumber(ARGV[2]) > 0 and redis.call('PTTL', KEYS[1]) == -1 then
+    redis.call('PEXPIRE', KEYS[1], ARGV[2])
+end
+return value
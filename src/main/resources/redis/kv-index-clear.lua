@@ -0,0 +1,7 @@
+-- Elimina un índice completo y sus valores.
+-- KEYS[1] = índice (ZSET miembro → expiración), KEYS[2] = valores (HASH miembro → "valor:expiración")
+-- ARGV[1] = ahora (epoch ms)
+-- Retorna el número de miembros vigentes (expiración posterior a ahora) que tenía el índice.
+local active = redis.call('ZCOUNT', KEYS[1], '(' .. ARGV[1], '+inf')
+redis.call('DEL', KEYS[1], KEYS[2])
+return active
@@ -0,0 +1,29 @@
+-- Agrega o renueva un miembro de un índice (ZSET miembro → expiración) y su valor (HASH miembro → "valor:expiración")
+-- en un único paso: purga los miembros y valores vencidos y extiende la expiración de ambas claves si les queda menos.
+-- KEYS[1] = índice, KEYS[2] = valores
+-- ARGV[1] = miembro, ARGV[2] = expiración del miembro (epoch ms), ARGV[3] = ahora (epoch ms),
+-- ARGV[4] = valor ('' = sin valor), ARGV[5] = expiración del valor (epoch ms)
+-- Retorna el número de miembros después de agregar.
+local now = tonumber(ARGV[3])
+redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', ARGV[3])
+redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])
+local ttl = tonumber(ARGV[2]) - now
+if ttl > 0 and redis.call('PTTL', KEYS[1]) < ttl then
+    redis.call('PEXPIRE', KEYS[1], ttl)
+end
+
+local values = redis.call('HGETALL', KEYS[2])
+for i = 1, #values, 2 do
+    local expiresAt = tonumber(string.match(values[i + 1], ':(%d+)$'))
+    if expiresAt == nil or expiresAt <= now then
+        redis.call('HDEL', KEYS[2], values[i])
+    end
+end
+if ARGV[4] ~= '' then
+    redis.call('HSET', KEYS[2], ARGV[1], ARGV[4] .. ':' .. ARGV[5])
+    local valueTtl = tonumber(ARGV[5]) - now
+    if valueTtl > 0 and redis.call('PTTL', KEYS[2]) < valueTtl then
+        redis.call('PEXPIRE', KEYS[2], valueTtl)
+    end
+end
+return redis.call('ZCARD', KEYS[1])
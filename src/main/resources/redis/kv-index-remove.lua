@@ -0,0 +1,11 @@
+-- Elimina un miembro de un índice y su valor, purgando además los miembros vencidos.
+-- KEYS[1] = índice (ZSET miembro → expiración), KEYS[2] = valores (HASH miembro → "valor:expiración")
+-- ARGV[1] = miembro, ARGV[2] = ahora (epoch ms)
+-- Retorna el número de miembros restantes, o -1 si el miembro no estaba en el índice.
+local removed = redis.call('ZREM', KEYS[1], ARGV[1])
+redis.call('HDEL', KEYS[2], ARGV[1])
+redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', ARGV[2])
+if removed == 0 then
+    return -1
+end
+return redis.call('ZCARD', KEYS[1])
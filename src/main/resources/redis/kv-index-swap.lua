@@ -0,0 +1,31 @@
+-- Reemplaza el valor de un miembro de un índice solo si el vigente es el esperado. Si coincide, renueva el
+-- miembro sin superar la expiración del valor; si no coincide o el valor venció, elimina el miembro y su valor.
+-- KEYS[1] = índice (ZSET miembro → expiración), KEYS[2] = valores (HASH miembro → "valor:expiración")
+-- ARGV[1] = miembro, ARGV[2] = valor esperado, ARGV[3] = valor nuevo, ARGV[4] = TTL máximo del miembro (ms),
+-- ARGV[5] = ahora (epoch ms)
+-- Retorna la expiración del valor, -2 si el miembro no tiene valor vigente o -3 si el valor no era el esperado.
+local current = redis.call('HGET', KEYS[2], ARGV[1])
+if not current then
+    return -2
+end
+
+local value, expiresAt = string.match(current, '^(.*):(%d+)$')
+local now = tonumber(ARGV[5])
+if expiresAt == nil or tonumber(expiresAt) <= now then
+    redis.call('HDEL', KEYS[2], ARGV[1])
+    redis.call('ZREM', KEYS[1], ARGV[1])
+    return -2
+end
+if value ~= ARGV[2] then
+    redis.call('HDEL', KEYS[2], ARGV[1])
+    redis.call('ZREM', KEYS[1], ARGV[1])
+    return -3
+end
+
+redis.call('HSET', KEYS[2], ARGV[1], ARGV[3] .. ':' .. expiresAt)
+local ttl = math.min(tonumber(ARGV[4]), tonumber(expiresAt) - now)
+redis.call('ZADD', KEYS[1], string.format('%d', now + ttl), ARGV[1])
+if redis.call('PTTL', KEYS[1]) < ttl then
+    redis.call('PEXPIRE', KEYS[1], string.format('%d', ttl))
+end
+return tonumber(expiresAt)
@@ -0,0 +1,11 @@
+-- Agrega o actualiza un miembro de un ZSET descartando antes los miembros vencidos
+-- y extendiendo la expiración de la clave si le queda menos que la mínima.
+-- KEYS[1] = conjunto ordenado
+-- ARGV[1] = miembro, ARGV[2] = score, ARGV[3] = score máximo a purgar, ARGV[4] = TTL mínimo (ms; 0 = no cambiar)
+-- Retorna el número de miembros después de agregar.
+redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', ARGV[3])
+redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])
+if tonumber(ARGV[4]) > 0 and redis.call('PTTL', KEYS[1]) < tonumber(ARGV[4]) then
+    redis.call('PEXPIRE', KEYS[1], ARGV[4])
+end
+return redis.call('ZCARD', KEYS[1])
@@ -0,0 +1,135 @@
+package com.udea.innosistemas.config;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.DataFetcher;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario para AsyncFieldDirective: resolución en paralelo de campos hermanos,
+ * propagación del contexto de seguridad y tope de campos en paralelo por operación.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@DisplayName("AsyncFieldDirective - Campos @async en paralelo")
+class AsyncFieldDirectiveTest {
+
+    private static final String SCHEMA = """
+            directive @async on FIELD_DEFINITION
+            type Query {
+                a: String @async
+                b: String @async
+                c: String @async
+                d: String @async
+                user: String @async
+                sync: String
+            }
+            """;
+    private static final long FETCH_MS = 200;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private AsyncFieldDirective directive;
+
+    private GraphQL graphQL(boolean enabled, int perOperation) {
+        directive = new AsyncFieldDirective();
+        ReflectionTestUtils.setField(directive, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(directive, "enabled", enabled);
+        ReflectionTestUtils.setField(directive, "poolSize", 4);
+        ReflectionTestUtils.setField(directive, "queueCapacity", 10);
+        ReflectionTestUtils.setField(directive, "maxConcurrencyPerOperation", perOperation);
+        directive.init();
+
+        DataFetcher<String> slow = env -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(FETCH_MS);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return Thread.currentThread().getName();
+        };
+        return GraphQL.newGraphQL(new SchemaGenerator().makeExecutableSchema(
+                        new SchemaParser().parse(SCHEMA),
+                        RuntimeWiring.newRuntimeWiring()
+                                .directive("async", directive)
+                                .type("Query", type -> type
+                                        .dataFetcher("a", slow)
+                                        .dataFetcher("b", slow)
+                                        .dataFetcher("c", slow)
+                                        .dataFetcher("d", slow)
+                                        .dataFetcher("user", env ->
+                                                SecurityContextHolder.getContext().getAuthentication().getName())
+                                        .dataFetcher("sync", env -> Thread.currentThread().getName()))
+                                .build()))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        directive.shutdown();
+    }
+
+    @Test
+    @DisplayName("Debe resolver los campos hermanos en paralelo: la latencia es la del más lento")
+    void testSiblingsInParallel() {
+        GraphQL graphQL = graphQL(true, 3);
+
+        long start = System.nanoTime();
+        ExecutionResult result = graphQL.execute("{ a b c sync }");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(result.getErrors().isEmpty());
+        Map<String, String> data = result.getData();
+        assertTrue(data.get("a").startsWith("graphql-async-"));
+        assertEquals(Thread.currentThread().getName(), data.get("sync"));
+        assertEquals(3, maxInFlight.get());
+        assertTrue(elapsedMs < 3 * FETCH_MS, "Tres campos de " + FETCH_MS + " ms tardaron " + elapsedMs + " ms");
+
+        // Deshabilitada, los campos se resuelven en serie en el hilo de la petición
+        maxInFlight.set(0);
+        Map<String, String> sync = graphQL(false, 3).execute("{ a b }").getData();
+        assertEquals(Thread.currentThread().getName(), sync.get("a"));
+        assertEquals(1, maxInFlight.get());
+    }
+
+    @Test
+    @DisplayName("Debe propagar el contexto de seguridad a los hilos del pool")
+    void testSecurityContextPropagation() {
+        GraphQL graphQL = graphQL(true, 3);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "estudiante@udea.edu.co", null, AuthorityUtils.createAuthorityList("ROLE_STUDENT")));
+
+        Map<String, String> data = graphQL.execute("{ user }").getData();
+        assertEquals("estudiante@udea.edu.co", data.get("user"));
+    }
+
+    @Test
+    @DisplayName("Debe respetar el tope de campos en paralelo por operación")
+    void testPerOperationCap() {
+        GraphQL graphQL = graphQL(true, 2);
+
+        ExecutionResult result = graphQL.execute("{ a b c d }");
+
+        assertTrue(result.getErrors().isEmpty());
+        assertEquals(2, maxInFlight.get());
+        assertEquals(4, ((Map<?, ?>) result.getData()).size());
+    }
+}
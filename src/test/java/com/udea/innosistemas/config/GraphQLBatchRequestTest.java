@@ -0,0 +1,120 @@
+package com.udea.innosistemas.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udea.innosistemas.entity.User;
+import com.udea.innosistemas.entity.UserRole;
+import com.udea.innosistemas.repository.UserRepository;
+import com.udea.innosistemas.service.RateLimitingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Test de integración para los lotes de operaciones GraphQL: arreglo de respuestas en orden,
+ * rechazo temprano por tamaño y cobro del lote en el rate limiting.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("PersistedQueryHttpHandler - Lotes de operaciones GraphQL")
+class GraphQLBatchRequestTest {
+
+    private static final String PATH = "/graphql";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RateLimitingService rateLimitingService;
+
+    private User student;
+
+    @BeforeEach
+    void setUp() {
+        student = userRepository.findByEmail("lote.estudiante@udea.edu.co").orElseGet(() ->
+                userRepository.save(new User("lote.estudiante@udea.edu.co",
+                        "$2a$12$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW", UserRole.STUDENT)));
+        rateLimitingService.resetBucket("user:" + student.getEmail());
+    }
+
+    private MvcResult postBatch(List<?> operations) throws Exception {
+        return mockMvc.perform(post(PATH).with(user(student))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(operations)))
+                .andReturn();
+    }
+
+    @Test
+    @DisplayName("Debe ejecutar las operaciones del lote en orden y responder un arreglo")
+    void testBatchResponse() throws Exception {
+        MvcResult result = postBatch(List.of(
+                Map.of("query", "{ getCurrentUser { email } }"),
+                Map.of("query", "query Count { getUnreadNotificationCount }", "operationName", "Count"),
+                Map.of("query", "{ campoInexistente }")));
+
+        assertEquals(200, result.getResponse().getStatus());
+        JsonNode response = objectMapper.readTree(result.getResponse().getContentAsString(StandardCharsets.UTF_8));
+        assertTrue(response.isArray());
+        assertEquals(3, response.size());
+        assertEquals(student.getEmail(), response.at("/0/data/getCurrentUser/email").asText());
+        assertEquals(0, response.at("/1/data/getUnreadNotificationCount").asInt());
+        // Un error de validación afecta solo a su operación
+        assertFalse(response.get(2).get("errors").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar con 400 los lotes vacíos o más grandes que el máximo sin ejecutarlos")
+    void testRejectsBadBatches() throws Exception {
+        long before = rateLimitingService.getAvailableTokens("user:" + student.getEmail());
+
+        assertEquals(400, postBatch(List.of()).getResponse().getStatus());
+        assertEquals(400, postBatch(Collections.nCopies(11, Map.of("query", "{ getUnreadNotificationCount }")))
+                .getResponse().getStatus());
+        assertEquals(400, postBatch(List.of("{ getUnreadNotificationCount }")).getResponse().getStatus());
+
+        // Solo el token de cada petición HTTP que cobra RateLimitFilter
+        assertEquals(before - 3.0, rateLimitingService.getAvailableTokens("user:" + student.getEmail()), 1.0);
+    }
+
+    @Test
+    @DisplayName("Debe cobrar el lote completo al rate limiting en una sola operación")
+    void testRateLimitChargesWholeBatch() throws Exception {
+        String key = "user:" + student.getEmail();
+        long capacity = rateLimitingService.getAvailableTokens(key);
+        List<Map<String, String>> batch = Collections.nCopies(3, Map.of("query", "{ getUnreadNotificationCount }"));
+
+        assertEquals(200, postBatch(batch).getResponse().getStatus());
+        assertEquals(capacity - 3.0, rateLimitingService.getAvailableTokens(key), 1.0);
+
+        // Quedan 2 tokens: el filtro cobra 1 y el resto del lote (2) ya no cabe
+        assertTrue(rateLimitingService.allowRequest(key, rateLimitingService.getAvailableTokens(key) - 2));
+        assertEquals(429, postBatch(batch).getResponse().getStatus());
+    }
+}
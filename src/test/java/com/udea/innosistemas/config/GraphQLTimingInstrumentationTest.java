@@ -0,0 +1,126 @@
+package com.udea.innosistemas.config;
+
+import graphql.ExecutionInput;
+import graphql.GraphQL;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario para GraphQLTimingInstrumentation: histogramas por operación y resolver,
+ * cardinalidad acotada de etiquetas y registro de operaciones lentas con variables redactadas.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@DisplayName("GraphQLTimingInstrumentation - Tiempos por resolver y operaciones lentas")
+class GraphQLTimingInstrumentationTest {
+
+    private static final String SCHEMA = """
+            type Query {
+                team(id: ID!, filter: Filter): Team
+            }
+            input Filter {
+                name: String
+                tags: [String]
+            }
+            type Team {
+                id: ID!
+                name: String
+            }
+            """;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private GraphQLTimingInstrumentation instrumentation;
+    private GraphQL graphQL;
+
+    private void configure(double sampleRate, long slowThresholdMs, int slowLogSize, int maxOperationTags) {
+        instrumentation = new GraphQLTimingInstrumentation();
+        ReflectionTestUtils.setField(instrumentation, "enabled", true);
+        ReflectionTestUtils.setField(instrumentation, "sampleRate", sampleRate);
+        ReflectionTestUtils.setField(instrumentation, "slowThresholdMs", slowThresholdMs);
+        ReflectionTestUtils.setField(instrumentation, "slowLogSize", slowLogSize);
+        ReflectionTestUtils.setField(instrumentation, "maxOperationTags", maxOperationTags);
+        ReflectionTestUtils.setField(instrumentation, "maxFieldTags", 10);
+        ReflectionTestUtils.setField(instrumentation, "meterRegistry", meterRegistry);
+        instrumentation.init();
+
+        graphQL = GraphQL.newGraphQL(new SchemaGenerator().makeExecutableSchema(
+                        new SchemaParser().parse(SCHEMA),
+                        RuntimeWiring.newRuntimeWiring()
+                                .type("Query", type -> type.dataFetcher("team",
+                                        env -> Map.of("id", env.getArgument("id"), "name", "Equipo")))
+                                .build()))
+                .instrumentation(instrumentation)
+                .build();
+    }
+
+    @BeforeEach
+    void setUp() {
+        configure(1.0, 60_000, 10, 100);
+    }
+
+    @Test
+    @DisplayName("Debe registrar histogramas por operación y por resolver no trivial en operaciones muestreadas")
+    void testOperationAndResolverTimers() {
+        assertTrue(graphQL.execute("query TeamById { team(id: \"1\") { id name } }").getErrors().isEmpty());
+        assertTrue(graphQL.execute("query OtherName { team(id: \"2\") { id } }").getErrors().isEmpty());
+
+        assertEquals(1, meterRegistry.get("innosistemas.graphql.operation.duration")
+                .tags("operation", "TeamById", "type", "query", "outcome", "success").timer().count());
+        // El timer de resolver no lleva la operación: una sola serie por campo y resultado
+        assertEquals(2, meterRegistry.get("innosistemas.graphql.resolver.duration")
+                .tags("field", "Query.team", "outcome", "success").timer().count());
+        assertNull(meterRegistry.find("innosistemas.graphql.resolver.duration").tagKeys("operation").timer());
+        // Los campos resueltos por propiedad (Team.id, Team.name) no se cronometran
+        assertEquals(1, meterRegistry.find("innosistemas.graphql.resolver.duration").timers().size());
+        assertTrue(instrumentation.slowOperations().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Debe acotar las etiquetas de operación y no medir resolvers fuera de la muestra")
+    void testBoundedTagsAndSampling() {
+        configure(1.0, 60_000, 10, 2);
+        for (int i = 0; i < 5; i++) {
+            graphQL.execute("query Op" + i + " { team(id: \"1\") { id } }");
+        }
+        assertEquals(3, meterRegistry.get("innosistemas.graphql.operation.duration").timers().size());
+        assertEquals(3, meterRegistry.get("innosistemas.graphql.operation.duration")
+                .tag("operation", GraphQLTimingInstrumentation.OTHER).timer().count());
+
+        configure(0.0, 60_000, 10, 100);
+        graphQL.execute("query Unsampled { team(id: \"1\") { id } }");
+        assertNull(meterRegistry.find("innosistemas.graphql.operation.duration").tag("operation", "Unsampled").timer());
+    }
+
+    @Test
+    @DisplayName("Debe guardar las operaciones lentas en un buffer circular con las variables redactadas")
+    void testSlowLogRedactsVariables() {
+        configure(0.0, 0, 2, 100);
+        for (int i = 0; i < 3; i++) {
+            graphQL.execute(ExecutionInput.newExecutionInput()
+                    .query("query Find($id: ID!, $filter: Filter) { team(id: $id, filter: $filter) { id } }")
+                    .variables(Map.of("id", "secreto-" + i, "filter", Map.of("name", "x", "tags", List.of("a", "b"))))
+                    .build());
+        }
+
+        List<GraphQLTimingInstrumentation.SlowOperation> slow = instrumentation.slowOperations();
+        assertEquals(2, slow.size());
+        GraphQLTimingInstrumentation.SlowOperation operation = slow.get(0);
+        assertEquals("Find", operation.operationName());
+        assertEquals("query", operation.operationType());
+        assertEquals(Map.of("id", "***", "filter", Map.of("name", "***", "tags", List.of("***", "***"))),
+                operation.variables());
+        assertTrue(operation.durationMs() >= slow.get(1).durationMs());
+    }
+}
@@ -0,0 +1,176 @@
+package com.udea.innosistemas.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udea.innosistemas.entity.Notification;
+import com.udea.innosistemas.entity.User;
+import com.udea.innosistemas.entity.UserRole;
+import com.udea.innosistemas.repository.NotificationRepository;
+import com.udea.innosistemas.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Test de integración para IncrementalDeliveryHttpHandler: partes multipart con @stream, tope de
+ * initialCount, respuesta JSON normal sin multipart y autorización antes de enviar elementos.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@SpringBootTest(properties = {
+        "innosistemas.graphql.incremental.batch-size=3",
+        "innosistemas.graphql.incremental.max-initial-count=4"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("IncrementalDeliveryHttpHandler - Entrega incremental con @stream")
+class IncrementalDeliveryHttpHandlerTest {
+
+    private static final String PATH = "/graphql";
+    private static final int NOTIFICATIONS = 7;
+    private static final String INBOX_QUERY =
+            "{ inbox: getMyNotifications @stream(initialCount: 2) { id mensaje } }";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    private User student;
+
+    @BeforeEach
+    void setUp() {
+        student = userRepository.findByEmail("stream.estudiante@udea.edu.co").orElseGet(() -> {
+            User user = userRepository.save(new User("stream.estudiante@udea.edu.co",
+                    "$2a$12$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW", UserRole.STUDENT));
+            for (int i = 0; i < NOTIFICATIONS; i++) {
+                notificationRepository.save(new Notification(user.getId(), "Notificación " + i, "INFO"));
+            }
+            return user;
+        });
+    }
+
+    private String body(String query) throws Exception {
+        return objectMapper.writeValueAsString(Map.of("query", query));
+    }
+
+    // Cuerpos JSON de las partes de una respuesta multipart/mixed con boundary "-"
+    private List<JsonNode> parts(String response) throws Exception {
+        assertTrue(response.endsWith("\r\n-----\r\n"));
+        List<JsonNode> parts = new ArrayList<>();
+        for (String part : response.substring(0, response.length() - "\r\n-----\r\n".length()).split("\r\n---\r\n")) {
+            if (!part.isEmpty()) {
+                parts.add(objectMapper.readTree(part.substring(part.indexOf("\r\n\r\n") + 4)));
+            }
+        }
+        return parts;
+    }
+
+    @Test
+    @DisplayName("Debe enviar initialCount elementos y luego lotes incrementales con su posición")
+    void testStreamsInBatches() throws Exception {
+        MvcResult result = mockMvc.perform(post(PATH).with(user(student))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.parseMediaType("multipart/mixed; deferSpec=20220824"), MediaType.APPLICATION_JSON)
+                        .content(body(INBOX_QUERY)))
+                .andReturn();
+        assertTrue(result.getResponse().getContentType().startsWith("multipart/mixed"));
+
+        List<JsonNode> parts = parts(result.getResponse().getContentAsString(StandardCharsets.UTF_8));
+        // 2 iniciales + lotes de 3 y 2 + cierre
+        assertEquals(4, parts.size());
+        assertEquals(2, parts.get(0).at("/data/inbox").size());
+        assertTrue(parts.get(0).get("hasNext").asBoolean());
+
+        Set<String> ids = new HashSet<>();
+        parts.get(0).at("/data/inbox").forEach(item -> ids.add(item.get("id").asText()));
+        int[] expectedSizes = {3, 2};
+        int[] expectedStarts = {2, 5};
+        for (int i = 0; i < 2; i++) {
+            JsonNode incremental = parts.get(i + 1).at("/incremental/0");
+            assertEquals(expectedSizes[i], incremental.get("items").size());
+            assertEquals("inbox", incremental.at("/path/0").asText());
+            assertEquals(expectedStarts[i], incremental.at("/path/1").asInt());
+            incremental.get("items").forEach(item -> ids.add(item.get("id").asText()));
+        }
+        assertFalse(parts.get(3).get("hasNext").asBoolean());
+        assertEquals(NOTIFICATIONS, ids.size());
+    }
+
+    @Test
+    @DisplayName("Debe acotar initialCount al máximo configurado")
+    void testClampsInitialCount() throws Exception {
+        MvcResult result = mockMvc.perform(post(PATH).with(user(student))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.parseMediaType("multipart/mixed"))
+                        .content(body("{ inbox: getMyNotifications @stream(initialCount: 50) { id } }")))
+                .andReturn();
+
+        List<JsonNode> parts = parts(result.getResponse().getContentAsString(StandardCharsets.UTF_8));
+        // 4 iniciales (tope) + un lote de 3 + cierre
+        assertEquals(3, parts.size());
+        assertEquals(4, parts.get(0).at("/data/inbox").size());
+        assertEquals(3, parts.get(1).at("/incremental/0/items").size());
+        assertEquals(4, parts.get(1).at("/incremental/0/path/1").asInt());
+    }
+
+    @Test
+    @DisplayName("Debe responder JSON normal (lista completa) si el cliente no acepta multipart")
+    void testPlainJsonWithoutMultipart() throws Exception {
+        MvcResult started = mockMvc.perform(post(PATH).with(user(student))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(body(INBOX_QUERY)))
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started)).andReturn();
+
+        assertTrue(result.getResponse().getContentType().startsWith(MediaType.APPLICATION_JSON_VALUE));
+        JsonNode response = objectMapper.readTree(result.getResponse().getContentAsString(StandardCharsets.UTF_8));
+        assertEquals(NOTIFICATIONS, response.at("/data/inbox").size());
+        assertFalse(response.has("hasNext"));
+    }
+
+    @Test
+    @DisplayName("Debe comprobar la autorización en la primera parte y no enviar elementos si falla")
+    void testAuthorizationBeforeItems() throws Exception {
+        MvcResult result = mockMvc.perform(post(PATH).with(user(student))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.parseMediaType("multipart/mixed"))
+                        .content(body("{ getTeamsByCourse(courseId: 1) @stream { id nombre } }")))
+                .andReturn();
+
+        List<JsonNode> parts = parts(result.getResponse().getContentAsString(StandardCharsets.UTF_8));
+        assertEquals(1, parts.size());
+        assertFalse(parts.get(0).get("errors").isEmpty());
+        assertFalse(parts.get(0).get("hasNext").asBoolean());
+        assertTrue(parts.get(0).path("data").path("getTeamsByCourse").isMissingNode()
+                || parts.get(0).path("data").isNull());
+    }
+}
@@ -0,0 +1,188 @@
+package com.udea.innosistemas.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udea.innosistemas.entity.Notification;
+import com.udea.innosistemas.entity.User;
+import com.udea.innosistemas.entity.UserRole;
+import com.udea.innosistemas.repository.NotificationRepository;
+import com.udea.innosistemas.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark de la bandeja de notificaciones (2000 notificaciones) como JSON completo frente a la
+ * entrega incremental con {@code @stream} ({@link IncrementalDeliveryHttpHandler}).
+ *
+ * Por modo reporta la mediana de: tiempo hasta el primer byte del cuerpo, tiempo total y pico de heap
+ * sobre la línea base durante la petición (muestreado cada milisegundo con {@link MemoryMXBean}; incluye
+ * al cliente, que descarta lo que lee). Usa H2 del perfil de test sobre HTTP real. No se ejecuta con la
+ * suite normal (Surefire solo incluye *Test); ejecutar con:
+ * {@code mvn test -Dtest=NotificationStreamingBenchmark}
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class NotificationStreamingBenchmark {
+
+    private static final String EMAIL = "bandeja.benchmark@udea.edu.co";
+    private static final String PASSWORD = "Benchmark#2024";
+    private static final int NOTIFICATIONS = 2000;
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 15;
+    private static final String SELECTION = "{ id tipo mensaje userId teamId metadata }";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void inboxJsonVersusStream() throws Exception {
+        seed();
+        String token = login();
+
+        System.out.printf("%-10s %10s %10s %14s %10s%n", "modo", "TTFB ms", "total ms", "pico heap KB", "bytes");
+        run("json", token, "application/json",
+                "{ getMyNotifications " + SELECTION + " }");
+        run("@stream", token, "multipart/mixed; deferSpec=20220824, application/json",
+                "{ getMyNotifications @stream(initialCount: 20) " + SELECTION + " }");
+    }
+
+    private void run(String mode, String token, String accept, String query) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            request(token, accept, query);
+        }
+        double[] ttfb = new double[ITERATIONS];
+        double[] total = new double[ITERATIONS];
+        double[] heap = new double[ITERATIONS];
+        long bytes = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            Measurement measurement = request(token, accept, query);
+            ttfb[i] = measurement.ttfbNanos() / 1e6;
+            total[i] = measurement.totalNanos() / 1e6;
+            heap[i] = measurement.peakHeapBytes() / 1024.0;
+            bytes = measurement.bytes();
+        }
+        System.out.printf("%-10s %10.1f %10.1f %14.0f %10d%n", mode, median(ttfb), median(total), median(heap), bytes);
+    }
+
+    private record Measurement(long ttfbNanos, long totalNanos, long peakHeapBytes, long bytes) {
+    }
+
+    private Measurement request(String token, String accept, String query) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/graphql"))
+                .header("Content-Type", "application/json")
+                .header("Accept", accept)
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(Map.of("query", query))))
+                .build();
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean sampling = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            while (sampling.get()) {
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.start();
+
+        long start = System.nanoTime();
+        long firstByte = 0;
+        long bytes = 0;
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                if (firstByte == 0) {
+                    firstByte = System.nanoTime();
+                }
+                bytes += read;
+            }
+        }
+        long end = System.nanoTime();
+        sampling.set(false);
+        sampler.join();
+
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + response.statusCode());
+        }
+        return new Measurement(firstByte - start, end - start, peak.get() - baseline, bytes);
+    }
+
+    private String login() throws Exception {
+        String mutation = "mutation { login(email: \"" + EMAIL + "\", password: \"" + PASSWORD + "\") { token } }";
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                                URI.create("http://localhost:" + port + "/api/v1/graphql"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                objectMapper.writeValueAsString(Map.of("query", mutation))))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        return objectMapper.readTree(response.body()).at("/data/login/token").asText();
+    }
+
+    private void seed() {
+        if (userRepository.findByEmail(EMAIL).isPresent()) {
+            return;
+        }
+        User user = userRepository.save(new User(EMAIL, passwordEncoder.encode(PASSWORD), UserRole.STUDENT));
+        List<Notification> notifications = new ArrayList<>(NOTIFICATIONS);
+        for (int i = 0; i < NOTIFICATIONS; i++) {
+            Notification notification = new Notification(user.getId(),
+                    "Recordatorio " + i + ": la entrega del proyecto de tu equipo vence pronto. "
+                            + "Revisa el tablero del curso y confirma los entregables pendientes.",
+                    "DEADLINE_REMINDER");
+            notification.setPrioridad(Notification.NotificationPriority.NORMAL);
+            notification.setEnlace("/cursos/1/equipos/1/entregas/" + i);
+            notifications.add(notification);
+        }
+        notificationRepository.saveAll(notifications);
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
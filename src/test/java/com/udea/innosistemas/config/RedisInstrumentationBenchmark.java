@@ -0,0 +1,95 @@
+package com.udea.innosistemas.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Benchmark del costo de la instrumentación de {@link InstrumentedJedisConnectionFactory} sobre una conexión
+ * sin red: compara envolver una conexión y ejecutar comandos a través de su vista {@code stringCommands()}
+ * con y sin instrumentación. Como un round-trip a un Redis local ronda los 100 µs, el presupuesto es de
+ * 1 µs por comando y por conexión (1% del round-trip); el benchmark falla si se supera.
+ * No se ejecuta con la suite normal (Surefire solo incluye *Test); ejecutar con:
+ * {@code mvn test -Dtest=RedisInstrumentationBenchmark}
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+class RedisInstrumentationBenchmark {
+
+    private static final double BUDGET_NANOS = 1_000;
+    private static final int WARMUP = 200_000;
+    private static final int CONNECTIONS = 500_000;
+    private static final int COMMANDS_PER_CONNECTION = 4;
+    private static final byte[] KEY = "benchmark:key".getBytes(StandardCharsets.UTF_8);
+
+    private final RedisStringCommands stringCommands = stub(RedisStringCommands.class);
+    private final RedisConnection connection = stubConnection();
+
+    @Test
+    void instrumentationOverhead() {
+        InstrumentedJedisConnectionFactory factory = new InstrumentedJedisConnectionFactory(
+                new RedisStandaloneConfiguration(), JedisClientConfiguration.defaultConfiguration(),
+                new SimpleMeterRegistry());
+
+        run(false, factory, WARMUP);
+        run(true, factory, WARMUP);
+        double plain = run(false, factory, CONNECTIONS);
+        double instrumented = run(true, factory, CONNECTIONS);
+
+        double perConnection = instrumented - plain;
+        double perCommand = perConnection / COMMANDS_PER_CONNECTION;
+        System.out.printf("%-22s %12s%n", "", "ns/conexión");
+        System.out.printf("%-22s %12.0f%n", "sin instrumentación", plain);
+        System.out.printf("%-22s %12.0f%n", "instrumentada", instrumented);
+        System.out.printf("%-22s %12.0f (%.0f ns/comando)%n", "sobrecosto", perConnection, perCommand);
+
+        if (perCommand > BUDGET_NANOS) {
+            throw new IllegalStateException("Instrumentation overhead " + perCommand + " ns/command exceeds budget");
+        }
+    }
+
+    // Nanosegundos por conexión: envolver, ejecutar los comandos y cerrar
+    private double run(boolean instrumented, InstrumentedJedisConnectionFactory factory, int connections) {
+        long start = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            RedisConnection current = instrumented ? factory.instrument(connection) : connection;
+            for (int c = 0; c < COMMANDS_PER_CONNECTION; c++) {
+                current.stringCommands().get(KEY);
+            }
+            current.close();
+        }
+        return (System.nanoTime() - start) / (double) connections;
+    }
+
+    private RedisConnection stubConnection() {
+        return (RedisConnection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {RedisConnection.class}, (proxy, method, args) ->
+                        "stringCommands".equals(method.getName()) ? stringCommands : defaultValue(method.getReturnType()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type) {
+        return (T) Proxy.newProxyInstance(RedisInstrumentationBenchmark.class.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> defaultValue(method.getReturnType()));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        return null;
+    }
+}
@@ -12,6 +12,7 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.DefaultSecurityFilterChain;
 import org.springframework.security.web.SecurityFilterChain;
@@ -20,6 +21,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.mock.web.MockHttpServletRequest;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -44,12 +46,17 @@ class SecurityConfigTest {
     @Mock
     private AuthenticationConfiguration authConfig;
 
+    @Mock
+    private PasswordHashingPolicy passwordHashingPolicy;
+
     @InjectMocks
     private SecurityConfig securityConfig;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(passwordHashingPolicy.createPasswordEncoder())
+                .thenReturn(new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", new BCryptPasswordEncoder(4))));
     }
 
     // 1️⃣ Test: creación del PasswordEncoder
@@ -57,8 +64,10 @@ class SecurityConfigTest {
     void shouldCreatePasswordEncoder() {
         PasswordEncoder encoder = securityConfig.passwordEncoder();
         assertNotNull(encoder);
-        assertTrue(encoder instanceof BCryptPasswordEncoder);
+        assertTrue(encoder instanceof DelegatingPasswordEncoder);
+        assertTrue(encoder.encode("1234").startsWith("{bcrypt}"));
         assertTrue(encoder.matches("1234", encoder.encode("1234")));
+        verify(passwordHashingPolicy).createPasswordEncoder();
     }
 
     // 2️⃣ Test: creación del JwtAuthenticationFilter
@@ -88,7 +97,7 @@ class SecurityConfigTest {
         // Verificar internamente el encoder usando reflexión
         Object encoder = org.springframework.test.util.ReflectionTestUtils.getField(provider, "passwordEncoder");
         assertNotNull(encoder);
-        assertTrue(encoder instanceof BCryptPasswordEncoder);
+        assertTrue(encoder instanceof DelegatingPasswordEncoder);
     }
 
     // 5️⃣ Test: configuración del SecurityFilterChain (mockeado)
@@ -0,0 +1,68 @@
+package com.udea.innosistemas.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario para ClientIpResolver: X-Forwarded-For solo desde proxies de confianza y
+ * selección de la entrada más a la derecha que no es un proxy propio.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@DisplayName("ClientIpResolver - IP del cliente detrás de proxies de confianza")
+class ClientIpResolverTest {
+
+    private static ClientIpResolver resolver(String... trustedProxies) {
+        ClientIpResolver resolver = new ClientIpResolver();
+        ReflectionTestUtils.setField(resolver, "trustedProxies", List.of(trustedProxies));
+        resolver.init();
+        return resolver;
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String xForwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        if (xForwardedFor != null) {
+            request.addHeader("X-Forwarded-For", xForwardedFor);
+        }
+        return request;
+    }
+
+    @Test
+    @DisplayName("Sin proxies de confianza debe ignorar X-Forwarded-For y X-Real-IP")
+    void testIgnoresHeadersWithoutTrustedProxies() {
+        MockHttpServletRequest request = request("203.0.113.7", "1.2.3.4");
+        request.addHeader("X-Real-IP", "5.6.7.8");
+
+        assertEquals("203.0.113.7", resolver().resolve(request));
+    }
+
+    @Test
+    @DisplayName("Debe tomar la entrada más a la derecha que no sea un proxy de confianza")
+    void testRightMostUntrustedEntry() {
+        ClientIpResolver resolver = resolver("10.0.0.0/8", "192.168.1.10");
+
+        // El cliente falsifica la primera entrada; el balanceador agrega la IP real y pasa por otro proxy propio
+        assertEquals("198.51.100.23",
+                resolver.resolve(request("10.0.0.5", "1.2.3.4, 198.51.100.23, 192.168.1.10")));
+        // Todas las entradas son proxies propios: se usa la conexión
+        assertEquals("10.0.0.5", resolver.resolve(request("10.0.0.5", "10.1.1.1")));
+        // Una entrada que no es IP no se resuelve por DNS ni se considera proxy propio
+        assertEquals("unknown", resolver.resolve(request("10.0.0.5", "1.2.3.4, unknown")));
+    }
+
+    @Test
+    @DisplayName("Debe ignorar X-Forwarded-For si la conexión no viene de un proxy de confianza")
+    void testUntrustedRemoteAddress() {
+        ClientIpResolver resolver = resolver("10.0.0.0/8");
+
+        assertEquals("203.0.113.7", resolver.resolve(request("203.0.113.7", "10.0.0.9, 1.2.3.4")));
+    }
+}
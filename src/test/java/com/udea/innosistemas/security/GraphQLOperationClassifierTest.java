@@ -0,0 +1,135 @@
+package com.udea.innosistemas.security;
+
+import com.udea.innosistemas.security.GraphQLOperationClassifier.Kind;
+import com.udea.innosistemas.security.GraphQLOperationClassifier.OperationInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario para GraphQLOperationClassifier: clasificación sobre el documento parseado y caché LRU.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@DisplayName("GraphQLOperationClassifier - Clasificación de operaciones por AST")
+class GraphQLOperationClassifierTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private GraphQLOperationClassifier newClassifier(int maxEntries) {
+        GraphQLOperationClassifier classifier = new GraphQLOperationClassifier();
+        ReflectionTestUtils.setField(classifier, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(classifier, "maxEntries", maxEntries);
+        classifier.init();
+        return classifier;
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("estudiante@udea.edu.co", null, List.of()));
+    }
+
+    private double cacheCount(String result) {
+        return meterRegistry.get("innosistemas.graphql.operation.cache").tag("result", result).counter().count();
+    }
+
+    @Test
+    @DisplayName("Debe reconocer mutaciones públicas e introspección por sus campos raíz, no por el texto")
+    void testPublicOperations() {
+        GraphQLOperationClassifier classifier = newClassifier(10);
+
+        OperationInfo login = classifier.classify(
+                "mutation { auth: login(email: \"a@b.co\", password: \"x\") { accessToken } }", null);
+        assertEquals(Kind.MUTATION, login.kind());
+        assertEquals(Set.of("login"), login.rootFields());
+        assertTrue(login.isPublicAuthMutation());
+
+        // Un alias, un comentario o un campo anidado llamado "login" no vuelven pública la operación
+        assertFalse(classifier.classify("mutation { login: deleteUser(id: 1) }", null).isPublicAuthMutation());
+        assertFalse(classifier.classify("# login\nmutation { updateTeam(id: 1) { id } }", null).isPublicAuthMutation());
+        assertFalse(classifier.classify("mutation { login(email: \"a\", password: \"b\") { accessToken } "
+                + "deleteUser(id: 1) }", null).isPublicAuthMutation());
+
+        assertTrue(classifier.classify("query IntrospectionQuery { __schema { types { name } } }", null)
+                .isIntrospection());
+        assertFalse(classifier.classify("query { __schema { types { name } } getCurrentUser { id } }", null)
+                .isIntrospection());
+
+        assertEquals(Kind.INVALID, classifier.classify("mutation { login(", null).kind());
+    }
+
+    @Test
+    @DisplayName("Debe seleccionar la operación por nombre y expandir los fragmentos raíz")
+    void testOperationSelection() {
+        GraphQLOperationClassifier classifier = newClassifier(10);
+        String document = """
+                query Teams { ...root }
+                mutation Refresh { refreshToken(refreshToken: "t") { accessToken } }
+                fragment root on Query { getTeams { ...team members { ...team } } }
+                fragment team on Team { id name }
+                """;
+
+        OperationInfo teams = classifier.classify(document, "Teams");
+        assertEquals(Kind.QUERY, teams.kind());
+        assertEquals(Set.of("getTeams"), teams.rootFields());
+
+        assertTrue(classifier.classify(document, "Refresh").isPublicAuthMutation());
+        assertEquals(Kind.INVALID, classifier.classify(document, null).kind());
+        assertEquals(Kind.INVALID, classifier.classify(document, "Missing").kind());
+    }
+
+    @Test
+    @DisplayName("Debe parsear cada documento una sola vez y acotar la caché")
+    void testBoundedCache() {
+        authenticate();
+        GraphQLOperationClassifier classifier = newClassifier(2);
+
+        // Documentos iguales en instancias distintas, como llegan en cada petición
+        for (int i = 0; i < 5; i++) {
+            classifier.classify(new String("query { getCurrentUser { id } }"), null);
+        }
+        assertEquals(4.0, meterRegistry.get("innosistemas.graphql.operation.cache").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("innosistemas.graphql.operation.cache").tag("result", "miss").counter().count());
+
+        classifier.classify("query { a }", null);
+        classifier.classify("query { b }", null);
+        classifier.classify("query { c }", null);
+        assertEquals(2, classifier.size());
+    }
+
+    @Test
+    @DisplayName("No debe guardar documentos inválidos ni, sin autenticación, documentos que no son públicos")
+    void testCacheAdmission() {
+        GraphQLOperationClassifier classifier = newClassifier(10);
+
+        classifier.classify("query { getCurrentUser { id } }", null);
+        classifier.classify("query { getCurrentUser { id } }", null);
+        classifier.classify("mutation { login(email: \"a@b.co\", password: \"x\") { accessToken } }", null);
+        classifier.classify("mutation { login(email: \"a@b.co\", password: \"x\") { accessToken } }", null);
+        assertEquals(1, classifier.size());
+        assertEquals(1.0, cacheCount("hit"));
+
+        authenticate();
+        classifier.classify("query { getCurrentUser {", null);
+        assertEquals(Kind.INVALID, classifier.classify("query { getCurrentUser {", null).kind());
+        classifier.classify("query { getCurrentUser { id } }", null);
+        assertEquals(Kind.QUERY, classifier.classify("query { getCurrentUser { id } }", null).kind());
+        assertEquals(2, classifier.size());
+        assertEquals(2.0, cacheCount("hit"));
+    }
+}
@@ -0,0 +1,155 @@
+package com.udea.innosistemas.security;
+
+import com.udea.innosistemas.config.properties.JwtProperties;
+import com.udea.innosistemas.entity.User;
+import com.udea.innosistemas.entity.UserRole;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario para JwtKeyRing y su integración con JwtTokenProvider.
+ * Verifica el header kid, la rotación de claves y el contenido del JWKS.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@DisplayName("JwtKeyRing - Firma con kid y rotación de claves")
+class JwtKeyRingTest {
+
+    private static final String SECRET = "test-secret-key-for-testing-only-must-be-at-least-256-bits-long-for-hs384";
+    private static final String NEW_SECRET = "rotated-secret-key-for-testing-only-must-be-at-least-256-bits-long";
+
+    @Test
+    @DisplayName("Token firmado con el secreto anterior sigue siendo válido tras la rotación")
+    void hmacRotation_ShouldAcceptTokensSignedWithPreviousSecret() {
+        // Arrange
+        JwtTokenProvider before = provider(properties("HS256", SECRET));
+        String token = before.generateTokenFromUser(user("estudiante@udea.edu.co"));
+
+        JwtProperties rotated = properties("HS256", NEW_SECRET);
+        rotated.setPreviousSecrets(List.of(SECRET));
+
+        // Act
+        JwtTokenProvider after = provider(rotated);
+
+        // Assert
+        assertTrue(after.validateToken(token));
+        assertEquals("estudiante@udea.edu.co", after.getUsernameFromJWT(token));
+        assertFalse(provider(properties("HS256", NEW_SECRET)).validateToken(token));
+    }
+
+    @Test
+    @DisplayName("Con HS256 el JWKS no publica el secreto")
+    void hmac_ShouldNotPublishSecretInJwks() {
+        // Arrange & Act
+        JwtKeyRing keyRing = new JwtKeyRing(properties("HS256", SECRET));
+
+        // Assert
+        assertTrue(keyRing.getPublicJwks().isEmpty());
+        assertTrue(keyRing.getSigningKid().startsWith("hs-"));
+    }
+
+    @Test
+    @DisplayName("ES256 y EdDSA firman con kid y publican la clave pública")
+    void asymmetric_ShouldSignWithKidAndPublishPublicKey() {
+        for (String algorithm : List.of("ES256", "EdDSA")) {
+            // Arrange
+            JwtKeyRing keyRing = new JwtKeyRing(properties(algorithm, SECRET));
+            JwtTokenProvider provider = provider(keyRing);
+
+            // Act
+            String token = provider.generateTokenFromUser(user("profesor@udea.edu.co"));
+
+            // Assert
+            assertTrue(provider.validateToken(token));
+            assertNotNull(provider.getTokenId(token));
+            assertEquals(1, keyRing.getPublicJwks().size());
+            assertEquals(keyRing.getSigningKid(), keyRing.getPublicJwks().get(0).get("kid"));
+            assertNull(keyRing.getPublicJwks().get(0).get("d"));
+        }
+    }
+
+    @Test
+    @DisplayName("ES256 y EdDSA sin clave privada configurada fallan al arrancar si no se permiten claves efímeras")
+    void asymmetricWithoutPrivateKey_ShouldFailUnlessEphemeralAllowed() {
+        for (String algorithm : List.of("ES256", "EdDSA")) {
+            // Arrange
+            JwtProperties properties = properties(algorithm, SECRET);
+            properties.setAllowEphemeralKeys(false);
+            properties.setActiveKid("2025-01");
+
+            // Act & Assert
+            IllegalStateException error = assertThrows(IllegalStateException.class, () -> new JwtKeyRing(properties));
+            assertTrue(error.getMessage().contains("2025-01"));
+        }
+    }
+
+    @Test
+    @DisplayName("Con ES256 los tokens HMAC y sin kid se rechazan salvo que se habilite la verificación HMAC")
+    void asymmetric_ShouldRejectHmacTokensUnlessMigrating() {
+        // Arrange
+        String legacy = io.jsonwebtoken.Jwts.builder()
+                .subject("admin@udea.edu.co")
+                .signWith(io.jsonwebtoken.security.Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+        String hmacWithKid = provider(properties("HS256", SECRET)).generateTokenFromUser(user("admin@udea.edu.co"));
+        JwtProperties migrating = properties("ES256", SECRET);
+        migrating.setHmacVerification(true);
+
+        // Act
+        JwtTokenProvider provider = provider(properties("ES256", SECRET));
+        JwtTokenProvider migratingProvider = provider(migrating);
+
+        // Assert
+        assertFalse(provider.validateToken(legacy));
+        assertFalse(provider.validateToken(hmacWithKid));
+        assertTrue(migratingProvider.validateToken(legacy));
+        assertTrue(migratingProvider.validateToken(hmacWithKid));
+    }
+
+    @Test
+    @DisplayName("El secreto de ejemplo impide arrancar mientras la verificación HMAC esté habilitada")
+    void placeholderSecret_ShouldFailWhileHmacVerificationEnabled() {
+        // Arrange
+        String placeholder = "CHANGE_THIS_SECRET_KEY_IN_PRODUCTION_USE_ENVIRONMENT_VARIABLE";
+        JwtProperties migrating = properties("ES256", placeholder);
+        migrating.setHmacVerification(true);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> new JwtKeyRing(properties("HS256", placeholder)));
+        assertThrows(IllegalStateException.class, () -> new JwtKeyRing(migrating));
+        assertNotNull(new JwtKeyRing(properties("ES256", placeholder)).getSigningKey());
+    }
+
+    private static JwtProperties properties(String algorithm, String secret) {
+        JwtProperties properties = new JwtProperties();
+        properties.setAlgorithm(algorithm);
+        properties.setSecret(secret);
+        properties.setAllowEphemeralKeys(true);
+        return properties;
+    }
+
+    static User user(String email) {
+        User user = new User(email, "password", UserRole.STUDENT);
+        user.setId(1L);
+        return user;
+    }
+
+    private static JwtTokenProvider provider(JwtProperties properties) {
+        return provider(new JwtKeyRing(properties));
+    }
+
+    static JwtTokenProvider provider(JwtKeyRing keyRing) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "keyRing", keyRing);
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", 3600L);
+        ReflectionTestUtils.setField(provider, "refreshExpirationInMs", 86400L);
+        provider.init();
+        return provider;
+    }
+}
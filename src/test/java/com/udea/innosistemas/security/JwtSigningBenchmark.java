@@ -0,0 +1,55 @@
+package com.udea.innosistemas.security;
+
+import com.udea.innosistemas.config.properties.JwtProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/**
+ * Benchmark de throughput de firma y verificación de tokens para HS256, ES256 y Ed25519.
+ * No se ejecuta con la suite normal (Surefire solo incluye *Test); ejecutar con:
+ * {@code mvn test -Dtest=JwtSigningBenchmark}
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+class JwtSigningBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-must-be-at-least-256-bits-long-for-hmac";
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 5_000;
+
+    @Test
+    void signAndVerifyThroughput() {
+        System.out.printf("%-8s %14s %14s%n", "alg", "sign ops/s", "verify ops/s");
+        for (String algorithm : List.of("HS256", "ES256", "EdDSA")) {
+            JwtProperties properties = new JwtProperties();
+            properties.setAlgorithm(algorithm);
+            properties.setSecret(SECRET);
+            properties.setAllowEphemeralKeys(true);
+            JwtTokenProvider provider = JwtKeyRingTest.provider(new JwtKeyRing(properties));
+
+            String token = null;
+            for (int i = 0; i < WARMUP; i++) {
+                token = provider.generateTokenFromUser(JwtKeyRingTest.user("user" + i + "@udea.edu.co"));
+                provider.validateToken(token);
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                token = provider.generateTokenFromUser(JwtKeyRingTest.user("user" + i + "@udea.edu.co"));
+            }
+            double signOps = ITERATIONS / ((System.nanoTime() - start) / 1e9);
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                if (!provider.validateToken(token)) {
+                    throw new IllegalStateException("Verification failed for " + algorithm);
+                }
+            }
+            double verifyOps = ITERATIONS / ((System.nanoTime() - start) / 1e9);
+
+            System.out.printf("%-8s %14.0f %14.0f%n", algorithm, signOps, verifyOps);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.udea.innosistemas.security;
+
+import com.udea.innosistemas.exception.LoginThrottledException;
+import com.udea.innosistemas.service.RedisCircuitBreaker;
+import com.udea.innosistemas.store.InMemoryKeyValueStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test unitario para LoginAttemptGuard: bloqueo exponencial por email e IP, en memoria y con el estado
+ * compartido entre instancias en un almacén compartido.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@DisplayName("LoginAttemptGuard - Bloqueo exponencial de intentos fallidos")
+class LoginAttemptGuardTest {
+
+    private static final String EMAIL = "estudiante@udea.edu.co";
+    private static final String IP = "10.0.0.1";
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoginAttemptGuard guard;
+    private InMemoryKeyValueStore sharedStore;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        guard = newGuard();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (sharedStore != null) {
+            sharedStore.shutdown();
+        }
+    }
+
+    private LoginAttemptGuard newGuard() {
+        LoginAttemptGuard guard = new LoginAttemptGuard();
+        ReflectionTestUtils.setField(guard, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(guard, "enabled", true);
+        ReflectionTestUtils.setField(guard, "emailFreeAttempts", 3);
+        ReflectionTestUtils.setField(guard, "ipFreeAttempts", 5);
+        ReflectionTestUtils.setField(guard, "baseDelayMillis", 60_000L);
+        ReflectionTestUtils.setField(guard, "maxDelayMillis", 900_000L);
+        ReflectionTestUtils.setField(guard, "resetAfterMillis", 900_000L);
+        guard.init();
+        return guard;
+    }
+
+    // Instancia que comparte el almacén (como Redis) con las demás creadas por este método
+    @SuppressWarnings("unchecked")
+    private LoginAttemptGuard sharedGuard() {
+        if (sharedStore == null) {
+            sharedStore = new InMemoryKeyValueStore() {
+                @Override
+                public boolean isShared() {
+                    return true;
+                }
+            };
+            ReflectionTestUtils.setField(sharedStore, "meterRegistry", meterRegistry);
+            ReflectionTestUtils.setField(sharedStore, "stripeCount", 4);
+            ReflectionTestUtils.setField(sharedStore, "tickMillis", 100L);
+            sharedStore.init();
+        }
+        RedisCircuitBreaker circuitBreaker = mock(RedisCircuitBreaker.class);
+        when(circuitBreaker.execute(any(), any())).thenAnswer(invocation -> invocation.getArgument(0, Supplier.class).get());
+
+        LoginAttemptGuard shared = newGuard();
+        ReflectionTestUtils.setField(shared, "keyValueStore", sharedStore);
+        ReflectionTestUtils.setField(shared, "circuitBreaker", circuitBreaker);
+        return shared;
+    }
+
+    private int sharedFailures(String key) {
+        return (int) (Long.parseLong(sharedStore.get("login:guard:" + key)) >>> 48);
+    }
+
+    @Test
+    @DisplayName("Fallos por email - Debe permitir los intentos libres y luego bloquear con retraso creciente")
+    void recordFailure_WhenFreeAttemptsExceeded_ShouldBlockWithGrowingDelay() {
+        for (int i = 0; i < 3; i++) {
+            guard.check(EMAIL, IP);
+            guard.recordFailure(EMAIL, IP);
+        }
+        guard.check(EMAIL, IP);
+
+        guard.recordFailure(EMAIL, IP);
+        LoginThrottledException first = assertThrows(LoginThrottledException.class, () -> guard.check(EMAIL, IP));
+        guard.recordFailure(EMAIL, IP);
+        LoginThrottledException second = assertThrows(LoginThrottledException.class, () -> guard.check(EMAIL, IP));
+
+        assertTrue(first.getRetryAfterSeconds() >= 59 && first.getRetryAfterSeconds() <= 60);
+        assertTrue(second.getRetryAfterSeconds() >= 119 && second.getRetryAfterSeconds() <= 120);
+        assertEquals(2.0, meterRegistry.get("innosistemas.auth.login.guard")
+                .tag("outcome", "rejected").tag("scope", "email").counter().count());
+        assertEquals(2.0, meterRegistry.get("innosistemas.auth.login.guard")
+                .tag("outcome", "throttled").tag("scope", "email").counter().count());
+    }
+
+    @Test
+    @DisplayName("Fallos por IP con muchos emails - Debe bloquear la IP aunque cada email tenga pocos fallos")
+    void recordFailure_WhenManyEmailsFromSameIp_ShouldBlockIp() {
+        for (int i = 0; i < 6; i++) {
+            guard.recordFailure("usuario" + i + "@udea.edu.co", IP);
+        }
+
+        assertThrows(LoginThrottledException.class, () -> guard.check("otro@udea.edu.co", IP));
+        assertDoesNotThrow(() -> guard.check("otro@udea.edu.co", "10.0.0.2"));
+    }
+
+    @Test
+    @DisplayName("Login exitoso - Debe limpiar los fallos del email")
+    void recordSuccess_ShouldResetEmailFailures() {
+        for (int i = 0; i < 3; i++) {
+            guard.recordFailure(EMAIL, null);
+        }
+        guard.recordSuccess(EMAIL);
+        guard.recordFailure(EMAIL, null);
+
+        assertDoesNotThrow(() -> guard.check(EMAIL, null));
+    }
+
+    @Test
+    @DisplayName("Almacén compartido - Debe bloquear en una instancia los fallos registrados en otra")
+    void check_WhenFailuresRecordedOnAnotherInstance_ShouldBlock() {
+        LoginAttemptGuard first = sharedGuard();
+        LoginAttemptGuard second = sharedGuard();
+
+        for (int i = 0; i < 2; i++) {
+            first.recordFailure(EMAIL, null);
+            second.recordFailure(EMAIL, null);
+        }
+
+        assertThrows(LoginThrottledException.class, () -> first.check(EMAIL, null));
+        assertThrows(LoginThrottledException.class, () -> second.check(EMAIL, null));
+        assertEquals(4, sharedFailures("email:" + EMAIL));
+
+        first.recordSuccess(EMAIL);
+        assertDoesNotThrow(() -> second.check(EMAIL, null));
+    }
+
+    @Test
+    @DisplayName("Almacén compartido - No debe perder fallos registrados a la vez en varias instancias")
+    void recordFailure_WhenConcurrentOnSharedStore_ShouldCountEveryFailure() throws Exception {
+        List<LoginAttemptGuard> guards = List.of(sharedGuard(), sharedGuard(), sharedGuard());
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < 6; t++) {
+                LoginAttemptGuard instance = guards.get(t % guards.size());
+                tasks.add(executor.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        instance.recordFailure(EMAIL, IP);
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(300, sharedFailures("email:" + EMAIL));
+        assertEquals(300, sharedFailures("ip:" + IP));
+    }
+}
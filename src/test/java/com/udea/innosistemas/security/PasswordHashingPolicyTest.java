@@ -0,0 +1,60 @@
+package com.udea.innosistemas.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario para PasswordHashingPolicy: calibración del costo y detección de hashes a rehacer.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@DisplayName("PasswordHashingPolicy - Calibración y rehash")
+class PasswordHashingPolicyTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        policy = new PasswordHashingPolicy();
+        ReflectionTestUtils.setField(policy, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(policy, "targetMillis", 10_000L);
+        ReflectionTestUtils.setField(policy, "minStrength", 4);
+        ReflectionTestUtils.setField(policy, "maxStrength", 6);
+        ReflectionTestUtils.setField(policy, "importStrength", 4);
+        policy.calibrate();
+    }
+
+    @Test
+    @DisplayName("Calibración - Debe elegir el mayor costo dentro del presupuesto y exportarlo")
+    void calibrate_ShouldPickHighestStrengthWithinBudget() {
+        assertEquals(6, policy.getStrength());
+        assertTrue(policy.getMeasuredMillis() > 0);
+        assertEquals(6.0, meterRegistry.get("innosistemas.auth.password.hash.cost").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Encoder - Debe verificar hashes anteriores y marcarlos para rehacer")
+    void passwordEncoder_ShouldAcceptLegacyAndImportHashesAndRequestUpgrade() {
+        PasswordEncoder encoder = policy.createPasswordEncoder();
+        String legacy = new BCryptPasswordEncoder(4).encode("password123");
+        String imported = policy.encodeForImport("password123");
+        String current = encoder.encode("password123");
+
+        assertTrue(encoder.matches("password123", legacy));
+        assertTrue(encoder.matches("password123", imported));
+        assertTrue(encoder.upgradeEncoding(legacy), "Los hashes sin prefijo deben rehacerse");
+        assertTrue(encoder.upgradeEncoding(imported), "Los hashes de importación deben rehacerse");
+        assertTrue(current.startsWith("{bcrypt}$2a$06$"));
+        assertFalse(encoder.upgradeEncoding(current));
+    }
+}
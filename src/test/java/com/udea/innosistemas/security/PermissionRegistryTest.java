@@ -0,0 +1,63 @@
+package com.udea.innosistemas.security;
+
+import com.udea.innosistemas.entity.UserRole;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario para PermissionRegistry: permisos precalculados por rol y verificación por máscara.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@DisplayName("PermissionRegistry - Permisos por rol como máscaras de bits")
+class PermissionRegistryTest {
+
+    private final PermissionRegistry registry = new PermissionRegistry();
+
+    @Test
+    @DisplayName("Debe devolver la misma lista de permisos por rol que se informaba antes")
+    void testPermissionCodes() {
+        assertEquals(List.of("team:read", "course:read", "project:submit", "grade:view"),
+                registry.permissionCodes(UserRole.STUDENT));
+        assertEquals(List.of("user:read", "team:read", "course:read", "notification:send", "grade:view"),
+                registry.permissionCodes(UserRole.TA));
+        assertEquals(List.of("user:read", "team:read", "team:update", "course:create", "course:read",
+                        "course:update", "notification:send", "grade:assign"),
+                registry.permissionCodes(UserRole.PROFESSOR));
+        assertEquals(14, registry.permissionCodes(UserRole.ADMIN).size());
+        assertSame(registry.permissionCodes(UserRole.ADMIN), registry.permissionCodes(UserRole.ADMIN));
+    }
+
+    @Test
+    @DisplayName("Debe verificar permisos, incluidos los internos, sobre la máscara del rol")
+    void testHasPermission() {
+        assertTrue(registry.hasPermission(UserRole.PROFESSOR, Permission.TEAM_READ_ANY));
+        assertFalse(registry.hasPermission(UserRole.TA, Permission.TEAM_READ_ANY));
+        assertTrue(registry.hasPermission(UserRole.TA, Permission.TEAM_SUPERVISE));
+        assertFalse(registry.hasPermission(UserRole.STUDENT, Permission.NOTIFICATION_SEND));
+        assertFalse(registry.hasPermission((UserRole) null, Permission.TEAM_READ));
+        assertEquals(Permission.TEAM_UPDATE, Permission.fromCode("team:update").orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Debe obtener el rol de la autenticación sin consultar la base de datos")
+    void testRoleOfAuthentication() {
+        var professor = new UsernamePasswordAuthenticationToken("profesor@udea.edu.co", null,
+                AuthorityUtils.createAuthorityList("ROLE_PROFESSOR"));
+        var anonymous = new AnonymousAuthenticationToken("key", "anonymousUser",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+
+        assertEquals(UserRole.PROFESSOR, registry.roleOf(professor));
+        assertTrue(registry.hasPermission(professor, Permission.COURSE_READ_ANY));
+        assertNull(registry.roleOf(anonymous));
+        assertFalse(registry.hasPermission(anonymous, Permission.TEAM_READ));
+    }
+}
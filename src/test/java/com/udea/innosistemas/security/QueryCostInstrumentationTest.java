@@ -0,0 +1,139 @@
+package com.udea.innosistemas.security;
+
+import com.udea.innosistemas.config.properties.GraphQLLimitsProperties;
+import com.udea.innosistemas.entity.UserRole;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario para QueryCostInstrumentation: costo por campo con listas multiplicadas,
+ * presupuestos por rol y rechazo antes de ejecutar data fetchers.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@DisplayName("QueryCostInstrumentation - Límites de profundidad y costo por rol")
+class QueryCostInstrumentationTest {
+
+    private static final String SCHEMA = """
+            type Query {
+                teams(first: Int): [Team!]!
+            }
+            type Team {
+                id: ID!
+                members: [Member!]!
+            }
+            type Member {
+                name: String
+                team: Team
+            }
+            """;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger fetches = new AtomicInteger();
+    private GraphQL graphQL;
+
+    @BeforeEach
+    void setUp() {
+        GraphQLLimitsProperties limits = new GraphQLLimitsProperties();
+        limits.setDefaultListSize(10);
+        limits.setMaxListSize(50);
+        limits.setFieldCosts(Map.of("Team.members", 5));
+        limits.setAnonymous(new GraphQLLimitsProperties.Budget(3, 100));
+        limits.getRoles().put(UserRole.ADMIN, new GraphQLLimitsProperties.Budget(6, 1000));
+
+        QueryCostInstrumentation instrumentation = new QueryCostInstrumentation();
+        ReflectionTestUtils.setField(instrumentation, "limits", limits);
+        ReflectionTestUtils.setField(instrumentation, "permissionRegistry", new PermissionRegistry());
+        ReflectionTestUtils.setField(instrumentation, "meterRegistry", meterRegistry);
+        instrumentation.init();
+
+        Map<String, Object> member = Map.of("name", "Ana");
+        Map<String, Object> team = Map.of("id", "1", "members", List.of(member));
+        graphQL = GraphQL.newGraphQL(new SchemaGenerator().makeExecutableSchema(
+                        new SchemaParser().parse(SCHEMA),
+                        RuntimeWiring.newRuntimeWiring()
+                                .type("Query", type -> type.dataFetcher("teams", env -> {
+                                    fetches.incrementAndGet();
+                                    return List.of(team);
+                                }))
+                                .build()))
+                .instrumentation(instrumentation)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static Object reason(ExecutionResult result) {
+        return result.getErrors().get(0).getExtensions().get("reason");
+    }
+
+    @Test
+    @DisplayName("Debe multiplicar el costo de los campos anidados por el tamaño esperado de las listas")
+    void testCostAndHistogram() {
+        // teams(1) + 2 × [id(1) + members(5) + 10 × name(1)] = 33
+        ExecutionResult result = graphQL.execute("{ teams(first: 2) { id members { name } } }");
+        assertTrue(result.getErrors().isEmpty());
+        assertEquals(1, fetches.get());
+
+        // Sin first se usa el tamaño por defecto: 1 + 10 × (1 + 5 + 10) = 161 > 100
+        assertEquals("cost", reason(graphQL.execute("{ teams { id members { name } } }")));
+
+        // La introspección no consume presupuesto
+        assertTrue(graphQL.execute("{ __schema { types { name fields { name type { name ofType { name } } } } } }")
+                .getErrors().isEmpty());
+
+        assertEquals(33.0, meterRegistry.get("innosistemas.graphql.query.cost").tag("role", "anonymous")
+                .summary().max());
+        assertEquals(1.0, meterRegistry.get("innosistemas.graphql.query.rejected").tag("reason", "cost")
+                .counter().count());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar consultas demasiado profundas o costosas sin ejecutar ningún data fetcher")
+    void testRejectionBeforeExecution() {
+        ExecutionResult deep = graphQL.execute("{ teams(first: 1) { members { team { members { name } } } } }");
+        assertEquals("depth", reason(deep));
+        assertEquals("BAD_REQUEST", deep.getErrors().get(0).getErrorType().toString());
+        assertNull(deep.getData());
+
+        ExecutionResult wide = graphQL.execute("{ teams(first: 1000) { members { team { id } } } }");
+        assertEquals("cost", reason(wide));
+        assertEquals(0, fetches.get());
+    }
+
+    @Test
+    @DisplayName("Debe aplicar el presupuesto del rol del usuario autenticado")
+    void testRoleBudget() {
+        String query = "{ teams(first: 5) { members { team { members { name } } } } }";
+        assertEquals("depth", reason(graphQL.execute(query)));
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "admin@udea.edu.co", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+        // teams(1) + 5 × [members(5) + 10 × (team(1) + members(5) + 10 × name(1))] = 826
+        assertTrue(graphQL.execute(query).getErrors().isEmpty());
+        assertEquals(826.0, meterRegistry.get("innosistemas.graphql.query.cost").tag("role", "admin")
+                .summary().max());
+    }
+}
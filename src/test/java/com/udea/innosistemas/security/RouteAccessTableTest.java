@@ -0,0 +1,70 @@
+package com.udea.innosistemas.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario para RouteAccessTable: coincidencia más específica y verificación de roles por máscara.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@DisplayName("RouteAccessTable - Tabla compilada de autorización por ruta")
+class RouteAccessTableTest {
+
+    private static RouteAccessTable table() {
+        Map<String, Set<String>> rules = new LinkedHashMap<>();
+        rules.put("/api/v1/**", Set.of("ROLE_STUDENT", "ROLE_ADMIN"));
+        rules.put("/api/v1/admin/**", Set.of("ROLE_ADMIN"));
+        rules.put("/api/v1/admin/health", Set.of());
+        rules.put("/*/public", Set.of());
+        return new RouteAccessTable(rules);
+    }
+
+    @Test
+    @DisplayName("Debe aplicar la regla más específica sin importar el orden de registro")
+    void testMostSpecificMatch() {
+        RouteAccessTable table = table();
+
+        assertEquals("/api/v1/admin/**", table.match("/api/v1/admin/users/7").pattern().getPatternString());
+        assertFalse(table.match("/api/v1/admin/health").isRestricted());
+        assertEquals("/api/v1/**", table.match("/api/v1/teams/3").pattern().getPatternString());
+        assertFalse(table.match("/files/public").isRestricted());
+        assertNull(table.match("/other/path"));
+    }
+
+    @Test
+    @DisplayName("Debe verificar los roles como máscaras de bits")
+    void testRoleMasks() {
+        RouteAccessTable table = table();
+        RouteAccessTable.Route adminRoute = table.match("/api/v1/admin/users");
+
+        long student = table.roleMask(List.of(new SimpleGrantedAuthority("ROLE_STUDENT")));
+        long admin = table.roleMask(List.of(new SimpleGrantedAuthority("ROLE_ADMIN"),
+                new SimpleGrantedAuthority("ROLE_UNKNOWN")));
+
+        assertEquals(0, student & adminRoute.requiredMask());
+        assertNotEquals(0, admin & adminRoute.requiredMask());
+        assertEquals(0, table.roleMask(List.of(new SimpleGrantedAuthority("ROLE_UNKNOWN"))));
+    }
+
+    @Test
+    @DisplayName("Las reglas agregadas en ejecución deben publicarse en una tabla nueva")
+    void testRuleUpdatesSwapTable() {
+        RoleBasedAccessInterceptor.addAccessRule("/api/v1/reports/**", Set.of("ROLE_PROFESSOR"));
+        try {
+            assertEquals(Set.of("ROLE_PROFESSOR"), RoleBasedAccessInterceptor.getAllAccessRules().get("/api/v1/reports/**"));
+        } finally {
+            RoleBasedAccessInterceptor.removeAccessRule("/api/v1/reports/**");
+        }
+        assertFalse(RoleBasedAccessInterceptor.getAllAccessRules().containsKey("/api/v1/reports/**"));
+    }
+}
@@ -0,0 +1,95 @@
+package com.udea.innosistemas.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntSupplier;
+
+/**
+ * Benchmark del costo de autorización por petición: recorrido de patrones convertidos a regex en cada
+ * petición (implementación anterior) frente a la {@link RouteAccessTable} compilada con máscaras de roles.
+ * No se ejecuta con la suite normal (Surefire solo incluye *Test); ejecutar con:
+ * {@code mvn test -Dtest=RouteAuthorizationBenchmark}
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+class RouteAuthorizationBenchmark {
+
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+    private static final List<String> URIS = List.of(
+            "/api/v1/admin/users/42", "/api/v1/projects/7/files", "/api/v1/teams/3",
+            "/graphql", "/auth/login", "/api/v1/notifications/unread", "/actuator/metrics");
+    private static final List<GrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_STUDENT"));
+
+    @Test
+    void perRequestAuthorizationCost() {
+        Map<String, Set<String>> rules = new LinkedHashMap<>(RoleBasedAccessInterceptor.getAllAccessRules());
+        // Reglas adicionales para acercarse al tamaño de una tabla real
+        for (int i = 0; i < 20; i++) {
+            rules.put("/api/v1/module" + i + "/**", Set.of("ROLE_STUDENT", "ROLE_PROFESSOR"));
+        }
+        Map<String, Set<String>> legacyRules = new HashMap<>(rules);
+        RouteAccessTable table = new RouteAccessTable(rules);
+
+        System.out.printf("%-10s %14s %12s%n", "variante", "ns/petición", "permitidas");
+        measure("regex", () -> legacyAuthorize(legacyRules));
+        measure("tabla", () -> tableAuthorize(table));
+    }
+
+    private void measure(String name, IntSupplier iteration) {
+        for (int i = 0; i < WARMUP / URIS.size(); i++) {
+            iteration.getAsInt();
+        }
+        long allowed = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS / URIS.size(); i++) {
+            allowed += iteration.getAsInt();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-10s %14.1f %12d%n", name, (double) elapsed / ITERATIONS, allowed);
+    }
+
+    private int tableAuthorize(RouteAccessTable table) {
+        int allowed = 0;
+        long userMask = table.roleMask(AUTHORITIES);
+        for (String uri : URIS) {
+            RouteAccessTable.Route route = table.match(uri);
+            if (route == null || !route.isRestricted() || (userMask & route.requiredMask()) != 0) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+
+    // Implementación anterior: regex construida y compilada por patrón en cada petición
+    private int legacyAuthorize(Map<String, Set<String>> rules) {
+        int allowed = 0;
+        Set<String> userRoles = new HashSet<>();
+        for (GrantedAuthority authority : AUTHORITIES) {
+            userRoles.add(authority.getAuthority());
+        }
+        for (String uri : URIS) {
+            Set<String> required = Set.of();
+            for (Map.Entry<String, Set<String>> entry : rules.entrySet()) {
+                String regex = entry.getKey().replace("**", ".*").replace("*", "[^/]*").replace("?", ".");
+                if (uri.matches(regex)) {
+                    required = entry.getValue();
+                    break;
+                }
+            }
+            if (required.isEmpty() || userRoles.stream().anyMatch(required::contains)) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+}
@@ -0,0 +1,130 @@
+package com.udea.innosistemas.security.directive;
+
+import com.udea.innosistemas.entity.User;
+import com.udea.innosistemas.entity.UserRole;
+import com.udea.innosistemas.repository.UserRepository;
+import com.udea.innosistemas.security.GraphQLPrincipalResolver;
+import com.udea.innosistemas.security.PermissionRegistry;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test unitario para RequiresTeamDirective: una consulta con N campos @requiresTeam
+ * se autoriza con el principal de la petición, sin consultas adicionales de usuario.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RequiresTeamDirective - Autorización desde el principal de la petición")
+class RequiresTeamDirectiveTest {
+
+    private static final int FIELDS = 25;
+    private static final String SCHEMA = """
+            directive @requiresTeam on FIELD_DEFINITION
+            type Query {
+                teamName(teamId: ID!): String @requiresTeam
+            }
+            """;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private GraphQL graphQL;
+    private User student;
+
+    @BeforeEach
+    void setUp() {
+        GraphQLPrincipalResolver principalResolver = new GraphQLPrincipalResolver();
+        ReflectionTestUtils.setField(principalResolver, "userRepository", userRepository);
+        RequiresTeamDirective directive = new RequiresTeamDirective();
+        ReflectionTestUtils.setField(directive, "principalResolver", principalResolver);
+        ReflectionTestUtils.setField(directive, "permissionRegistry", new PermissionRegistry());
+
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", type -> type.dataFetcher("teamName", env -> "team-" + env.getArgument("teamId")))
+                .directive("requiresTeam", directive)
+                .build();
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(SCHEMA), wiring);
+        graphQL = GraphQL.newGraphQL(schema).build();
+
+        student = new User();
+        student.setId(1L);
+        student.setEmail("estudiante@udea.edu.co");
+        student.setRole(UserRole.STUDENT);
+        student.setTeamId(7L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("N campos @requiresTeam no deben ejecutar consultas de usuario")
+    void testNoUserQueriesWithLoadedPrincipal() {
+        authenticate(student);
+
+        ExecutionResult result = graphQL.execute(query(7));
+
+        assertTrue(result.getErrors().isEmpty(), () -> result.getErrors().toString());
+        verify(userRepository, never()).findByEmail(any());
+    }
+
+    @Test
+    @DisplayName("Sin usuario cargado, el principal se consulta una sola vez por operación")
+    void testSingleUserQueryPerOperation() {
+        authenticate(student.getEmail());
+        when(userRepository.findByEmail(student.getEmail())).thenReturn(Optional.of(student));
+
+        ExecutionResult result = graphQL.execute(query(7));
+
+        assertTrue(result.getErrors().isEmpty(), () -> result.getErrors().toString());
+        verify(userRepository, times(1)).findByEmail(student.getEmail());
+    }
+
+    @Test
+    @DisplayName("Debe denegar cada campo que pide un equipo ajeno")
+    void testForeignTeamDenied() {
+        authenticate(student);
+
+        ExecutionResult result = graphQL.execute(query(8));
+
+        assertEquals(FIELDS, result.getErrors().size());
+        verify(userRepository, never()).findByEmail(any());
+    }
+
+    private void authenticate(Object principal) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                principal, null, AuthorityUtils.createAuthorityList("ROLE_STUDENT")));
+    }
+
+    private static String query(long teamId) {
+        StringBuilder query = new StringBuilder("{");
+        for (int i = 0; i < FIELDS; i++) {
+            query.append(" t").append(i).append(": teamName(teamId: ").append(teamId).append(")");
+        }
+        return query.append(" }").toString();
+    }
+}
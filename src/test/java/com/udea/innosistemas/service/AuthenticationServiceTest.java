@@ -6,24 +6,40 @@ import com.udea.innosistemas.dto.LogoutResponse;
 import com.udea.innosistemas.entity.User;
 import com.udea.innosistemas.entity.UserRole;
 import com.udea.innosistemas.exception.AuthenticationException;
+import com.udea.innosistemas.exception.LoginThrottledException;
+import com.udea.innosistemas.exception.ServiceUnavailableException;
 import com.udea.innosistemas.repository.UserRepository;
 import com.udea.innosistemas.security.JwtTokenProvider;
+import com.udea.innosistemas.security.LoginAttemptGuard;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ClaimsBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.Date;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -55,6 +71,18 @@ class AuthenticationServiceTest {
     @Mock
     private SessionManagementService sessionManagementService;
 
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private LoginAttemptGuard loginAttemptGuard;
+
     @Mock
     private Authentication authentication;
 
@@ -87,6 +115,7 @@ class AuthenticationServiceTest {
         loginRequest = new LoginRequest("estudiante@udea.edu.co", "password123");
         testToken = "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9.test.token";
         testRefreshToken = "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9.refresh.token";
+        ReflectionTestUtils.setField(authenticationService, "ioExecutor", (Executor) Runnable::run);
     }
 
     // ==================== LOGIN TESTS ====================
@@ -96,14 +125,14 @@ class AuthenticationServiceTest {
     void login_WhenValidCredentials_ShouldReturnAuthResponse() {
         // Arrange
         when(userRepository.findByEmail(loginRequest.getEmail())).thenReturn(Optional.of(testUser));
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                .thenReturn(authentication);
-        when(tokenProvider.generateToken(authentication)).thenReturn(testToken);
-        when(tokenProvider.generateRefreshToken(authentication)).thenReturn(testRefreshToken);
-        when(sessionManagementService.registerSession(anyString(), anyString())).thenReturn(true);
+        when(passwordEncoder.matches(loginRequest.getPassword(), testUser.getPassword())).thenReturn(true);
+        when(tokenProvider.generateTokenPair(eq(testUser), anyString(), anyString(), any(Date.class)))
+                .thenReturn(new JwtTokenProvider.TokenPair(testToken, testRefreshToken));
+        when(sessionManagementService.registerSession(anyString(), anyString(), anyString(), anyLong())).thenReturn(true);
+        runPasswordHashingInline();
 
         // Act
-        AuthResponse response = authenticationService.login(loginRequest);
+        AuthResponse response = authenticationService.login(loginRequest).join();
 
         // Assert
         assertNotNull(response, "La respuesta de autenticación no debe ser null");
@@ -114,11 +143,36 @@ class AuthenticationServiceTest {
         assertEquals(testUser.getRole(), response.getUserInfo().getRole(), "El role debe coincidir");
         assertEquals(testUser.getId(), response.getUserInfo().getId(), "El ID debe coincidir");
 
-        verify(userRepository).findByEmail(loginRequest.getEmail());
-        verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(tokenProvider).generateToken(authentication);
-        verify(tokenProvider).generateRefreshToken(authentication);
-        verify(sessionManagementService).registerSession(eq(testUser.getEmail()), anyString());
+        // El usuario se carga una sola vez y no se pasa por el AuthenticationManager
+        verify(userRepository, times(1)).findByEmail(loginRequest.getEmail());
+        verify(passwordHashingService).submit(any());
+        verify(passwordEncoder).matches(loginRequest.getPassword(), testUser.getPassword());
+        verifyNoInteractions(authenticationManager);
+        verify(tokenProvider).generateTokenPair(eq(testUser), anyString(), anyString(), any(Date.class));
+        verify(sessionManagementService).registerSession(eq(testUser.getEmail()), anyString(), anyString(), anyLong());
+        assertEquals(1, meterRegistry.get("innosistemas.auth.login.phase").tag("phase", "hash").timer().count());
+    }
+
+    @Test
+    @DisplayName("Login con hash desactualizado - Debe rehacer el hash con la política vigente")
+    void login_WhenHashNeedsUpgrade_ShouldRehashPassword() {
+        // Arrange
+        String legacyHash = testUser.getPassword();
+        when(userRepository.findByEmail(loginRequest.getEmail())).thenReturn(Optional.of(testUser));
+        when(passwordEncoder.matches(loginRequest.getPassword(), legacyHash)).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding(legacyHash)).thenReturn(true);
+        when(passwordEncoder.encode(loginRequest.getPassword())).thenReturn("{bcrypt}$2a$12$upgradedHash");
+        when(tokenProvider.generateTokenPair(eq(testUser), anyString(), anyString(), any(Date.class)))
+                .thenReturn(new JwtTokenProvider.TokenPair(testToken, testRefreshToken));
+        runPasswordHashingInline();
+
+        // Act
+        AuthResponse response = authenticationService.login(loginRequest).join();
+
+        // Assert
+        assertEquals(testToken, response.getToken());
+        verify(userRepository).updatePassword(testUser.getId(), "{bcrypt}$2a$12$upgradedHash");
+        assertEquals("{bcrypt}$2a$12$upgradedHash", testUser.getPassword());
     }
 
     @Test
@@ -126,19 +180,36 @@ class AuthenticationServiceTest {
     void login_WhenInvalidCredentials_ShouldThrowAuthenticationException() {
         // Arrange
         when(userRepository.findByEmail(loginRequest.getEmail())).thenReturn(Optional.of(testUser));
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                .thenThrow(new BadCredentialsException("Invalid credentials"));
+        when(passwordEncoder.matches(loginRequest.getPassword(), testUser.getPassword())).thenReturn(false);
+        runPasswordHashingInline();
 
         // Act & Assert
-        AuthenticationException exception = assertThrows(AuthenticationException.class, () -> {
-            authenticationService.login(loginRequest);
-        });
+        Throwable exception = loginFailure();
 
+        assertInstanceOf(AuthenticationException.class, exception);
         assertEquals("Credenciales inválidas", exception.getMessage());
         verify(userRepository).findByEmail(loginRequest.getEmail());
-        verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(tokenProvider, never()).generateToken(any());
-        verify(sessionManagementService, never()).registerSession(anyString(), anyString());
+        verify(passwordEncoder).matches(loginRequest.getPassword(), testUser.getPassword());
+        verify(tokenProvider, never()).generateTokenPair(any(), anyString(), anyString(), any());
+        verify(loginAttemptGuard).recordFailure(loginRequest.getEmail(), null);
+        verify(sessionManagementService, never()).registerSession(anyString(), anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Login bloqueado por intentos fallidos - Debe rechazar antes de consultar la BD y calcular el hash")
+    void login_WhenGuardBlocksAttempt_ShouldRejectBeforeHashing() {
+        // Arrange
+        doThrow(new LoginThrottledException("Demasiados intentos fallidos", 30))
+                .when(loginAttemptGuard).check(loginRequest.getEmail(), "10.0.0.1");
+
+        // Act
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> authenticationService.login(loginRequest, "10.0.0.1").join());
+
+        // Assert
+        assertInstanceOf(LoginThrottledException.class, exception.getCause());
+        verifyNoInteractions(userRepository, passwordHashingService, passwordEncoder);
+        verify(loginAttemptGuard, never()).recordFailure(anyString(), anyString());
     }
 
     @Test
@@ -148,13 +219,12 @@ class AuthenticationServiceTest {
         when(userRepository.findByEmail(loginRequest.getEmail())).thenReturn(Optional.empty());
 
         // Act & Assert
-        AuthenticationException exception = assertThrows(AuthenticationException.class, () -> {
-            authenticationService.login(loginRequest);
-        });
+        Throwable exception = loginFailure();
 
+        assertInstanceOf(AuthenticationException.class, exception);
         assertEquals("Usuario no encontrado", exception.getMessage());
         verify(userRepository).findByEmail(loginRequest.getEmail());
-        verify(authenticationManager, never()).authenticate(any());
+        verify(passwordHashingService, never()).submit(any());
     }
 
     @Test
@@ -162,18 +232,34 @@ class AuthenticationServiceTest {
     void login_WhenUnexpectedException_ShouldThrowAuthenticationException() {
         // Arrange
         when(userRepository.findByEmail(loginRequest.getEmail())).thenReturn(Optional.of(testUser));
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+        when(passwordEncoder.matches(loginRequest.getPassword(), testUser.getPassword()))
                 .thenThrow(new RuntimeException("Database error"));
+        runPasswordHashingInline();
 
         // Act & Assert
-        AuthenticationException exception = assertThrows(AuthenticationException.class, () -> {
-            authenticationService.login(loginRequest);
-        });
+        Throwable exception = loginFailure();
 
+        assertInstanceOf(AuthenticationException.class, exception);
         assertEquals("Error durante la autenticación", exception.getMessage());
         verify(userRepository).findByEmail(loginRequest.getEmail());
     }
 
+    @Test
+    @DisplayName("Login con pool de hashing saturado - Debe rechazar con ServiceUnavailableException sin verificar la contraseña")
+    void login_WhenHashingPoolSaturated_ShouldFailWithServiceUnavailable() {
+        // Arrange
+        when(userRepository.findByEmail(loginRequest.getEmail())).thenReturn(Optional.of(testUser));
+        when(passwordHashingService.submit(any()))
+                .thenReturn(CompletableFuture.failedFuture(new ServiceUnavailableException("Servicio saturado")));
+
+        // Act & Assert
+        Throwable exception = loginFailure();
+
+        assertInstanceOf(ServiceUnavailableException.class, exception);
+        verify(passwordEncoder, never()).matches(any(), any());
+        verify(sessionManagementService, never()).registerSession(anyString(), anyString(), anyString(), anyLong());
+    }
+
     // ==================== VALIDATE CREDENTIALS TESTS ====================
 
     @Test
@@ -213,23 +299,21 @@ class AuthenticationServiceTest {
     // ==================== REFRESH TOKEN TESTS ====================
 
     @Test
-    @DisplayName("Refresh token exitoso - Debe retornar nuevos tokens")
+    @DisplayName("Refresh token exitoso - Debe rotar la familia y retornar nuevos tokens")
     void refreshToken_WhenValidRefreshToken_ShouldReturnNewTokens() {
         // Arrange
         String newAccessToken = "new.access.token";
         String newRefreshToken = "new.refresh.token";
-        Date expirationDate = new Date(System.currentTimeMillis() + 86400000);
+        long familyExpiresAt = System.currentTimeMillis() + 604800000L;
 
-        when(tokenBlacklistService.isTokenBlacklisted(testRefreshToken)).thenReturn(false);
-        when(tokenProvider.validateToken(testRefreshToken)).thenReturn(true);
-        when(tokenProvider.isRefreshToken(testRefreshToken)).thenReturn(true);
-        when(tokenProvider.getUsernameFromJWT(testRefreshToken)).thenReturn(testUser.getEmail());
+        when(tokenProvider.parseClaims(testRefreshToken)).thenReturn(refreshClaims("refresh", "family-1"));
+        when(sessionManagementService.rotateRefreshToken(eq(testUser.getEmail()), eq("family-1"), eq("jti-1"), anyString()))
+                .thenReturn(new SessionManagementService.RefreshRotation(
+                        SessionManagementService.RotationStatus.ROTATED, familyExpiresAt));
         when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
-        when(sessionManagementService.hasActiveSessions(testUser.getEmail())).thenReturn(true);
-        when(tokenProvider.generateTokenFromUser(testUser)).thenReturn(newAccessToken);
-        when(tokenProvider.generateRefreshTokenFromUser(testUser)).thenReturn(newRefreshToken);
-        when(tokenProvider.getExpirationDateFromJWT(testRefreshToken)).thenReturn(expirationDate);
-        doNothing().when(tokenBlacklistService).blacklistToken(testRefreshToken, expirationDate);
+        when(tokenProvider.generateTokenFromUser(testUser, "family-1")).thenReturn(newAccessToken);
+        when(tokenProvider.generateRefreshTokenFromUser(eq(testUser), eq("family-1"), anyString(), eq(new Date(familyExpiresAt))))
+                .thenReturn(newRefreshToken);
 
         // Act
         AuthResponse response = authenticationService.refreshToken(testRefreshToken);
@@ -241,22 +325,24 @@ class AuthenticationServiceTest {
         assertNotNull(response.getUserInfo(), "UserInfo no debe ser null");
         assertEquals(testUser.getEmail(), response.getUserInfo().getEmail(), "El email debe coincidir");
 
-        verify(tokenBlacklistService).isTokenBlacklisted(testRefreshToken);
-        verify(tokenProvider).validateToken(testRefreshToken);
-        verify(tokenProvider).isRefreshToken(testRefreshToken);
-        verify(tokenProvider).getUsernameFromJWT(testRefreshToken);
+        verify(tokenProvider).parseClaims(testRefreshToken);
+        verify(sessionManagementService).rotateRefreshToken(eq(testUser.getEmail()), eq("family-1"), eq("jti-1"), anyString());
         verify(userRepository).findByEmail(testUser.getEmail());
-        verify(sessionManagementService).hasActiveSessions(testUser.getEmail());
-        verify(tokenProvider).generateTokenFromUser(testUser);
-        verify(tokenProvider).generateRefreshTokenFromUser(testUser);
-        verify(tokenBlacklistService).blacklistToken(testRefreshToken, expirationDate);
+        verify(tokenProvider).generateTokenFromUser(testUser, "family-1");
+        verify(tokenProvider, never()).validateToken(any());
+        verifyNoInteractions(tokenBlacklistService);
     }
 
     @Test
-    @DisplayName("Refresh token en blacklist - Debe lanzar AuthenticationException")
-    void refreshToken_WhenTokenBlacklisted_ShouldThrowAuthenticationException() {
+    @DisplayName("Refresh token reutilizado - Debe revocar la familia y sus access tokens y lanzar AuthenticationException")
+    void refreshToken_WhenTokenReused_ShouldThrowAuthenticationException() {
         // Arrange
-        when(tokenBlacklistService.isTokenBlacklisted(testRefreshToken)).thenReturn(true);
+        when(tokenProvider.parseClaims(testRefreshToken)).thenReturn(refreshClaims("refresh", "family-1"));
+        when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
+        when(tokenProvider.getExpirationMillis()).thenReturn(3600000L);
+        when(sessionManagementService.rotateRefreshToken(eq(testUser.getEmail()), eq("family-1"), eq("jti-1"), anyString()))
+                .thenReturn(new SessionManagementService.RefreshRotation(
+                        SessionManagementService.RotationStatus.REUSED, 0));
 
         // Act & Assert
         AuthenticationException exception = assertThrows(AuthenticationException.class, () -> {
@@ -264,16 +350,47 @@ class AuthenticationServiceTest {
         });
 
         assertEquals("Token inválido o revocado", exception.getMessage());
-        verify(tokenBlacklistService).isTokenBlacklisted(testRefreshToken);
-        verify(tokenProvider, never()).validateToken(any());
+        verify(tokenBlacklistService).revokeFamily(eq("family-1"), any(Date.class));
+        verify(tokenProvider, never()).generateTokenFromUser(any(), anyString());
+    }
+
+    @Test
+    @DisplayName("Refresh token de una cuenta deshabilitada - Debe rechazar sin rotar la familia")
+    void refreshToken_WhenAccountDisabled_ShouldNotRotateFamily() {
+        // Arrange
+        testUser.setEnabled(false);
+        when(tokenProvider.parseClaims(testRefreshToken)).thenReturn(refreshClaims("refresh", "family-1"));
+        when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
+
+        // Act & Assert
+        AuthenticationException exception = assertThrows(AuthenticationException.class, () -> {
+            authenticationService.refreshToken(testRefreshToken);
+        });
+
+        assertEquals("Cuenta deshabilitada o bloqueada", exception.getMessage());
+        verify(sessionManagementService, never()).rotateRefreshToken(anyString(), anyString(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Refresh token sin familia (emitido antes de la rotación) - Debe lanzar AuthenticationException")
+    void refreshToken_WhenTokenHasNoFamily_ShouldThrowAuthenticationException() {
+        // Arrange
+        when(tokenProvider.parseClaims(testRefreshToken)).thenReturn(refreshClaims("refresh", null));
+
+        // Act & Assert
+        AuthenticationException exception = assertThrows(AuthenticationException.class, () -> {
+            authenticationService.refreshToken(testRefreshToken);
+        });
+
+        assertEquals("Token inválido o revocado", exception.getMessage());
+        verify(sessionManagementService, never()).rotateRefreshToken(anyString(), anyString(), anyString(), anyString());
     }
 
     @Test
     @DisplayName("Refresh token inválido - Debe lanzar AuthenticationException")
     void refreshToken_WhenInvalidToken_ShouldThrowAuthenticationException() {
         // Arrange
-        when(tokenBlacklistService.isTokenBlacklisted(testRefreshToken)).thenReturn(false);
-        when(tokenProvider.validateToken(testRefreshToken)).thenReturn(false);
+        when(tokenProvider.parseClaims(testRefreshToken)).thenThrow(new MalformedJwtException("Invalid token"));
 
         // Act & Assert
         AuthenticationException exception = assertThrows(AuthenticationException.class, () -> {
@@ -281,17 +398,15 @@ class AuthenticationServiceTest {
         });
 
         assertEquals("Token inválido", exception.getMessage());
-        verify(tokenBlacklistService).isTokenBlacklisted(testRefreshToken);
-        verify(tokenProvider).validateToken(testRefreshToken);
+        verify(tokenProvider).parseClaims(testRefreshToken);
+        verify(sessionManagementService, never()).rotateRefreshToken(anyString(), anyString(), anyString(), anyString());
     }
 
     @Test
     @DisplayName("Refresh token con tipo incorrecto - Debe lanzar AuthenticationException")
     void refreshToken_WhenNotRefreshTokenType_ShouldThrowAuthenticationException() {
         // Arrange
-        when(tokenBlacklistService.isTokenBlacklisted(testRefreshToken)).thenReturn(false);
-        when(tokenProvider.validateToken(testRefreshToken)).thenReturn(true);
-        when(tokenProvider.isRefreshToken(testRefreshToken)).thenReturn(false);
+        when(tokenProvider.parseClaims(testRefreshToken)).thenReturn(refreshClaims(null, "family-1"));
 
         // Act & Assert
         AuthenticationException exception = assertThrows(AuthenticationException.class, () -> {
@@ -299,17 +414,14 @@ class AuthenticationServiceTest {
         });
 
         assertEquals("Token no es un refresh token", exception.getMessage());
-        verify(tokenProvider).isRefreshToken(testRefreshToken);
+        verify(tokenProvider).parseClaims(testRefreshToken);
     }
 
     @Test
     @DisplayName("Refresh token con usuario no encontrado - Debe lanzar AuthenticationException")
     void refreshToken_WhenUserNotFound_ShouldThrowAuthenticationException() {
         // Arrange
-        when(tokenBlacklistService.isTokenBlacklisted(testRefreshToken)).thenReturn(false);
-        when(tokenProvider.validateToken(testRefreshToken)).thenReturn(true);
-        when(tokenProvider.isRefreshToken(testRefreshToken)).thenReturn(true);
-        when(tokenProvider.getUsernameFromJWT(testRefreshToken)).thenReturn(testUser.getEmail());
+        when(tokenProvider.parseClaims(testRefreshToken)).thenReturn(refreshClaims("refresh", "family-1"));
         when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.empty());
 
         // Act & Assert
@@ -319,18 +431,18 @@ class AuthenticationServiceTest {
 
         assertEquals("Usuario no encontrado", exception.getMessage());
         verify(userRepository).findByEmail(testUser.getEmail());
+        verify(sessionManagementService, never()).rotateRefreshToken(anyString(), anyString(), anyString(), anyString());
     }
 
     @Test
     @DisplayName("Refresh token sin sesiones activas - Debe lanzar AuthenticationException")
     void refreshToken_WhenNoActiveSessions_ShouldThrowAuthenticationException() {
         // Arrange
-        when(tokenBlacklistService.isTokenBlacklisted(testRefreshToken)).thenReturn(false);
-        when(tokenProvider.validateToken(testRefreshToken)).thenReturn(true);
-        when(tokenProvider.isRefreshToken(testRefreshToken)).thenReturn(true);
-        when(tokenProvider.getUsernameFromJWT(testRefreshToken)).thenReturn(testUser.getEmail());
+        when(tokenProvider.parseClaims(testRefreshToken)).thenReturn(refreshClaims("refresh", "family-1"));
         when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
-        when(sessionManagementService.hasActiveSessions(testUser.getEmail())).thenReturn(false);
+        when(sessionManagementService.rotateRefreshToken(eq(testUser.getEmail()), eq("family-1"), eq("jti-1"), anyString()))
+                .thenReturn(new SessionManagementService.RefreshRotation(
+                        SessionManagementService.RotationStatus.UNKNOWN_FAMILY, 0));
 
         // Act & Assert
         AuthenticationException exception = assertThrows(AuthenticationException.class, () -> {
@@ -338,7 +450,7 @@ class AuthenticationServiceTest {
         });
 
         assertEquals("No hay sesiones activas", exception.getMessage());
-        verify(sessionManagementService).hasActiveSessions(testUser.getEmail());
+        verify(sessionManagementService).rotateRefreshToken(eq(testUser.getEmail()), eq("family-1"), eq("jti-1"), anyString());
     }
 
     // ==================== LOGOUT TESTS ====================
@@ -475,21 +587,20 @@ class AuthenticationServiceTest {
 
         // Setup para login
         when(userRepository.findByEmail(loginRequest.getEmail())).thenReturn(Optional.of(testUser));
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                .thenReturn(authentication);
-        when(tokenProvider.generateToken(authentication)).thenReturn(testToken);
-        when(tokenProvider.generateRefreshToken(authentication)).thenReturn(testRefreshToken);
-        when(sessionManagementService.registerSession(anyString(), anyString())).thenReturn(true);
+        when(passwordEncoder.matches(loginRequest.getPassword(), testUser.getPassword())).thenReturn(true);
+        when(tokenProvider.generateTokenPair(eq(testUser), anyString(), anyString(), any(Date.class)))
+                .thenReturn(new JwtTokenProvider.TokenPair(testToken, testRefreshToken));
+        when(sessionManagementService.registerSession(anyString(), anyString(), anyString(), anyLong())).thenReturn(true);
+        runPasswordHashingInline();
 
         // Setup para refresh token
-        when(tokenBlacklistService.isTokenBlacklisted(testRefreshToken)).thenReturn(false);
-        when(tokenProvider.validateToken(testRefreshToken)).thenReturn(true);
-        when(tokenProvider.isRefreshToken(testRefreshToken)).thenReturn(true);
-        when(tokenProvider.getUsernameFromJWT(testRefreshToken)).thenReturn(testUser.getEmail());
-        when(sessionManagementService.hasActiveSessions(testUser.getEmail())).thenReturn(true);
-        when(tokenProvider.generateTokenFromUser(testUser)).thenReturn(newAccessToken);
-        when(tokenProvider.generateRefreshTokenFromUser(testUser)).thenReturn(newRefreshToken);
-        when(tokenProvider.getExpirationDateFromJWT(testRefreshToken)).thenReturn(expirationDate);
+        when(tokenProvider.parseClaims(testRefreshToken)).thenReturn(refreshClaims("refresh", "family-1"));
+        when(sessionManagementService.rotateRefreshToken(eq(testUser.getEmail()), eq("family-1"), eq("jti-1"), anyString()))
+                .thenReturn(new SessionManagementService.RefreshRotation(
+                        SessionManagementService.RotationStatus.ROTATED, expirationDate.getTime()));
+        when(tokenProvider.generateTokenFromUser(testUser, "family-1")).thenReturn(newAccessToken);
+        when(tokenProvider.generateRefreshTokenFromUser(eq(testUser), eq("family-1"), anyString(), eq(expirationDate)))
+                .thenReturn(newRefreshToken);
 
         // Setup para logout
         when(tokenProvider.validateToken(newAccessToken)).thenReturn(true);
@@ -499,7 +610,7 @@ class AuthenticationServiceTest {
 
         // Act
         // 1. Login
-        AuthResponse loginResponse = authenticationService.login(loginRequest);
+        AuthResponse loginResponse = authenticationService.login(loginRequest).join();
 
         // 2. Refresh Token
         AuthResponse refreshResponse = authenticationService.refreshToken(testRefreshToken);
@@ -522,11 +633,37 @@ class AuthenticationServiceTest {
 
         // Verificar interacciones
         verify(userRepository, times(2)).findByEmail(testUser.getEmail());
-        verify(sessionManagementService).registerSession(anyString(), anyString());
-        verify(sessionManagementService).hasActiveSessions(testUser.getEmail());
+        verify(sessionManagementService).registerSession(anyString(), anyString(), anyString(), anyLong());
+        verify(sessionManagementService).rotateRefreshToken(eq(testUser.getEmail()), eq("family-1"), eq("jti-1"), anyString());
         verify(sessionManagementService).invalidateAllUserSessions(testUser.getEmail());
-        verify(tokenBlacklistService).blacklistToken(eq(testRefreshToken), any());
         verify(tokenBlacklistService).blacklistToken(eq(newAccessToken), any());
     }
-}
 
+    /**
+     * Ejecuta en el mismo hilo las tareas enviadas al pool de hashing
+     */
+    @SuppressWarnings("unchecked")
+    private void runPasswordHashingInline() {
+        when(passwordHashingService.submit(any())).thenAnswer(invocation ->
+                CompletableFuture.supplyAsync(invocation.getArgument(0, Supplier.class), Runnable::run));
+    }
+
+    private Throwable loginFailure() {
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> authenticationService.login(loginRequest).join());
+        return exception.getCause();
+    }
+
+    private Claims refreshClaims(String type, String familyId) {
+        ClaimsBuilder builder = Jwts.claims()
+                .subject(testUser.getEmail())
+                .id("jti-1");
+        if (type != null) {
+            builder.add("type", type);
+        }
+        if (familyId != null) {
+            builder.add("fid", familyId);
+        }
+        return builder.build();
+    }
+}
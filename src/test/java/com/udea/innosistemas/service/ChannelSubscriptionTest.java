@@ -0,0 +1,179 @@
+package com.udea.innosistemas.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udea.innosistemas.entity.Team;
+import com.udea.innosistemas.security.JwtTokenProvider;
+import com.udea.innosistemas.store.InMemoryKeyValueStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test unitario de la suscripción por servicio sobre el contenedor de listeners compartido: el caché de
+ * equipos y la blacklist de tokens se suscriben cada uno a su canal, en cualquier orden, y la pérdida de
+ * un canal no afecta al otro.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@DisplayName("ChannelSubscription - Suscripciones de varios servicios en un solo contenedor")
+class ChannelSubscriptionTest {
+
+    private static final long TEAM_ID = 7L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // Listeners registrados en el contenedor por canal
+    private final Map<String, MessageListener> channels = new HashMap<>();
+    private InMemoryKeyValueStore store;
+    private RedisMessageListenerContainer container;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        store = new InMemoryKeyValueStore() {
+            @Override
+            public boolean isShared() {
+                return true;
+            }
+        };
+        ReflectionTestUtils.setField(store, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(store, "stripeCount", 4);
+        ReflectionTestUtils.setField(store, "tickMillis", 100L);
+        store.init();
+
+        // Contenedor compartido: escucha en cuanto tiene un listener y confirma cada canal al registrarlo
+        container = mock(RedisMessageListenerContainer.class);
+        when(container.isListening()).thenAnswer(invocation -> !channels.isEmpty());
+        doAnswer(invocation -> {
+            MessageListener listener = invocation.getArgument(0);
+            String channel = ((Topic) invocation.getArgument(1)).getTopic();
+            channels.put(channel, listener);
+            ((SubscriptionListener) listener).onChannelSubscribed(channel.getBytes(StandardCharsets.UTF_8), channels.size());
+            return null;
+        }).when(container).addMessageListener(any(MessageListener.class), any(Topic.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    @SuppressWarnings("unchecked")
+    private TokenBlacklistService blacklist() {
+        RedisCircuitBreaker circuitBreaker = mock(RedisCircuitBreaker.class);
+        when(circuitBreaker.execute(any(), any())).thenAnswer(invocation -> invocation.getArgument(0, Supplier.class).get());
+
+        TokenBlacklistService blacklist = new TokenBlacklistService();
+        ReflectionTestUtils.setField(blacklist, "keyValueStore", store);
+        ReflectionTestUtils.setField(blacklist, "listenerContainer", container);
+        ReflectionTestUtils.setField(blacklist, "redisPipelineService", mock(RedisPipelineService.class));
+        ReflectionTestUtils.setField(blacklist, "circuitBreaker", circuitBreaker);
+        ReflectionTestUtils.setField(blacklist, "tokenProvider", mock(JwtTokenProvider.class));
+        ReflectionTestUtils.setField(blacklist, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(blacklist, "filterExpectedInsertions", 1000L);
+        ReflectionTestUtils.setField(blacklist, "filterFalsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(blacklist, "shadowMaxEntries", 100);
+        blacklist.init();
+        return blacklist;
+    }
+
+    private TeamCacheService teamCache() {
+        TeamCacheService cache = new TeamCacheService();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "localMaxEntries", 100);
+        ReflectionTestUtils.setField(cache, "localTtlMs", 60_000L);
+        ReflectionTestUtils.setField(cache, "sharedEnabled", true);
+        ReflectionTestUtils.setField(cache, "sharedTtlMs", 60_000L);
+        ReflectionTestUtils.setField(cache, "keyValueStore", store);
+        ReflectionTestUtils.setField(cache, "listenerContainer", container);
+        ReflectionTestUtils.setField(cache, "redisPipelineService", mock(RedisPipelineService.class));
+        ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(cache, "meterRegistry", meterRegistry);
+        cache.init();
+        return cache;
+    }
+
+    private static Optional<Team> loadTeam() {
+        Team team = new Team("Equipo", "Descripción", null);
+        team.setId(TEAM_ID);
+        team.setCourseId(3L);
+        return Optional.of(team);
+    }
+
+    private double localHits() {
+        return meterRegistry.get("innosistemas.team.cache").tag("result", "local").counter().count();
+    }
+
+    private static boolean filterReady(TokenBlacklistService blacklist) {
+        return (boolean) ReflectionTestUtils.getField(blacklist, "filterReady");
+    }
+
+    @Test
+    @DisplayName("El caché de equipos debe suscribirse aunque la blacklist ya tenga el contenedor escuchando")
+    void testTeamCacheSubscribesAfterBlacklist() {
+        TokenBlacklistService blacklist = blacklist();
+        blacklist.rebuildRevokedFilter();
+        assertTrue(container.isListening());
+
+        TeamCacheService cache = teamCache();
+        cache.team(TEAM_ID, ChannelSubscriptionTest::loadTeam);
+        cache.team(TEAM_ID, ChannelSubscriptionTest::loadTeam);
+
+        assertTrue(channels.containsKey(TeamCacheService.INVALIDATION_CHANNEL));
+        assertTrue(channels.containsKey(TokenBlacklistService.REVOCATION_CHANNEL));
+        assertEquals(1.0, localHits());
+        assertTrue(filterReady(blacklist));
+    }
+
+    @Test
+    @DisplayName("La blacklist debe suscribirse a su canal aunque el caché de equipos ya tenga el contenedor escuchando")
+    void testBlacklistSubscribesAfterTeamCache() {
+        TeamCacheService cache = teamCache();
+        cache.team(TEAM_ID, ChannelSubscriptionTest::loadTeam);
+        assertTrue(container.isListening());
+
+        TokenBlacklistService blacklist = blacklist();
+        blacklist.rebuildRevokedFilter();
+
+        verify(container).addMessageListener(any(MessageListener.class),
+                eq(new ChannelTopic(TokenBlacklistService.REVOCATION_CHANNEL)));
+        assertTrue(filterReady(blacklist));
+        assertFalse(blacklist.isTokenIdRevoked("jti-no-revocado"));
+    }
+
+    @Test
+    @DisplayName("Perder el canal de revocaciones no debe afectar al de invalidaciones de equipos")
+    void testChannelsTrackedIndependently() {
+        TeamCacheService cache = teamCache();
+        TokenBlacklistService blacklist = blacklist();
+        cache.team(TEAM_ID, ChannelSubscriptionTest::loadTeam);
+        blacklist.rebuildRevokedFilter();
+
+        ((SubscriptionListener) channels.remove(TokenBlacklistService.REVOCATION_CHANNEL))
+                .onChannelUnsubscribed(TokenBlacklistService.REVOCATION_CHANNEL.getBytes(StandardCharsets.UTF_8), 1);
+
+        assertFalse(filterReady(blacklist));
+        // El contenedor sigue escuchando el otro canal: el caché de equipos sigue usando su nivel local
+        assertTrue(container.isListening());
+        cache.team(TEAM_ID, ChannelSubscriptionTest::loadTeam);
+        assertEquals(1.0, localHits());
+    }
+}
@@ -0,0 +1,82 @@
+package com.udea.innosistemas.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario para LocalShadowStore: expiración, desalojo aproximado de las entradas menos usadas
+ * y actualizaciones atómicas concurrentes.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@DisplayName("LocalShadowStore - Sombra local acotada")
+class LocalShadowStoreTest {
+
+    private static long future() {
+        return System.currentTimeMillis() + 60_000;
+    }
+
+    @Test
+    @DisplayName("Debe devolver null para las entradas expiradas y descartarlas")
+    void testExpiredEntries() {
+        LocalShadowStore<String> store = new LocalShadowStore<>(10);
+        store.put("vigente", "a", future());
+        store.put("expirada", "b", System.currentTimeMillis() - 1);
+
+        assertEquals("a", store.get("vigente"));
+        assertNull(store.get("expirada"));
+        assertEquals(1, store.size());
+        assertNull(store.update("expirada", current -> current, value -> future()));
+    }
+
+    @Test
+    @DisplayName("Debe desalojar las entradas usadas hace más tiempo al superar el máximo")
+    void testEvictsLeastRecentlyUsed() throws InterruptedException {
+        LocalShadowStore<Integer> store = new LocalShadowStore<>(16);
+        for (int i = 0; i < 16; i++) {
+            store.put("k" + i, i, future());
+        }
+        Thread.sleep(5);
+        store.get("k0");
+
+        store.put("nueva", 16, future());
+
+        assertTrue(store.size() <= 16);
+        assertEquals(0, store.get("k0"));
+        assertEquals(16, store.get("nueva"));
+        assertNull(store.get("k1"));
+    }
+
+    @Test
+    @DisplayName("No debe perder actualizaciones concurrentes de la misma clave")
+    void testConcurrentUpdates() throws Exception {
+        LocalShadowStore<Integer> store = new LocalShadowStore<>(100);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        store.update("contador", current -> current == null ? 1 : current + 1, value -> future());
+                        store.get("contador");
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(8000, store.get("contador"));
+    }
+}
@@ -0,0 +1,123 @@
+package com.udea.innosistemas.service;
+
+import com.udea.innosistemas.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prueba de carga de una ráfaga de logins: mide el p99 de latencia de peticiones que no son login
+ * (trabajo corto en los hilos de "Tomcat") sin ráfaga, con la ráfaga verificando BCrypt en los hilos
+ * de la petición y con la ráfaga delegada a {@link PasswordHashingService}.
+ * No se ejecuta con la suite normal (Surefire solo incluye *Test); ejecutar con:
+ * {@code mvn test -Dtest=LoginBurstBenchmark}
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+class LoginBurstBenchmark {
+
+    private static final int REQUEST_THREADS = 16;
+    private static final int LOGINS = 400;
+    private static final int OTHER_REQUESTS = 2_000;
+
+    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+    private final String hash = encoder.encode("password123");
+
+    @Test
+    void nonLoginLatencyDuringLoginBurst() throws Exception {
+        System.out.printf("%-24s %10s %10s %10s%n", "escenario", "p50 ms", "p99 ms", "rechazos");
+        run("sin ráfaga", 0, false);
+        run("bcrypt en hilo petición", LOGINS, false);
+        run("bcrypt en pool hashing", LOGINS, true);
+    }
+
+    private void run(String scenario, int logins, boolean offload) throws Exception {
+        PasswordHashingService hashing = hashingService();
+        ExecutorService requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> loginRequests = new ArrayList<>();
+        List<CompletableFuture<Boolean>> pending = Collections.synchronizedList(new ArrayList<>());
+
+        // Ráfaga de logins encolada en los hilos de la petición
+        for (int i = 0; i < logins; i++) {
+            loginRequests.add(requestThreads.submit(() -> {
+                if (offload) {
+                    pending.add(hashing.submit(() -> encoder.matches("password123", hash)));
+                } else {
+                    encoder.matches("password123", hash);
+                }
+            }));
+        }
+
+        // Peticiones ordinarias intercaladas con la ráfaga
+        List<Future<Long>> others = new ArrayList<>();
+        for (int i = 0; i < OTHER_REQUESTS; i++) {
+            long submittedAt = System.nanoTime();
+            others.add(requestThreads.submit(() -> {
+                shortRequestWork();
+                return System.nanoTime() - submittedAt;
+            }));
+            TimeUnit.MICROSECONDS.sleep(250);
+        }
+
+        List<Long> latencies = new ArrayList<>();
+        for (Future<Long> other : others) {
+            latencies.add(other.get());
+        }
+        for (Future<?> login : loginRequests) {
+            login.get();
+        }
+        for (CompletableFuture<Boolean> future : pending) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof ServiceUnavailableException) {
+                    rejected.incrementAndGet();
+                }
+            }
+        }
+        requestThreads.shutdown();
+        hashing.shutdown();
+
+        Collections.sort(latencies);
+        System.out.printf("%-24s %10.2f %10.2f %10d%n", scenario,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), rejected.get());
+    }
+
+    private PasswordHashingService hashingService() {
+        PasswordHashingService service = new PasswordHashingService();
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "poolSize", 0);
+        ReflectionTestUtils.setField(service, "queueCapacity", 64);
+        service.init();
+        return service;
+    }
+
+    private static void shortRequestWork() {
+        long x = 0;
+        for (int i = 0; i < 20_000; i++) {
+            x += (long) i * i ^ (x >>> 3);
+        }
+        if (x == 42) {
+            System.out.print("");
+        }
+    }
+
+    private static double percentile(List<Long> sorted, double p) {
+        int index = (int) Math.min(sorted.size() - 1, Math.ceil(p * sorted.size()) - 1);
+        return sorted.get(index) / 1e6;
+    }
+}
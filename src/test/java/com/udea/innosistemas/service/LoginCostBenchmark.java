@@ -0,0 +1,75 @@
+package com.udea.innosistemas.service;
+
+import com.udea.innosistemas.dto.LoginRequest;
+import com.udea.innosistemas.entity.User;
+import com.udea.innosistemas.entity.UserRole;
+import com.udea.innosistemas.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark del costo de extremo a extremo de un login, desglosado por fase
+ * (db, hash, sign, redis) a partir del timer {@code innosistemas.auth.login.phase}.
+ * Usa H2 del perfil de test; la fase redis refleja el servidor local si está disponible.
+ * No se ejecuta con la suite normal (Surefire solo incluye *Test); ejecutar con:
+ * {@code mvn test -Dtest=LoginCostBenchmark}
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class LoginCostBenchmark {
+
+    private static final String EMAIL = "benchmark@udea.edu.co";
+    private static final String PASSWORD = "password123";
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 100;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void loginCostByPhase() {
+        if (userRepository.findByEmail(EMAIL).isEmpty()) {
+            userRepository.save(new User(EMAIL, passwordEncoder.encode(PASSWORD), UserRole.STUDENT));
+        }
+        LoginRequest request = new LoginRequest(EMAIL, PASSWORD);
+
+        for (int i = 0; i < WARMUP; i++) {
+            authenticationService.login(request).join();
+        }
+        meterRegistry.find("innosistemas.auth.login.phase").timers().forEach(meterRegistry::remove);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            authenticationService.login(request).join();
+        }
+        double totalMs = (System.nanoTime() - start) / 1e6 / ITERATIONS;
+
+        System.out.printf("%-8s %12s %8s%n", "fase", "media ms", "% total");
+        for (String phase : List.of("db", "hash", "sign", "redis")) {
+            Timer timer = meterRegistry.find("innosistemas.auth.login.phase").tag("phase", phase).timer();
+            double meanMs = timer != null ? timer.mean(TimeUnit.MILLISECONDS) : 0;
+            System.out.printf("%-8s %12.3f %7.1f%%%n", phase, meanMs, meanMs / totalMs * 100);
+        }
+        System.out.printf("%-8s %12.3f%n", "total", totalMs);
+    }
+}
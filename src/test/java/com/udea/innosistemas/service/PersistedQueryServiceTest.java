@@ -0,0 +1,173 @@
+package com.udea.innosistemas.service;
+
+import com.udea.innosistemas.store.KeyValueStore;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test unitario para PersistedQueryService: protocolo APQ, caché de documentos validados
+ * y registro compartido entre réplicas.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PersistedQueryService - Persisted queries y caché de documentos")
+class PersistedQueryServiceTest {
+
+    private static final String QUERY = "query Hello { hello }";
+
+    @Mock
+    private KeyValueStore keyValueStore;
+
+    private final Map<String, String> sharedEntries = new HashMap<>();
+    private GraphQLSchema schema;
+
+    @BeforeEach
+    void setUp() {
+        schema = new SchemaGenerator().makeExecutableSchema(
+                new SchemaParser().parse("type Query { hello: String }"),
+                RuntimeWiring.newRuntimeWiring()
+                        .type("Query", type -> type.dataFetcher("hello", env -> "world"))
+                        .build());
+    }
+
+    private PersistedQueryService newService(SimpleMeterRegistry meterRegistry) {
+        PersistedQueryService service = new PersistedQueryService();
+        ReflectionTestUtils.setField(service, "keyValueStore", keyValueStore);
+        ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(service, "maxEntries", 10);
+        ReflectionTestUtils.setField(service, "sharedEnabled", true);
+        ReflectionTestUtils.setField(service, "sharedTtlHours", 1L);
+        ReflectionTestUtils.setField(service, "sharedMaxEntries", 2L);
+        service.init();
+        return service;
+    }
+
+    private ExecutionResult execute(PersistedQueryService service, String query, String hash) {
+        GraphQL graphQL = GraphQL.newGraphQL(schema).preparsedDocumentProvider(service.documentProvider()).build();
+        ExecutionInput.Builder input = ExecutionInput.newExecutionInput().query(query);
+        if (hash != null) {
+            input.extensions(Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash)));
+        }
+        return graphQL.execute(input.build());
+    }
+
+    private static double count(SimpleMeterRegistry registry, String result) {
+        return registry.get("innosistemas.graphql.document.cache").tag("result", result).counter().count();
+    }
+
+    @Test
+    @DisplayName("Debe pedir la consulta ante un hash desconocido, registrarla y servirla luego solo con el hash")
+    void testAutomaticPersistedQuery() {
+        when(keyValueStore.isShared()).thenReturn(false);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PersistedQueryService service = newService(meterRegistry);
+        String hash = PersistedQueryService.sha256(QUERY);
+
+        ExecutionResult notFound = execute(service, PersistedQuerySupport.PERSISTED_QUERY_MARKER, hash);
+        assertEquals("PersistedQueryNotFound", notFound.getErrors().get(0).getErrorType().toString());
+        assertNull(service.resolveQuery(hash));
+
+        ExecutionResult invalid = execute(service, "query { goodbye }", PersistedQueryService.sha256(QUERY));
+        assertEquals("PersistedQueryIdInvalid", invalid.getErrors().get(0).getErrorType().toString());
+
+        assertEquals(Map.of("hello", "world"), execute(service, QUERY, hash).getData());
+        String registered = service.resolveQuery(hash);
+        assertEquals(QUERY, registered);
+        assertEquals(Map.of("hello", "world"), execute(service, registered, hash).getData());
+
+        assertEquals(1.0, count(meterRegistry, "hit"));
+        assertEquals(QUERY.length(), meterRegistry.get("innosistemas.graphql.persisted-query.saved")
+                .summary().totalAmount());
+    }
+
+    @Test
+    @DisplayName("Debe parsear y validar una sola vez las consultas repetidas enviadas sin hash")
+    void testDocumentCache() {
+        when(keyValueStore.isShared()).thenReturn(false);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PersistedQueryService service = newService(meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Map.of("hello", "world"), execute(service, new String(QUERY), null).getData());
+        }
+        // Los documentos inválidos no se cachean
+        assertFalse(execute(service, "query { goodbye }", null).getErrors().isEmpty());
+        assertFalse(execute(service, "query { goodbye }", null).getErrors().isEmpty());
+
+        assertEquals(4.0, count(meterRegistry, "hit"));
+        assertEquals(3.0, count(meterRegistry, "miss"));
+        assertEquals(1, service.size());
+        assertEquals(7, meterRegistry.get("innosistemas.graphql.document.parse-validate").timers().stream()
+                .mapToLong(timer -> timer.count()).sum());
+    }
+
+    @Test
+    @DisplayName("Debe resolver en una réplica los hashes registrados por otra en el almacén compartido")
+    void testSharedRegistration() {
+        when(keyValueStore.isShared()).thenReturn(true);
+        when(keyValueStore.get(anyString())).thenAnswer(invocation -> sharedEntries.get(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> sharedEntries.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(keyValueStore).set(anyString(), anyString(), anyLong());
+
+        PersistedQueryService replicaA = newService(new SimpleMeterRegistry());
+        SimpleMeterRegistry meterRegistryB = new SimpleMeterRegistry();
+        PersistedQueryService replicaB = newService(meterRegistryB);
+        String hash = PersistedQueryService.sha256(QUERY);
+
+        execute(replicaA, QUERY, hash);
+        verify(keyValueStore).set(eq("graphql:apq:" + hash), eq(QUERY), eq(3_600_000L));
+
+        String registered = replicaB.resolveQuery(hash);
+        assertEquals(QUERY, registered);
+        assertEquals(Map.of("hello", "world"), execute(replicaB, registered, hash).getData());
+        assertEquals(1.0, count(meterRegistryB, "shared"));
+
+        // Si el almacén falla, la réplica sigue con su caché local
+        when(keyValueStore.get(anyString())).thenThrow(new IllegalStateException("Redis down"));
+        assertNull(replicaB.resolveQuery(PersistedQueryService.sha256("query { other: hello }")));
+        assertEquals(Map.of("hello", "world"), execute(replicaB, QUERY, hash).getData());
+    }
+
+    @Test
+    @DisplayName("Debe publicar solo los registros APQ y dejarlos locales cuando el nivel compartido está lleno")
+    void testSharedTierIsBounded() {
+        when(keyValueStore.isShared()).thenReturn(true);
+        PersistedQueryService service = newService(new SimpleMeterRegistry());
+
+        // Consulta enviada sin hash: se cachea localmente pero no se publica
+        assertEquals(Map.of("hello", "world"), execute(service, QUERY, null).getData());
+        verify(keyValueStore, never()).set(anyString(), anyString(), anyLong());
+
+        // Registro APQ con el nivel compartido lleno: el índice lo rechaza y queda solo en la réplica
+        String other = "query Other { hello }";
+        String otherHash = PersistedQueryService.sha256(other);
+        when(keyValueStore.sortedSetPut(eq("graphql:apq-index"), eq(otherHash), anyDouble(), anyDouble(), anyLong()))
+                .thenReturn(3L);
+        assertEquals(Map.of("hello", "world"), execute(service, other, otherHash).getData());
+        verify(keyValueStore).sortedSetRemove("graphql:apq-index", otherHash);
+        verify(keyValueStore, never()).set(anyString(), anyString(), anyLong());
+        assertEquals(other, service.resolveQuery(otherHash));
+    }
+}
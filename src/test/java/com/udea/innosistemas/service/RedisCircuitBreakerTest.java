@@ -0,0 +1,103 @@
+package com.udea.innosistemas.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario para RedisCircuitBreaker: apertura por errores y latencia, fallback local y recuperación.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@DisplayName("RedisCircuitBreaker - Protección de Redis con fallback local")
+class RedisCircuitBreakerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RedisCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        breaker = new RedisCircuitBreaker();
+        ReflectionTestUtils.setField(breaker, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(breaker, "enabled", true);
+        ReflectionTestUtils.setField(breaker, "windowSize", 10);
+        ReflectionTestUtils.setField(breaker, "minimumCalls", 4);
+        ReflectionTestUtils.setField(breaker, "failureRateThreshold", 50);
+        ReflectionTestUtils.setField(breaker, "slowCallThresholdMillis", 20L);
+        ReflectionTestUtils.setField(breaker, "slowCallRateThreshold", 50);
+        ReflectionTestUtils.setField(breaker, "openDurationMillis", 50L);
+        ReflectionTestUtils.setField(breaker, "halfOpenCalls", 2);
+        breaker.init();
+    }
+
+    @Test
+    @DisplayName("Errores sobre el umbral - Debe abrir el circuito y resolver con el fallback sin llamar a Redis")
+    void execute_WhenFailureRateExceeded_ShouldOpenAndShortCircuit() {
+        for (int i = 0; i < 4; i++) {
+            assertEquals("local", breaker.execute(() -> {
+                throw new IllegalStateException("Redis down");
+            }, () -> "local"));
+        }
+        assertTrue(breaker.isOpen());
+
+        AtomicInteger redisCalls = new AtomicInteger();
+        assertEquals("local", breaker.execute(() -> {
+            redisCalls.incrementAndGet();
+            return "redis";
+        }, () -> "local"));
+        assertEquals(0, redisCalls.get());
+        assertEquals(1.0, meterRegistry.get("innosistemas.redis.circuit.transitions")
+                .tag("from", "closed").tag("to", "open").counter().count());
+        assertEquals(1.0, meterRegistry.get("innosistemas.redis.circuit.state").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Llamadas lentas - Debe abrir el circuito aunque Redis responda")
+    void execute_WhenCallsAreSlow_ShouldOpen() {
+        for (int i = 0; i < 4; i++) {
+            breaker.execute(() -> {
+                sleep(25);
+                return "redis";
+            }, () -> "local");
+        }
+        assertTrue(breaker.isOpen());
+    }
+
+    @Test
+    @DisplayName("Redis recuperado - Debe cerrar tras las llamadas de prueba y notificar la resincronización")
+    void execute_AfterOpenDuration_ShouldCloseAndNotifyRecovery() throws InterruptedException {
+        CountDownLatch recovered = new CountDownLatch(1);
+        breaker.onRecovery(recovered::countDown);
+        for (int i = 0; i < 4; i++) {
+            breaker.execute(() -> {
+                throw new IllegalStateException("Redis down");
+            }, () -> "local");
+        }
+        sleep(60);
+
+        assertEquals("redis", breaker.execute(() -> "redis", () -> "local"));
+        assertEquals(RedisCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals("redis", breaker.execute(() -> "redis", () -> "local"));
+
+        assertEquals(RedisCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(recovered.await(1, TimeUnit.SECONDS));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
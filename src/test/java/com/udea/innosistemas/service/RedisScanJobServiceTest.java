@@ -0,0 +1,127 @@
+package com.udea.innosistemas.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import redis.clients.jedis.CommandObject;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.ConnectionPool;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.resps.ScanResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test unitario de RedisScanJobService sobre Redis Cluster: el recorrido pasa por cada master con su propio
+ * cursor, omite las réplicas y se reanuda en el nodo donde se detuvo.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@DisplayName("RedisScanJobService - SCAN por nodo en Redis Cluster")
+class RedisScanJobServiceTest {
+
+    // Cursores persistidos por el job
+    private final Map<String, String> savedCursors = new HashMap<>();
+    private RedisScanJobService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // Dos masters con dos páginas y una página, y una réplica que no debe recorrerse
+        Map<String, ConnectionPool> pools = new HashMap<>();
+        pools.put("10.0.0.1:7000", pool(new ScanResult<>("17", List.of("session:active:{a}", "session:active:{b}")),
+                new ScanResult<>("0", List.of("session:active:{c}"))));
+        pools.put("10.0.0.2:7000", pool(new ScanResult<>("0", List.of("session:active:{d}"))));
+        pools.put("10.0.0.3:7000", pool(new ScanResult<>("0", List.of("session:active:{a}"))));
+        JedisCluster cluster = mock(JedisCluster.class);
+        when(cluster.getClusterNodes()).thenReturn(pools);
+
+        RedisClusterNode first = RedisClusterNode.newRedisClusterNode().listeningAt("10.0.0.1", 7000)
+                .promotedAs(RedisClusterNode.NodeType.MASTER).build();
+        RedisClusterNode second = RedisClusterNode.newRedisClusterNode().listeningAt("10.0.0.2", 7000)
+                .promotedAs(RedisClusterNode.NodeType.MASTER).build();
+        RedisClusterNode replica = RedisClusterNode.newRedisClusterNode().listeningAt("10.0.0.3", 7000)
+                .promotedAs(RedisClusterNode.NodeType.REPLICA).build();
+        RedisClusterConnection connection = mock(RedisClusterConnection.class);
+        when(connection.clusterGetNodes()).thenReturn(List.of(second, replica, first));
+        when(connection.getNativeConnection()).thenReturn(cluster);
+
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(values.get(anyString())).thenAnswer(invocation -> savedCursors.get(invocation.getArgument(0, String.class)));
+        doAnswer(invocation -> savedCursors.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(values).set(anyString(), anyString(), anyLong(), any());
+
+        RedisTemplate<String, String> template = mock(RedisTemplate.class);
+        when(template.opsForValue()).thenReturn(values);
+        when(template.delete(anyString())).thenAnswer(invocation -> savedCursors.remove(invocation.getArgument(0, String.class)) != null);
+        when(template.execute(any(RedisCallback.class))).thenAnswer(invocation ->
+                invocation.getArgument(0, RedisCallback.class).doInRedis(connection));
+
+        service = new RedisScanJobService();
+        ReflectionTestUtils.setField(service, "redisTemplate", template);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "scanBatchSize", 2);
+        ReflectionTestUtils.setField(service, "maxWritesPerSecond", 1_000L);
+    }
+
+    // Nodo cuyas conexiones responden SCAN con las páginas indicadas, en orden
+    @SuppressWarnings("unchecked")
+    private static ConnectionPool pool(ScanResult<String> page, ScanResult<String>... pages) {
+        Connection connection = mock(Connection.class);
+        when(connection.executeCommand(any(CommandObject.class))).thenReturn(page, (Object[]) pages);
+        ConnectionPool pool = mock(ConnectionPool.class);
+        when(pool.getResource()).thenReturn(connection);
+        return pool;
+    }
+
+    @Test
+    @DisplayName("Debe recorrer todos los masters, cada uno con su cursor, y omitir las réplicas")
+    void testScanAllVisitsEveryMaster() {
+        List<String> seen = new ArrayList<>();
+        RedisScanJobService.ScanJobResult result = service.scanAll("test", "session:active:*", keys -> {
+            seen.addAll(keys);
+            return keys.size();
+        });
+
+        assertEquals(List.of("session:active:{a}", "session:active:{b}", "session:active:{c}", "session:active:{d}"), seen);
+        assertEquals(4, result.keysExamined());
+        assertTrue(result.completed());
+    }
+
+    @Test
+    @DisplayName("Debe persistir el nodo en curso y reanudar el recorrido desde él")
+    void testRunResumesOnSavedNode() {
+        List<String> seen = new ArrayList<>();
+        RedisScanJobService.ScanJobResult first = service.run("test", "session:active:*", 1, keys -> {
+            seen.addAll(keys);
+            return keys.size();
+        });
+        assertFalse(first.completed());
+        assertEquals("10.0.0.1:7000@17", savedCursors.get("maintenance:scan:cursor:test"));
+
+        RedisScanJobService.ScanJobResult second = service.run("test", "session:active:*", 100, keys -> {
+            seen.addAll(keys);
+            return keys.size();
+        });
+        assertTrue(second.completed());
+        assertEquals(List.of("session:active:{a}", "session:active:{b}", "session:active:{c}", "session:active:{d}"), seen);
+        assertTrue(savedCursors.isEmpty());
+    }
+}
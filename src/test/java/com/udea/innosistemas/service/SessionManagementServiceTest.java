@@ -0,0 +1,173 @@
+package com.udea.innosistemas.service;
+
+import com.udea.innosistemas.store.InMemoryKeyValueStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test unitario para SessionManagementService sobre el almacén en memoria: registro y conteo de sesiones,
+ * rotación de refresh tokens con detección de reutilización e invalidación completa, también con
+ * peticiones concurrentes.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@DisplayName("SessionManagementService - Sesiones sobre KeyValueStore en memoria")
+class SessionManagementServiceTest {
+
+    private static final String USER = "estudiante@udea.edu.co";
+
+    private InMemoryKeyValueStore store;
+    private SessionManagementService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        store = new InMemoryKeyValueStore();
+        ReflectionTestUtils.setField(store, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(store, "stripeCount", 4);
+        ReflectionTestUtils.setField(store, "tickMillis", 100L);
+        store.init();
+
+        // Circuito siempre cerrado: cada operación va al almacén
+        RedisCircuitBreaker circuitBreaker = mock(RedisCircuitBreaker.class);
+        when(circuitBreaker.execute(any(), any())).thenAnswer(invocation -> invocation.getArgument(0, Supplier.class).get());
+
+        service = new SessionManagementService();
+        ReflectionTestUtils.setField(service, "keyValueStore", store);
+        ReflectionTestUtils.setField(service, "circuitBreaker", circuitBreaker);
+        ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(service, "jwtExpirationInSeconds", 3600L);
+        ReflectionTestUtils.setField(service, "shadowMaxUsers", 100);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    private static long familyExpiresAt() {
+        return System.currentTimeMillis() + 86_400_000L;
+    }
+
+    @Test
+    @DisplayName("Debe registrar, contar y remover sesiones en el almacén en memoria")
+    void testRegisterAndRemove() {
+        assertTrue(service.registerSession(USER, "s1", "jti-1", familyExpiresAt()));
+        assertTrue(service.registerSession(USER, "s2", "jti-2", familyExpiresAt()));
+
+        assertEquals(2, service.getActiveSessionCount(USER));
+        assertEquals(Set.of("s1", "s2"), service.getUserSessions(USER));
+        assertTrue(service.isSessionActive(USER, "s1"));
+        assertEquals(1, service.getTotalActiveUsers());
+
+        assertTrue(service.removeSession(USER, "s1"));
+        assertFalse(service.removeSession(USER, "s1"));
+        assertFalse(service.isSessionActive(USER, "s1"));
+        assertEquals(SessionManagementService.RotationStatus.UNKNOWN_FAMILY,
+                service.rotateRefreshToken(USER, "s1", "jti-1", "jti-x").status());
+
+        assertTrue(service.removeSession(USER, "s2"));
+        assertEquals(0, service.getTotalActiveUsers());
+        assertTrue(service.cleanupExpiredSessions().completed());
+    }
+
+    @Test
+    @DisplayName("Debe rotar el refresh token vigente y revocar la familia al reutilizar uno anterior")
+    void testRotationAndReuse() {
+        long expiresAt = familyExpiresAt();
+        service.registerSession(USER, "s1", "jti-1", expiresAt);
+
+        SessionManagementService.RefreshRotation rotation = service.rotateRefreshToken(USER, "s1", "jti-1", "jti-2");
+        assertEquals(SessionManagementService.RotationStatus.ROTATED, rotation.status());
+        assertEquals(expiresAt, rotation.familyExpiresAt());
+
+        // El token ya rotado se presenta de nuevo: se revoca la familia y su sesión
+        assertEquals(SessionManagementService.RotationStatus.REUSED,
+                service.rotateRefreshToken(USER, "s1", "jti-1", "jti-3").status());
+        assertFalse(service.isSessionActive(USER, "s1"));
+        assertEquals(SessionManagementService.RotationStatus.UNKNOWN_FAMILY,
+                service.rotateRefreshToken(USER, "s1", "jti-2", "jti-4").status());
+    }
+
+    @Test
+    @DisplayName("Debe invalidar todas las sesiones del usuario y sus familias")
+    void testInvalidateAll() {
+        service.registerSession(USER, "s1", "jti-1", familyExpiresAt());
+        service.registerSession(USER, "s2", "jti-2", familyExpiresAt());
+        service.registerSession("otro@udea.edu.co", "s3", "jti-3", familyExpiresAt());
+
+        assertEquals(2, service.invalidateAllUserSessions(USER));
+
+        assertEquals(0, service.getActiveSessionCount(USER));
+        assertEquals(SessionManagementService.RotationStatus.UNKNOWN_FAMILY,
+                service.rotateRefreshToken(USER, "s2", "jti-2", "jti-x").status());
+        assertEquals(1, service.getTotalActiveUsers());
+        assertEquals(SessionManagementService.RotationStatus.ROTATED,
+                service.rotateRefreshToken("otro@udea.edu.co", "s3", "jti-3", "jti-4").status());
+    }
+
+    @Test
+    @DisplayName("Las operaciones concurrentes deben dejar cada sesión completa o ausente")
+    void testConcurrentOperationsAreAtomic() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            // Varias peticiones con el mismo refresh token: solo una rota
+            service.registerSession(USER, "s0", "jti-0", familyExpiresAt());
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<SessionManagementService.RotationStatus>> rotations = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                String next = "jti-next-" + i;
+                rotations.add(executor.submit(() -> {
+                    start.await();
+                    return service.rotateRefreshToken(USER, "s0", "jti-0", next).status();
+                }));
+            }
+            start.countDown();
+            int rotated = 0;
+            for (Future<SessionManagementService.RotationStatus> rotation : rotations) {
+                if (rotation.get() == SessionManagementService.RotationStatus.ROTATED) {
+                    rotated++;
+                }
+            }
+            assertEquals(1, rotated);
+
+            // Un login concurrente con la invalidación queda completo (sesión y familia) o no queda
+            for (int i = 0; i < 200; i++) {
+                String sessionId = "s" + (i + 1);
+                Future<?> login = executor.submit(() ->
+                        service.registerSession(USER, sessionId, "jti-" + sessionId, familyExpiresAt()));
+                Future<?> logoutAll = executor.submit(() -> service.invalidateAllUserSessions(USER));
+                login.get();
+                logoutAll.get();
+
+                boolean active = store.sortedSetScore("session:active:{" + USER + "}", sessionId) != null;
+                SessionManagementService.RotationStatus status =
+                        service.rotateRefreshToken(USER, sessionId, "jti-" + sessionId, "jti-rotated").status();
+                assertEquals(active, status == SessionManagementService.RotationStatus.ROTATED, sessionId);
+                service.invalidateAllUserSessions(USER);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.udea.innosistemas.service;
+
+import com.udea.innosistemas.entity.Notification;
+import com.udea.innosistemas.entity.Team;
+import com.udea.innosistemas.entity.User;
+import com.udea.innosistemas.entity.UserRole;
+import com.udea.innosistemas.repository.NotificationRepository;
+import com.udea.innosistemas.repository.TeamRepository;
+import com.udea.innosistemas.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Benchmark de una avalancha de relecturas (thundering herd): tras un cambio en un equipo, todos sus
+ * clientes piden a la vez el equipo y sus notificaciones. Compara {@link SingleFlightService} habilitado
+ * y deshabilitado.
+ *
+ * Cada ronda libera {@code THREADS} hilos con un latch; cada hilo lee el equipo (proyección) y las
+ * notificaciones del equipo. Reporta sentencias SQL (estadísticas de Hibernate), sentencias por segundo
+ * que recibe la base de datos, lecturas por segundo servidas y lecturas compartidas. Usa H2 del perfil de
+ * test. No se ejecuta con la suite normal (Surefire solo incluye *Test); ejecutar con:
+ * {@code mvn test -Dtest=SingleFlightBenchmark}
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SingleFlightBenchmark {
+
+    private static final long COURSE_ID = 4901L;
+    private static final int MEMBERS = 3;
+    private static final int NOTIFICATIONS = 200;
+    private static final int THREADS = 32;
+    private static final int WARMUP = 20;
+    private static final int ROUNDS = 100;
+
+    private static final Set<String> TEAM_FIELDS = Set.of("id", "nombre", "fechaLimite", "miembros");
+    private static final Set<String> MEMBER_FIELDS = Set.of("id", "fullName");
+
+    @Autowired
+    private SingleFlightService singleFlightService;
+
+    @Autowired
+    private TeamProjectionService teamProjectionService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void thunderingHerdWithAndWithoutSingleFlight() throws Exception {
+        Long teamId = seed();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            System.out.printf("%-14s %12s %14s %14s %14s %12s%n",
+                    "single-flight", "sentencias", "sentencias/s", "lecturas/s", "compartidas", "ms/ronda");
+            run("deshabilitado", false, teamId, statistics, executor);
+            run("habilitado", true, teamId, statistics, executor);
+        } finally {
+            ReflectionTestUtils.setField(singleFlightService, "enabled", true);
+            executor.shutdownNow();
+        }
+    }
+
+    private void run(String mode, boolean enabled, Long teamId, Statistics statistics, ExecutorService executor)
+            throws Exception {
+        ReflectionTestUtils.setField(singleFlightService, "enabled", enabled);
+        for (int i = 0; i < WARMUP; i++) {
+            round(teamId, executor);
+        }
+        statistics.clear();
+        double coalescedBefore = coalesced();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            round(teamId, executor);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long statements = statistics.getPrepareStatementCount();
+        long reads = 2L * THREADS * ROUNDS;
+        System.out.printf("%-14s %12d %14.0f %14.0f %14.0f %12.2f%n", mode, statements, statements / seconds,
+                reads / seconds, coalesced() - coalescedBefore, seconds * 1e3 / ROUNDS);
+    }
+
+    // Todos los hilos esperan el mismo latch para llegar a la vez, como clientes que reaccionan a un evento
+    private void round(Long teamId, ExecutorService executor) throws Exception {
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                go.await();
+                teamProjectionService.teamById(teamId, TEAM_FIELDS, MEMBER_FIELDS);
+                notificationService.obtenerNotificacionesPorEquipo(teamId);
+                return null;
+            }));
+        }
+        go.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private double coalesced() {
+        return meterRegistry.find("innosistemas.singleflight.calls").tag("outcome", "coalesced").counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    private Long seed() {
+        List<Team> existing = teamRepository.findByCourseId(COURSE_ID);
+        if (!existing.isEmpty()) {
+            return existing.get(0).getId();
+        }
+        Team team = new Team("Equipo avalancha", "Equipo del benchmark de single-flight", null);
+        team.setCourseId(COURSE_ID);
+        team.setMaxMiembros(MEMBERS);
+        teamRepository.save(team);
+
+        List<Long> memberIds = new ArrayList<>();
+        for (int m = 0; m < MEMBERS; m++) {
+            User user = new User("avalancha" + m + "@udea.edu.co",
+                    "$2a$12$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW", UserRole.STUDENT);
+            user.setFirstName("Nombre" + m);
+            user.setLastName("Apellido" + m);
+            user.setTeamId(team.getId());
+            user.setCourseId(COURSE_ID);
+            memberIds.add(userRepository.save(user).getId());
+        }
+
+        List<Notification> notifications = new ArrayList<>(NOTIFICATIONS);
+        for (int i = 0; i < NOTIFICATIONS; i++) {
+            Notification notification = new Notification(memberIds.get(i % MEMBERS),
+                    "La fecha límite del equipo cambió (" + i + ")", "DEADLINE_CHANGED");
+            notification.setTeamId(team.getId());
+            notifications.add(notification);
+        }
+        notificationRepository.saveAll(notifications);
+        return team.getId();
+    }
+}
@@ -0,0 +1,156 @@
+package com.udea.innosistemas.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitario para SingleFlightService: lecturas idénticas concurrentes compartidas,
+ * propagación de errores del líder y lecturas sin coalescer en transacciones de escritura.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@DisplayName("SingleFlightService - Coalescencia de lecturas concurrentes")
+class SingleFlightServiceTest {
+
+    private static final int CALLERS = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+    private SingleFlightService singleFlightService;
+
+    @BeforeEach
+    void setUp() {
+        singleFlightService = new SingleFlightService();
+        ReflectionTestUtils.setField(singleFlightService, "enabled", true);
+        ReflectionTestUtils.setField(singleFlightService, "maxWaitMs", 5000L);
+        ReflectionTestUtils.setField(singleFlightService, "meterRegistry", meterRegistry);
+        singleFlightService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("innosistemas.singleflight.calls")
+                .tag("operation", "TeamService.teamById").tag("outcome", outcome).counter().count();
+    }
+
+    // Lanza CALLERS lecturas idénticas; la primera en llegar se bloquea hasta que las demás están esperando
+    private List<Future<String>> herd(AtomicInteger calls, CountDownLatch release, RuntimeException failure) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlightService.load("TeamService.teamById",
+                    List.of(7L, Set.of("id", "nombre")), () -> {
+                        calls.incrementAndGet();
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        if (failure != null) {
+                            throw failure;
+                        }
+                        return "equipo-7";
+                    })));
+        }
+        return results;
+    }
+
+    private void awaitFollowers() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("coalesced") < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    @DisplayName("Debe ejecutar una sola vez las lecturas idénticas concurrentes y contar las compartidas")
+    void testCoalescesConcurrentLoads() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = herd(calls, release, null);
+
+        awaitFollowers();
+        assertEquals(1, singleFlightService.inFlightCount());
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("equipo-7", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1.0, count("leader"));
+        assertEquals(CALLERS - 1.0, count("coalesced"));
+        assertEquals(0, singleFlightService.inFlightCount());
+
+        // Sin lectura en curso no hay nada que compartir: el resultado no se guarda
+        singleFlightService.load("TeamService.teamById", List.of(7L, Set.of("nombre", "id")), calls::incrementAndGet);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("Debe propagar la excepción del líder a quienes esperan y liberar la clave")
+    void testPropagatesLeaderFailure() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("Base de datos no disponible");
+        List<Future<String>> results = herd(calls, release, failure);
+
+        awaitFollowers();
+        release.countDown();
+
+        for (Future<String> result : results) {
+            Exception error = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertSame(failure, error.getCause());
+        }
+        assertEquals(1, calls.get());
+        assertEquals(0, singleFlightService.inFlightCount());
+        assertEquals("equipo-7", singleFlightService.load("TeamService.teamById", List.of(7L), () -> "equipo-7"));
+    }
+
+    @Test
+    @DisplayName("No debe coalescer dentro de una transacción de escritura ni si está deshabilitado")
+    void testBypassesWriteTransactionsAndDisabled() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            singleFlightService.load("TeamService.teamById", List.of(7L), calls::incrementAndGet);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        assertEquals(1, calls.get());
+        assertTrue(meterRegistry.find("innosistemas.singleflight.calls").counters().isEmpty());
+
+        ReflectionTestUtils.setField(singleFlightService, "enabled", false);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = herd(calls, release, null);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (calls.get() < CALLERS + 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        for (Future<String> result : results) {
+            assertEquals("equipo-7", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(CALLERS + 1, calls.get());
+    }
+}
@@ -0,0 +1,213 @@
+package com.udea.innosistemas.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udea.innosistemas.entity.Team;
+import com.udea.innosistemas.store.InMemoryKeyValueStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test unitario para TeamCacheService: aciertos locales y tasa de aciertos, lecturas concurrentes con
+ * una invalidación y versión de las entradas compartidas entre réplicas.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@DisplayName("TeamCacheService - Caché de equipos en dos niveles")
+class TeamCacheServiceTest {
+
+    private static final long TEAM_ID = 7L;
+    private static final long COURSE_ID = 3L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<InMemoryKeyValueStore> stores = new ArrayList<>();
+    // Fila del equipo en la "base de datos"
+    private final AtomicReference<String> nombre = new AtomicReference<>("Equipo v0");
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        stores.forEach(InMemoryKeyValueStore::shutdown);
+    }
+
+    private InMemoryKeyValueStore store(boolean shared) {
+        InMemoryKeyValueStore store = shared ? new InMemoryKeyValueStore() {
+            @Override
+            public boolean isShared() {
+                return true;
+            }
+        } : new InMemoryKeyValueStore();
+        ReflectionTestUtils.setField(store, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(store, "stripeCount", 4);
+        ReflectionTestUtils.setField(store, "tickMillis", 100L);
+        store.init();
+        stores.add(store);
+        return store;
+    }
+
+    private TeamCacheService replica(InMemoryKeyValueStore store) {
+        // Contenedor que confirma la suscripción del canal al registrar el listener
+        RedisMessageListenerContainer listenerContainer = mock(RedisMessageListenerContainer.class);
+        when(listenerContainer.isListening()).thenReturn(true);
+        doAnswer(invocation -> {
+            invocation.getArgument(0, SubscriptionListener.class).onChannelSubscribed(
+                    invocation.getArgument(1, Topic.class).getTopic().getBytes(StandardCharsets.UTF_8), 1);
+            return null;
+        }).when(listenerContainer).addMessageListener(any(MessageListener.class), any(Topic.class));
+
+        TeamCacheService cache = new TeamCacheService();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "localMaxEntries", 100);
+        ReflectionTestUtils.setField(cache, "localTtlMs", 60_000L);
+        ReflectionTestUtils.setField(cache, "sharedEnabled", true);
+        ReflectionTestUtils.setField(cache, "sharedTtlMs", 60_000L);
+        ReflectionTestUtils.setField(cache, "keyValueStore", store);
+        ReflectionTestUtils.setField(cache, "listenerContainer", listenerContainer);
+        ReflectionTestUtils.setField(cache, "redisPipelineService", mock(RedisPipelineService.class));
+        ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        cache.init();
+        return cache;
+    }
+
+    private Optional<Team> loadTeam() {
+        queries.incrementAndGet();
+        Team team = new Team(nombre.get(), "Descripción", null);
+        team.setId(TEAM_ID);
+        team.setCourseId(COURSE_ID);
+        return Optional.of(team);
+    }
+
+    private String read(TeamCacheService cache) {
+        return cache.team(TEAM_ID, this::loadTeam).orElseThrow().getNombre();
+    }
+
+    // Mensaje del canal de invalidaciones tal como lo publica otra réplica
+    private static void deliver(TeamCacheService cache, String keys) {
+        cache.onInvalidationMessage(new DefaultMessage(TeamCacheService.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                keys.getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    @Test
+    @DisplayName("Debe servir lecturas repetidas desde la caché local e invalidar equipo y listas del curso")
+    void testLocalHitsAndInvalidation() {
+        TeamCacheService cache = replica(store(false));
+        List<Team> curso = List.of(loadTeam().orElseThrow());
+        queries.set(0);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("Equipo v0", read(cache));
+            assertEquals(1, cache.teamsByCourse(COURSE_ID, true, () -> {
+                queries.incrementAndGet();
+                return curso;
+            }).size());
+        }
+        assertEquals(2, queries.get());
+        assertEquals(4.0 / 6.0, cache.hitRatio(), 1e-9);
+
+        // Cada lectura devuelve una copia: modificarla no altera la caché
+        cache.team(TEAM_ID, this::loadTeam).orElseThrow().setNombre("Modificado");
+        assertEquals("Equipo v0", read(cache));
+
+        nombre.set("Equipo v1");
+        cache.invalidarEquipo(TEAM_ID, COURSE_ID);
+        assertEquals("Equipo v1", read(cache));
+        cache.teamsByCourse(COURSE_ID, true, () -> {
+            queries.incrementAndGet();
+            return curso;
+        });
+        assertEquals(4, queries.get());
+    }
+
+    @Test
+    @DisplayName("No debe guardar el resultado de una lectura que corrió en paralelo con una invalidación")
+    void testConcurrentReadDuringInvalidation() throws Exception {
+        TeamCacheService cache = replica(store(false));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+
+        // La lectura lenta obtiene la fila anterior; la escritura se confirma mientras tanto
+        CompletableFuture<Optional<Team>> slowRead = CompletableFuture.supplyAsync(() -> cache.team(TEAM_ID, () -> {
+            Optional<Team> stale = loadTeam();
+            loading.countDown();
+            try {
+                committed.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return stale;
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        nombre.set("Equipo v1");
+        cache.invalidarEquipo(TEAM_ID, COURSE_ID);
+        committed.countDown();
+
+        assertEquals("Equipo v0", slowRead.get(5, TimeUnit.SECONDS).orElseThrow().getNombre());
+        assertEquals("Equipo v1", read(cache));
+    }
+
+    @Test
+    @DisplayName("Debe compartir entradas entre réplicas y descartar las de una versión anterior")
+    void testSharedTierAcrossReplicas() throws Exception {
+        InMemoryKeyValueStore shared = store(true);
+        TeamCacheService replicaA = replica(shared);
+        TeamCacheService replicaB = replica(shared);
+
+        assertEquals("Equipo v0", read(replicaA));
+        assertEquals("Equipo v0", read(replicaB));
+        assertEquals(1, queries.get());
+
+        // Escritura en A: B descarta su copia local al recibir la invalidación
+        String keys = "team:" + TEAM_ID + ",course:" + COURSE_ID + ":all,course:" + COURSE_ID + ":active";
+        nombre.set("Equipo v1");
+        replicaA.invalidarEquipo(TEAM_ID, COURSE_ID);
+        deliver(replicaB, keys);
+
+        // Lectura lenta en B que deja en el nivel compartido la fila anterior a una segunda escritura de A
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+        CompletableFuture<String> slowRead = CompletableFuture.supplyAsync(() -> replicaB.team(TEAM_ID, () -> {
+            Optional<Team> stale = loadTeam();
+            loading.countDown();
+            try {
+                committed.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return stale;
+        }).orElseThrow().getNombre());
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        nombre.set("Equipo v2");
+        replicaA.invalidarEquipo(TEAM_ID, COURSE_ID);
+        deliver(replicaB, keys);
+        committed.countDown();
+        assertEquals("Equipo v1", slowRead.get(5, TimeUnit.SECONDS));
+
+        // La entrada que dejó B tiene la versión anterior: A la descarta y B toma la que publicó A
+        assertEquals("Equipo v2", read(replicaA));
+        assertEquals("Equipo v2", read(replicaB));
+        assertEquals(3, queries.get());
+    }
+}
@@ -0,0 +1,185 @@
+package com.udea.innosistemas.service;
+
+import com.udea.innosistemas.dto.TeamDTO;
+import com.udea.innosistemas.entity.Team;
+import com.udea.innosistemas.entity.User;
+import com.udea.innosistemas.entity.UserRole;
+import com.udea.innosistemas.repository.TeamRepository;
+import com.udea.innosistemas.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Benchmark de getTeamsByCourse con entidades completas frente a la proyección por selección
+ * ({@link TeamProjectionService}), para la consulta {@code { id nombre miembros { id fullName } }}.
+ *
+ * Por llamada reporta: sentencias SQL (estadísticas de Hibernate), bytes leídos de la base de datos
+ * estimados a partir de los valores de las columnas de cada fila y bytes asignados por el hilo.
+ * Usa H2 del perfil de test; con PostgreSQL las proporciones son las mismas porque dependen de las
+ * columnas y filas leídas. No se ejecuta con la suite normal (Surefire solo incluye *Test); ejecutar con:
+ * {@code mvn test -Dtest=TeamProjectionBenchmark}
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TeamProjectionBenchmark {
+
+    private static final long COURSE_ID = 4599L;
+    private static final int TEAMS = 20;
+    private static final int MEMBERS_PER_TEAM = 5;
+    private static final int WARMUP = 50;
+    private static final int ITERATIONS = 200;
+
+    private static final Set<String> TEAM_FIELDS = Set.of("id", "nombre", "miembros");
+    private static final Set<String> MEMBER_FIELDS = Set.of("id", "fullName");
+
+    @Autowired
+    private TeamProjectionService teamProjectionService;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void teamsByCourseEntitiesVersusProjection() {
+        seed();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        System.out.printf("%-12s %12s %14s %16s %12s%n",
+                "camino", "sentencias", "bytes leídos", "bytes asignados", "µs/llamada");
+        // Cada llamada en su propia sesión, como una petición con open-in-view
+        TransactionTemplate request = new TransactionTemplate(transactionManager);
+        request.setReadOnly(true);
+        run("entidades", statistics, () -> request.execute(status -> entityPath()), this::entityBytes);
+        run("proyección", statistics, () -> request.execute(status -> projectedPath()), this::projectedBytes);
+    }
+
+    // Camino anterior: entidades Team completas y una consulta de User completos por equipo
+    private List<TeamDTO> entityPath() {
+        List<Team> teams = teamRepository.findByCourseId(COURSE_ID);
+        List<TeamDTO> result = new ArrayList<>(teams.size());
+        for (Team team : teams) {
+            result.add(new TeamDTO(team, userRepository.findByTeamId(team.getId())));
+        }
+        return result;
+    }
+
+    private List<TeamDTO> projectedPath() {
+        return teamProjectionService.teamsByCourse(COURSE_ID, TEAM_FIELDS, MEMBER_FIELDS);
+    }
+
+    private void run(String path, Statistics statistics, Supplier<List<TeamDTO>> call, Supplier<Long> bytesRead) {
+        for (int i = 0; i < WARMUP; i++) {
+            call.get();
+        }
+        statistics.clear();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            call.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        System.out.printf("%-12s %12.1f %14d %16d %12.1f%n", path,
+                (double) statistics.getPrepareStatementCount() / ITERATIONS,
+                bytesRead.get(), allocated / ITERATIONS, elapsed / 1e3 / ITERATIONS);
+    }
+
+    // Todas las columnas de teams y users, como las materializa Hibernate al cargar las entidades
+    private long entityBytes() {
+        long bytes = 0;
+        for (Team team : teamRepository.findByCourseId(COURSE_ID)) {
+            bytes += width(team.getId(), team.getNombre(), team.getDescripcion(), team.getFechaCreacion(),
+                    team.getFechaLimite(), team.getCreatedAt(), team.getUpdatedAt(), team.getCourseId(),
+                    team.isActivo(), team.getMaxMiembros());
+            for (User user : userRepository.findByTeamId(team.getId())) {
+                bytes += width(user.getId(), user.getEmail(), user.getPassword(), user.getRole(),
+                        user.getCreatedAt(), user.getUpdatedAt(), user.isEnabled(), user.isAccountNonExpired(),
+                        user.isAccountNonLocked(), user.isCredentialsNonExpired(), user.getTeamId(),
+                        user.getCourseId(), user.getFirstName(), user.getLastName());
+            }
+        }
+        return bytes;
+    }
+
+    // Columnas del plan: t.id, t.nombre y u.id, u.teamId, u.firstName, u.lastName, u.email (para fullName)
+    private long projectedBytes() {
+        long bytes = 0;
+        for (Team team : teamRepository.findByCourseId(COURSE_ID)) {
+            bytes += width(team.getId(), team.getNombre());
+            for (User user : userRepository.findByTeamId(team.getId())) {
+                bytes += width(user.getId(), user.getTeamId(), user.getFirstName(), user.getLastName(),
+                        user.getEmail());
+            }
+        }
+        return bytes;
+    }
+
+    private static long width(Object... values) {
+        long bytes = 0;
+        for (Object value : values) {
+            if (value instanceof String text) {
+                bytes += text.getBytes(StandardCharsets.UTF_8).length;
+            } else if (value instanceof Enum<?> constant) {
+                bytes += constant.name().length();
+            } else if (value instanceof Boolean) {
+                bytes += 1;
+            } else if (value instanceof Integer) {
+                bytes += 4;
+            } else if (value != null) {
+                bytes += 8;
+            }
+        }
+        return bytes;
+    }
+
+    private void seed() {
+        if (!teamRepository.findByCourseId(COURSE_ID).isEmpty()) {
+            return;
+        }
+        for (int t = 0; t < TEAMS; t++) {
+            Team team = new Team("Equipo benchmark " + t, "Descripción del equipo de benchmark número " + t, null);
+            team.setCourseId(COURSE_ID);
+            team.setMaxMiembros(MEMBERS_PER_TEAM);
+            teamRepository.save(team);
+            for (int m = 0; m < MEMBERS_PER_TEAM; m++) {
+                User user = new User("miembro" + t + "." + m + "@udea.edu.co",
+                        "$2a$12$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW", UserRole.STUDENT);
+                user.setFirstName("Nombre" + m);
+                user.setLastName("Apellido" + t);
+                user.setTeamId(team.getId());
+                user.setCourseId(COURSE_ID);
+                userRepository.save(user);
+            }
+        }
+    }
+}
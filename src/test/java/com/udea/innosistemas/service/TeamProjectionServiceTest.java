@@ -0,0 +1,128 @@
+package com.udea.innosistemas.service;
+
+import com.udea.innosistemas.dto.TeamDTO;
+import com.udea.innosistemas.dto.TeamMember;
+import com.udea.innosistemas.entity.Team;
+import com.udea.innosistemas.entity.User;
+import com.udea.innosistemas.entity.UserRole;
+import com.udea.innosistemas.repository.TeamRepository;
+import com.udea.innosistemas.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de integración para TeamProjectionService: lectura de las columnas seleccionadas,
+ * agrupación de miembros por equipo y caché del plan por forma de la selección.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("TeamProjectionService - Proyección de columnas por selección GraphQL")
+class TeamProjectionServiceTest {
+
+    private static final long COURSE_ID = 4501L;
+
+    @Autowired
+    private TeamProjectionService teamProjectionService;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Team alpha;
+    private Team beta;
+
+    @BeforeEach
+    void setUp() {
+        if (teamRepository.findByCourseId(COURSE_ID).isEmpty()) {
+            alpha = saveTeam("Equipo Alfa");
+            beta = saveTeam("Equipo Beta");
+            saveUser("ana.proyeccion@udea.edu.co", "Ana", "Gómez", alpha);
+            saveUser("luis.proyeccion@udea.edu.co", null, null, alpha);
+            saveUser("eva.proyeccion@udea.edu.co", "Eva", "Ruiz", beta);
+        } else {
+            List<Team> teams = teamRepository.findByCourseId(COURSE_ID);
+            alpha = teams.get(0);
+            beta = teams.get(1);
+        }
+    }
+
+    private Team saveTeam(String nombre) {
+        Team team = new Team(nombre, "Descripción de " + nombre, null);
+        team.setCourseId(COURSE_ID);
+        team.setMaxMiembros(5);
+        return teamRepository.save(team);
+    }
+
+    private void saveUser(String email, String firstName, String lastName, Team team) {
+        User user = new User(email, "$2a$10$hashDePruebaQueNoDebeLeerse", UserRole.STUDENT);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setTeamId(team.getId());
+        user.setCourseId(COURSE_ID);
+        userRepository.save(user);
+    }
+
+    @Test
+    @DisplayName("Debe leer solo las columnas de los campos seleccionados")
+    void testOnlySelectedColumns() {
+        List<TeamMember> members = teamProjectionService.membersOf(alpha.getId(), Set.of("id", "fullName"));
+
+        assertEquals(2, members.size());
+        assertEquals("Ana Gómez", members.get(0).getFullName());
+        // Sin nombre y apellido, fullName es el email (misma regla que User#getFullName)
+        assertEquals("luis.proyeccion@udea.edu.co", members.get(1).getFullName());
+        assertNull(members.get(0).getRole());
+        assertNull(members.get(0).getCourseId());
+
+        TeamDTO team = teamProjectionService.teamById(alpha.getId(), Set.of("id", "nombre"), Set.of());
+        assertEquals("Equipo Alfa", team.getNombre());
+        assertNull(team.getDescripcion());
+        assertNull(team.getMaxMiembros());
+        assertTrue(team.getMiembros().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Debe agrupar los miembros de todos los equipos del curso")
+    void testMembersGroupedByTeam() {
+        List<TeamDTO> teams = teamProjectionService.teamsByCourse(COURSE_ID,
+                Set.of("id", "nombre", "maxMiembros", "miembros"), Set.of("email", "role"));
+
+        assertEquals(List.of(alpha.getId(), beta.getId()), teams.stream().map(TeamDTO::getId).toList());
+        assertEquals(5, teams.get(0).getMaxMiembros());
+        assertEquals(2, teams.get(0).getMiembros().size());
+        assertEquals(List.of("eva.proyeccion@udea.edu.co"),
+                teams.get(1).getMiembros().stream().map(TeamMember::getEmail).toList());
+        assertEquals(UserRole.STUDENT, teams.get(1).getMiembros().get(0).getRole());
+        // Resultados compartidos entre lecturas coalescidas: no modificables
+        assertThrows(UnsupportedOperationException.class, () -> teams.remove(0));
+        assertThrows(UnsupportedOperationException.class, () -> teams.get(0).getMiembros().clear());
+        assertNull(teamProjectionService.teamById(-1L, Set.of("id"), Set.of("id")));
+    }
+
+    @Test
+    @DisplayName("Debe reutilizar el plan para la misma forma de selección")
+    void testPlanCachedPerShape() {
+        teamProjectionService.membersOf(alpha.getId(), Set.of("id", "email", "__typename"));
+        int plans = teamProjectionService.planCount();
+
+        teamProjectionService.membersOf(beta.getId(), Set.of("email", "id"));
+        assertEquals(plans, teamProjectionService.planCount());
+
+        teamProjectionService.membersOf(beta.getId(), Set.of("email", "id", "lastName"));
+        assertEquals(plans + 1, teamProjectionService.planCount());
+    }
+}
@@ -0,0 +1,174 @@
+package com.udea.innosistemas.service;
+
+import com.udea.innosistemas.entity.Team;
+import com.udea.innosistemas.enums.TipoEvento;
+import com.udea.innosistemas.repository.TeamRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de integración para la caché de equipos de TeamService: invalidación por las escrituras de
+ * TeamService y por TeamEvent, y lecturas consistentes con escrituras concurrentes.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("TeamService - Caché de equipos invalidada por escrituras y eventos")
+class TeamServiceCacheTest {
+
+    private static final long COURSE_ID = 5001L;
+    private static final int READERS = 4;
+    private static final int WRITES = 30;
+
+    @Autowired
+    private TeamService teamService;
+
+    @Autowired
+    private TeamEventService teamEventService;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Team team;
+
+    @BeforeEach
+    void setUp() {
+        team = teamRepository.findByCourseId(COURSE_ID).stream().findFirst().orElseGet(() -> {
+            Team nuevo = new Team("Equipo v0", "Equipo de la caché", null);
+            nuevo.setCourseId(COURSE_ID);
+            nuevo.setMaxMiembros(4);
+            return teamService.crearTeam(nuevo);
+        });
+    }
+
+    private double localHits() {
+        return meterRegistry.get("innosistemas.team.cache").tag("result", "local").counter().count();
+    }
+
+    private double invalidations() {
+        return meterRegistry.get("innosistemas.team.cache.invalidations").counter().count();
+    }
+
+    private static Team cambios(String nombre) {
+        Team cambios = new Team();
+        cambios.setNombre(nombre);
+        return cambios;
+    }
+
+    @Test
+    @DisplayName("Debe servir desde la caché y reflejar las escrituras de TeamService al confirmarse")
+    void testWritePathsInvalidate() {
+        teamService.obtenerTeamPorId(team.getId());
+        double hits = localHits();
+        Team cached = teamService.obtenerTeamPorId(team.getId()).orElseThrow();
+        assertEquals(hits + 1, localHits());
+
+        teamService.actualizarTeam(team.getId(), cambios(cached.getNombre() + "*"));
+        assertEquals(cached.getNombre() + "*", teamService.obtenerTeamPorId(team.getId()).orElseThrow().getNombre());
+
+        LocalDateTime fechaLimite = LocalDateTime.now().plusDays(10).withNano(0);
+        teamService.actualizarFechaLimite(team.getId(), fechaLimite);
+        assertEquals(fechaLimite, teamService.obtenerTeamPorId(team.getId()).orElseThrow().getFechaLimite());
+
+        Team otro = new Team("Equipo temporal", "Se elimina en el test", null);
+        otro.setCourseId(COURSE_ID);
+        int activos = teamService.obtenerTeamsActivosPorCurso(COURSE_ID).size();
+        Team creado = teamService.crearTeam(otro);
+        assertEquals(activos + 1, teamService.obtenerTeamsActivosPorCurso(COURSE_ID).size());
+        teamService.eliminarTeam(creado.getId());
+        assertEquals(activos, teamService.obtenerTeamsActivosPorCurso(COURSE_ID).size());
+        assertTrue(teamService.obtenerTeamsPorCurso(COURSE_ID).stream()
+                .anyMatch(t -> t.getId().equals(creado.getId()) && !t.isActivo()));
+    }
+
+    @Test
+    @DisplayName("Debe invalidar con los TeamEvent que cambian el equipo y no con los de membresía")
+    void testTeamEventsInvalidate() {
+        teamService.obtenerTeamPorId(team.getId());
+
+        // Cambio hecho fuera de TeamService: solo el evento lo hace visible
+        Team row = teamRepository.findById(team.getId()).orElseThrow();
+        row.setDescripcion("Actualizada por otro servicio");
+        teamRepository.save(row);
+
+        double before = invalidations();
+        teamEventService.registrarEventoEquipo(team.getId(), TipoEvento.MIEMBRO_UNIDO, null, "Sin cambios en el equipo");
+        assertEquals(before, invalidations());
+        assertNotEquals("Actualizada por otro servicio",
+                teamService.obtenerTeamPorId(team.getId()).orElseThrow().getDescripcion());
+
+        teamEventService.registrarEventoEquipo(team.getId(), TipoEvento.EQUIPO_ACTUALIZADO, null, "Descripción");
+        assertEquals(before + 3, invalidations());
+        assertEquals("Actualizada por otro servicio",
+                teamService.obtenerTeamPorId(team.getId()).orElseThrow().getDescripcion());
+    }
+
+    @Test
+    @DisplayName("No debe devolver una versión anterior a la última escritura confirmada con lecturas concurrentes")
+    void testConsistentUnderConcurrentWrites() throws Exception {
+        teamService.actualizarTeam(team.getId(), cambios("Equipo v0"));
+        AtomicInteger committed = new AtomicInteger();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<String> violations = new ArrayList<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(READERS);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < READERS; r++) {
+                readers.add(executor.submit(() -> {
+                    while (writing.get()) {
+                        int minimum = committed.get();
+                        int byId = version(teamService.obtenerTeamPorId(team.getId()).orElseThrow());
+                        int inList = version(teamService.obtenerTeamsPorCurso(COURSE_ID).stream()
+                                .filter(t -> t.getId().equals(team.getId())).findFirst().orElseThrow());
+                        if (byId < minimum || inList < minimum) {
+                            synchronized (violations) {
+                                violations.add("mínimo v" + minimum + ", leído v" + byId + " / v" + inList);
+                            }
+                        }
+                    }
+                }));
+            }
+
+            for (int i = 1; i <= WRITES; i++) {
+                teamService.actualizarTeam(team.getId(), cambios("Equipo v" + i));
+                committed.set(i);
+                Thread.sleep(2);
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(violations.isEmpty(), violations::toString);
+        assertEquals("Equipo v" + WRITES, teamService.obtenerTeamPorId(team.getId()).orElseThrow().getNombre());
+    }
+
+    private static int version(Team team) {
+        return Integer.parseInt(team.getNombre().substring(team.getNombre().lastIndexOf('v') + 1));
+    }
+}
@@ -0,0 +1,76 @@
+package com.udea.innosistemas.store;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Suite de conformidad sobre el almacén en memoria, más la expiración activa con la rueda de temporización.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@DisplayName("InMemoryKeyValueStore - Almacén clave-valor en memoria")
+class InMemoryKeyValueStoreTest extends KeyValueStoreContractTest {
+
+    private InMemoryKeyValueStore memoryStore;
+
+    @Override
+    protected KeyValueStore createStore() {
+        memoryStore = newStore(16, 10);
+        return memoryStore;
+    }
+
+    static InMemoryKeyValueStore newStore(int stripes, long tickMillis) {
+        InMemoryKeyValueStore store = new InMemoryKeyValueStore();
+        ReflectionTestUtils.setField(store, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(store, "stripeCount", stripes);
+        ReflectionTestUtils.setField(store, "tickMillis", tickMillis);
+        store.init();
+        return store;
+    }
+
+    @AfterEach
+    void tearDown() {
+        memoryStore.shutdown();
+    }
+
+    @Test
+    @DisplayName("Debe eliminar las claves expiradas aunque nadie las vuelva a leer")
+    void testExpiredKeysAreSwept() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            store.set(prefix + i, "v", 30 + i);
+        }
+        store.set(prefix + "kept", "v", 60_000);
+        // Reescribir con un TTL mayor deja obsoleta la entrada de la rueda: no debe eliminarse
+        store.set(prefix + "0", "v", 60_000);
+
+        Thread.sleep(300);
+
+        assertEquals(2, memoryStore.size());
+        assertEquals("v", store.get(prefix + "0"));
+    }
+
+    @Test
+    @DisplayName("La rueda debe vencer cada expiración en su tick, incluidas las de niveles superiores")
+    void testTimingWheelCascades() {
+        TimingWheel wheel = new TimingWheel(1, 0);
+        wheel.schedule("a", 5);
+        wheel.schedule("b", 64 * 64 + 7);
+        wheel.schedule("c", 64L * 64 * 64 * 64 * 3);
+
+        assertEquals(List.of(), wheel.advance(4));
+        assertEquals(List.of("a"), wheel.advance(5));
+        assertEquals(List.of(), wheel.advance(64 * 64 + 6));
+        assertEquals(List.of("b"), wheel.advance(64 * 64 + 7));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("c"), wheel.advance(64L * 64 * 64 * 64 * 3));
+        assertEquals(0, wheel.size());
+    }
+}
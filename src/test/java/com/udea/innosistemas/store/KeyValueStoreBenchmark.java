@@ -0,0 +1,92 @@
+package com.udea.innosistemas.store;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Benchmark de las dos implementaciones de {@link KeyValueStore} con la mezcla de operaciones de la
+ * blacklist y la guardia de login (lecturas de existencia, escrituras con TTL e incrementos) desde varios hilos.
+ * El almacén Redis se omite si no hay un Redis local.
+ * No se ejecuta con la suite normal (Surefire solo incluye *Test); ejecutar con:
+ * {@code mvn test -Dtest=KeyValueStoreBenchmark}
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+class KeyValueStoreBenchmark {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 20_000;
+    private static final int KEYS = 10_000;
+
+    @Test
+    void mixedWorkload() throws Exception {
+        System.out.printf("%-10s %12s %12s%n", "almacén", "ops/s", "total ms");
+
+        InMemoryKeyValueStore memory = InMemoryKeyValueStoreTest.newStore(64, 100);
+        try {
+            run("memory", memory);
+        } finally {
+            memory.shutdown();
+        }
+
+        JedisConnectionFactory factory = RedisKeyValueStoreTest.newConnectionFactory();
+        try {
+            if (RedisKeyValueStoreTest.isReachable(factory)) {
+                RedisKeyValueStore redis = RedisKeyValueStoreTest.newStore(factory);
+                run("redis", redis);
+                redis.scan("kv-bench:*", redis::deleteAll);
+            } else {
+                System.out.printf("%-10s %12s%n", "redis", "omitido");
+            }
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    private void run(String name, KeyValueStore store) throws Exception {
+        Map<String, String> seed = new HashMap<>();
+        for (int i = 0; i < KEYS; i += 2) {
+            seed.put("kv-bench:token:" + i, "1");
+        }
+        store.setAll(seed, 60_000);
+
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(threads.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    int key = random.nextInt(KEYS);
+                    int operation = random.nextInt(10);
+                    if (operation < 7) {
+                        store.exists("kv-bench:token:" + key);
+                    } else if (operation < 9) {
+                        store.set("kv-bench:token:" + key, "1", 60_000);
+                    } else {
+                        store.increment("kv-bench:counter:" + key, 1, 60_000);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        threads.shutdown();
+
+        long operations = (long) THREADS * OPERATIONS_PER_THREAD;
+        System.out.printf("%-10s %12.0f %12d%n", name,
+                operations * 1e9 / elapsedNanos, elapsedNanos / 1_000_000);
+    }
+}
@@ -0,0 +1,196 @@
+package com.udea.innosistemas.store;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Suite de conformidad de {@link KeyValueStore}: cada implementación la hereda y debe comportarse igual.
+ * Las claves de cada test llevan un prefijo único para no interferir con datos existentes en Redis.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+abstract class KeyValueStoreContractTest {
+
+    protected KeyValueStore store;
+    protected String prefix;
+
+    protected abstract KeyValueStore createStore();
+
+    @BeforeEach
+    void setUpStore() {
+        store = createStore();
+        prefix = "kv-test:" + UUID.randomUUID() + ":";
+    }
+
+    @Test
+    @DisplayName("Debe leer, escribir y expirar valores según su TTL")
+    void testValuesExpire() throws InterruptedException {
+        store.set(prefix + "short", "a", 100);
+        store.set(prefix + "persistent", "b", 0);
+
+        assertEquals("a", store.get(prefix + "short"));
+        long ttl = store.ttl(prefix + "short");
+        assertTrue(ttl > 0 && ttl <= 100, "ttl=" + ttl);
+        assertEquals(KeyValueStore.NO_EXPIRY, store.ttl(prefix + "persistent"));
+        assertEquals(KeyValueStore.MISSING, store.ttl(prefix + "missing"));
+
+        Thread.sleep(250);
+
+        assertNull(store.get(prefix + "short"));
+        assertFalse(store.exists(prefix + "short"));
+        assertEquals("b", store.get(prefix + "persistent"));
+
+        assertTrue(store.expire(prefix + "persistent", 60_000));
+        assertTrue(store.ttl(prefix + "persistent") > 0);
+        assertTrue(store.expire(prefix + "persistent", 0));
+        assertEquals(KeyValueStore.NO_EXPIRY, store.ttl(prefix + "persistent"));
+        assertFalse(store.expire(prefix + "missing", 1_000));
+    }
+
+    @Test
+    @DisplayName("Debe soportar escrituras condicionales, lotes y borrados")
+    void testBatchesAndConditionalWrites() {
+        assertTrue(store.setIfAbsent(prefix + "lock", "owner-1", 60_000));
+        assertFalse(store.setIfAbsent(prefix + "lock", "owner-2", 60_000));
+        assertEquals("owner-1", store.get(prefix + "lock"));
+
+        store.setAll(Map.of(prefix + "a", "1", prefix + "b", "2"), 60_000);
+        assertEquals(Map.of(prefix + "a", "1", prefix + "b", "2"),
+                store.getAll(List.of(prefix + "a", prefix + "b", prefix + "missing")));
+
+        assertTrue(store.delete(prefix + "lock"));
+        assertFalse(store.delete(prefix + "lock"));
+        assertEquals(2, store.deleteAll(List.of(prefix + "a", prefix + "b", prefix + "missing")));
+        assertTrue(store.getAll(List.of(prefix + "a", prefix + "b")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Los contadores deben conservar la expiración del primer incremento")
+    void testCounters() {
+        assertEquals(1, store.increment(prefix + "counter", 1, 60_000));
+        assertEquals(6, store.increment(prefix + "counter", 5, 60_000));
+        store.expire(prefix + "counter", 5_000);
+        assertEquals(4, store.increment(prefix + "counter", -2, 60_000));
+        assertTrue(store.ttl(prefix + "counter") <= 5_000);
+
+        assertEquals(3, store.increment(prefix + "persistent", 3, 0));
+        assertEquals(KeyValueStore.NO_EXPIRY, store.ttl(prefix + "persistent"));
+    }
+
+    @Test
+    @DisplayName("Debe soportar conjuntos y rechazar operaciones sobre otro tipo")
+    void testSets() {
+        assertEquals(2, store.setAdd(prefix + "set", "x", "y"));
+        assertEquals(1, store.setAdd(prefix + "set", "y", "z"));
+        assertTrue(store.setContains(prefix + "set", "x"));
+        assertEquals(Set.of("x", "y", "z"), store.setMembers(prefix + "set"));
+
+        assertTrue(store.setRemove(prefix + "set", "x"));
+        assertFalse(store.setRemove(prefix + "set", "x"));
+        store.setRemove(prefix + "set", "y");
+        store.setRemove(prefix + "set", "z");
+        assertFalse(store.exists(prefix + "set"));
+        assertEquals(Set.of(), store.setMembers(prefix + "set"));
+
+        store.set(prefix + "value", "v", 60_000);
+        assertThrows(RuntimeException.class, () -> store.setAdd(prefix + "value", "m"));
+    }
+
+    @Test
+    @DisplayName("Debe soportar conjuntos ordenados por score y compare-and-set")
+    void testSortedSetsAndCompareAndSet() {
+        String key = prefix + "zset";
+        assertEquals(1, store.sortedSetPut(key, "a", 10, 0, 60_000));
+        assertEquals(2, store.sortedSetPut(key, "b", 30, 0, 0));
+        store.sortedSetAdd(key, "c", 20);
+        assertTrue(store.ttl(key) > 0);
+
+        assertEquals(List.of("a", "c", "b"), List.copyOf(store.sortedSetRange(key, 0, 100)));
+        assertEquals(2, store.sortedSetCount(key, 11, 30));
+        assertEquals(30.0, store.sortedSetScore(key, "b"));
+        assertNull(store.sortedSetScore(key, "missing"));
+
+        // El alta purga los miembros con score menor o igual al indicado
+        assertEquals(2, store.sortedSetPut(key, "d", 40, 20, 60_000));
+        assertEquals(Set.of("b", "d"), store.sortedSetRange(key, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY));
+        assertTrue(store.sortedSetRemove(key, "b"));
+        assertFalse(store.sortedSetRemove(key, "b"));
+        assertEquals(1, store.sortedSetRemoveByScore(key, Double.NEGATIVE_INFINITY, 40));
+        assertFalse(store.exists(key));
+
+        store.set(prefix + "cas", "v1", 60_000);
+        assertTrue(store.compareAndSet(prefix + "cas", "v1", "v2", 60_000));
+        assertFalse(store.compareAndSet(prefix + "cas", "v1", "v3", 60_000));
+        assertFalse(store.compareAndSet(prefix + "missing", "v1", "v2", 60_000));
+        assertEquals("v2", store.get(prefix + "cas"));
+        assertThrows(RuntimeException.class, () -> store.sortedSetAdd(prefix + "cas", "m", 1));
+        store.delete(prefix + "cas");
+    }
+
+    @Test
+    @DisplayName("Debe mantener índices de miembros con valores y su propietario en el índice global")
+    void testMemberIndex() {
+        long now = System.currentTimeMillis();
+        KeyValueStore.MemberIndex index = new KeyValueStore.MemberIndex(
+                prefix + "{u}:index", prefix + "{u}:values", prefix + "owners", "u");
+
+        assertEquals(1, store.indexPut(index, "a", now + 60_000, "v1", now + 120_000, now));
+        assertEquals(now + 120_000, store.sortedSetScore(prefix + "owners", "u"));
+        assertEquals(2, store.indexPut(index, "b", now + 60_000, null, 0, now));
+        assertTrue(store.ttl(index.valuesKey()) > 60_000);
+
+        // Un valor vencido se descarta y su miembro deja de renovarse
+        store.indexPut(index, "c", now + 60_000, "v1", now + 10, now);
+        assertEquals(KeyValueStore.MISSING, store.indexSwap(index, "c", "v1", "v2", 30_000, now + 20));
+        assertNull(store.sortedSetScore(index.key(), "c"));
+
+        // Solo el valor vigente rota; presentar uno anterior elimina el miembro y su valor
+        assertEquals(now + 120_000, store.indexSwap(index, "a", "v1", "v2", 30_000, now));
+        assertEquals(now + 30_000, store.sortedSetScore(index.key(), "a"));
+        assertEquals(KeyValueStore.MISMATCH, store.indexSwap(index, "a", "v1", "v3", 30_000, now));
+        assertNull(store.sortedSetScore(index.key(), "a"));
+        assertEquals(KeyValueStore.MISSING, store.indexSwap(index, "a", "v2", "v3", 30_000, now));
+        assertEquals(KeyValueStore.MISSING, store.indexSwap(index, "b", "v1", "v2", 30_000, now));
+
+        assertTrue(store.indexRemove(index, "b", now));
+        assertFalse(store.indexRemove(index, "b", now));
+        assertFalse(store.exists(index.key()));
+        assertNull(store.sortedSetScore(prefix + "owners", "u"));
+
+        store.indexPut(index, "d", now + 60_000, "v1", now + 120_000, now);
+        store.indexPut(index, "e", now - 1, null, 0, now - 2);
+        assertEquals(1, store.indexClear(index, now));
+        assertFalse(store.exists(index.key()));
+        assertFalse(store.exists(index.valuesKey()));
+        assertFalse(store.exists(prefix + "owners"));
+    }
+
+    @Test
+    @DisplayName("Debe recorrer solo las claves que coinciden con el patrón")
+    void testScan() {
+        for (int i = 0; i < 1_200; i++) {
+            store.set(prefix + "scan:" + i, "v", 60_000);
+        }
+        store.set(prefix + "other", "v", 60_000);
+
+        List<String> seen = new ArrayList<>();
+        store.scan(prefix + "scan:*", batch -> {
+            assertFalse(batch.isEmpty());
+            seen.addAll(batch);
+        });
+
+        assertEquals(1_200, Set.copyOf(seen).size());
+        assertTrue(seen.stream().allMatch(key -> key.startsWith(prefix + "scan:")));
+        store.scan(prefix + "*", store::deleteAll);
+    }
+}
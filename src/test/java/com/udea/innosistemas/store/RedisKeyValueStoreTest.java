@@ -0,0 +1,80 @@
+package com.udea.innosistemas.store;
+
+import com.udea.innosistemas.service.RedisPipelineService;
+import com.udea.innosistemas.service.RedisScanJobService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Suite de conformidad sobre Redis. Requiere un Redis local (REDIS_HOST/REDIS_PORT, por defecto
+ * localhost:6379); si no está disponible los tests se omiten.
+ *
+ * Autor: Fábrica-Escuela de Software UdeA
+ * Versión: 1.0.0
+ */
+@DisplayName("RedisKeyValueStore - Almacén clave-valor sobre Redis")
+class RedisKeyValueStoreTest extends KeyValueStoreContractTest {
+
+    private JedisConnectionFactory connectionFactory;
+
+    @Override
+    protected KeyValueStore createStore() {
+        connectionFactory = newConnectionFactory();
+        Assumptions.assumeTrue(isReachable(connectionFactory), "Redis not available");
+        return newStore(connectionFactory);
+    }
+
+    static JedisConnectionFactory newConnectionFactory() {
+        String host = System.getenv().getOrDefault("REDIS_HOST", "localhost");
+        int port = Integer.parseInt(System.getenv().getOrDefault("REDIS_PORT", "6379"));
+        JedisConnectionFactory factory = new JedisConnectionFactory(new RedisStandaloneConfiguration(host, port));
+        factory.afterPropertiesSet();
+        return factory;
+    }
+
+    static boolean isReachable(JedisConnectionFactory factory) {
+        try (var connection = factory.getConnection()) {
+            return connection.ping() != null;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    static RedisKeyValueStore newStore(JedisConnectionFactory factory) {
+        RedisTemplate<String, String> template = new RedisTemplate<>();
+        template.setConnectionFactory(factory);
+        template.setDefaultSerializer(new StringRedisSerializer());
+        template.afterPropertiesSet();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RedisPipelineService pipelineService = new RedisPipelineService();
+        ReflectionTestUtils.setField(pipelineService, "redisTemplate", template);
+        ReflectionTestUtils.setField(pipelineService, "meterRegistry", meterRegistry);
+        pipelineService.init();
+        RedisScanJobService scanJobService = new RedisScanJobService();
+        ReflectionTestUtils.setField(scanJobService, "redisTemplate", template);
+        ReflectionTestUtils.setField(scanJobService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(scanJobService, "scanBatchSize", 500);
+        ReflectionTestUtils.setField(scanJobService, "maxWritesPerSecond", 1_000L);
+
+        RedisKeyValueStore store = new RedisKeyValueStore();
+        ReflectionTestUtils.setField(store, "redisTemplate", template);
+        ReflectionTestUtils.setField(store, "redisPipelineService", pipelineService);
+        ReflectionTestUtils.setField(store, "redisScanJobService", scanJobService);
+        return store;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+}